@@ -0,0 +1,88 @@
+package ed.inf.adbs.lightdb.benchmark;
+
+import ed.inf.adbs.lightdb.storage.DataGenerator;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Database of the sample schema scaled to a given number of rows, generated by the DataGenerator
+ * in a temporary directory with a fixed seed, so every benchmark run reads the same data.
+ * Sailors and Boats have the keys 1 to rows in their first column and values uniform in [1, 1000],
+ * Reserves has twice as many rows, both columns uniform on the keys.
+ *
+ * ClassName: BenchmarkDatabase
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public final class BenchmarkDatabase {
+    private static final long SEED = 42;
+    private static final int VALUE_RANGE = 1000;
+
+    private BenchmarkDatabase() { }
+
+    /**
+     * Write the database and init the catalog on it.
+     *
+     * @param rows number of Sailors rows
+     * @param binary true to write the tables in the binary format
+     * @return database directory
+     * @throws IOException if the database cannot be written
+     */
+    public static File create(int rows, boolean binary) throws IOException {
+        File dbDir = Files.createTempDirectory("lightdb-bench").toFile();
+        File dataDir = new File(dbDir, "data");
+        if (!dataDir.mkdir()) {
+            throw new IOException("Cannot create " + dataDir);
+        }
+        try (PrintWriter schema = new PrintWriter(new File(dbDir, "schema.txt"))) {
+            schema.println("Sailors A B C");
+            schema.println("Boats D E F");
+            schema.println("Reserves G H");
+        }
+
+        Map<String, String> options = new HashMap<>();
+        options.put("rows", String.valueOf(rows));
+        options.put("seed", String.valueOf(SEED));
+        options.put("format", binary ? "binary" : "csv");
+        options.put("Sailors.B", "uniform:" + VALUE_RANGE);
+        options.put("Sailors.C", "uniform:" + VALUE_RANGE);
+        options.put("Boats.E", "uniform:" + VALUE_RANGE);
+        options.put("Boats.F", "uniform:" + VALUE_RANGE);
+        options.put("Reserves.rows", String.valueOf(2 * rows));
+        options.put("Reserves.G", "uniform:" + rows);
+        options.put("Reserves.H", "uniform:" + rows);
+
+        DBCatalog.getInstance().init(dbDir.getPath());
+        DataGenerator generator = new DataGenerator(options);
+        for (String table : DBCatalog.getInstance().getTableToSchema().keySet()) {
+            generator.generate(table);
+        }
+        DBCatalog.getInstance().init(dbDir.getPath()); // drop the pages of the replaced files
+        return dbDir;
+    }
+
+    /**
+     * Delete the database directory.
+     *
+     * @param dbDir database directory
+     */
+    public static void delete(File dbDir) {
+        File[] files = dbDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    delete(file);
+                } else {
+                    file.delete();
+                }
+            }
+        }
+        dbDir.delete();
+    }
+}
@@ -0,0 +1,41 @@
+package ed.inf.adbs.lightdb.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmark jar: runs the JMH benchmarks with the usual JMH command line options,
+ * e.g. a benchmark name pattern or -p rows=1000, and writes the results as JSON to
+ * jmh-result.json unless another result file or format is given with -rff or -rf.
+ * Two JSON results are compared run against run to spot regressions.
+ *
+ * ClassName: BenchmarkRunner
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class BenchmarkRunner {
+    private static final String RESULT_FILE = "jmh-result.json";
+
+    public static void main(String[] args) {
+        try {
+            CommandLineOptions commandLine = new CommandLineOptions(args);
+            OptionsBuilder builder = new OptionsBuilder();
+            if (!commandLine.getResultFormat().hasValue()) {
+                builder.resultFormat(ResultFormatType.JSON);
+            }
+            if (!commandLine.getResult().hasValue()) {
+                builder.result(RESULT_FILE);
+            }
+            Options options = builder.parent(commandLine).build();
+            new Runner(options).run();
+        } catch (CommandLineOptionException | RunnerException e) {
+            System.err.println("Exception occurred when running the benchmarks.");
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package ed.inf.adbs.lightdb.benchmark;
+
+import ed.inf.adbs.lightdb.models.Batch;
+import ed.inf.adbs.lightdb.operators.BlockNestedLoopJoinOperator;
+import ed.inf.adbs.lightdb.operators.HashJoinOperator;
+import ed.inf.adbs.lightdb.operators.JoinOperator;
+import ed.inf.adbs.lightdb.operators.Operator;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of the equi-join Sailors.A = Reserves.G at several input sizes, Reserves has twice the rows
+ * of Sailors, with the tuple nested loop join, the block nested loop join and the hash join,
+ * to see where the nested loop joins stop scaling.
+ *
+ * ClassName: JoinBenchmark
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JoinBenchmark {
+    private static final int[] SAILORS_KEY = {0}; // Sailors.A
+    private static final int[] RESERVES_KEY = {0}; // Reserves.G
+
+    @Param({"100", "1000", "5000"})
+    public int rows;
+
+    @Param({"csv", "binary"})
+    public String format;
+
+    private File dbDir;
+    private Expression joinCondition;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, JSQLParserException {
+        dbDir = BenchmarkDatabase.create(rows, "binary".equals(format));
+        joinCondition = CCJSqlParserUtil.parseCondExpression("Sailors.A = Reserves.G");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkDatabase.delete(dbDir);
+    }
+
+    @Benchmark
+    public void tupleNestedLoopJoin(Blackhole blackhole) {
+        drain(new JoinOperator(joinCondition, scan("Sailors"), scan("Reserves")), blackhole);
+    }
+
+    @Benchmark
+    public void blockNestedLoopJoin(Blackhole blackhole) {
+        int blockPages = DBCatalog.getInstance().getIntSetting("joinBufferPages", 16);
+        int blockSize = blockPages * DBCatalog.PAGE_SIZE / (Integer.BYTES * 3); // Sailors tuples per block
+        drain(new BlockNestedLoopJoinOperator(joinCondition, blockSize, scan("Sailors"), scan("Reserves")), blackhole);
+    }
+
+    @Benchmark
+    public void hashJoin(Blackhole blackhole) {
+        drain(new HashJoinOperator(SAILORS_KEY, RESERVES_KEY, null, scan("Sailors"), scan("Reserves")), blackhole);
+    }
+
+    /**
+     * Scan of the table, binary if converted.
+     *
+     * @param table table name
+     * @return scan operator
+     */
+    private static Operator scan(String table) {
+        return DBCatalog.getInstance().generateScanOperator(table);
+    }
+
+    /**
+     * Read the join batch by batch to the end and close it.
+     *
+     * @param operator join operator
+     * @param blackhole sink of the rows
+     */
+    private static void drain(Operator operator, Blackhole blackhole) {
+        Batch batch;
+        while ((batch = operator.getNextBatch()) != null) {
+            blackhole.consume(batch.getCount());
+        }
+        operator.close();
+    }
+}
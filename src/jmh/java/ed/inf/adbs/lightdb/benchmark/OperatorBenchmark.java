@@ -0,0 +1,131 @@
+package ed.inf.adbs.lightdb.benchmark;
+
+import ed.inf.adbs.lightdb.models.Batch;
+import ed.inf.adbs.lightdb.models.Schema;
+import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.operators.DuplicateEliminationOperator;
+import ed.inf.adbs.lightdb.operators.Operator;
+import ed.inf.adbs.lightdb.operators.ProjectOperator;
+import ed.inf.adbs.lightdb.operators.SelectOperator;
+import ed.inf.adbs.lightdb.operators.SortOperator;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the single-table operators on the Sailors table, each benchmark builds the operator
+ * tree on a new scan and reads it to the end, batch by batch or tuple by tuple as the executionMode setting does.
+ * The table stays in the buffer pool between invocations, so the scans measure parsing and decoding, not the disk.
+ *
+ * ClassName: OperatorBenchmark
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OperatorBenchmark {
+    private static final Schema SAILORS_B = new Schema(Collections.singletonList("Sailors.B"));
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"csv", "binary"})
+    public String format;
+
+    @Param({"batch", "tuple"})
+    public String executionMode;
+
+    private File dbDir;
+    private Expression selectCondition;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, JSQLParserException {
+        dbDir = BenchmarkDatabase.create(rows, "binary".equals(format));
+        selectCondition = CCJSqlParserUtil.parseCondExpression("Sailors.B < 500 AND Sailors.C >= 100");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkDatabase.delete(dbDir);
+    }
+
+    @Benchmark
+    public void scan(Blackhole blackhole) {
+        drain(scanSailors(), blackhole);
+    }
+
+    @Benchmark
+    public void select(Blackhole blackhole) {
+        drain(new SelectOperator(selectCondition, scanSailors()), blackhole);
+    }
+
+    @Benchmark
+    public void sort(Blackhole blackhole) {
+        drain(new SortOperator(new int[] {1, 2}, scanSailors()), blackhole); // Sailors.B, Sailors.C
+    }
+
+    @Benchmark
+    public void distinct(Blackhole blackhole) {
+        drain(new DuplicateEliminationOperator(new ProjectOperator(SAILORS_B, scanSailors())), blackhole);
+    }
+
+    @Benchmark
+    public void sortedDistinct(Blackhole blackhole) {
+        Operator project = new ProjectOperator(SAILORS_B, scanSailors());
+        drain(new DuplicateEliminationOperator(new SortOperator(new int[] {0}, project), true), blackhole);
+    }
+
+    /**
+     * Scan of the Sailors table, binary if converted.
+     *
+     * @return scan operator
+     */
+    private static Operator scanSailors() {
+        return DBCatalog.getInstance().generateScanOperator("Sailors");
+    }
+
+    /**
+     * Read the operator to the end and close it.
+     *
+     * @param operator root operator
+     * @param blackhole sink of the rows
+     */
+    private void drain(Operator operator, Blackhole blackhole) {
+        if ("tuple".equals(executionMode)) {
+            Tuple tuple;
+            while ((tuple = operator.getNextTuple()) != null) {
+                blackhole.consume(tuple);
+            }
+        } else {
+            Batch batch;
+            while ((batch = operator.getNextBatch()) != null) {
+                blackhole.consume(batch.getCount());
+            }
+        }
+        operator.close();
+    }
+}
@@ -0,0 +1,114 @@
+package ed.inf.adbs.lightdb.benchmark;
+
+import ed.inf.adbs.lightdb.tools.PreparedQuery;
+import net.sf.jsqlparser.JSQLParserException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end time of the sample queries of samples/input on the sample schema scaled to the given
+ * number of rows: parse, plan, execute and format the result rows, which are counted and discarded.
+ * The planned variant runs a plan prepared once, as a cached plan of the server does.
+ * Run from the project directory, the queries are read from samples/input.
+ *
+ * ClassName: QueryBenchmark
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryBenchmark {
+    @Param({"query1", "query2", "query3", "query4", "query5", "query6", "query7", "query8"})
+    public String query;
+
+    @Param({"1000", "10000"})
+    public int rows;
+
+    @Param({"csv", "binary"})
+    public String format;
+
+    private File dbDir;
+    private String sql;
+    private PreparedQuery prepared;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, JSQLParserException {
+        dbDir = BenchmarkDatabase.create(rows, "binary".equals(format));
+        sql = new String(Files.readAllBytes(Paths.get("samples", "input", query + ".sql")), StandardCharsets.UTF_8);
+        prepared = new PreparedQuery(sql);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkDatabase.delete(dbDir);
+    }
+
+    @Benchmark
+    public long prepareAndRun() throws JSQLParserException {
+        return run(new PreparedQuery(sql));
+    }
+
+    @Benchmark
+    public long planned() {
+        return run(prepared);
+    }
+
+    /**
+     * Run the query and count the bytes of the result rows.
+     *
+     * @param query prepared query
+     * @return size of the result in bytes, returned so the run is not eliminated
+     */
+    private static long run(PreparedQuery query) {
+        CountingChannel channel = new CountingChannel();
+        query.execute(channel);
+        return channel.size;
+    }
+
+    /**
+     * Channel discarding the result rows, only their size is kept.
+     */
+    private static final class CountingChannel implements WritableByteChannel {
+        private long size;
+
+        @Override
+        public int write(ByteBuffer src) {
+            int length = src.remaining();
+            src.position(src.limit());
+            size += length;
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() { }
+    }
+}
@@ -1,9 +1,30 @@
 package ed.inf.adbs.lightdb;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import ed.inf.adbs.lightdb.metrics.QueryMetrics;
+import ed.inf.adbs.lightdb.storage.StatisticsAnalyzer;
 import ed.inf.adbs.lightdb.tools.DBCatalog;
-import ed.inf.adbs.lightdb.tools.QueryInterpreter;
+import ed.inf.adbs.lightdb.tools.PlanCache;
+import ed.inf.adbs.lightdb.tools.PreparedQuery;
 import net.sf.jsqlparser.parser.CCJSqlParserUtil;
 import net.sf.jsqlparser.statement.Statement;
 import net.sf.jsqlparser.statement.select.Select;
@@ -12,10 +33,19 @@ import net.sf.jsqlparser.statement.select.Select;
  * Lightweight in-memory database system
  */
 public class LightDB {
+	// ANALYZE [table, ...], not supported by the parser
+	private static final Pattern ANALYZE_PATTERN =
+			Pattern.compile("\\s*ANALYZE(\\s+[\\w\\s,]*?)?\\s*;?\\s*", Pattern.CASE_INSENSITIVE);
+
+	// EXPLAIN [ANALYZE] query, the plan instead of the result rows
+	private static final Pattern EXPLAIN_PATTERN =
+			Pattern.compile("\\s*EXPLAIN\\s+(ANALYZE\\s+)?(.*)", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
 	public static void main(String[] args) {
 
-		if (args.length != 3) {
-			System.err.println("Usage: LightDB database_dir input_file output_file");
+		if (args.length < 3) {
+			System.err.println("Usage: LightDB database_dir input_file output_file [setting=value ...]");
+			System.err.println("       LightDB database_dir input_dir output_dir [setting=value ...]");
 			return;
 		}
 
@@ -23,34 +53,341 @@ public class LightDB {
 		String inputFile = args[1];
 		String outputFile = args[2];
 
-		parseQuery(databaseDir, inputFile, outputFile);
+		// settings given on command line override the ones in config file
+		Map<String, String> settings = parseSettings(Arrays.asList(args).subList(3, args.length));
+
+		// a directory of queries runs in batch mode
+		if (new File(inputFile).isDirectory()) {
+			parseQueries(databaseDir, inputFile, outputFile, settings);
+		} else {
+			parseQuery(databaseDir, inputFile, outputFile, settings);
+		}
 	}
 
 	/**
-	 * Parse and execute the query.
+	 * Parse and execute the query with the settings from config file only.
 	 *
 	 * @param databaseDir database directory
 	 * @param inputFile input file name
 	 * @param outputFile output file name
 	 */
 	public static void parseQuery(String databaseDir, String inputFile, String outputFile) {
-		try {
-			// first init the database catalog
-			DBCatalog.getInstance().init(databaseDir);
+		parseQuery(databaseDir, inputFile, outputFile, Collections.emptyMap());
+	}
 
-			Statement statement = CCJSqlParserUtil.parse(new FileReader(inputFile));
-			if (statement != null) {
-				System.out.println("Read statement: " + statement);
+	/**
+	 * Parse and execute the query.
+	 *
+	 * @param databaseDir database directory
+	 * @param inputFile input file name
+	 * @param outputFile output file name
+	 * @param settings settings overriding the config file
+	 */
+	public static void parseQuery(String databaseDir, String inputFile, String outputFile, Map<String, String> settings) {
+		// first init the database catalog
+		initCatalog(databaseDir, settings);
+		QueryMetrics.startExport();
+		executeQuery(inputFile, outputFile);
+		QueryMetrics.stopExport();
+		System.out.println(DBCatalog.getInstance().getBufferPool().getStatistics());
+	}
+
+	/**
+	 * Parse and execute every .sql file of the input directory concurrently, on queryThreads threads
+	 * (default the number of processors), each query writes the .csv file of the same name in the
+	 * output directory. The catalog and the buffer pool are shared by the queries, then the total
+	 * throughput and the buffer pool counters are reported.
+	 *
+	 * @param databaseDir database directory
+	 * @param inputDir input directory of .sql files
+	 * @param outputDir output directory, created if missing
+	 * @param settings settings overriding the config file
+	 */
+	public static void parseQueries(String databaseDir, String inputDir, String outputDir, Map<String, String> settings) {
+		initCatalog(databaseDir, settings);
 
-				// init the query interpreter
-				QueryInterpreter se = new QueryInterpreter(statement);
-				// output the result to file
-				se.output(new PrintStream(outputFile));
+		File[] inputs = new File(inputDir).listFiles((dir, name) -> name.endsWith(".sql"));
+		if (inputs == null || inputs.length == 0) {
+			System.err.println("No .sql files in " + inputDir);
+			return;
+		}
+		Arrays.sort(inputs);
+		new File(outputDir).mkdirs();
+		QueryMetrics.startExport();
+
+		int threads = DBCatalog.getInstance().getIntSetting("queryThreads", Runtime.getRuntime().availableProcessors());
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(threads, 1));
+		long start = System.nanoTime();
+		List<Future<Boolean>> results = new ArrayList<>();
+		for (File input : inputs) {
+			String outputFile = new File(outputDir, input.getName().replaceAll("\\.sql$", ".csv")).getPath();
+			results.add(executor.submit(() -> executeQuery(input.getPath(), outputFile)));
+		}
+
+		int failed = 0;
+		for (Future<Boolean> result : results) {
+			try {
+				if (!result.get()) {
+					failed++;
+				}
+			} catch (InterruptedException | ExecutionException e) {
+				System.err.println("Exception occurred when waiting for a query.");
+				e.printStackTrace();
+				failed++;
 			}
+		}
+		executor.shutdown();
+		QueryMetrics.stopExport();
+
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("Ran %d queries (%d failed) on %d threads in %.3f s, %.2f queries/s%n",
+				inputs.length, failed, threads, seconds, inputs.length / seconds);
+		System.out.println(DBCatalog.getInstance().getBufferPool().getStatistics());
+		System.out.println(PlanCache.getInstance().getStatistics());
+	}
+
+	/**
+	 * Parse the name=value settings of the command line.
+	 *
+	 * @param args command line arguments
+	 * @return setting name -> value, in order
+	 */
+	static Map<String, String> parseSettings(List<String> args) {
+		Map<String, String> settings = new LinkedHashMap<>();
+		for (String arg : args) {
+			String[] tokens = arg.split("=", 2);
+			if (tokens.length != 2) {
+				System.err.println("Ignored setting without value: " + arg);
+				continue;
+			}
+			settings.put(tokens[0], tokens[1]);
+		}
+		return settings;
+	}
+
+	/**
+	 * Initialise the database catalog and apply the settings.
+	 *
+	 * @param databaseDir database directory
+	 * @param settings settings overriding the config file
+	 */
+	static void initCatalog(String databaseDir, Map<String, String> settings) {
+		DBCatalog.getInstance().init(databaseDir);
+		for (Map.Entry<String, String> setting : settings.entrySet()) {
+			DBCatalog.getInstance().setSetting(setting.getKey(), setting.getValue());
+		}
+	}
+
+	/**
+	 * Parse and execute one query on the initialised catalog.
+	 *
+	 * @param inputFile input file name
+	 * @param outputFile output file name
+	 * @return true if the query ran without exception
+	 */
+	public static boolean executeQuery(String inputFile, String outputFile) {
+		try {
+			String sql = new String(Files.readAllBytes(Paths.get(inputFile)), StandardCharsets.UTF_8);
+			List<long[]> bindings = readParameters(inputFile);
+
+			// output the result to file, streamed as the rows are produced
+			try (FileChannel channel = new FileOutputStream(outputFile).getChannel()) {
+				executeStatement(sql, bindings, channel);
+			}
+			return true;
 		} catch (Exception e) {
 			System.err.println("Exception occurred during parsing.");
 			e.printStackTrace();
+			return false;
+		}
+	}
+
+	/**
+	 * Execute one statement on the initialised catalog, used for the query files and the server requests.
+	 *
+	 * @param sql statement text, a query, EXPLAIN [ANALYZE] query or ANALYZE
+	 * @param bindings parameter values of every run of the query
+	 * @param channel output channel of the result rows or the plan, empty for ANALYZE
+	 * @throws Exception if the statement cannot be parsed or executed
+	 */
+	static void executeStatement(String sql, List<long[]> bindings, WritableByteChannel channel) throws Exception {
+		// EXPLAIN the plan, or with ANALYZE run it and explain it with the rows and time of every operator
+		Matcher explain = EXPLAIN_PATTERN.matcher(sql);
+		if (explain.matches()) {
+			explainQuery(explain.group(2), explain.group(1) != null, bindings, channel);
+			return;
+		}
+
+		// ANALYZE the given tables, or all tables, the statistics are saved in the database directory
+		Matcher analyze = ANALYZE_PATTERN.matcher(sql);
+		if (analyze.matches()) {
+			System.out.println("Read statement: " + sql.trim());
+			analyzeTables(analyze.group(1));
+			return;
+		}
+
+		// take the cached plan of the same query text, or parse and plan it
+		PreparedQuery query = PlanCache.getInstance().prepare(sql);
+		System.out.println("Read statement: " + query.getStatement());
+
+		// once per line of parameter values, the results one after another, a new line between the runs
+		// a failed run has closed its operators, the plan is reset before its next run and can be given back
+		RunChannel runChannel = new RunChannel(channel);
+		try {
+			for (long[] values : bindings) {
+				query.bind(values);
+				query.execute(runChannel);
+				runChannel.endRun();
+			}
+		} finally {
+			PlanCache.getInstance().release(query);
+		}
+	}
+
+	/**
+	 * Output channel shared by the runs of a query. The result writer leaves no new line after the last row,
+	 * so the first write of a run ends the last row of the previous runs first, an empty run writes nothing.
+	 */
+	private static final class RunChannel implements WritableByteChannel {
+		private final WritableByteChannel channel;
+		private boolean rowOpen; // the last row written by a previous run has no new line yet
+		private boolean written; // the current run wrote a byte
+
+		RunChannel(WritableByteChannel channel) {
+			this.channel = channel;
+		}
+
+		@Override
+		public int write(ByteBuffer src) throws IOException {
+			if (rowOpen && src.hasRemaining()) {
+				ByteBuffer newLine = ByteBuffer.wrap(new byte[] {'\n'});
+				while (newLine.hasRemaining()) {
+					channel.write(newLine);
+				}
+				rowOpen = false;
+			}
+			int bytes = channel.write(src);
+			written |= bytes > 0;
+			return bytes;
+		}
+
+		/**
+		 * The current run is done, the next write belongs to the next run.
+		 */
+		void endRun() {
+			rowOpen |= written;
+			written = false;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return channel.isOpen();
+		}
+
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Write the plan of the query to the channel. With analyze, the query is planned with instrumented
+	 * operators and run for every binding first, its rows are discarded, the plan shows the counters summed
+	 * over the runs. The plan is built apart from the plan cache, so the cached plans are never instrumented.
+	 *
+	 * @param sql query text
+	 * @param analyze true to run the query and report the counters
+	 * @param bindings parameter values of every run of the query
+	 * @param channel output channel of the plan
+	 * @throws Exception if the query cannot be parsed or executed
+	 */
+	private static void explainQuery(String sql, boolean analyze, List<long[]> bindings, WritableByteChannel channel)
+			throws Exception {
+		PreparedQuery query = new PreparedQuery(sql, analyze);
+		System.out.println("Read statement: EXPLAIN " + (analyze ? "ANALYZE " : "") + query.getStatement());
+
+		StringBuilder plan = new StringBuilder();
+		if (analyze) {
+			long start = System.nanoTime();
+			for (long[] values : bindings) {
+				query.bind(values);
+				query.execute(new WritableByteChannel() {
+					@Override
+					public int write(ByteBuffer src) {
+						int bytes = src.remaining();
+						src.position(src.limit());
+						return bytes;
+					}
+
+					@Override
+					public boolean isOpen() {
+						return true;
+					}
+
+					@Override
+					public void close() {
+					}
+				});
+			}
+			plan.append(query.explain());
+			plan.append(String.format("Runs: %d, total time: %.3f ms", bindings.size(), (System.nanoTime() - start) / 1e6));
+		} else {
+			plan.append(query.explain());
+			plan.setLength(plan.length() - 1); // no trailing newline, as the result rows
+		}
+
+		ByteBuffer buffer = ByteBuffer.wrap(plan.toString().getBytes(StandardCharsets.UTF_8));
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	/**
+	 * Read the parameter values of the query from the .params file next to the query file,
+	 * one line of comma separated values per run.
+	 *
+	 * @param inputFile input file name
+	 * @return values of every run, one run without values if there is no parameter file
+	 * @throws IOException if the parameter file cannot be read
+	 */
+	static List<long[]> readParameters(String inputFile) throws IOException {
+		File paramsFile = new File(inputFile.replaceAll("\\.sql$", "") + ".params");
+		if (!paramsFile.exists()) {
+			return Collections.singletonList(new long[0]);
+		}
+		List<long[]> bindings = new ArrayList<>();
+		for (String line : Files.readAllLines(paramsFile.toPath(), StandardCharsets.UTF_8)) {
+			if (line.trim().isEmpty()) {
+				continue;
+			}
+			String[] tokens = line.split(",");
+			long[] values = new long[tokens.length];
+			for (int i = 0; i < tokens.length; i++) {
+				values[i] = Long.parseLong(tokens[i].trim());
+			}
+			bindings.add(values);
+		}
+		return bindings;
+	}
+
+	/**
+	 * Analyze the tables of the ANALYZE statement.
+	 *
+	 * @param tableList table names separated by commas, null or blank means all tables
+	 */
+	private static void analyzeTables(String tableList) {
+		List<String> tables = new ArrayList<>();
+		if (tableList != null) {
+			for (String table : tableList.split(",")) {
+				if (!table.trim().isEmpty()) {
+					tables.add(table.trim());
+				}
+			}
+		}
+		if (tables.isEmpty()) {
+			tables.addAll(DBCatalog.getInstance().getTableToSchema().keySet());
 		}
+		StatisticsAnalyzer.analyzeTables(tables);
 	}
 
 	/**
@@ -0,0 +1,171 @@
+package ed.inf.adbs.lightdb;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thin client of the LightDB server, for interactive use instead of starting LightDB for every query.
+ * Given an input and an output file it sends the query, with the values of its .params file, and writes
+ * the result rows to the output file like LightDB does. Without files it reads statements ended by ;
+ * from the standard input and prints the result rows, until exit or quit.
+ *
+ * ClassName: LightDBClient
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class LightDBClient implements AutoCloseable {
+	private static final String PROMPT = "lightdb> ";
+
+	private final Socket socket;
+	private final DataInputStream in;
+	private final DataOutputStream out;
+
+	/**
+	 * Constructor: connect to the server on the local machine.
+	 *
+	 * @param port server port
+	 * @throws IOException if the server cannot be reached
+	 */
+	public LightDBClient(int port) throws IOException {
+		this.socket = new Socket(InetAddress.getLoopbackAddress(), port);
+		this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+		this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+	}
+
+	public static void main(String[] args) {
+		List<String> files = new ArrayList<>();
+		List<String> settingArgs = new ArrayList<>();
+		for (String arg : args) {
+			(arg.contains("=") ? settingArgs : files).add(arg);
+		}
+		if (files.size() != 0 && files.size() != 2) {
+			System.err.println("Usage: LightDBClient input_file output_file [serverPort=N]");
+			System.err.println("       LightDBClient [serverPort=N]");
+			return;
+		}
+
+		Map<String, String> settings = LightDB.parseSettings(settingArgs);
+		int port = Integer.parseInt(settings.getOrDefault("serverPort", "7070"));
+		try (LightDBClient client = new LightDBClient(port)) {
+			if (files.isEmpty()) {
+				client.interact();
+			} else {
+				String sql = new String(Files.readAllBytes(Paths.get(files.get(0))), StandardCharsets.UTF_8);
+				try (OutputStream output = new FileOutputStream(files.get(1))) {
+					client.query(sql, LightDB.readParameters(files.get(0)), output);
+				}
+			}
+		} catch (IOException e) {
+			System.err.println("Exception occurred when querying the server.");
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Read statements from the standard input and print their results, until exit, quit or the end of the input.
+	 *
+	 * @throws IOException if the connection fails
+	 */
+	private void interact() throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+		StringBuilder statement = new StringBuilder();
+		System.out.print(PROMPT);
+		System.out.flush();
+		String line;
+		while ((line = reader.readLine()) != null) {
+			String trimmed = line.trim();
+			if (statement.length() == 0 && (trimmed.equalsIgnoreCase("exit") || trimmed.equalsIgnoreCase("quit"))) {
+				break;
+			}
+			statement.append(line).append('\n');
+			if (!trimmed.endsWith(";")) {
+				continue;
+			}
+
+			try {
+				if (query(statement.toString(), Collections.singletonList(new long[0]), System.out) > 0) {
+					System.out.println(); // the last row has no line break
+				}
+			} catch (LightDBException e) { // the connection is still usable
+				System.err.println("Error: " + e.getMessage());
+			}
+			System.out.flush();
+			statement.setLength(0);
+			System.out.print(PROMPT);
+			System.out.flush();
+		}
+	}
+
+	/**
+	 * Send the statement and write the result rows as they arrive.
+	 *
+	 * @param sql statement text
+	 * @param bindings parameter values of every run of the query
+	 * @param output output stream of the result rows
+	 * @return number of bytes of the result rows
+	 * @throws LightDBException if the server failed to execute the statement
+	 * @throws IOException if the connection fails
+	 */
+	public long query(String sql, List<long[]> bindings, OutputStream output) throws IOException {
+		LightDBServer.writeString(out, sql);
+		out.writeInt(bindings.size());
+		for (long[] values : bindings) {
+			out.writeInt(values.length);
+			for (long value : values) {
+				out.writeLong(value);
+			}
+		}
+		out.flush();
+
+		byte[] chunk = new byte[0];
+		long size = 0;
+		int length;
+		while ((length = in.readInt()) > 0) {
+			if (chunk.length < length) {
+				chunk = new byte[length];
+			}
+			in.readFully(chunk, 0, length);
+			output.write(chunk, 0, length);
+			size += length;
+		}
+		if (length == LightDBServer.ERROR) {
+			throw new LightDBException(LightDBServer.readString(in));
+		}
+		return size;
+	}
+
+	/**
+	 * Close the connection.
+	 *
+	 * @throws IOException if the socket cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		socket.close();
+	}
+
+	/**
+	 * Error reported by the server for a statement, the connection can be used for the next statement.
+	 */
+	public static class LightDBException extends IOException {
+		public LightDBException(String message) {
+			super(message);
+		}
+	}
+}
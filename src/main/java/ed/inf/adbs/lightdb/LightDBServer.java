@@ -0,0 +1,287 @@
+package ed.inf.adbs.lightdb;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ProtocolException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import ed.inf.adbs.lightdb.metrics.QueryMetrics;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+import ed.inf.adbs.lightdb.tools.PlanCache;
+
+/**
+ * Resident LightDB: the catalog is initialised once, then the statements are received on a local socket,
+ * so the buffer pool, the plan cache and the compiled code stay warm between requests.
+ * The server listens on the loopback address only, on the serverPort setting (default 7070, 0 picks a free port).
+ * Every connection is served by a thread of its own, at most queryThreads statements run at once.
+ *
+ * Protocol, all ints and longs big-endian:
+ * the request is the length and the UTF-8 bytes of the statement, then the number of runs and for every run
+ * the number of parameter values followed by the values. The response is the result rows as chunks,
+ * each the length and the bytes of the chunk, ended by a length 0 on success, or by a length -1 and the
+ * length and the UTF-8 bytes of the error message. The statement SHUTDOWN stops the server.
+ * A request with a negative or too large length or count is answered with an error, then the connection
+ * is closed, as the rest of the request cannot be told apart from the next one.
+ *
+ * ClassName: LightDBServer
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class LightDBServer {
+	static final int END = 0; // end of a successful response
+	static final int ERROR = -1; // end of a failed response, followed by the message
+	static final String SHUTDOWN = "SHUTDOWN";
+	static final int MAX_STRING_BYTES = 1 << 24; // max length of a statement or a message
+	static final int MAX_RUNS = 1 << 20; // max number of runs of a request
+	static final int MAX_VALUES = 1 << 16; // max number of parameter values of a run
+
+	private final ServerSocket serverSocket;
+	private final ExecutorService connections;
+	private final Semaphore running; // statements running at once
+
+	/**
+	 * Constructor: init the catalog and bind the socket.
+	 *
+	 * @param databaseDir database directory
+	 * @param settings settings overriding the config file
+	 * @throws IOException if the socket cannot be bound
+	 */
+	public LightDBServer(String databaseDir, Map<String, String> settings) throws IOException {
+		LightDB.initCatalog(databaseDir, settings);
+		PlanCache.getInstance().clear();
+
+		int port = DBCatalog.getInstance().getIntSetting("serverPort", 7070);
+		int threads = DBCatalog.getInstance().getIntSetting("queryThreads", Runtime.getRuntime().availableProcessors());
+		this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+		this.connections = Executors.newCachedThreadPool();
+		this.running = new Semaphore(Math.max(threads, 1));
+	}
+
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			System.err.println("Usage: LightDBServer database_dir [setting=value ...]");
+			return;
+		}
+
+		try {
+			LightDBServer server = new LightDBServer(args[0], LightDB.parseSettings(Arrays.asList(args).subList(1, args.length)));
+			System.out.println("LightDB server listening on " + server.serverSocket.getLocalSocketAddress());
+			server.serve();
+		} catch (IOException e) {
+			System.err.println("Exception occurred when starting the server.");
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Accept connections until the server is closed, the metrics are exported meanwhile if metricsFile is set.
+	 */
+	public void serve() {
+		QueryMetrics.startExport();
+		while (!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				connections.execute(() -> handleConnection(socket));
+			} catch (SocketException e) { // closed
+				break;
+			} catch (IOException e) {
+				System.err.println("Exception occurred when accepting a connection.");
+				e.printStackTrace();
+			}
+		}
+		connections.shutdown();
+		QueryMetrics.stopExport();
+		System.out.println(DBCatalog.getInstance().getBufferPool().getStatistics());
+		System.out.println(PlanCache.getInstance().getStatistics());
+	}
+
+	/**
+	 * Serve the requests of one connection until the client closes it.
+	 *
+	 * @param socket client socket
+	 */
+	private void handleConnection(Socket socket) {
+		try (Socket client = socket;
+			 DataInputStream in = new DataInputStream(new BufferedInputStream(client.getInputStream()));
+			 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(client.getOutputStream(), 1 << 16))) {
+			while (true) {
+				String sql;
+				List<long[]> bindings = new ArrayList<>();
+				try {
+					sql = readString(in);
+					int runs = readLength(in, MAX_RUNS, "number of runs");
+					for (int run = 0; run < runs; run++) {
+						long[] values = new long[readLength(in, MAX_VALUES, "number of parameter values")];
+						for (int i = 0; i < values.length; i++) {
+							values[i] = in.readLong();
+						}
+						bindings.add(values);
+					}
+				} catch (EOFException e) { // client closed the connection
+					return;
+				} catch (ProtocolException e) { // the rest of the request cannot be skipped
+					System.err.println("Exception occurred when reading a request: " + e.getMessage());
+					out.writeInt(ERROR);
+					writeString(out, e.getMessage());
+					out.flush();
+					return;
+				}
+
+				if (SHUTDOWN.equalsIgnoreCase(sql.trim().replaceAll(";$", ""))) {
+					out.writeInt(END);
+					out.flush();
+					close();
+					return;
+				}
+				handleRequest(sql, bindings, out);
+			}
+		} catch (IOException e) {
+			System.err.println("Exception occurred when serving a connection.");
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Execute the statement and stream the result rows back.
+	 *
+	 * @param sql statement text
+	 * @param bindings parameter values of every run
+	 * @param out response stream
+	 * @throws IOException if the response cannot be written
+	 */
+	private void handleRequest(String sql, List<long[]> bindings, DataOutputStream out) throws IOException {
+		running.acquireUninterruptibly();
+		try {
+			LightDB.executeStatement(sql, bindings, new ChunkChannel(out));
+			out.writeInt(END);
+		} catch (Exception e) {
+			System.err.println("Exception occurred during parsing.");
+			e.printStackTrace();
+			out.writeInt(ERROR);
+			writeString(out, String.valueOf(e.getMessage()));
+		} finally {
+			running.release();
+		}
+		out.flush();
+	}
+
+	/**
+	 * Getter: get the port the server listens on.
+	 *
+	 * @return port
+	 */
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Stop accepting connections, the connections being served finish their requests.
+	 */
+	public void close() {
+		try {
+			serverSocket.close();
+		} catch (IOException e) {
+			System.err.println("Exception occurred when closing the server.");
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Read a length-prefixed UTF-8 string.
+	 *
+	 * @param in input stream
+	 * @return string
+	 * @throws ProtocolException if the length is negative or over MAX_STRING_BYTES
+	 * @throws IOException if the stream ends or cannot be read
+	 */
+	static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[readLength(in, MAX_STRING_BYTES, "string length")];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Read a length or a count sent by the peer, checked before anything is allocated for it.
+	 *
+	 * @param in input stream
+	 * @param max max accepted value
+	 * @param name name of the value in the error message
+	 * @return length or count
+	 * @throws ProtocolException if the value is negative or over the max
+	 * @throws IOException if the stream ends or cannot be read
+	 */
+	static int readLength(DataInputStream in, int max, String name) throws IOException {
+		int length = in.readInt();
+		if (length < 0 || length > max) {
+			throw new ProtocolException("Invalid " + name + " " + length + ", expected 0 to " + max + ".");
+		}
+		return length;
+	}
+
+	/**
+	 * Write a length-prefixed UTF-8 string.
+	 *
+	 * @param out output stream
+	 * @param string string
+	 * @throws IOException if the stream cannot be written
+	 */
+	static void writeString(DataOutputStream out, String string) throws IOException {
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Channel writing every buffer of result rows as one chunk of the response.
+	 */
+	private static final class ChunkChannel implements WritableByteChannel {
+		private final DataOutputStream out;
+
+		private ChunkChannel(DataOutputStream out) {
+			this.out = out;
+		}
+
+		@Override
+		public int write(ByteBuffer src) throws IOException {
+			int length = src.remaining();
+			if (length == 0) {
+				return 0;
+			}
+			out.writeInt(length);
+			if (src.hasArray()) {
+				out.write(src.array(), src.arrayOffset() + src.position(), length);
+				src.position(src.limit());
+			} else {
+				byte[] bytes = new byte[length];
+				src.get(bytes);
+				out.write(bytes);
+			}
+			return length;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() { } // the connection stays open for the next request
+	}
+}
@@ -0,0 +1,40 @@
+package ed.inf.adbs.lightdb.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counter of a metrics registry, only goes up. Backed by a LongAdder, so the threads of
+ * concurrent queries and of the parallel scans add to it without contending on one value.
+ *
+ * ClassName: Counter
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class Counter {
+    private final LongAdder value = new LongAdder();
+
+    /**
+     * Add one.
+     */
+    public void increment() {
+        value.increment();
+    }
+
+    /**
+     * Add the amount.
+     *
+     * @param amount amount, not negative
+     */
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    /**
+     * Getter: get the current value.
+     *
+     * @return sum of the amounts added
+     */
+    public long get() {
+        return value.sum();
+    }
+}
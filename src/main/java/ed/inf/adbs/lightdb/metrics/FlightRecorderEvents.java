@@ -0,0 +1,151 @@
+package ed.inf.adbs.lightdb.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events of the query lifecycle. This class is the only one referring to jdk.jfr,
+ * and QueryMetrics loads it only if the JVM has the flight recorder (JDK 11, or JDK 8 from update 262),
+ * so the database still runs on older JVMs. An event not enabled in the recording costs a few
+ * instructions, they are enabled by default once a recording starts, e.g. with
+ * -XX:StartFlightRecording=filename=lightdb.jfr.
+ *
+ * ClassName: FlightRecorderEvents
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+final class FlightRecorderEvents {
+
+    private FlightRecorderEvents() { }
+
+    @Name("lightdb.Parse")
+    @Label("Query Parse")
+    @Category({"LightDB", "Query"})
+    @Description("Parsing of the query text by the SQL parser")
+    @StackTrace(false)
+    static class ParseEvent extends Event {
+        @Label("SQL")
+        String sql;
+    }
+
+    @Name("lightdb.Plan")
+    @Label("Query Plan")
+    @Category({"LightDB", "Query"})
+    @Description("Interpretation of the statement and construction of the operator tree")
+    @StackTrace(false)
+    static class PlanEvent extends Event {
+        @Label("SQL")
+        String sql;
+    }
+
+    @Name("lightdb.Execute")
+    @Label("Query Execute")
+    @Category({"LightDB", "Query"})
+    @Description("One run of a planned query, the operators and the writes of the result rows")
+    @StackTrace(false)
+    static class ExecuteEvent extends Event {
+        @Label("SQL")
+        String sql;
+
+        @Label("Write Time")
+        @Description("Part of the duration spent writing the result to the output channel")
+        @Timespan(Timespan.NANOSECONDS)
+        long writeTime;
+
+        @Label("Bytes Written")
+        @DataAmount
+        long bytesWritten;
+    }
+
+    @Name("lightdb.TableRead")
+    @Label("Table Read")
+    @Category({"LightDB", "Storage"})
+    @Description("Rows and bytes read from a table by one scan, reported when the scan closes")
+    @StackTrace(false)
+    static class TableReadEvent extends Event {
+        @Label("Table")
+        String table;
+
+        @Label("Rows")
+        long rows;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+    }
+
+    /**
+     * Begin the event of the phase.
+     *
+     * @param phase query phase
+     * @return event begun, or null if not enabled in any recording
+     */
+    static Object begin(QueryMetrics.Phase phase) {
+        Event event;
+        switch (phase) {
+            case PARSE:
+                event = new ParseEvent();
+                break;
+            case PLAN:
+                event = new PlanEvent();
+                break;
+            default:
+                event = new ExecuteEvent();
+        }
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End and commit the event of a phase.
+     *
+     * @param begun event from begin
+     * @param sql query text
+     * @param writeNanos time spent writing, execute only
+     * @param bytesWritten bytes written, execute only
+     */
+    static void commit(Object begun, String sql, long writeNanos, long bytesWritten) {
+        Event event = (Event) begun;
+        event.end();
+        if (!event.shouldCommit()) { // below the threshold of the recording
+            return;
+        }
+        if (event instanceof ParseEvent) {
+            ((ParseEvent) event).sql = sql;
+        } else if (event instanceof PlanEvent) {
+            ((PlanEvent) event).sql = sql;
+        } else {
+            ExecuteEvent execute = (ExecuteEvent) event;
+            execute.sql = sql;
+            execute.writeTime = writeNanos;
+            execute.bytesWritten = bytesWritten;
+        }
+        event.commit();
+    }
+
+    /**
+     * Commit the table read event of a scan.
+     *
+     * @param table table name
+     * @param rows rows read
+     * @param bytes bytes read
+     */
+    static void tableRead(String table, long rows, long bytes) {
+        TableReadEvent event = new TableReadEvent();
+        if (event.shouldCommit()) {
+            event.table = table;
+            event.rows = rows;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+}
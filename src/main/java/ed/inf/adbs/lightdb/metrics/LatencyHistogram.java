@@ -0,0 +1,108 @@
+package ed.inf.adbs.lightdb.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies in nanoseconds with fixed power of two buckets, bucket i counts the latencies
+ * up to 2^(i + 10) ns, from about 1 microsecond to about 18 minutes, the last bucket counts the
+ * longer ones. Recording is one bucket index computation and four atomic updates, no allocation and no lock,
+ * a percentile is only known to its bucket, within a factor of two.
+ *
+ * ClassName: LatencyHistogram
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class LatencyHistogram {
+    public static final int BUCKETS = 32;
+    private static final int MIN_SHIFT = 10; // bound of the first bucket, 2^10 ns
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Record a latency.
+     *
+     * @param nanos latency in nanoseconds, a negative one counts as 0
+     */
+    public void record(long nanos) {
+        nanos = Math.max(nanos, 0);
+        int bucket = (nanos <= 1) ? 0 : Math.max(64 - Long.numberOfLeadingZeros(nanos - 1) - MIN_SHIFT, 0);
+        buckets.incrementAndGet(Math.min(bucket, BUCKETS - 1));
+        count.increment();
+        sum.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    /**
+     * Get the upper bound of the bucket.
+     *
+     * @param bucket bucket index
+     * @return largest latency counted by the bucket in nanoseconds, Long.MAX_VALUE for the last bucket
+     */
+    public static long getBucketBound(int bucket) {
+        return (bucket == BUCKETS - 1) ? Long.MAX_VALUE : 1L << (bucket + MIN_SHIFT);
+    }
+
+    /**
+     * Getter: get the number of latencies recorded in the bucket.
+     *
+     * @param bucket bucket index
+     * @return count of the bucket
+     */
+    public long getBucketCount(int bucket) {
+        return buckets.get(bucket);
+    }
+
+    /**
+     * Getter: get the number of latencies recorded.
+     *
+     * @return count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Getter: get the sum of the latencies recorded.
+     *
+     * @return sum in nanoseconds
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * Getter: get the largest latency recorded.
+     *
+     * @return max in nanoseconds, 0 if none
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Get the latency below which the given fraction of the latencies fall, rounded up to the bound of its bucket.
+     *
+     * @param quantile fraction in [0, 1], e.g. 0.99
+     * @return latency in nanoseconds, at most the max, 0 if none recorded
+     */
+    public long getPercentile(double quantile) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += buckets.get(i);
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank && seen > 0) {
+                return Math.min(getBucketBound(i), getMax());
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,65 @@
+package ed.inf.adbs.lightdb.metrics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Output channel counting the bytes written to the channel it wraps and the time spent in its writes.
+ * The result writer writes whole buffers of pages, so timing every write costs little.
+ *
+ * ClassName: MeteredChannel
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class MeteredChannel implements WritableByteChannel {
+    private final WritableByteChannel channel;
+    private long bytes;
+    private long nanos;
+
+    /**
+     * Constructor: wrap the channel.
+     *
+     * @param channel output channel
+     */
+    public MeteredChannel(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        long start = System.nanoTime();
+        int written = channel.write(src);
+        nanos += System.nanoTime() - start;
+        bytes += written;
+        return written;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Getter: get the bytes written.
+     *
+     * @return bytes
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Getter: get the time spent in the writes.
+     *
+     * @return nanoseconds
+     */
+    public long getNanos() {
+        return nanos;
+    }
+}
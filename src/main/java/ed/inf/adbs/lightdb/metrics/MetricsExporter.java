@@ -0,0 +1,21 @@
+package ed.inf.adbs.lightdb.metrics;
+
+import java.io.IOException;
+
+/**
+ * Exporter of the metrics of a registry to a monitoring system, called periodically and once more
+ * when the database stops. An implementation sends the current values, the counters are cumulative.
+ *
+ * ClassName: MetricsExporter
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public interface MetricsExporter {
+    /**
+     * Export the current values of the metrics.
+     *
+     * @param registry registry to read
+     * @throws IOException if the metrics cannot be sent
+     */
+    void export(MetricsRegistry registry) throws IOException;
+}
@@ -0,0 +1,100 @@
+package ed.inf.adbs.lightdb.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of the named counters and latency histograms, created on first use. The database records
+ * into the current registry, which can be replaced, e.g. by a subclass creating counters and histograms
+ * that also feed another metrics library, or by a fresh registry to start counting from zero.
+ * The names follow the Prometheus conventions, the labels are part of the name, e.g.
+ * lightdb_table_rows_read_total{table="Sailors"}.
+ *
+ * ClassName: MetricsRegistry
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class MetricsRegistry {
+    private static volatile MetricsRegistry instance = new MetricsRegistry();
+
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * Get the current registry.
+     *
+     * @return registry the database records into
+     */
+    public static MetricsRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * Replace the current registry, the metrics recorded in the previous one stay there.
+     *
+     * @param registry new registry
+     */
+    public static void setInstance(MetricsRegistry registry) {
+        instance = registry;
+    }
+
+    /**
+     * Get the counter of the name, created if missing.
+     *
+     * @param name metric name with its labels
+     * @return counter
+     */
+    public Counter counter(String name) {
+        Counter counter = counters.get(name);
+        return (counter != null) ? counter : counters.computeIfAbsent(name, key -> newCounter());
+    }
+
+    /**
+     * Get the latency histogram of the name, created if missing.
+     *
+     * @param name metric name
+     * @return histogram
+     */
+    public LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        return (histogram != null) ? histogram : histograms.computeIfAbsent(name, key -> newHistogram());
+    }
+
+    /**
+     * Create a counter, override to hand out a counter of another kind.
+     *
+     * @return new counter
+     */
+    protected Counter newCounter() {
+        return new Counter();
+    }
+
+    /**
+     * Create a histogram, override to hand out a histogram of another kind.
+     *
+     * @return new histogram
+     */
+    protected LatencyHistogram newHistogram() {
+        return new LatencyHistogram();
+    }
+
+    /**
+     * Get the counters by name, for the exporters.
+     *
+     * @return name -> counter, sorted by name
+     */
+    public Map<String, Counter> getCounters() {
+        return new TreeMap<>(counters);
+    }
+
+    /**
+     * Get the histograms by name, for the exporters.
+     *
+     * @return name -> histogram, sorted by name
+     */
+    public Map<String, LatencyHistogram> getHistograms() {
+        return new TreeMap<>(histograms);
+    }
+}
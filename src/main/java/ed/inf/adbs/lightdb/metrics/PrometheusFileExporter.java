@@ -0,0 +1,85 @@
+package ed.inf.adbs.lightdb.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+
+/**
+ * Local stand-in of a monitoring system: write the metrics to a file in the Prometheus text format,
+ * e.g. for the textfile collector of the node exporter, or to read by hand. The file is written
+ * next to the target and renamed over it, so a reader never sees half of an export.
+ * The histograms are exported in seconds, with a bucket per power of two.
+ *
+ * ClassName: PrometheusFileExporter
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class PrometheusFileExporter implements MetricsExporter {
+    private final File file;
+
+    /**
+     * Constructor: export to the file.
+     *
+     * @param file metrics file, replaced on every export
+     */
+    public PrometheusFileExporter(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public void export(MetricsRegistry registry) throws IOException {
+        File partFile = new File(file.getPath() + ".part");
+        Files.write(partFile.toPath(), format(registry).getBytes(StandardCharsets.UTF_8));
+        Files.move(partFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Format the metrics of the registry, a TYPE line before the first sample of every metric name.
+     *
+     * @param registry registry to read
+     * @return metrics text
+     */
+    public static String format(MetricsRegistry registry) {
+        StringBuilder text = new StringBuilder();
+        String lastName = null;
+        for (Map.Entry<String, Counter> counter : registry.getCounters().entrySet()) {
+            String name = counter.getKey();
+            int labels = name.indexOf('{');
+            String baseName = (labels < 0) ? name : name.substring(0, labels);
+            if (!baseName.equals(lastName)) {
+                text.append("# TYPE ").append(baseName).append(" counter\n");
+                lastName = baseName;
+            }
+            text.append(name).append(' ').append(counter.getValue().get()).append('\n');
+        }
+
+        for (Map.Entry<String, LatencyHistogram> entry : registry.getHistograms().entrySet()) {
+            String name = entry.getKey();
+            LatencyHistogram histogram = entry.getValue();
+            text.append("# TYPE ").append(name).append(" histogram\n");
+            long cumulative = 0;
+            for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+                cumulative += histogram.getBucketCount(i);
+                String bound = (i == LatencyHistogram.BUCKETS - 1) ? "+Inf" : seconds(LatencyHistogram.getBucketBound(i));
+                text.append(name).append("_bucket{le=\"").append(bound).append("\"} ").append(cumulative).append('\n');
+            }
+            text.append(name).append("_sum ").append(seconds(histogram.getSum())).append('\n');
+            text.append(name).append("_count ").append(histogram.getCount()).append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Format nanoseconds as seconds.
+     *
+     * @param nanos nanoseconds
+     * @return seconds text
+     */
+    private static String seconds(long nanos) {
+        return BigDecimal.valueOf(nanos, 9).stripTrailingZeros().toPlainString();
+    }
+}
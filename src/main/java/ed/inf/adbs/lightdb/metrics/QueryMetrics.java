@@ -0,0 +1,201 @@
+package ed.inf.adbs.lightdb.metrics;
+
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics of the query lifecycle: the latency of parsing, planning, executing and writing the output,
+ * and the rows and bytes read from every table. Each is recorded in the current metrics registry and,
+ * if the JVM has the flight recorder, emitted as a JFR event.
+ * The scans count in plain fields and report once when closed, so the hot loops only add to a field.
+ * With the setting metricsFile, the registry is exported to that file every metricsInterval seconds
+ * (default 10) and once more at the end.
+ *
+ * ClassName: QueryMetrics
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public final class QueryMetrics {
+    /**
+     * Timed phases of a query, with the name of their latency histogram.
+     */
+    public enum Phase {
+        PARSE("lightdb_query_parse_seconds"),
+        PLAN("lightdb_query_plan_seconds"),
+        EXECUTE("lightdb_query_execute_seconds");
+
+        private final String metric;
+
+        Phase(String metric) {
+            this.metric = metric;
+        }
+    }
+
+    public static final String WRITE_METRIC = "lightdb_query_write_seconds";
+    public static final String QUERIES_METRIC = "lightdb_queries_total";
+    public static final String BYTES_WRITTEN_METRIC = "lightdb_query_bytes_written_total";
+
+    private static final boolean FLIGHT_RECORDER = hasFlightRecorder();
+
+    private static ScheduledExecutorService exportScheduler; // null if not exporting
+    private static MetricsExporter exporter;
+
+    private QueryMetrics() { }
+
+    /**
+     * Timer of one phase of a query.
+     */
+    public static final class Timer {
+        private final Phase phase;
+        private final Object event; // JFR event begun with the timer, null if not recorded
+        private final long start;
+
+        private Timer(Phase phase) {
+            this.phase = phase;
+            this.event = FLIGHT_RECORDER ? FlightRecorderEvents.begin(phase) : null;
+            this.start = System.nanoTime();
+        }
+
+        /**
+         * Stop the timer and record the latency of the phase.
+         *
+         * @param sql query text, for the JFR event
+         * @return latency in nanoseconds
+         */
+        public long stop(String sql) {
+            long nanos = System.nanoTime() - start;
+            MetricsRegistry.getInstance().histogram(phase.metric).record(nanos);
+            if (event != null) {
+                FlightRecorderEvents.commit(event, sql, 0, 0);
+            }
+            return nanos;
+        }
+    }
+
+    /**
+     * Start timing a phase.
+     *
+     * @param phase query phase
+     * @return running timer
+     */
+    public static Timer start(Phase phase) {
+        return new Timer(phase);
+    }
+
+    /**
+     * Stop the timer of a run of a query, the time spent writing the output is recorded apart
+     * and taken off the execution time.
+     *
+     * @param timer timer of the execute phase
+     * @param sql query text, for the JFR event
+     * @param writeNanos time spent in the writes of the output channel
+     * @param bytesWritten bytes written to the output channel
+     */
+    public static void stopExecution(Timer timer, String sql, long writeNanos, long bytesWritten) {
+        long nanos = System.nanoTime() - timer.start;
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        registry.histogram(Phase.EXECUTE.metric).record(nanos - writeNanos);
+        registry.histogram(WRITE_METRIC).record(writeNanos);
+        registry.counter(QUERIES_METRIC).increment();
+        registry.counter(BYTES_WRITTEN_METRIC).add(bytesWritten);
+        if (timer.event != null) {
+            FlightRecorderEvents.commit(timer.event, sql, writeNanos, bytesWritten);
+        }
+    }
+
+    /**
+     * Record the rows and bytes read from a table by a scan.
+     *
+     * @param table table name
+     * @param rows rows read
+     * @param bytes bytes read, the pages pinned or the mapped bytes gone through
+     */
+    public static void recordTableRead(String table, long rows, long bytes) {
+        if (rows == 0 && bytes == 0) {
+            return;
+        }
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        registry.counter("lightdb_table_rows_read_total{table=\"" + table + "\"}").add(rows);
+        registry.counter("lightdb_table_bytes_read_total{table=\"" + table + "\"}").add(bytes);
+        if (FLIGHT_RECORDER) {
+            FlightRecorderEvents.tableRead(table, rows, bytes);
+        }
+    }
+
+    /**
+     * Get the table name of a table file, the file name without its extension.
+     *
+     * @param tableFile csv or binary table file
+     * @return table name
+     */
+    public static String getTableName(File tableFile) {
+        String name = tableFile.getName();
+        int dot = name.lastIndexOf('.');
+        return (dot < 0) ? name : name.substring(0, dot);
+    }
+
+    /**
+     * Start exporting the registry periodically if the setting metricsFile is given.
+     */
+    public static synchronized void startExport() {
+        String file = DBCatalog.getInstance().getSetting("metricsFile", null);
+        if (file == null || exportScheduler != null) {
+            return;
+        }
+        int interval = Math.max(DBCatalog.getInstance().getIntSetting("metricsInterval", 10), 1);
+        exporter = new PrometheusFileExporter(new File(file));
+        exportScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lightdb-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        exportScheduler.scheduleAtFixedRate(QueryMetrics::export, interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stop the periodic export and export a last time.
+     */
+    public static synchronized void stopExport() {
+        if (exportScheduler == null) {
+            return;
+        }
+        exportScheduler.shutdownNow();
+        exportScheduler = null;
+        export();
+        exporter = null;
+    }
+
+    /**
+     * Export the current registry.
+     */
+    private static synchronized void export() {
+        if (exporter == null) {
+            return;
+        }
+        try {
+            exporter.export(MetricsRegistry.getInstance());
+        } catch (IOException e) {
+            System.err.println("Exception occurred when exporting the metrics.");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Check whether the JVM has the flight recorder, loading FlightRecorderEvents would fail otherwise.
+     *
+     * @return true if jdk.jfr is present
+     */
+    private static boolean hasFlightRecorder() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
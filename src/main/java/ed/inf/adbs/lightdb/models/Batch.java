@@ -0,0 +1,139 @@
+package ed.inf.adbs.lightdb.models;
+
+/**
+ * Batch of rows in column vectors, one int array per column of the schema, with a selection vector
+ * of the rows which are still in the batch. Filters only shrink the selection vector, the column
+ * vectors are never moved, so a filter is one tight loop over primitive arrays.
+ * The batch is owned by the operator which returns it and is overwritten by its next batch.
+ *
+ * ClassName: Batch
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class Batch {
+    public static final int CAPACITY = 1024; // max rows in one batch
+
+    private Schema schema;
+    private int[][] columns; // column vectors, columns[c][row]
+    private int[] selection; // rows in the batch, in ascending order
+    private int rowCount; // rows filled in the column vectors
+    private int count; // rows in the selection vector
+
+    /**
+     * Constructor: allocate the column vectors and the selection vector.
+     *
+     * @param schema schema of the rows
+     */
+    public Batch(Schema schema) {
+        this.schema = schema;
+        this.columns = new int[schema.size()][CAPACITY];
+        this.selection = new int[CAPACITY];
+    }
+
+    /**
+     * Make this batch a view of the columns of another batch, sharing its vectors, used by the projection.
+     *
+     * @param batch batch to view
+     * @param indexes ordinals of the viewed columns in the other batch
+     */
+    public void wrap(Batch batch, int[] indexes) {
+        for (int i = 0; i < indexes.length; i++) {
+            columns[i] = batch.columns[indexes[i]];
+        }
+        selection = batch.selection;
+        rowCount = batch.rowCount;
+        count = batch.count;
+    }
+
+    /**
+     * Getter: get the schema of the rows.
+     *
+     * @return schema
+     */
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Get the vector of the column.
+     *
+     * @param index column ordinal
+     * @return column vector
+     */
+    public int[] getColumn(int index) {
+        return columns[index];
+    }
+
+    /**
+     * Getter: get the selection vector, the first count entries are the rows in the batch.
+     *
+     * @return selection vector
+     */
+    public int[] getSelection() {
+        return selection;
+    }
+
+    /**
+     * Getter: get the number of rows in the selection vector.
+     *
+     * @return selected rows
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Setter: shrink the selection vector after a filter.
+     *
+     * @param count selected rows
+     */
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    /**
+     * Getter: get the number of rows filled in the column vectors.
+     *
+     * @return filled rows
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Set the number of rows filled in the column vectors and select all of them.
+     *
+     * @param rowCount filled rows
+     */
+    public void setRowCount(int rowCount) {
+        this.rowCount = rowCount;
+        this.count = rowCount;
+        for (int i = 0; i < rowCount; i++) {
+            selection[i] = i;
+        }
+    }
+
+    /**
+     * Copy the values of the row into the array.
+     *
+     * @param row row in the column vectors
+     * @param values array of the schema size
+     */
+    public void getRow(int row, int[] values) {
+        for (int c = 0; c < values.length; c++) {
+            values[c] = columns[c][row];
+        }
+    }
+
+    /**
+     * Get the row as a new tuple.
+     *
+     * @param row row in the column vectors
+     * @return tuple object
+     */
+    public Tuple getTuple(int row) {
+        int[] values = new int[columns.length];
+        getRow(row, values);
+        return new Tuple(schema, values);
+    }
+}
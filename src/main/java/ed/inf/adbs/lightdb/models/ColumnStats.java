@@ -0,0 +1,120 @@
+package ed.inf.adbs.lightdb.models;
+
+/**
+ * Immutable statistics of one column: min, max, number of distinct values and an equi-depth histogram.
+ * The histogram is given by its bucket bounds, every bucket holds the same fraction of the tuples,
+ * and the values are assumed to be spread uniformly over the ints inside a bucket.
+ *
+ * ClassName: ColumnStats
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class ColumnStats {
+    private final int min;
+    private final int max;
+    private final long distinctCount;
+    private final int[] bounds; // bucket bounds, bucket i is [bounds[i], bounds[i + 1]], empty if no tuples
+
+    /**
+     * Constructor: init the statistics.
+     *
+     * @param min min value
+     * @param max max value
+     * @param distinctCount number of distinct values
+     * @param bounds bucket bounds of the equi-depth histogram, ascending
+     */
+    public ColumnStats(int min, int max, long distinctCount, int[] bounds) {
+        this.min = min;
+        this.max = max;
+        this.distinctCount = distinctCount;
+        this.bounds = bounds.clone();
+    }
+
+    /**
+     * Getter: get the min value.
+     *
+     * @return min value
+     */
+    public int getMin() {
+        return min;
+    }
+
+    /**
+     * Getter: get the max value.
+     *
+     * @return max value
+     */
+    public int getMax() {
+        return max;
+    }
+
+    /**
+     * Getter: get the number of distinct values.
+     *
+     * @return number of distinct values
+     */
+    public long getDistinctCount() {
+        return distinctCount;
+    }
+
+    /**
+     * Getter: get the bucket bounds of the histogram.
+     *
+     * @return bucket bounds
+     */
+    public int[] getBounds() {
+        return bounds.clone();
+    }
+
+    /**
+     * Estimate the fraction of tuples equal to the value, the distinct values are assumed to be equally frequent.
+     *
+     * @param value constant
+     * @return selectivity
+     */
+    public double getEqualsSelectivity(long value) {
+        if (distinctCount == 0 || value < min || value > max) {
+            return 0;
+        }
+        return 1.0 / distinctCount;
+    }
+
+    /**
+     * Estimate the fraction of tuples less than the value from the histogram.
+     *
+     * @param value constant
+     * @return selectivity
+     */
+    public double getLessThanSelectivity(long value) {
+        if (bounds.length < 2 || value <= min) {
+            return 0;
+        }
+        if (value > max) {
+            return 1;
+        }
+
+        // the first bucket holds the ints in [bounds[0], bounds[1]], the others in (bounds[i], bounds[i + 1]]
+        int buckets = bounds.length - 1;
+        double fraction = 0;
+        for (int i = 0; i < buckets; i++) {
+            long low = (i == 0) ? bounds[0] - 1L : bounds[i];
+            long high = bounds[i + 1];
+            if (high < value) { // whole bucket below the value
+                fraction += 1.0;
+            } else if (low < value - 1) { // value inside the bucket, count the ints in (low, value - 1]
+                fraction += (double) (value - 1 - low) / (high - low);
+            }
+        }
+        return fraction / buckets;
+    }
+
+    /**
+     * Estimate the fraction of tuples less than or equal to the value.
+     *
+     * @param value constant
+     * @return selectivity
+     */
+    public double getLessThanEqualsSelectivity(long value) {
+        return Math.min(getLessThanSelectivity(value) + getEqualsSelectivity(value), 1);
+    }
+}
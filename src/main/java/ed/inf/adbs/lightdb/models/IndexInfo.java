@@ -0,0 +1,76 @@
+package ed.inf.adbs.lightdb.models;
+
+/**
+ * Immutable description of a B+-tree index declared in the index config file:
+ * the indexed table and column, whether the table is clustered on the column, and the order of the tree.
+ *
+ * ClassName: IndexInfo
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class IndexInfo {
+    private final String tableName;
+    private final String column;
+    private final boolean clustered;
+    private final int order; // a leaf holds at most 2 * order entries, an index node at most 2 * order keys
+
+    /**
+     * Constructor: init the index description.
+     *
+     * @param tableName table name
+     * @param column column name without table prefix
+     * @param clustered true if the table is sorted on the column
+     * @param order order of the tree
+     */
+    public IndexInfo(String tableName, String column, boolean clustered, int order) {
+        this.tableName = tableName;
+        this.column = column;
+        this.clustered = clustered;
+        this.order = order;
+    }
+
+    /**
+     * Getter: get the table name.
+     *
+     * @return table name
+     */
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * Getter: get the indexed column.
+     *
+     * @return column name without table prefix
+     */
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * Getter: get whether the table is clustered on the column.
+     *
+     * @return true if clustered
+     */
+    public boolean isClustered() {
+        return clustered;
+    }
+
+    /**
+     * Getter: get the order of the tree.
+     *
+     * @return order
+     */
+    public int getOrder() {
+        return order;
+    }
+
+    /**
+     * Get the name of the index file, e.g. Sailors.A.
+     *
+     * @return index file name
+     */
+    public String getFileName() {
+        return tableName + "." + column;
+    }
+}
@@ -0,0 +1,97 @@
+package ed.inf.adbs.lightdb.models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable schema shared by all tuples produced by one operator.
+ * The column names are prefixed with the table name or alias, e.g. Sailors.A,
+ * and every column is mapped to its ordinal in the tuple slot array.
+ *
+ * ClassName: Schema
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class Schema {
+    private final List<String> columns; // column names in order -> Table.Column
+    private final Map<String, Integer> columnToIndex; // column name -> ordinal
+
+    /**
+     * Constructor: init the columns and the column to ordinal mapping.
+     *
+     * @param columns column names prefixed with the table name
+     */
+    public Schema(List<String> columns) {
+        this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+        this.columnToIndex = new HashMap<>();
+
+        for (int i = 0; i < columns.size(); i++) {
+            this.columnToIndex.put(columns.get(i), i);
+        }
+    }
+
+    /**
+     * Create the schema of a base table, prefix every column with the table name.
+     *
+     * @param tableName table name or alias
+     * @param singleSchema columns without table name as prefix
+     * @return table schema
+     */
+    public static Schema of(String tableName, List<String> singleSchema) {
+        List<String> columns = new ArrayList<>();
+        for (String column : singleSchema) {
+            columns.add(tableName + '.' + column);
+        }
+        return new Schema(columns);
+    }
+
+    /**
+     * Concatenate two schemas, used when two tuples are joined.
+     *
+     * @param left left schema
+     * @param right right schema
+     * @return joined schema
+     */
+    public static Schema concat(Schema left, Schema right) {
+        List<String> columns = new ArrayList<>(left.columns);
+        columns.addAll(right.columns);
+        return new Schema(columns);
+    }
+
+    /**
+     * Getter: get the column names.
+     *
+     * @return unmodifiable list of column names
+     */
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Get the ordinal of a column, should only be called when building the plan.
+     *
+     * @param column column name prefixed with the table name
+     * @return ordinal, or -1 if the column is not in the schema
+     */
+    public int indexOf(String column) {
+        Integer index = columnToIndex.get(column);
+        return (index == null) ? -1 : index;
+    }
+
+    /**
+     * Get the number of columns.
+     *
+     * @return number of columns
+     */
+    public int size() {
+        return columns.size();
+    }
+
+    @Override
+    public String toString() {
+        return columns.toString();
+    }
+}
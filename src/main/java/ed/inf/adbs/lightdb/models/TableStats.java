@@ -0,0 +1,133 @@
+package ed.inf.adbs.lightdb.models;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable statistics of one table: number of tuples, number of pages in the binary format,
+ * and the statistics of every column.
+ * Stored as one line per table in the statistics file, like the schema file:
+ * table tuples pages, followed by column min max distinct bounds for every column,
+ * where bounds are the histogram bucket bounds separated by commas, or - if the table is empty.
+ *
+ * ClassName: TableStats
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class TableStats {
+    private final String tableName;
+    private final long rowCount;
+    private final long pageCount;
+    private final Map<String, ColumnStats> columnStats; // column name without table prefix -> statistics
+
+    /**
+     * Constructor: init the statistics.
+     *
+     * @param tableName table name
+     * @param rowCount number of tuples
+     * @param pageCount number of pages in the binary format
+     * @param columnStats column name without table prefix mapping to its statistics, in schema order
+     */
+    public TableStats(String tableName, long rowCount, long pageCount, Map<String, ColumnStats> columnStats) {
+        this.tableName = tableName;
+        this.rowCount = rowCount;
+        this.pageCount = pageCount;
+        this.columnStats = Collections.unmodifiableMap(new LinkedHashMap<>(columnStats));
+    }
+
+    /**
+     * Getter: get the table name.
+     *
+     * @return table name
+     */
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * Getter: get the number of tuples.
+     *
+     * @return number of tuples
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Getter: get the number of pages in the binary format.
+     *
+     * @return number of pages
+     */
+    public long getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * Get the statistics of the column.
+     *
+     * @param column column name without table prefix
+     * @return column statistics, or null if unknown
+     */
+    public ColumnStats getColumnStats(String column) {
+        return columnStats.get(column);
+    }
+
+    /**
+     * Format the statistics as one line of the statistics file.
+     *
+     * @return line without new line
+     */
+    public String toLine() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(tableName).append(' ').append(rowCount).append(' ').append(pageCount);
+        for (Map.Entry<String, ColumnStats> entry : columnStats.entrySet()) {
+            ColumnStats stats = entry.getValue();
+            sb.append(' ').append(entry.getKey())
+                    .append(' ').append(stats.getMin())
+                    .append(' ').append(stats.getMax())
+                    .append(' ').append(stats.getDistinctCount())
+                    .append(' ');
+
+            int[] bounds = stats.getBounds();
+            if (bounds.length == 0) {
+                sb.append('-');
+            }
+            for (int i = 0; i < bounds.length; i++) {
+                sb.append((i == 0) ? "" : ",").append(bounds[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Parse one line of the statistics file.
+     *
+     * @param line line of the statistics file
+     * @return table statistics
+     * @throws IllegalArgumentException if the line is malformed
+     */
+    public static TableStats fromLine(String line) {
+        String[] tokens = line.trim().split("\\s+");
+        if (tokens.length < 3 || (tokens.length - 3) % 5 != 0) {
+            throw new IllegalArgumentException("Malformed statistics: " + line);
+        }
+
+        Map<String, ColumnStats> columnStats = new LinkedHashMap<>();
+        for (int i = 3; i < tokens.length; i += 5) {
+            int[] bounds;
+            if (tokens[i + 4].equals("-")) {
+                bounds = new int[0];
+            } else {
+                String[] boundTokens = tokens[i + 4].split(",");
+                bounds = new int[boundTokens.length];
+                for (int j = 0; j < bounds.length; j++) {
+                    bounds[j] = Integer.parseInt(boundTokens[j]);
+                }
+            }
+            columnStats.put(tokens[i], new ColumnStats(Integer.parseInt(tokens[i + 1]),
+                    Integer.parseInt(tokens[i + 2]), Long.parseLong(tokens[i + 3]), bounds));
+        }
+        return new TableStats(tokens[0], Long.parseLong(tokens[1]), Long.parseLong(tokens[2]), columnStats);
+    }
+}
@@ -1,42 +1,113 @@
 package ed.inf.adbs.lightdb.models;
 
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
-
 /**
  * Handle tuples as objects.
+ * The tuple only keeps a primitive slot array, the column names are kept in the
+ * schema which is shared by all tuples from the same operator.
  *
  * ClassName: Tuple
  * Date: 12 March, 2021
  * Author: Cyan
  */
 public class Tuple {
-    private Map<String, Integer> tupleMap;
+    private static final int OBJECT_BYTES = 24; // header, two references and the flag, aligned to 8 bytes
+    private static final int ARRAY_HEADER_BYTES = 16; // header and length of the slot array
+
+    private Schema schema;
+    private int[] values;
+    private boolean reused; // true if the producer overwrites the values on its next tuple
 
     /**
-     * Constructor: initialize the tuple map.
+     * Constructor: bind the slot array to the schema.
      *
-     * @param values values of corresponding column names
-     * @param column column names
+     * @param schema shared schema
+     * @param values values of corresponding columns in the schema
      */
-    public Tuple(List<Integer> values, List<String> column) {
-        // use linked hashmap in order to make it in order
-        this.tupleMap = new LinkedHashMap<>();
+    public Tuple(Schema schema, int[] values) {
+        this.schema = schema;
+        this.values = values;
+    }
 
-        // put together as a map
-        for (int i = 0; i < values.size(); i++) {
-            this.tupleMap.put(column.get(i), values.get(i));
-        }
+    /**
+     * Create a tuple whose values are overwritten in place by the producer for every next tuple,
+     * used by the scans which hand out rows without copying.
+     *
+     * @param schema shared schema
+     * @param values slot array owned by the producer
+     * @return reused tuple
+     */
+    public static Tuple reused(Schema schema, int[] values) {
+        Tuple tuple = new Tuple(schema, values);
+        tuple.reused = true;
+        return tuple;
+    }
+
+    /**
+     * Get a tuple which can be kept after the next call to the producer, operators buffering
+     * the tuples of their child should keep the detached tuple. Only copies if the tuple is reused.
+     *
+     * @return this tuple, or a copy if this tuple is reused
+     */
+    public Tuple detach() {
+        return reused ? new Tuple(schema, values.clone()) : this;
+    }
+
+    /**
+     * Estimate the heap bytes of a tuple buffered in a list, assuming compressed references:
+     * the tuple object, its slot array aligned to 8 bytes and the reference in the list.
+     *
+     * @param columns number of values of the tuple
+     * @return estimated bytes
+     */
+    public static long estimateMemoryBytes(int columns) {
+        long arrayBytes = (ARRAY_HEADER_BYTES + (long) Integer.BYTES * columns + 7) / 8 * 8;
+        return OBJECT_BYTES + arrayBytes + Integer.BYTES;
     }
 
     /**
-     * Getter: get the member map.
+     * Getter: get the shared schema.
      *
-     * @return tuple map
+     * @return schema
      */
-    public Map<String, Integer> getTupleMap() {
-        return tupleMap;
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Getter: get the slot array.
+     *
+     * @return values
+     */
+    public int[] getValues() {
+        return values;
+    }
+
+    /**
+     * Get the value on the column ordinal.
+     *
+     * @param index column ordinal resolved from the schema
+     * @return value
+     */
+    public int getValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * Combine two tuples into one, the left values followed by the right values.
+     *
+     * @param schema joined schema
+     * @param left left tuple
+     * @param right right tuple
+     * @return joined tuple
+     */
+    public static Tuple join(Schema schema, Tuple left, Tuple right) {
+        int[] tupleValues = new int[left.values.length + right.values.length];
+
+        // first copy the left values, then the right values
+        System.arraycopy(left.values, 0, tupleValues, 0, left.values.length);
+        System.arraycopy(right.values, 0, tupleValues, left.values.length, right.values.length);
+
+        return new Tuple(schema, tupleValues);
     }
 
     /**
@@ -47,13 +118,11 @@ public class Tuple {
     public String getTupleString() {
         StringBuilder sb = new StringBuilder();
 
-        int count = 0;
-        for (Integer i : tupleMap.values()) {
-            sb.append(i);
+        for (int i = 0; i < values.length; i++) {
+            sb.append(values[i]);
 
             // add comma between columns
-            if (count < tupleMap.size() - 1) {
-                count++;
+            if (i < values.length - 1) {
                 sb.append(",");
             }
         }
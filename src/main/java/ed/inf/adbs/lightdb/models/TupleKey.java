@@ -0,0 +1,55 @@
+package ed.inf.adbs.lightdb.models;
+
+import java.util.Arrays;
+
+/**
+ * Hashable key made of the values on some columns of a tuple, used by hash based operators.
+ *
+ * ClassName: TupleKey
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class TupleKey {
+    private final int[] values;
+    private final int hash;
+
+    /**
+     * Constructor: copy the values on the key columns.
+     *
+     * @param tuple tuple object
+     * @param keyIndexes ordinals of the key columns
+     */
+    public TupleKey(Tuple tuple, int[] keyIndexes) {
+        this.values = new int[keyIndexes.length];
+        for (int i = 0; i < keyIndexes.length; i++) {
+            this.values[i] = tuple.getValue(keyIndexes[i]);
+        }
+        this.hash = Arrays.hashCode(values);
+    }
+
+    /**
+     * Getter: get the key values.
+     *
+     * @return key values
+     */
+    public int[] getValues() {
+        return values;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TupleKey)) {
+            return false;
+        }
+        TupleKey other = (TupleKey) o;
+        return hash == other.hash && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,228 @@
+package ed.inf.adbs.lightdb.operators;
+
+import ed.inf.adbs.lightdb.models.Batch;
+import ed.inf.adbs.lightdb.metrics.QueryMetrics;
+import ed.inf.adbs.lightdb.models.Schema;
+import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.storage.BinaryTableWriter;
+import ed.inf.adbs.lightdb.storage.BufferPool;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Scan operator on the table file in the binary paged format, read one page at a time through the
+ * buffer pool and take the values straight from the page, no parsing needed.
+ * Read batch by batch, the values of a page are copied column by column into the column vectors.
+ * The scan can be limited to a range of pages, so the partitions of a table are scanned in parallel.
+ *
+ * ClassName: BinaryScanOperator
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class BinaryScanOperator extends Operator {
+    private File tableFile; // binary table file
+    private long firstPage; // first page of the range
+    private long endPage; // page after the last page of the range
+    private Schema tableSchema; // schema with the table name as prefix -> Table.Column
+
+    private BufferPool bufferPool;
+    private int fileId; // file id in the buffer pool, -1 if the file cannot be opened
+    private long pageNumber; // next page of the range
+    private int frame = -1; // pinned frame of the current page, -1 if none
+    private ByteBuffer page;
+    private int pageTuples; // number of tuples on the current page
+    private int pageIndex; // next tuple on the current page
+    private Batch batch; // reused for every batch
+
+    // rows and bytes read since the last close, reported to the query metrics on close
+    private long rowsRead;
+    private long bytesRead;
+
+    /**
+     * Constructor: init the table schema and the page buffer.
+     *
+     * @param tableName table name or alias if have
+     * @param singleSchema schema without table name as prefix
+     * @param tableFile binary table file
+     */
+    public BinaryScanOperator(String tableName, List<String> singleSchema, File tableFile) {
+        this(tableName, singleSchema, tableFile, 0, Long.MAX_VALUE / DBCatalog.PAGE_SIZE);
+    }
+
+    /**
+     * Constructor: scan only the pages in the range.
+     *
+     * @param tableName table name or alias if have
+     * @param singleSchema schema without table name as prefix
+     * @param tableFile binary table file
+     * @param firstPage first page of the range
+     * @param endPage page after the last page of the range
+     */
+    public BinaryScanOperator(String tableName, List<String> singleSchema, File tableFile,
+                              long firstPage, long endPage) {
+        this.tableFile = tableFile;
+        this.tableSchema = Schema.of(tableName, singleSchema);
+        this.bufferPool = DBCatalog.getInstance().getBufferPool();
+        this.firstPage = firstPage;
+        this.endPage = endPage;
+        reset();
+    }
+
+    /**
+     * Unpin the current page, pin the next page of the range and read its header.
+     *
+     * @return false if no more pages
+     */
+    private boolean readPage() {
+        bufferPool.unpin(frame);
+        frame = -1;
+        if (fileId < 0 || pageNumber >= endPage) { // end of the range
+            return false;
+        }
+        try {
+            frame = bufferPool.pin(fileId, pageNumber++);
+        } catch (IOException e) {
+            System.err.println("Exception occurred when reading next page from database file.");
+            e.printStackTrace();
+        }
+        if (frame < 0) { // finish reading
+            return false;
+        }
+        page = bufferPool.getPage(frame);
+        bytesRead += page.limit();
+        if (page.limit() < BinaryTableWriter.HEADER_SIZE) {
+            return false;
+        }
+
+        page.getInt(); // number of columns, given by the schema
+        pageTuples = page.getInt();
+        pageIndex = 0;
+        return true;
+    }
+
+    /**
+     * Get next tuple from the current page, read next page if the current one is done.
+     *
+     * @return tuple object
+     */
+    @Override
+    public Tuple getNextTuple() {
+        while (pageIndex >= pageTuples) {
+            if (!readPage()) {
+                return null;
+            }
+        }
+
+        int[] tupleValues = new int[tableSchema.size()];
+        for (int i = 0; i < tupleValues.length; i++) {
+            tupleValues[i] = page.getInt();
+        }
+        pageIndex++;
+        rowsRead++;
+
+        return new Tuple(tableSchema, tupleValues);
+    }
+
+    /**
+     * Get next batch, copy the tuples of the pages into the column vectors until the batch is full.
+     *
+     * @return batch of rows
+     */
+    @Override
+    public Batch getNextBatch() {
+        if (batch == null) {
+            batch = new Batch(tableSchema);
+        }
+
+        int numColumns = tableSchema.size();
+        int rows = 0;
+        while (rows < Batch.CAPACITY) {
+            if (pageIndex >= pageTuples) {
+                if (!readPage()) {
+                    break;
+                }
+                continue;
+            }
+
+            // one column at a time, the values of a column are numColumns ints apart in the page
+            int take = Math.min(pageTuples - pageIndex, Batch.CAPACITY - rows);
+            int start = page.position();
+            for (int c = 0; c < numColumns; c++) {
+                int[] column = batch.getColumn(c);
+                int offset = start + c * Integer.BYTES;
+                for (int r = 0; r < take; r++) {
+                    column[rows + r] = page.getInt(offset + r * numColumns * Integer.BYTES);
+                }
+            }
+            page.position(start + take * numColumns * Integer.BYTES);
+            pageIndex += take;
+            rows += take;
+        }
+
+        if (rows == 0) {
+            return null;
+        }
+        rowsRead += rows;
+        batch.setRowCount(rows);
+        return batch;
+    }
+
+    /**
+     * Go back to the first page of the range, the file is opened again only if it has changed.
+     */
+    @Override
+    public void reset() {
+        bufferPool.unpin(frame);
+        frame = -1;
+        pageNumber = firstPage;
+        pageTuples = 0;
+        pageIndex = 0;
+        try {
+            fileId = bufferPool.openFile(tableFile);
+        } catch (IOException e) {
+            System.err.println("Exception occurred when opening the database file.");
+            e.printStackTrace();
+            fileId = -1;
+        }
+    }
+
+    /**
+     * Unpin the current page, the file stays open in the buffer pool, and report the rows and bytes read.
+     */
+    @Override
+    public void close() {
+        bufferPool.unpin(frame);
+        frame = -1;
+        pageTuples = 0;
+        pageIndex = 0;
+        QueryMetrics.recordTableRead(QueryMetrics.getTableName(tableFile), rowsRead, bytesRead);
+        rowsRead = 0;
+        bytesRead = 0;
+    }
+
+    /**
+     * Getter: get the table schema.
+     *
+     * @return table schema
+     */
+    @Override
+    public Schema getSchema() {
+        return tableSchema;
+    }
+
+    /**
+     * Describe the scan by its binary file, its page range if a partition, and schema.
+     *
+     * @return description
+     */
+    @Override
+    public String getDescription() {
+        return "BinaryScan " + tableFile.getName()
+                + ((firstPage > 0 || endPage < Long.MAX_VALUE / DBCatalog.PAGE_SIZE) ? " pages " + firstPage + "-" + (endPage - 1) : "")
+                + " " + tableSchema;
+    }
+}
@@ -0,0 +1,177 @@
+package ed.inf.adbs.lightdb.operators;
+
+import ed.inf.adbs.lightdb.models.Schema;
+import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.tools.Predicate;
+import ed.inf.adbs.lightdb.tools.PredicateCompiler;
+import net.sf.jsqlparser.expression.Expression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Has two children, join two tables on any condition expression.
+ * The left (outer) child is read in blocks of tuples, and the right (inner) child is scanned
+ * once per block instead of once per outer tuple, every inner tuple is compared with the whole block.
+ *
+ * ClassName: BlockNestedLoopJoinOperator
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class BlockNestedLoopJoinOperator extends Operator {
+    private Operator leftChild;
+    private Operator rightChild;
+    private Expression joinCondition; // may be null for cross product
+    private int blockSize; // number of outer tuples in one block
+
+    private Schema schema; // left schema followed by right schema
+    private Predicate joinPredicate; // compiled join condition, always true for cross product
+
+    private List<Tuple> block; // current block of outer tuples
+    private int blockIndex; // next outer tuple in block to compare with the inner tuple
+    private Tuple rightTuple; // current inner tuple
+    private boolean innerFresh; // true if the inner child has not been read since reset
+    private long peakBuffered; // max outer tuples in a block so far
+
+    /**
+     * Constructor: init the children, the join condition and the block size.
+     *
+     * @param joinCondition condition expression on join, null if no condition
+     * @param blockSize number of outer tuples in one block, at least one
+     * @param leftChild left child operator, the outer relation
+     * @param rightChild right child operator, the inner relation
+     */
+    public BlockNestedLoopJoinOperator(Expression joinCondition, int blockSize, Operator leftChild, Operator rightChild) {
+        this.joinCondition = joinCondition;
+        this.blockSize = Math.max(blockSize, 1);
+        this.leftChild = leftChild;
+        this.rightChild = rightChild;
+        this.schema = Schema.concat(leftChild.getSchema(), rightChild.getSchema());
+        this.block = new ArrayList<>();
+        this.innerFresh = true;
+
+        // compile the join condition once, the columns are resolved against both schemas
+        this.joinPredicate = PredicateCompiler.compile(joinCondition, leftChild.getSchema(), rightChild.getSchema());
+    }
+
+    /**
+     * Fill the block with the next outer tuples and rewind the inner child.
+     *
+     * @return false if no more outer tuples
+     */
+    private boolean loadBlock() {
+        block.clear();
+
+        Tuple tuple;
+        while (block.size() < blockSize && (tuple = leftChild.getNextTuple()) != null) {
+            block.add(tuple.detach()); // the block is kept while the inner child is scanned
+        }
+        if (block.isEmpty()) {
+            return false;
+        }
+        peakBuffered = Math.max(peakBuffered, block.size());
+
+        // the inner child is scanned once per block
+        if (!innerFresh) {
+            rightChild.reset();
+        }
+        innerFresh = false;
+
+        rightTuple = rightChild.getNextTuple();
+        blockIndex = 0;
+        return true;
+    }
+
+    /**
+     * For every inner tuple, compare with all outer tuples in the block,
+     * load next block when the inner child is exhausted.
+     *
+     * @return tuple object
+     */
+    @Override
+    public Tuple getNextTuple() {
+        while (true) {
+            // compare the current inner tuple with the rest of the block
+            while (rightTuple != null) {
+                while (blockIndex < block.size()) {
+                    Tuple leftTuple = block.get(blockIndex++);
+                    if (joinPredicate.test(leftTuple, rightTuple)) {
+                        return Tuple.join(schema, leftTuple, rightTuple);
+                    }
+                }
+
+                // move on the inner child and restart the block
+                rightTuple = rightChild.getNextTuple();
+                blockIndex = 0;
+            }
+
+            // the inner child is exhausted for this block, move to the next block
+            if (!loadBlock()) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Reset both the left and right child, drop the current block.
+     */
+    @Override
+    public void reset() {
+        leftChild.reset();
+        rightChild.reset();
+
+        block.clear();
+        rightTuple = null;
+        innerFresh = true;
+    }
+
+    /**
+     * Close both the left and right child.
+     */
+    @Override
+    public void close() {
+        leftChild.close();
+        rightChild.close();
+    }
+
+    /**
+     * Getter: get the joined schema.
+     *
+     * @return left schema followed by right schema
+     */
+    @Override
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Getter: get the outer and inner child.
+     *
+     * @return child operators
+     */
+    @Override
+    public List<Operator> getChildren() {
+        return Arrays.asList(leftChild, rightChild);
+    }
+
+    /**
+     * Describe the join by its condition and block size.
+     *
+     * @return description
+     */
+    @Override
+    public String getDescription() {
+        return "BlockNestedLoopJoin " + ((joinCondition == null) ? "cross product" : "[" + joinCondition + "]") + " block " + blockSize;
+    }
+
+    /**
+     * Getter: get the max number of outer tuples in a block.
+     *
+     * @return peak buffered tuples
+     */
+    @Override
+    public long getPeakBufferedTuples() {
+        return peakBuffered;
+    }
+}
@@ -1,76 +1,300 @@
 package ed.inf.adbs.lightdb.operators;
 
+import ed.inf.adbs.lightdb.models.Schema;
 import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+import ed.inf.adbs.lightdb.tools.IntRowSet;
+import ed.inf.adbs.lightdb.tools.TupleReader;
+import ed.inf.adbs.lightdb.tools.TupleWriter;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
 
 /**
  * Has one child, eliminate the duplicate tuples.
- * Consider that the output may only be sorted on some limited columns, so here not assumed
- * the output has been sorted, just use a hash set to check if current tuple exists.
+ * If the child is sorted on all output columns, the duplicates are adjacent and the tuple
+ * is only compared with the previous one. Otherwise the values of the output tuples are kept
+ * in a hash set of int rows, and once the set is over the memory budget, the tuples not in
+ * the set are spilled to hash partitions, then every partition is deduplicated the same way.
+ * The first tuple of every value is output as soon as it is read.
  *
  * @ClassName: DuplicateEliminationOperator
  * @Date: 14 March, 2021
  * @Author: Cyan
  */
 public class DuplicateEliminationOperator extends Operator {
+    private static final int PARTITIONS = 16; // number of partitions of one spill
+    private static final int MAX_LEVEL = 8; // partitions deeper than this are kept in memory
+
     private Operator child;
+    private boolean sortedInput; // true if the duplicates are adjacent
+
+    // sorted input
+    private Tuple previous;
+
+    // hashed input
+    private long memoryBudget; // max bytes of the hash set
+    private IntRowSet onceRows; // output rows of the current pass
+    private int level; // 0 when reading the child, or the spill depth of the partition being read
+    private TupleReader partitionReader; // null when reading the child
+    private File partitionFile;
+    private TupleWriter[] spillWriters; // partitions of the current pass, null if nothing spilled
+    private Deque<Partition> partitions; // spilled partitions not read yet
+    private boolean finished;
+    private long peakBuffered; // max rows of a hash set so far
+    private int spillDepth; // deepest level of a partition read so far
+
+    /**
+     * Spilled partition file with its spill depth.
+     */
+    private static class Partition {
+        private File file;
+        private int level;
 
-    private Set<Tuple> onceTuples;
-    private Tuple tuple;
+        private Partition(File file, int level) {
+            this.file = file;
+            this.level = level;
+        }
+    }
 
     /**
-     * Constructor: init the child operator
+     * Constructor: init the child operator, the child is not assumed to be sorted.
      *
      * @param child child operator
      */
     public DuplicateEliminationOperator(Operator child) {
-        this.child = child;
-        this.onceTuples = new HashSet<>();
+        this(child, false);
     }
 
     /**
-     * If the tuple map is contained in hash set, return true; else return false.
+     * Constructor: init the child operator.
+     * The memory budget is taken from the distinctBufferPages setting.
      *
-     * @param tuple tuple object
-     * @return true if contains in hash set
+     * @param child child operator
+     * @param sortedInput true if the child is sorted on all of its columns
      */
-    public boolean containTuple(Tuple tuple) {
-        for (Tuple once : onceTuples) {
-            if (once.getTupleMap().equals(tuple.getTupleMap())) {
-                return true;
-            }
-        }
-        return false;
+    public DuplicateEliminationOperator(Operator child, boolean sortedInput) {
+        this.child = child;
+        this.sortedInput = sortedInput;
+        this.memoryBudget = (long) DBCatalog.getInstance().getIntSetting("distinctBufferPages", 256) * DBCatalog.PAGE_SIZE;
+        this.partitions = new ArrayDeque<>();
+        this.onceRows = new IntRowSet(child.getSchema().size());
     }
 
     /**
-     * If the next tuple is not in the hash set, then add it and return.
+     * Get the next tuple whose values have not been output.
      *
      * @return non-duplicated tuple
      */
     @Override
     public Tuple getNextTuple() {
+        return sortedInput ? nextSorted() : nextHashed();
+    }
+
+    /**
+     * Skip the tuples equal to the previous output tuple.
+     *
+     * @return non-duplicated tuple
+     */
+    private Tuple nextSorted() {
+        Tuple tuple;
         while ((tuple = child.getNextTuple()) != null) {
-            if (onceTuples.isEmpty()) { // if hash set is empty, no need to judge
-                onceTuples.add(tuple);
+            if (previous == null || !Arrays.equals(previous.getValues(), tuple.getValues())) {
+                previous = tuple.detach(); // kept while the child moves on
                 return tuple;
             }
+        }
+        return null;
+    }
 
-            if (!containTuple(tuple)) { // if have not appeared in hash set, add and return
-                onceTuples.add(tuple);
+    /**
+     * Output the tuple if its values are not in the hash set and add them, spill it if the set is full.
+     * When the input of the current pass is exhausted, move on to the next spilled partition.
+     *
+     * @return non-duplicated tuple
+     */
+    private Tuple nextHashed() {
+        while (!finished) {
+            Tuple tuple = (partitionReader == null) ? child.getNextTuple() : partitionReader.read();
+            if (tuple == null) {
+                nextPartition();
+                continue;
+            }
+
+            int[] values = tuple.getValues();
+            if (onceRows.contains(values)) {
+                continue;
+            }
+            if (onceRows.memoryBytes() < memoryBudget || level >= MAX_LEVEL) {
+                onceRows.add(values); // the values are copied, the tuple may be reused by the child
                 return tuple;
             }
+            spill(tuple);
         }
         return null;
     }
 
     /**
-     * Use child reset function.
+     * Write the tuple to its partition, the partition function differs on every level,
+     * so a partition spilled again is split on other bits of the hash.
+     *
+     * @param tuple tuple object
+     * @throws UncheckedIOException if the partition file cannot be created
+     */
+    private void spill(Tuple tuple) {
+        if (spillWriters == null) {
+            spillWriters = new TupleWriter[PARTITIONS];
+        }
+
+        int hash = IntRowSet.mix(IntRowSet.hash(tuple.getValues()) + level * 0x9E3779B9);
+        int partition = (hash & Integer.MAX_VALUE) % PARTITIONS;
+        if (spillWriters[partition] == null) {
+            try {
+                spillWriters[partition] = new TupleWriter(DBCatalog.getInstance().createTempFile("distinct"));
+            } catch (IOException e) {
+                // the tuple cannot be dropped, the result would keep duplicates or miss values
+                throw new UncheckedIOException("Cannot create the distinct partition file.", e);
+            }
+        }
+        spillWriters[partition].write(tuple);
+    }
+
+    /**
+     * Finish the current pass: close its spilled partitions, delete the partition just read,
+     * and open the next partition with an empty hash set.
+     * The values output before cannot appear in the partitions, so the set can be dropped.
+     */
+    private void nextPartition() {
+        if (spillWriters != null) {
+            for (TupleWriter writer : spillWriters) {
+                if (writer != null) {
+                    writer.close();
+                    partitions.push(new Partition(writer.getFile(), level + 1));
+                }
+            }
+            spillWriters = null;
+        }
+        closePartition();
+
+        Partition partition = partitions.poll();
+        if (partition == null) {
+            finished = true;
+            return;
+        }
+        peakBuffered = Math.max(peakBuffered, onceRows.size());
+        onceRows = new IntRowSet(child.getSchema().size());
+        level = partition.level;
+        spillDepth = Math.max(spillDepth, level);
+        partitionFile = partition.file;
+        partitionReader = new TupleReader(partitionFile, child.getSchema());
+    }
+
+    /**
+     * Close and delete the partition being read.
+     */
+    private void closePartition() {
+        if (partitionReader != null) {
+            partitionReader.close();
+            partitionFile.delete();
+            partitionReader = null;
+            partitionFile = null;
+        }
+    }
+
+    /**
+     * Close and delete all partitions.
+     */
+    private void deletePartitions() {
+        if (spillWriters != null) {
+            for (TupleWriter writer : spillWriters) {
+                if (writer != null) {
+                    writer.delete();
+                }
+            }
+            spillWriters = null;
+        }
+        closePartition();
+        for (Partition partition : partitions) {
+            partition.file.delete();
+        }
+        partitions.clear();
+    }
+
+    /**
+     * Delete the partitions, clear the seen values and use child reset function.
      */
     @Override
     public void reset() {
+        deletePartitions();
+        peakBuffered = Math.max(peakBuffered, onceRows.size());
+        onceRows = new IntRowSet(child.getSchema().size());
+        level = 0;
+        finished = false;
+        previous = null;
         child.reset();
     }
+
+    /**
+     * Delete the partitions and close the child.
+     */
+    @Override
+    public void close() {
+        deletePartitions();
+        child.close();
+    }
+
+    /**
+     * Duplicate elimination keeps the schema of the child.
+     *
+     * @return child schema
+     */
+    @Override
+    public Schema getSchema() {
+        return child.getSchema();
+    }
+
+    /**
+     * Getter: get the child, the input with duplicates.
+     *
+     * @return child operators
+     */
+    @Override
+    public List<Operator> getChildren() {
+        return Collections.singletonList(child);
+    }
+
+    /**
+     * Describe whether the duplicates are skipped in sorted input or hashed.
+     *
+     * @return description
+     */
+    @Override
+    public String getDescription() {
+        return "DuplicateElimination " + (sortedInput ? "sorted" : "hashed");
+    }
+
+    /**
+     * Getter: get the max number of rows of a hash set.
+     *
+     * @return peak buffered tuples
+     */
+    @Override
+    public long getPeakBufferedTuples() {
+        return Math.max(peakBuffered, onceRows.size());
+    }
+
+    /**
+     * Getter: get the deepest level of a spilled partition read so far, 0 if nothing spilled.
+     *
+     * @return spill depth
+     */
+    int getSpillDepth() {
+        return spillDepth;
+    }
 }
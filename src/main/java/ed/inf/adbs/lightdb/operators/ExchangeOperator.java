@@ -0,0 +1,308 @@
+package ed.inf.adbs.lightdb.operators;
+
+import ed.inf.adbs.lightdb.models.Batch;
+import ed.inf.adbs.lightdb.models.Schema;
+import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Has many children of the same schema, e.g. the pipelines on the partitions of a table,
+ * and merges their outputs in no particular order.
+ * Every child is read batch by batch by a task on the shared fork join pool, the selected rows are copied
+ * into a batch of its own and put into a bounded queue, so a fast child waits for the consumer instead of
+ * filling the memory. The copied batches are recycled once the consumer is done with them.
+ * Waiting on the queue is a managed block, so when the consumer is itself a task of the pool, e.g. under
+ * a parallel hash join, the pool adds a worker meanwhile and the children are never starved.
+ *
+ * ClassName: ExchangeOperator
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class ExchangeOperator extends Operator {
+    private static final int QUEUE_BATCHES_PER_CHILD = 4;
+    private static final Batch END = new Batch(new Schema(Collections.emptyList())); // a child is done
+    private static ForkJoinPool pool; // shared by all exchanges
+
+    private List<Operator> children;
+    private Schema schema;
+
+    private BlockingQueue<Batch> queue;
+    private ConcurrentLinkedQueue<Batch> freeBatches; // batches the consumer is done with
+    private Future<?>[] tasks;
+    private volatile boolean cancelled;
+    private volatile Throwable error; // first error of a child
+    private int running; // children not done yet
+
+    private Batch batch; // current batch of the consumer
+    private int batchIndex; // next position in the selection vector of the current batch
+
+    /**
+     * Constructor: init the children and the queue.
+     *
+     * @param children children operators with the same schema
+     */
+    public ExchangeOperator(List<Operator> children) {
+        this.children = children;
+        this.schema = children.get(0).getSchema();
+        this.queue = new ArrayBlockingQueue<>(QUEUE_BATCHES_PER_CHILD * children.size() + children.size());
+        this.freeBatches = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Get the pool shared by all exchanges, sized by the current parallelism setting.
+     * When the setting has changed since the pool was created, e.g. by a new init or a statement setting,
+     * a pool of the new size replaces it, so the exchanges and the parallel hash join agree on the workers.
+     * The old pool still runs the tasks it was given, then its workers end.
+     *
+     * @return fork join pool
+     */
+    public static synchronized ForkJoinPool getPool() {
+        int parallelism = Math.max(DBCatalog.getInstance().getIntSetting("parallelism", Runtime.getRuntime().availableProcessors()), 1);
+        if (pool == null || pool.getParallelism() != parallelism) {
+            if (pool != null) {
+                pool.shutdown();
+            }
+            pool = new ForkJoinPool(parallelism);
+        }
+        return pool;
+    }
+
+    /**
+     * Start one task per child, every task copies the batches of its child into the queue.
+     */
+    private void start() {
+        cancelled = false;
+        error = null;
+        running = children.size();
+        tasks = new Future<?>[children.size()];
+        for (int i = 0; i < children.size(); i++) {
+            Operator child = children.get(i);
+            tasks[i] = getPool().submit(() -> produce(child));
+        }
+    }
+
+    /**
+     * Read the child until it ends or the exchange is cancelled, then put the end marker.
+     *
+     * @param child child operator
+     */
+    private void produce(Operator child) {
+        try {
+            Batch childBatch;
+            while (!cancelled && (childBatch = child.getNextBatch()) != null) {
+                Batch copy = freeBatches.poll();
+                if (copy == null) {
+                    copy = new Batch(schema);
+                }
+
+                // keep the selected rows only, the child overwrites its batch on the next call
+                int[] selection = childBatch.getSelection();
+                int count = childBatch.getCount();
+                for (int c = 0; c < schema.size(); c++) {
+                    int[] from = childBatch.getColumn(c);
+                    int[] to = copy.getColumn(c);
+                    for (int i = 0; i < count; i++) {
+                        to[i] = from[selection[i]];
+                    }
+                }
+                copy.setRowCount(count);
+                put(copy);
+            }
+        } catch (Throwable e) {
+            if (error == null) {
+                error = e;
+            }
+        } finally {
+            try {
+                put(END);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Put the batch into the queue, wait while it is full.
+     *
+     * @param item batch
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private void put(Batch item) throws InterruptedException {
+        ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+            private boolean done;
+
+            @Override
+            public boolean block() throws InterruptedException {
+                if (!done) {
+                    queue.put(item);
+                    done = true;
+                }
+                return true;
+            }
+
+            @Override
+            public boolean isReleasable() {
+                return done || (done = queue.offer(item));
+            }
+        });
+    }
+
+    /**
+     * Take a batch from the queue, wait while it is empty.
+     *
+     * @return batch
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private Batch take() throws InterruptedException {
+        Batch[] taken = new Batch[1];
+        ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+            @Override
+            public boolean block() throws InterruptedException {
+                if (taken[0] == null) {
+                    taken[0] = queue.take();
+                }
+                return true;
+            }
+
+            @Override
+            public boolean isReleasable() {
+                return taken[0] != null || (taken[0] = queue.poll()) != null;
+            }
+        });
+        return taken[0];
+    }
+
+    /**
+     * Take the next batch from the queue, recycle the previous one.
+     *
+     * @return next batch, or null if all children are done
+     */
+    @Override
+    public Batch getNextBatch() {
+        if (tasks == null) {
+            start();
+        }
+        if (batch != null) {
+            freeBatches.offer(batch);
+            batch = null;
+        }
+
+        try {
+            while (running > 0) {
+                Batch next = take();
+                if (next == END) {
+                    running--;
+                    continue;
+                }
+                batch = next;
+                batchIndex = 0;
+                return batch;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the parallel workers.", e);
+        }
+
+        if (error != null) {
+            throw new IllegalStateException("Exception occurred in a parallel worker.", error);
+        }
+        return null;
+    }
+
+    /**
+     * Get next tuple from the current batch, take the next batch if the current one is done.
+     *
+     * @return tuple object
+     */
+    @Override
+    public Tuple getNextTuple() {
+        while (batch == null || batchIndex >= batch.getCount()) {
+            if (getNextBatch() == null) {
+                return null;
+            }
+        }
+        return batch.getTuple(batch.getSelection()[batchIndex++]);
+    }
+
+    /**
+     * Stop the tasks and wait until they are done, taking their batches so none stays blocked on the queue.
+     */
+    private void stop() {
+        if (tasks == null) {
+            return;
+        }
+        cancelled = true;
+        try {
+            while (running > 0) {
+                if (take() == END) {
+                    running--;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        queue.clear();
+        tasks = null;
+        batch = null;
+    }
+
+    /**
+     * Stop the tasks and reset the children, the tasks are started again on the next call.
+     */
+    @Override
+    public void reset() {
+        stop();
+        for (Operator child : children) {
+            child.reset();
+        }
+    }
+
+    /**
+     * Stop the tasks and close the children.
+     */
+    @Override
+    public void close() {
+        stop();
+        for (Operator child : children) {
+            child.close();
+        }
+    }
+
+    /**
+     * Getter: get the children, e.g. to read the partitions directly in parallel.
+     *
+     * @return children operators
+     */
+    @Override
+    public List<Operator> getChildren() {
+        return children;
+    }
+
+    /**
+     * Getter: get the schema of the children.
+     *
+     * @return schema
+     */
+    @Override
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Describe the exchange by its number of inputs.
+     *
+     * @return description
+     */
+    @Override
+    public String getDescription() {
+        return "Exchange " + children.size() + " inputs";
+    }
+}
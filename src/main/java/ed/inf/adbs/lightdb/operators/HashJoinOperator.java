@@ -0,0 +1,402 @@
+package ed.inf.adbs.lightdb.operators;
+
+import ed.inf.adbs.lightdb.models.Batch;
+import ed.inf.adbs.lightdb.models.Schema;
+import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.models.TupleKey;
+import ed.inf.adbs.lightdb.tools.IntRowSet;
+import ed.inf.adbs.lightdb.tools.IntRowTable;
+import ed.inf.adbs.lightdb.tools.Predicate;
+import ed.inf.adbs.lightdb.tools.PredicateCompiler;
+import net.sf.jsqlparser.expression.Expression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Has two children, join two tables on equality of the key columns.
+ * Both children are read in lockstep until one of them ends, the one ending first is the
+ * smaller input, so the hash table is built on it and the other child is used to probe.
+ * Each child is read only once, the inner child is never rescanned.
+ * Read batch by batch, the children are read batch by batch too: the build rows are copied into a flat
+ * int row table, the keys of a whole probe batch are hashed in one loop, and the joined rows are
+ * gathered into the column vectors of the output batch.
+ *
+ * ClassName: HashJoinOperator
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class HashJoinOperator extends Operator {
+    private Operator leftChild;
+    private Operator rightChild;
+    private int[] leftKeys; // ordinals of the key columns in the left schema
+    private int[] rightKeys; // ordinals of the key columns in the right schema
+    private Expression residualCondition; // non-equality conjuncts, may be null
+
+    private Schema schema; // left schema followed by right schema
+    private Predicate residualPredicate; // compiled residual condition, always true if none
+
+    private Map<TupleKey, List<Tuple>> hashTable;
+    private boolean buildLeft; // true if the hash table is built on the left child
+    private long peakBuffered; // max build and buffered probe rows so far
+    private Operator probeChild;
+    private Iterator<Tuple> probeBuffer; // probe tuples read while finding the smaller input
+
+    private Tuple probeTuple;
+    private List<Tuple> matches;
+    private int matchIndex;
+
+    private IntRowTable buildTable; // build rows indexed on the keys, batch by batch only
+    private IntRowTable probeRows; // probe rows read while finding the smaller input
+    private int probeRowIndex; // next row of the probe rows to probe
+    private Batch probeRowBatch; // batch the probe rows are copied into
+    private Batch probeBatch; // current probe batch
+    private int[] probeHashes; // hash of the keys of every selected row of the probe batch
+    private int probeIndex; // position in the selection vector of the probe batch
+    private int match; // current matching build row, -1 if none
+    private boolean probeFinished;
+    private Batch batch; // output batch
+    private int[] leftValues; // residual condition only, values of the left row
+    private int[] rightValues; // residual condition only, values of the right row
+    private Tuple leftTuple;
+    private Tuple rightTuple;
+
+    /**
+     * Constructor: init the children, the key columns and the residual condition.
+     *
+     * @param leftKeys ordinals of the key columns in the left schema
+     * @param rightKeys ordinals of the key columns in the right schema, paired with left keys
+     * @param residualCondition condition on non-equality conjuncts, null if none
+     * @param leftChild left child operator
+     * @param rightChild right child operator
+     */
+    public HashJoinOperator(int[] leftKeys, int[] rightKeys, Expression residualCondition,
+                            Operator leftChild, Operator rightChild) {
+        this.leftKeys = leftKeys;
+        this.rightKeys = rightKeys;
+        this.residualCondition = residualCondition;
+        this.leftChild = leftChild;
+        this.rightChild = rightChild;
+        this.schema = Schema.concat(leftChild.getSchema(), rightChild.getSchema());
+
+        // residual condition is evaluated on the left and right tuple pair
+        this.residualPredicate = PredicateCompiler.compile(residualCondition, leftChild.getSchema(), rightChild.getSchema());
+    }
+
+    /**
+     * Read both children in lockstep until one ends, then build the hash table on the
+     * finished child and keep the tuples already read from the other one for probing.
+     * On a tie the right child is built, so the output follows the left order.
+     */
+    private void build() {
+        List<Tuple> leftTuples = new ArrayList<>();
+        List<Tuple> rightTuples = new ArrayList<>();
+
+        Tuple tuple;
+        while (true) {
+            if ((tuple = rightChild.getNextTuple()) == null) {
+                buildLeft = false;
+                break;
+            }
+            rightTuples.add(tuple.detach());
+
+            if ((tuple = leftChild.getNextTuple()) == null) {
+                buildLeft = true;
+                break;
+            }
+            leftTuples.add(tuple.detach());
+        }
+
+        // the finished child is the smaller input, insert all its tuples into the hash table
+        List<Tuple> buildTuples = buildLeft ? leftTuples : rightTuples;
+        int[] buildKeys = buildLeft ? leftKeys : rightKeys;
+
+        peakBuffered = Math.max(peakBuffered, leftTuples.size() + rightTuples.size());
+        hashTable = new HashMap<>();
+        for (Tuple buildTuple : buildTuples) {
+            hashTable.computeIfAbsent(new TupleKey(buildTuple, buildKeys), k -> new ArrayList<>()).add(buildTuple);
+        }
+
+        probeChild = buildLeft ? rightChild : leftChild;
+        probeBuffer = (buildLeft ? rightTuples : leftTuples).iterator();
+    }
+
+    /**
+     * Get next probe tuple, first the buffered ones, then from the probe child.
+     *
+     * @return probe tuple, or null if no more
+     */
+    private Tuple nextProbeTuple() {
+        if (probeBuffer.hasNext()) {
+            return probeBuffer.next();
+        }
+        return probeChild.getNextTuple();
+    }
+
+    /**
+     * Probe the hash table with the probe tuples and return the next joined tuple
+     * which also satisfies the residual condition.
+     *
+     * @return tuple object
+     */
+    @Override
+    public Tuple getNextTuple() {
+        if (hashTable == null) {
+            build();
+        }
+        if (hashTable.isEmpty()) { // nothing can match, no need to read the probe child
+            return null;
+        }
+
+        while (true) {
+            // iterate the matches of the current probe tuple
+            while (matches != null && matchIndex < matches.size()) {
+                Tuple match = matches.get(matchIndex++);
+                Tuple left = buildLeft ? match : probeTuple;
+                Tuple right = buildLeft ? probeTuple : match;
+
+                if (residualPredicate.test(left, right)) {
+                    return Tuple.join(schema, left, right);
+                }
+            }
+
+            // move to the next probe tuple
+            if ((probeTuple = nextProbeTuple()) == null) {
+                matches = null;
+                return null;
+            }
+            matches = hashTable.getOrDefault(new TupleKey(probeTuple, buildLeft ? rightKeys : leftKeys),
+                    Collections.emptyList());
+            matchIndex = 0;
+        }
+    }
+
+    /**
+     * Read both children batch by batch in lockstep until one ends, then index the rows of the finished
+     * child on its keys and keep the rows already read from the other one for probing.
+     */
+    private void buildBatches() {
+        IntRowTable leftRows = new IntRowTable(leftChild.getSchema().size());
+        IntRowTable rightRows = new IntRowTable(rightChild.getSchema().size());
+
+        Batch childBatch;
+        while (true) {
+            if ((childBatch = rightChild.getNextBatch()) == null) {
+                buildLeft = false;
+                break;
+            }
+            rightRows.addAll(childBatch);
+
+            if ((childBatch = leftChild.getNextBatch()) == null) {
+                buildLeft = true;
+                break;
+            }
+            leftRows.addAll(childBatch);
+        }
+
+        peakBuffered = Math.max(peakBuffered, leftRows.size() + rightRows.size());
+        buildTable = buildLeft ? leftRows : rightRows;
+        buildTable.index(buildLeft ? leftKeys : rightKeys);
+        probeChild = buildLeft ? rightChild : leftChild;
+        probeRows = buildLeft ? rightRows : leftRows;
+        probeRowIndex = 0;
+        probeRowBatch = new Batch(probeChild.getSchema());
+        probeHashes = new int[Batch.CAPACITY];
+        match = -1;
+        probeFinished = false;
+
+        if (residualPredicate != Predicate.TRUE) {
+            leftValues = new int[leftChild.getSchema().size()];
+            rightValues = new int[rightChild.getSchema().size()];
+            leftTuple = Tuple.reused(leftChild.getSchema(), leftValues);
+            rightTuple = Tuple.reused(rightChild.getSchema(), rightValues);
+        }
+    }
+
+    /**
+     * Get next probe batch, first the buffered rows, then from the probe child, and hash the keys
+     * of all its selected rows.
+     *
+     * @return probe batch, or null if no more
+     */
+    private Batch nextProbeBatch() {
+        Batch next = null;
+        if (probeRowIndex < probeRows.size()) {
+            probeRowIndex += probeRows.copyTo(probeRowBatch, probeRowIndex);
+            next = probeRowBatch;
+        } else if (!probeFinished) {
+            next = probeChild.getNextBatch();
+            probeFinished = (next == null);
+        }
+        if (next == null) {
+            return null;
+        }
+
+        // one loop per key column over the whole batch
+        int[] probeKeys = buildLeft ? rightKeys : leftKeys;
+        int[] selection = next.getSelection();
+        int count = next.getCount();
+        Arrays.fill(probeHashes, 0, count, 1);
+        for (int key : probeKeys) {
+            int[] column = next.getColumn(key);
+            for (int i = 0; i < count; i++) {
+                probeHashes[i] = 31 * probeHashes[i] + column[selection[i]];
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            probeHashes[i] = IntRowSet.mix(probeHashes[i]);
+        }
+        return next;
+    }
+
+    /**
+     * Probe the indexed build rows with the probe batches and gather the joined rows
+     * which also satisfy the residual condition into the output batch.
+     *
+     * @return batch of joined rows
+     */
+    @Override
+    public Batch getNextBatch() {
+        if (buildTable == null) {
+            buildBatches();
+        }
+        if (buildTable.size() == 0) { // nothing can match, no need to read the probe child
+            return null;
+        }
+        if (batch == null) {
+            batch = new Batch(schema);
+        }
+
+        int[] probeKeys = buildLeft ? rightKeys : leftKeys;
+        int leftWidth = leftChild.getSchema().size();
+        int rightWidth = rightChild.getSchema().size();
+        int rows = 0;
+        while (rows < Batch.CAPACITY) {
+            // move to the next probe row
+            if (match < 0) {
+                if (probeBatch == null || probeIndex >= probeBatch.getCount()) {
+                    if ((probeBatch = nextProbeBatch()) == null) {
+                        break;
+                    }
+                    probeIndex = 0;
+                    continue;
+                }
+                int probeRow = probeBatch.getSelection()[probeIndex];
+                match = buildTable.find(probeHashes[probeIndex], probeBatch, probeRow, probeKeys);
+                if (match < 0) {
+                    probeIndex++;
+                }
+                continue;
+            }
+
+            // output the current match if it satisfies the residual condition
+            int probeRow = probeBatch.getSelection()[probeIndex];
+            if (residualPredicate == Predicate.TRUE || testResidual(probeRow)) {
+                for (int c = 0; c < leftWidth; c++) {
+                    batch.getColumn(c)[rows] = buildLeft
+                            ? buildTable.getValue(match, c) : probeBatch.getColumn(c)[probeRow];
+                }
+                for (int c = 0; c < rightWidth; c++) {
+                    batch.getColumn(leftWidth + c)[rows] = buildLeft
+                            ? probeBatch.getColumn(c)[probeRow] : buildTable.getValue(match, c);
+                }
+                rows++;
+            }
+            match = buildTable.findNext(match, probeBatch, probeRow, probeKeys);
+            if (match < 0) {
+                probeIndex++;
+            }
+        }
+
+        if (rows == 0) {
+            return null;
+        }
+        batch.setRowCount(rows);
+        return batch;
+    }
+
+    /**
+     * Evaluate the residual condition on the current match and the probe row.
+     *
+     * @param probeRow row of the probe batch
+     * @return true if the pair satisfies the residual condition
+     */
+    private boolean testResidual(int probeRow) {
+        int[] buildValues = buildLeft ? leftValues : rightValues;
+        for (int c = 0; c < buildValues.length; c++) {
+            buildValues[c] = buildTable.getValue(match, c);
+        }
+        probeBatch.getRow(probeRow, buildLeft ? rightValues : leftValues);
+        return residualPredicate.test(leftTuple, rightTuple);
+    }
+
+    /**
+     * Reset both children and drop the hash table, it is rebuilt on the next call.
+     */
+    @Override
+    public void reset() {
+        leftChild.reset();
+        rightChild.reset();
+
+        hashTable = null;
+        matches = null;
+        probeTuple = null;
+        buildTable = null;
+        probeRows = null;
+        probeBatch = null;
+    }
+
+    /**
+     * Close both the left and right child.
+     */
+    @Override
+    public void close() {
+        leftChild.close();
+        rightChild.close();
+    }
+
+    /**
+     * Getter: get the joined schema.
+     *
+     * @return left schema followed by right schema
+     */
+    @Override
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Getter: get the left and right child.
+     *
+     * @return child operators
+     */
+    @Override
+    public List<Operator> getChildren() {
+        return Arrays.asList(leftChild, rightChild);
+    }
+
+    /**
+     * Describe the join by its equality keys and residual condition.
+     *
+     * @return description
+     */
+    @Override
+    public String getDescription() {
+        return "HashJoin " + describeKeys(leftChild.getSchema(), leftKeys, rightChild.getSchema(), rightKeys, residualCondition);
+    }
+
+    /**
+     * Getter: get the max number of rows read before probing, the build rows and the probe rows buffered meanwhile.
+     *
+     * @return peak buffered tuples
+     */
+    @Override
+    public long getPeakBufferedTuples() {
+        return peakBuffered;
+    }
+}
@@ -0,0 +1,317 @@
+package ed.inf.adbs.lightdb.operators;
+
+import ed.inf.adbs.lightdb.models.IndexInfo;
+import ed.inf.adbs.lightdb.metrics.QueryMetrics;
+import ed.inf.adbs.lightdb.models.Schema;
+import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.storage.BinaryTableWriter;
+import ed.inf.adbs.lightdb.storage.BufferPool;
+import ed.inf.adbs.lightdb.storage.IndexBuilder;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Scan operator through a B+-tree index, return the tuples whose key is in the range [lowKey, highKey].
+ * Descend from the root to the leaf of the first key not less than lowKey, then go through the leaves.
+ * If the index is clustered, the table is sorted on the key, so read the binary table file sequentially
+ * from the first record id until the key is greater than highKey.
+ * Otherwise fetch the page of every record id, the page is kept while the record ids point to it.
+ * The index and table pages are read through the buffer pool, the current leaf and table page stay pinned.
+ *
+ * ClassName: IndexScanOperator
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class IndexScanOperator extends Operator {
+    private Schema tableSchema; // schema with the table name as prefix -> Table.Column
+    private IndexInfo index;
+    private int keyColumn; // ordinal of the key in the tuple
+    private Integer lowKey; // inclusive, null if unbounded
+    private Integer highKey; // inclusive, null if unbounded
+
+    private BufferPool bufferPool;
+    private int indexFileId; // file ids in the buffer pool
+    private int tableFileId;
+    private int nodeFrame = -1; // pinned frame of the current node, -1 if none
+    private int pageFrame = -1; // pinned frame of the current page of the table, -1 if none
+    private ByteBuffer node; // current leaf
+    private ByteBuffer page; // current page of the table
+    private long pageId; // address of the current page of the table, -1 if none
+    private int pageTuples; // number of tuples on the current page
+
+    private int leafAddress; // address of the current leaf
+    private int numLeaves;
+    private int leafEntries; // remaining entries on the current leaf
+    private int entryRids; // remaining record ids of the current entry
+    private boolean sequential; // clustered and the first record id found, read the table sequentially
+    private int tupleId; // next tuple on the current page when reading sequentially
+    private boolean finished;
+
+    // rows and bytes read since the last close, reported to the query metrics on close
+    private long rowsRead;
+    private long bytesRead; // index nodes and table pages pinned
+
+    /**
+     * Constructor: init the table schema, open the index and table files and descend to the first leaf.
+     *
+     * @param tableName alias of the table if have, otherwise the table name, the prefix of the schema
+     * @param singleSchema schema without table name as prefix
+     * @param index index on the table
+     * @param lowKey smallest key to return, null if unbounded
+     * @param highKey largest key to return, null if unbounded
+     */
+    public IndexScanOperator(String tableName, List<String> singleSchema, IndexInfo index, Integer lowKey, Integer highKey) {
+        this.tableSchema = Schema.of(tableName, singleSchema);
+        this.index = index;
+        this.keyColumn = singleSchema.indexOf(index.getColumn());
+        this.lowKey = lowKey;
+        this.highKey = highKey;
+        this.bufferPool = DBCatalog.getInstance().getBufferPool();
+        reset();
+    }
+
+    /**
+     * Unpin the current node and pin the node of the index.
+     *
+     * @param address page number in the index file
+     * @throws IOException if the node is beyond the end of the index file or cannot be read
+     */
+    private void readNode(int address) throws IOException {
+        bufferPool.unpin(nodeFrame);
+        nodeFrame = bufferPool.pin(indexFileId, address);
+        if (nodeFrame < 0) {
+            throw new IOException("Index node " + address + " is beyond the end of the index file.");
+        }
+        node = bufferPool.getPage(nodeFrame);
+        bytesRead += node.limit();
+    }
+
+    /**
+     * Descend from the root to the leaf which may hold lowKey, and move to its first entry not less than lowKey.
+     *
+     * @throws IOException if the index file cannot be read
+     */
+    private void descend() throws IOException {
+        readNode(0);
+        int address = node.getInt();
+        numLeaves = node.getInt();
+
+        // go to the child left of the first key greater than lowKey, the keys equal to lowKey may be on its left
+        while (true) {
+            readNode(address);
+            if (node.getInt() == IndexBuilder.LEAF_FLAG) {
+                break;
+            }
+            int numKeys = node.getInt();
+            int child = 0;
+            while (lowKey != null && child < numKeys && node.getInt(2 * Integer.BYTES + child * Integer.BYTES) < lowKey) {
+                child++;
+            }
+            address = node.getInt((2 + numKeys + child) * Integer.BYTES);
+        }
+        leafAddress = address;
+        leafEntries = node.getInt();
+
+        // skip the entries less than lowKey, they may fill the whole leaf
+        while (lowKey != null) {
+            if (leafEntries == 0) {
+                if (!nextLeaf()) {
+                    return;
+                }
+                continue;
+            }
+            int key = node.getInt(node.position());
+            if (key >= lowKey) {
+                return;
+            }
+            node.position(node.position() + 2 * Integer.BYTES + node.getInt(node.position() + Integer.BYTES) * 2 * Integer.BYTES);
+            leafEntries--;
+        }
+    }
+
+    /**
+     * Read the next leaf, the leaves are consecutive pages.
+     *
+     * @return false if no more leaves
+     * @throws IOException if the index file cannot be read
+     */
+    private boolean nextLeaf() throws IOException {
+        if (leafAddress >= numLeaves) {
+            finished = true;
+            return false;
+        }
+        readNode(++leafAddress);
+        node.getInt(); // leaf flag
+        leafEntries = node.getInt();
+        return true;
+    }
+
+    /**
+     * Read the page of the table into the buffer, unless it is the current page.
+     *
+     * @param address page number in the binary table file
+     * @return false if the page is beyond the end of the file
+     * @throws IOException if the table file cannot be read
+     */
+    private boolean readTablePage(long address) throws IOException {
+        if (address == pageId) {
+            return true;
+        }
+        pageId = -1;
+        bufferPool.unpin(pageFrame);
+        pageFrame = bufferPool.pin(tableFileId, address);
+        if (pageFrame < 0) {
+            return false;
+        }
+        page = bufferPool.getPage(pageFrame);
+        bytesRead += page.limit();
+        page.getInt(); // number of columns, given by the schema
+        pageTuples = page.getInt();
+        pageId = address;
+        return true;
+    }
+
+    /**
+     * Read the tuple from the current page of the table.
+     *
+     * @param id tuple number in the page
+     * @return tuple object
+     */
+    private Tuple readTuple(int id) {
+        int[] tupleValues = new int[tableSchema.size()];
+        int offset = BinaryTableWriter.HEADER_SIZE + id * tupleValues.length * Integer.BYTES;
+        for (int i = 0; i < tupleValues.length; i++) {
+            tupleValues[i] = page.getInt(offset + i * Integer.BYTES);
+        }
+        return new Tuple(tableSchema, tupleValues);
+    }
+
+    /**
+     * Get next tuple in the key range, in key order.
+     *
+     * @return tuple object
+     */
+    @Override
+    public Tuple getNextTuple() {
+        try {
+            while (!finished) {
+                if (sequential) {
+                    // clustered: the tuples follow in key order in the table file
+                    if (tupleId >= pageTuples) {
+                        if (!readTablePage(pageId + 1)) {
+                            finished = true;
+                            return null;
+                        }
+                        tupleId = 0;
+                        continue;
+                    }
+                    Tuple tuple = readTuple(tupleId++);
+                    if (highKey != null && tuple.getValue(keyColumn) > highKey) {
+                        finished = true;
+                        return null;
+                    }
+                    rowsRead++;
+                    return tuple;
+                }
+
+                // next record id from the leaves
+                if (entryRids == 0) {
+                    if (leafEntries == 0) {
+                        if (!nextLeaf()) {
+                            return null;
+                        }
+                        continue;
+                    }
+                    int key = node.getInt();
+                    if (highKey != null && key > highKey) {
+                        finished = true;
+                        return null;
+                    }
+                    entryRids = node.getInt();
+                    leafEntries--;
+                    continue;
+                }
+                int ridPage = node.getInt();
+                int ridTuple = node.getInt();
+                entryRids--;
+
+                if (!readTablePage(ridPage)) {
+                    finished = true;
+                    return null;
+                }
+                if (index.isClustered()) {
+                    sequential = true;
+                    tupleId = ridTuple;
+                    continue;
+                }
+                rowsRead++;
+                return readTuple(ridTuple);
+            }
+        } catch (IOException e) {
+            System.err.println("Exception occurred when reading the index file.");
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Descend the tree again, the files are opened again only if they have changed.
+     */
+    @Override
+    public void reset() {
+        close();
+        pageId = -1;
+        pageTuples = 0;
+        entryRids = 0;
+        leafEntries = 0;
+        sequential = false;
+        finished = false;
+        try {
+            indexFileId = bufferPool.openFile(DBCatalog.getInstance().getIndexFile(index));
+            tableFileId = bufferPool.openFile(DBCatalog.getInstance().getTableFile(index.getTableName(), ".bin"));
+            descend();
+        } catch (IOException e) {
+            System.err.println("Exception occurred when reading the index file.");
+            e.printStackTrace();
+            finished = true;
+        }
+    }
+
+    /**
+     * Unpin the current node and page, the files stay open in the buffer pool, and report the rows and bytes read.
+     */
+    @Override
+    public void close() {
+        bufferPool.unpin(nodeFrame);
+        bufferPool.unpin(pageFrame);
+        nodeFrame = -1;
+        pageFrame = -1;
+        QueryMetrics.recordTableRead(index.getTableName(), rowsRead, bytesRead);
+        rowsRead = 0;
+        bytesRead = 0;
+    }
+
+    /**
+     * Getter: get the table schema.
+     *
+     * @return table schema
+     */
+    @Override
+    public Schema getSchema() {
+        return tableSchema;
+    }
+
+    /**
+     * Describe the scan by its index and key range.
+     *
+     * @return description
+     */
+    @Override
+    public String getDescription() {
+        return "IndexScan " + index.getTableName() + "." + index.getColumn() + (index.isClustered() ? " clustered" : "")
+                + " [" + ((lowKey == null) ? "-inf" : lowKey) + ", " + ((highKey == null) ? "+inf" : highKey) + "] " + tableSchema;
+    }
+}
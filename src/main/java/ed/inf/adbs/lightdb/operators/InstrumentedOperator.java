@@ -0,0 +1,197 @@
+package ed.inf.adbs.lightdb.operators;
+
+import ed.inf.adbs.lightdb.models.Batch;
+import ed.inf.adbs.lightdb.models.Schema;
+import ed.inf.adbs.lightdb.models.Tuple;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decorator of an operator for EXPLAIN ANALYZE, counts the calls, the resets and the rows output,
+ * and the wall and CPU time spent in the operator. The plan is only built with these decorators
+ * for EXPLAIN ANALYZE, the other queries run the operators undecorated and pay nothing.
+ * The times include the children, the self time subtracts the times of the decorated children.
+ * The partitions of an exchange run on worker threads, their times overlap the time of the exchange.
+ *
+ * ClassName: InstrumentedOperator
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class InstrumentedOperator extends Operator {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final Operator operator;
+    private final boolean cpuTimed; // false if the JVM cannot measure the CPU time of a thread
+
+    private long tupleCalls;
+    private long batchCalls;
+    private long resets;
+    private long rows; // rows output
+    private long wallNanos;
+    private long cpuNanos;
+
+    /**
+     * Constructor: decorate the operator.
+     *
+     * @param operator operator to measure
+     */
+    public InstrumentedOperator(Operator operator) {
+        this.operator = operator;
+        this.cpuTimed = THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+    }
+
+    /**
+     * Get the decorated operator, or the operator itself if not decorated,
+     * for the planning decisions made on the kind of an operator.
+     *
+     * @param operator operator
+     * @return undecorated operator
+     */
+    public static Operator unwrap(Operator operator) {
+        return (operator instanceof InstrumentedOperator) ? ((InstrumentedOperator) operator).operator : operator;
+    }
+
+    @Override
+    public Tuple getNextTuple() {
+        long wall = System.nanoTime();
+        long cpu = cpuTime();
+        Tuple tuple = operator.getNextTuple();
+        record(wall, cpu);
+        tupleCalls++;
+        if (tuple != null) {
+            rows++;
+        }
+        return tuple;
+    }
+
+    @Override
+    public Batch getNextBatch() {
+        long wall = System.nanoTime();
+        long cpu = cpuTime();
+        Batch batch = operator.getNextBatch();
+        record(wall, cpu);
+        batchCalls++;
+        if (batch != null) {
+            rows += batch.getCount();
+        }
+        return batch;
+    }
+
+    @Override
+    public void reset() {
+        long wall = System.nanoTime();
+        long cpu = cpuTime();
+        operator.reset();
+        record(wall, cpu);
+        resets++;
+    }
+
+    @Override
+    public void close() {
+        operator.close();
+    }
+
+    @Override
+    public Schema getSchema() {
+        return operator.getSchema();
+    }
+
+    @Override
+    public List<Operator> getChildren() {
+        return operator.getChildren();
+    }
+
+    @Override
+    public long getPeakBufferedTuples() {
+        return operator.getPeakBufferedTuples();
+    }
+
+    /**
+     * Describe the decorated operator followed by its counters.
+     *
+     * @return description with the counters
+     */
+    @Override
+    public String getDescription() {
+        List<InstrumentedOperator> inputs = new ArrayList<>();
+        collectInputs(operator, inputs);
+        long rowsIn = 0;
+        long childNanos = 0;
+        for (InstrumentedOperator input : inputs) {
+            rowsIn += input.rows;
+            childNanos += input.wallNanos;
+        }
+
+        StringBuilder description = new StringBuilder(operator.getDescription());
+        description.append(" (rows in=").append(rowsIn).append(" out=").append(rows);
+        description.append(", calls tuple=").append(tupleCalls).append(" batch=").append(batchCalls);
+        description.append(", resets=").append(resets);
+        description.append(String.format(", time=%.3f ms self=%.3f ms", wallNanos / 1e6, Math.max(wallNanos - childNanos, 0) / 1e6));
+        if (cpuTimed) {
+            description.append(String.format(" cpu=%.3f ms", cpuNanos / 1e6));
+        }
+        if (getPeakBufferedTuples() > 0) {
+            description.append(", peak buffered=").append(getPeakBufferedTuples());
+        }
+        return description.append(')').toString();
+    }
+
+    /**
+     * Collect the nearest instrumented operators below the operator. The operators built inside
+     * another operator, e.g. the sorts of a sort merge join, are not instrumented, their time is
+     * counted as the time of the operator that built them.
+     *
+     * @param parent operator
+     * @param inputs instrumented operators found
+     */
+    private static void collectInputs(Operator parent, List<InstrumentedOperator> inputs) {
+        for (Operator child : parent.getChildren()) {
+            if (child instanceof InstrumentedOperator) {
+                inputs.add((InstrumentedOperator) child);
+            } else {
+                collectInputs(child, inputs);
+            }
+        }
+    }
+
+    /**
+     * Getter: get the number of rows output.
+     *
+     * @return rows output
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Getter: get the wall time spent in the operator and its children.
+     *
+     * @return wall time in nanoseconds
+     */
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    /**
+     * Get the CPU time of the current thread.
+     *
+     * @return CPU time in nanoseconds, 0 if not measured
+     */
+    private long cpuTime() {
+        return cpuTimed ? THREADS.getCurrentThreadCpuTime() : 0;
+    }
+
+    /**
+     * Add the time since the start of a call.
+     *
+     * @param wall wall clock at the start
+     * @param cpu CPU time at the start
+     */
+    private void record(long wall, long cpu) {
+        wallNanos += System.nanoTime() - wall;
+        cpuNanos += cpuTime() - cpu;
+    }
+}
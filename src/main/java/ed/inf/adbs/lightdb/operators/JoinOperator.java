@@ -1,12 +1,13 @@
 package ed.inf.adbs.lightdb.operators;
 
+import ed.inf.adbs.lightdb.models.Schema;
 import ed.inf.adbs.lightdb.models.Tuple;
-import ed.inf.adbs.lightdb.tools.JoinVisitor;
+import ed.inf.adbs.lightdb.tools.Predicate;
+import ed.inf.adbs.lightdb.tools.PredicateCompiler;
 import net.sf.jsqlparser.expression.Expression;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Has two children, join two tables on condition expression.
@@ -22,11 +23,13 @@ public class JoinOperator extends Operator{
 
     private Tuple leftTuple;
     private Tuple rightTuple;
+    private boolean started; // true once the first left and right tuples are read
     private Tuple resultTuple;
-    private JoinVisitor joinVisitor;
+    private Predicate joinPredicate; // compiled join condition, always true if no condition
+    private Schema schema; // left schema followed by right schema
 
     /**
-     * Constructor: init the variables and get the left and right tuple first.
+     * Constructor: init the variables, the left and right tuple are read on the first call.
      *
      * @param joinCondition condition expression on join
      * @param leftChild left child operator
@@ -36,10 +39,10 @@ public class JoinOperator extends Operator{
         this.joinCondition = joinCondition;
         this.leftChild = leftChild;
         this.rightChild = rightChild;
+        this.schema = Schema.concat(leftChild.getSchema(), rightChild.getSchema());
 
-        // need to get the left and right tuple first
-        this.leftTuple = leftChild.getNextTuple();
-        this.rightTuple = rightChild.getNextTuple();
+        // compile the join condition once, the columns are resolved against both schemas
+        this.joinPredicate = PredicateCompiler.compile(joinCondition, leftChild.getSchema(), rightChild.getSchema());
     }
 
     /**
@@ -50,22 +53,7 @@ public class JoinOperator extends Operator{
      * @return joined tuple
      */
     public Tuple combineTuples(Tuple left, Tuple right) {
-        List<String> tupleColumns = new ArrayList<>();
-        List<Integer> tupleValues = new ArrayList<>();
-
-        // first iterate the left tuple columns and values
-        for (Map.Entry<String, Integer> entry : left.getTupleMap().entrySet()) {
-            tupleColumns.add(entry.getKey());
-            tupleValues.add(entry.getValue());
-        }
-
-        // then iterate the right tuple columns and values
-        for (Map.Entry<String, Integer> entry : right.getTupleMap().entrySet()) {
-            tupleColumns.add(entry.getKey());
-            tupleValues.add(entry.getValue());
-        }
-
-        return new Tuple(tupleValues, tupleColumns);
+        return Tuple.join(schema, left, right);
     }
 
     /**
@@ -78,17 +66,18 @@ public class JoinOperator extends Operator{
         // IMPORTANT: should clear the result tuple every time call the function
         resultTuple = null;
 
+        // need to get the left and right tuple first
+        if (!started) {
+            leftTuple = leftChild.getNextTuple();
+            rightTuple = rightChild.getNextTuple();
+            started = true;
+        }
+
         // only loop when still having left and right tuples
         while (leftTuple != null && rightTuple != null) {
-            if (joinCondition == null) { // if no condition, just combine
+            // if no condition, the predicate is always true and just combine
+            if (joinPredicate.test(leftTuple, rightTuple)) {
                 resultTuple = combineTuples(leftTuple, rightTuple);
-            }  else { // if have condition, determine whether satisfy
-                joinVisitor = new JoinVisitor(leftTuple, rightTuple); // init the join visitor
-                joinCondition.accept(joinVisitor); // evaluate the tuple
-
-                if (joinVisitor.getTupleEvaluationResult()) {
-                    resultTuple = combineTuples(leftTuple, rightTuple);
-                }
             }
 
             // scan the table on the right and keep the left table fixed
@@ -113,11 +102,51 @@ public class JoinOperator extends Operator{
     }
 
     /**
-     * Reset both the left and right child.
+     * Reset both the left and right child, the first tuples are read again on the next call.
      */
     @Override
     public void reset() {
         leftChild.reset();
         rightChild.reset();
+        started = false;
+    }
+
+    /**
+     * Close both the left and right child.
+     */
+    @Override
+    public void close() {
+        leftChild.close();
+        rightChild.close();
+    }
+
+    /**
+     * Getter: get the joined schema.
+     *
+     * @return left schema followed by right schema
+     */
+    @Override
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Getter: get the outer and inner child.
+     *
+     * @return child operators
+     */
+    @Override
+    public List<Operator> getChildren() {
+        return Arrays.asList(leftChild, rightChild);
+    }
+
+    /**
+     * Describe the join by its condition.
+     *
+     * @return description
+     */
+    @Override
+    public String getDescription() {
+        return "NestedLoopJoin " + ((joinCondition == null) ? "cross product" : "[" + joinCondition + "]");
     }
 }
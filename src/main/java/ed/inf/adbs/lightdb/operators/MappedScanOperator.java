@@ -0,0 +1,305 @@
+package ed.inf.adbs.lightdb.operators;
+
+import ed.inf.adbs.lightdb.metrics.QueryMetrics;
+import ed.inf.adbs.lightdb.models.Schema;
+import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.storage.BinaryTableWriter;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scan operator on the memory-mapped table file, works on both the csv and the binary layout.
+ * The integers are parsed straight from the mapped bytes, no line string, no split and no boxing.
+ * The same tuple is handed out for every row with its values overwritten in place, so operators
+ * keeping a tuple should detach it. Reset only moves back to the first byte, or maps the file again once closed.
+ *
+ * ClassName: MappedScanOperator
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class MappedScanOperator extends Operator {
+    static final long MAX_SEGMENT_SIZE = 1L << 30; // map at most 1GB at once
+
+    private Schema tableSchema; // schema with the table name as prefix -> Table.Column
+    private File tableFile;
+    private boolean binary; // true for the binary paged layout, false for csv
+    private long segmentSize; // max bytes of a segment
+
+    private List<MappedByteBuffer> segments; // mapped segments, a row never spans two segments
+    private boolean mapped; // false once closed, a reset maps the file again
+    private int segmentIndex; // current segment
+    private MappedByteBuffer segment;
+
+    private int[] values; // slot array of the reused tuple
+    private Tuple tuple; // reused tuple
+    private int pageTuples; // binary layout only, tuples on the current page
+    private int pageIndex; // binary layout only, next tuple on the current page
+
+    // rows and bytes read since the last close, reported to the query metrics on close
+    private long rowsRead;
+    private long bytesRead;
+
+    /**
+     * Constructor: map the whole table file in segments.
+     *
+     * @param tableName table name or alias if have
+     * @param singleSchema schema without table name as prefix
+     * @param tableFile table file, csv or binary
+     * @param binary true if the file is in the binary paged layout
+     */
+    public MappedScanOperator(String tableName, List<String> singleSchema, File tableFile, boolean binary) {
+        this(tableName, singleSchema, tableFile, binary, MAX_SEGMENT_SIZE);
+    }
+
+    /**
+     * Constructor: map the whole table file in segments of the given size, small segments are used
+     * in tests to cross segment boundaries on small files.
+     *
+     * @param tableName table name or alias if have
+     * @param singleSchema schema without table name as prefix
+     * @param tableFile table file, csv or binary
+     * @param binary true if the file is in the binary paged layout
+     * @param segmentSize max bytes of a segment, at least one page for the binary layout
+     */
+    MappedScanOperator(String tableName, List<String> singleSchema, File tableFile, boolean binary, long segmentSize) {
+        this.tableSchema = Schema.of(tableName, singleSchema);
+        this.tableFile = tableFile;
+        this.binary = binary;
+        this.segmentSize = segmentSize;
+        this.values = new int[tableSchema.size()];
+        this.tuple = Tuple.reused(tableSchema, values);
+        this.segments = new ArrayList<>();
+        reset();
+    }
+
+    /**
+     * Map the whole table file in segments.
+     */
+    private void map() {
+        mapped = true;
+        try (RandomAccessFile file = new RandomAccessFile(tableFile, "r");
+             FileChannel channel = file.getChannel()) {
+            long size = channel.size();
+            long start = 0;
+            while (start < size) {
+                long end = segmentEnd(file, start, size);
+                segments.add(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+                start = end;
+            }
+        } catch (IOException e) {
+            System.err.println("Exception occurred when mapping the database file.");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Find the end of the segment starting at the given position, the end is aligned to the
+     * page size for the binary layout, or placed right after a new line for the csv layout.
+     *
+     * @param file table file
+     * @param start start of the segment
+     * @param size file size
+     * @return end of the segment, exclusive
+     * @throws IOException if the file cannot be read
+     */
+    private long segmentEnd(RandomAccessFile file, long start, long size) throws IOException {
+        if (size - start <= segmentSize) {
+            return size;
+        }
+        if (binary) {
+            return start + Math.max(segmentSize / DBCatalog.PAGE_SIZE, 1) * DBCatalog.PAGE_SIZE;
+        }
+
+        // move back to the last new line in the segment
+        long end = start + segmentSize;
+        while (end > start) {
+            file.seek(end - 1);
+            if (file.read() == '\n') {
+                return end;
+            }
+            end--;
+        }
+        return start + segmentSize; // a single line longer than the segment
+    }
+
+    /**
+     * Move to the next segment.
+     *
+     * @return false if no more segments
+     */
+    private boolean nextSegment() {
+        if (segmentIndex + 1 >= segments.size()) {
+            return false;
+        }
+        countSegment();
+        segment = segments.get(++segmentIndex);
+        segment.position(0);
+        pageTuples = 0;
+        pageIndex = 0;
+        return true;
+    }
+
+    /**
+     * Parse the next csv row from the mapped bytes into the slot array, skip empty lines.
+     *
+     * @return false if no more rows
+     */
+    private boolean parseCsvRow() {
+        while (true) {
+            while (!segment.hasRemaining()) {
+                if (!nextSegment()) {
+                    return false;
+                }
+            }
+
+            int column = 0;
+            int value = 0;
+            boolean negative = false;
+            boolean digits = false;
+            while (segment.hasRemaining()) {
+                byte b = segment.get();
+                if (b == '\n') {
+                    break;
+                } else if (b == ',') {
+                    values[column++] = negative ? -value : value;
+                    value = 0;
+                    negative = false;
+                } else if (b == '-') {
+                    negative = true;
+                } else if (b >= '0' && b <= '9') {
+                    value = value * 10 + (b - '0');
+                    digits = true;
+                }
+            }
+            if (!digits && column == 0) { // empty line
+                continue;
+            }
+            values[column] = negative ? -value : value;
+            return true;
+        }
+    }
+
+    /**
+     * Read the next binary tuple from the mapped pages into the slot array.
+     *
+     * @return false if no more tuples
+     */
+    private boolean readBinaryTuple() {
+        while (pageIndex >= pageTuples) {
+            // skip the padding of the current page
+            int pageStart = (segment.position() + DBCatalog.PAGE_SIZE - 1) / DBCatalog.PAGE_SIZE * DBCatalog.PAGE_SIZE;
+            if (pageStart + BinaryTableWriter.HEADER_SIZE > segment.limit()) {
+                if (!nextSegment()) {
+                    return false;
+                }
+                continue;
+            }
+            segment.position(pageStart);
+            segment.getInt(); // number of columns, given by the schema
+            pageTuples = segment.getInt();
+            pageIndex = 0;
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = segment.getInt();
+        }
+        pageIndex++;
+        return true;
+    }
+
+    /**
+     * Overwrite the reused tuple with the next row.
+     *
+     * @return reused tuple, or null if no more rows
+     */
+    @Override
+    public Tuple getNextTuple() {
+        if (segment == null) { // empty file
+            return null;
+        }
+        boolean found = binary ? readBinaryTuple() : parseCsvRow();
+        if (!found) {
+            return null;
+        }
+        rowsRead++;
+        return tuple;
+    }
+
+    /**
+     * Count the bytes of the current segment gone through as read.
+     */
+    private void countSegment() {
+        if (segment != null) {
+            bytesRead += segment.position();
+        }
+    }
+
+    /**
+     * Move back to the start of the first segment, nothing is reopened.
+     */
+    @Override
+    public void reset() {
+        countSegment();
+        if (!mapped) {
+            map();
+        }
+        segmentIndex = 0;
+        segment = segments.isEmpty() ? null : segments.get(0);
+        if (segment != null) {
+            segment.position(0);
+        }
+        pageTuples = 0;
+        pageIndex = 0;
+    }
+
+    /**
+     * Drop the mapped segments, the mapping is released once they are collected, a reset maps the file again.
+     * The rows and bytes read are reported.
+     */
+    @Override
+    public void close() {
+        countSegment();
+        QueryMetrics.recordTableRead(QueryMetrics.getTableName(tableFile), rowsRead, bytesRead);
+        rowsRead = 0;
+        bytesRead = 0;
+        segments.clear();
+        segment = null;
+        mapped = false;
+    }
+
+    /**
+     * Getter: get the table schema.
+     *
+     * @return table schema
+     */
+    @Override
+    public Schema getSchema() {
+        return tableSchema;
+    }
+
+    /**
+     * Describe the scan by its mapped file and schema.
+     *
+     * @return description
+     */
+    @Override
+    public String getDescription() {
+        return "MappedScan " + tableFile.getName() + " " + tableSchema;
+    }
+
+    /**
+     * Getter: get the number of mapped segments, 0 once closed.
+     *
+     * @return segment count
+     */
+    int getSegmentCount() {
+        return segments.size();
+    }
+}
@@ -0,0 +1,312 @@
+package ed.inf.adbs.lightdb.operators;
+
+import ed.inf.adbs.lightdb.models.Batch;
+import ed.inf.adbs.lightdb.models.Schema;
+import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+import ed.inf.adbs.lightdb.tools.IntRowTable;
+import ed.inf.adbs.lightdb.tools.TupleReader;
+import ed.inf.adbs.lightdb.tools.TupleWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Has one child, caches its output on the first pass so a reset replays the cache instead of
+ * running the child again, used for the inner child of a nested loop join which is rescanned once
+ * per outer tuple or block, e.g. a selection or a join whose output is small but costly to compute.
+ * The rows are kept in a flat int table, up to materializeBufferPages pages, the rest is spilled
+ * to a temporary file in the compact tuple format and read back after the rows in memory.
+ *
+ * ClassName: MaterializeOperator
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class MaterializeOperator extends Operator {
+    private Operator child;
+    private Schema schema;
+    private int memoryRows; // max rows kept in memory
+
+    private IntRowTable rows; // cached rows in memory
+    private TupleWriter spillWriter; // rows over the memory budget, null if none
+    private File spillFile;
+    private boolean cached; // true once the child is exhausted and all its rows are cached
+    private boolean batchMode; // the first pass reads the child batch by batch
+    private boolean closed; // the cache is dropped, the next reset starts a new first pass
+    private long peakBuffered; // max rows cached in memory so far
+
+    private int rowIndex; // next cached row to replay
+    private TupleReader spillReader; // replays the spilled rows, null if not started
+    private Batch replayBatch;
+
+    /**
+     * Constructor: init the child and the memory budget from the materializeBufferPages setting.
+     *
+     * @param child child operator
+     */
+    public MaterializeOperator(Operator child) {
+        this.child = child;
+        this.schema = child.getSchema();
+        int pages = DBCatalog.getInstance().getIntSetting("materializeBufferPages", 256);
+        int width = Math.max(schema.size(), 1);
+        this.memoryRows = (int) Math.min((long) pages * (DBCatalog.PAGE_SIZE / (Integer.BYTES * width)), Integer.MAX_VALUE / width);
+        this.rows = new IntRowTable(schema.size());
+    }
+
+    /**
+     * Get the next tuple, from the child on the first pass, from the cache afterwards.
+     *
+     * @return next tuple, or null if no next tuple
+     */
+    @Override
+    public Tuple getNextTuple() {
+        if (cached) {
+            return replayTuple();
+        }
+
+        Tuple tuple = child.getNextTuple();
+        if (tuple == null) {
+            finishCache();
+            return null;
+        }
+        store(tuple.getValues());
+        return tuple;
+    }
+
+    /**
+     * Get the next batch, from the child on the first pass, from the cache afterwards.
+     *
+     * @return next batch, or null if no more rows
+     */
+    @Override
+    public Batch getNextBatch() {
+        if (cached) {
+            return replayBatch();
+        }
+
+        batchMode = true;
+        Batch batch = child.getNextBatch();
+        if (batch == null) {
+            finishCache();
+            return null;
+        }
+        store(batch);
+        return batch;
+    }
+
+    /**
+     * Keep the row in memory, or spill it if the memory is full.
+     *
+     * @param values row values
+     */
+    private void store(int[] values) {
+        if (rows.size() < memoryRows) {
+            rows.add(values);
+        } else {
+            spill().write(new Tuple(schema, values));
+        }
+    }
+
+    /**
+     * Keep the selected rows of the batch in memory, spill the rows over the memory budget.
+     *
+     * @param batch batch of the child
+     */
+    private void store(Batch batch) {
+        if (rows.size() + batch.getCount() <= memoryRows) {
+            rows.addAll(batch);
+            return;
+        }
+        int[] selection = batch.getSelection();
+        for (int i = 0; i < batch.getCount(); i++) {
+            if (rows.size() < memoryRows) {
+                rows.add(batch, selection[i]);
+            } else {
+                spill().write(batch.getTuple(selection[i]));
+            }
+        }
+    }
+
+    /**
+     * Get the spill writer, create the temporary file on the first spilled row.
+     *
+     * @return spill writer
+     * @throws UncheckedIOException if the spill file cannot be created
+     */
+    private TupleWriter spill() {
+        if (spillWriter == null) {
+            try {
+                spillFile = DBCatalog.getInstance().createTempFile("materialize");
+            } catch (IOException e) {
+                // the rows over the budget have nowhere to go, the cache would be incomplete
+                throw new UncheckedIOException("Cannot create the materialize spill file.", e);
+            }
+            spillWriter = new TupleWriter(spillFile);
+        }
+        return spillWriter;
+    }
+
+    /**
+     * Mark the cache complete, the spilled rows are flushed so they can be read back.
+     */
+    private void finishCache() {
+        if (spillWriter != null) {
+            spillWriter.close();
+        }
+        peakBuffered = Math.max(peakBuffered, rows.size());
+        cached = true;
+    }
+
+    /**
+     * Replay the next cached tuple, the rows in memory then the spilled rows.
+     *
+     * @return next tuple, or null if all replayed
+     */
+    private Tuple replayTuple() {
+        if (rowIndex < rows.size()) {
+            int[] values = new int[schema.size()];
+            for (int c = 0; c < values.length; c++) {
+                values[c] = rows.getValue(rowIndex, c);
+            }
+            rowIndex++;
+            return new Tuple(schema, values);
+        }
+        return readSpilled();
+    }
+
+    /**
+     * Replay the next cached batch, copied from the rows in memory, then filled with the spilled rows.
+     *
+     * @return next batch, or null if all replayed
+     */
+    private Batch replayBatch() {
+        if (replayBatch == null) {
+            replayBatch = new Batch(schema);
+        }
+        if (rowIndex < rows.size()) {
+            rowIndex += rows.copyTo(replayBatch, rowIndex);
+            return replayBatch;
+        }
+
+        int count = 0;
+        Tuple tuple;
+        while (count < Batch.CAPACITY && (tuple = readSpilled()) != null) {
+            for (int c = 0; c < schema.size(); c++) {
+                replayBatch.getColumn(c)[count] = tuple.getValue(c);
+            }
+            count++;
+        }
+        if (count == 0) {
+            return null;
+        }
+        replayBatch.setRowCount(count);
+        return replayBatch;
+    }
+
+    /**
+     * Read the next spilled tuple, open the file on the first one.
+     *
+     * @return next spilled tuple, or null if none
+     */
+    private Tuple readSpilled() {
+        if (spillFile == null) {
+            return null;
+        }
+        if (spillReader == null) {
+            spillReader = new TupleReader(spillFile, schema);
+        }
+        return spillReader.read();
+    }
+
+    /**
+     * Start the output from the beginning. If the first pass stopped early, the rest of the child
+     * is read into the cache first, then the child is never read again until closed.
+     */
+    @Override
+    public void reset() {
+        if (closed) { // start a new first pass
+            closed = false;
+            child.reset();
+            return;
+        }
+        if (!cached) {
+            if (batchMode) {
+                Batch batch;
+                while ((batch = child.getNextBatch()) != null) {
+                    store(batch);
+                }
+            } else {
+                Tuple tuple;
+                while ((tuple = child.getNextTuple()) != null) {
+                    store(tuple.getValues());
+                }
+            }
+            finishCache();
+        }
+
+        rowIndex = 0;
+        if (spillReader != null) {
+            spillReader.close();
+            spillReader = null;
+        }
+    }
+
+    /**
+     * Drop the cache, delete the spill file and close the child,
+     * a reset after close reads the child again.
+     */
+    @Override
+    public void close() {
+        if (spillReader != null) {
+            spillReader.close();
+            spillReader = null;
+        }
+        if (spillWriter != null && !cached) {
+            spillWriter.delete();
+        }
+        if (spillFile != null) {
+            spillFile.delete();
+        }
+        spillWriter = null;
+        spillFile = null;
+        rows = new IntRowTable(schema.size());
+        rowIndex = 0;
+        cached = false;
+        batchMode = false;
+        closed = true;
+        child.close();
+    }
+
+    /**
+     * Getter: get the schema of the child.
+     *
+     * @return output schema
+     */
+    @Override
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Getter: get the child, the input to cache.
+     *
+     * @return child operators
+     */
+    @Override
+    public List<Operator> getChildren() {
+        return Collections.singletonList(child);
+    }
+
+    /**
+     * Getter: get the max number of rows cached in memory.
+     *
+     * @return peak buffered tuples
+     */
+    @Override
+    public long getPeakBufferedTuples() {
+        return Math.max(peakBuffered, rows.size());
+    }
+}
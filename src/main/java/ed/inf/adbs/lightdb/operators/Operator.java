@@ -1,9 +1,18 @@
 package ed.inf.adbs.lightdb.operators;
 
+import ed.inf.adbs.lightdb.models.Batch;
+import ed.inf.adbs.lightdb.models.Schema;
 import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.storage.ResultWriter;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+import net.sf.jsqlparser.expression.Expression;
 
 import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Iterator API, basic abstract class, all operators will extend it.
@@ -13,6 +22,8 @@ import java.io.PrintStream;
  * Author: Cyan
  */
 public abstract class Operator {
+    private Batch tupleBatch; // batch filled by the default batch adapter
+
     /**
      * Repeatedly get the next tuple of the output.
      *
@@ -20,34 +31,164 @@ public abstract class Operator {
      */
     public abstract Tuple getNextTuple();
 
+    /**
+     * Get the next batch of up to Batch.CAPACITY rows of the output. The batch is overwritten by the next call.
+     * By default the batch is filled with the tuples of getNextTuple, the vectorized operators override it
+     * and work on the column vectors of the batches of their children. An operator is read either
+     * tuple by tuple or batch by batch, until it is reset.
+     *
+     * @return next batch with at least one selected row, or null if no more rows
+     */
+    public Batch getNextBatch() {
+        if (tupleBatch == null) {
+            tupleBatch = new Batch(getSchema());
+        }
+
+        int rows = 0;
+        Tuple tuple;
+        while (rows < Batch.CAPACITY && (tuple = getNextTuple()) != null) {
+            for (int c = 0; c < tuple.getValues().length; c++) {
+                tupleBatch.getColumn(c)[rows] = tuple.getValue(c);
+            }
+            rows++;
+        }
+        if (rows == 0) {
+            return null;
+        }
+        tupleBatch.setRowCount(rows);
+        return tupleBatch;
+    }
+
     /**
      * Reset the state and start returning the output from the beginning.
      */
     public abstract void reset();
 
+    /**
+     * Release the resources held by the operator and its children, e.g. open files and
+     * temporary files, called once the query is finished. A closed operator can be reset and read
+     * again, e.g. a cached plan run with other parameter values, it computes its output again.
+     */
+    public void close() { }
+
+    /**
+     * Get the schema shared by all output tuples, known when the plan is built.
+     *
+     * @return output schema
+     */
+    public abstract Schema getSchema();
+
+    /**
+     * Get the child operators, for EXPLAIN.
+     *
+     * @return children in plan order, empty for a leaf
+     */
+    public List<Operator> getChildren() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Describe the operator on one line for EXPLAIN, its kind and the table, condition or keys it works on.
+     *
+     * @return description
+     */
+    public String getDescription() {
+        return getClass().getSimpleName().replace("Operator", "");
+    }
+
+    /**
+     * Get the max number of tuples held in memory at once so far, for the blocking operators,
+     * e.g. the tuples of a sorted run or the rows of a hash table.
+     *
+     * @return peak buffered tuples, 0 if the operator does not buffer tuples
+     */
+    public long getPeakBufferedTuples() {
+        return 0;
+    }
+
+    /**
+     * Describe the operator tree from this operator, one operator per line, the children indented below.
+     *
+     * @return plan text
+     */
+    public String explain() {
+        StringBuilder plan = new StringBuilder();
+        explain(plan, 0);
+        return plan.toString();
+    }
+
+    /**
+     * Append the description of the subtree.
+     *
+     * @param plan plan text
+     * @param depth depth of this operator
+     */
+    private void explain(StringBuilder plan, int depth) {
+        for (int i = 0; i < depth; i++) {
+            plan.append("  ");
+        }
+        plan.append(depth == 0 ? "" : "-> ").append(getDescription()).append('\n');
+        for (Operator child : getChildren()) {
+            child.explain(plan, depth + 1);
+        }
+    }
+
+    /**
+     * Describe the equality keys of a join, e.g. [S.A = R.G], followed by the residual condition if any.
+     *
+     * @param leftSchema left schema
+     * @param leftKeys ordinals of the left keys
+     * @param rightSchema right schema
+     * @param rightKeys ordinals of the right keys
+     * @param residualCondition non-equality conjuncts, may be null
+     * @return keys description
+     */
+    protected static String describeKeys(Schema leftSchema, int[] leftKeys, Schema rightSchema, int[] rightKeys,
+                                         Expression residualCondition) {
+        StringBuilder keys = new StringBuilder("[");
+        for (int i = 0; i < leftKeys.length; i++) {
+            keys.append(i == 0 ? "" : " AND ").append(leftSchema.getColumns().get(leftKeys[i]))
+                    .append(" = ").append(rightSchema.getColumns().get(rightKeys[i]));
+        }
+        keys.append(']');
+        return (residualCondition == null) ? keys.toString() : keys + " filter [" + residualCondition + "]";
+    }
+
     /**
      * Output the tuples to a suitable stream, from root.
      *
      * @param ps output stream
      */
     public void dump(PrintStream ps) {
-        Tuple tuple = getNextTuple();
-        StringBuilder sb = new StringBuilder();
-
-        // if the file is not empty, then read the first tuple and save to string builder
-        // else, empty relation gets empty result
-        if (tuple != null) {
-            sb.append(tuple.getTupleString());
+        dump(Channels.newChannel(ps));
+        ps.flush();
+    }
 
-            // continue reading next tuple and add "\n"
-            while ((tuple = getNextTuple()) != null) {
-                sb.append("\n").append(tuple.getTupleString());
-            }
-        }
+    /**
+     * Output the tuples to a channel, from root. The rows are written as they are produced,
+     * through a buffer of outputBufferPages pages, so the result is never held in memory.
+     * The root is read batch by batch, or tuple by tuple if the executionMode setting is tuple.
+     *
+     * @param channel output channel
+     */
+    public void dump(WritableByteChannel channel) {
+        int bufferPages = DBCatalog.getInstance().getIntSetting("outputBufferPages", 16);
+        ResultWriter writer = new ResultWriter(channel, bufferPages * DBCatalog.PAGE_SIZE);
 
-        // after reading all tuples, write to the output stream
+        // empty relation gets empty result, rows are separated by "\n"
         try {
-            ps.write(sb.toString().getBytes());
+            if ("tuple".equals(DBCatalog.getInstance().getSetting("executionMode", "batch"))) {
+                Tuple tuple;
+                while ((tuple = getNextTuple()) != null) {
+                    writer.write(tuple);
+                }
+            } else {
+                Batch batch;
+                while ((batch = getNextBatch()) != null) {
+                    writer.write(batch);
+                }
+            }
+            writer.flush();
         } catch (IOException e) {
             System.err.println("Exception occurred when writing to the output stream.");
             e.printStackTrace();
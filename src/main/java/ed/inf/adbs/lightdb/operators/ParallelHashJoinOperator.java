@@ -0,0 +1,289 @@
+package ed.inf.adbs.lightdb.operators;
+
+import ed.inf.adbs.lightdb.models.Batch;
+import ed.inf.adbs.lightdb.models.Schema;
+import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+import ed.inf.adbs.lightdb.tools.IntRowSet;
+import ed.inf.adbs.lightdb.tools.IntRowTable;
+import net.sf.jsqlparser.expression.Expression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Has two children, join two tables on equality of the key columns in parallel.
+ * Every child is given as a list of inputs, e.g. the partitions of a table, and every input is read by
+ * a task of the shared fork join pool which hash-partitions its rows by the join keys into tables of its own.
+ * Then the partitions are joined independently by a hash join each, on the rows of the partition from all
+ * inputs, and an exchange operator runs these joins in parallel and merges their outputs through its queue.
+ * No table is shared between two tasks, so nothing is locked. The output comes in no particular order,
+ * and both children are held in memory, partitioned.
+ *
+ * ClassName: ParallelHashJoinOperator
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class ParallelHashJoinOperator extends Operator {
+    private static final int PARTITIONS_PER_WORKER = 4; // more partitions than workers to even out the skew
+    private static final int SMALL_PARTITION_CAPACITY = 64; // initial rows of a partition table of one input
+
+    private List<Operator> leftInputs;
+    private List<Operator> rightInputs;
+    private int[] leftKeys; // ordinals of the key columns in the left schema
+    private int[] rightKeys; // ordinals of the key columns in the right schema
+    private Expression residualCondition; // non-equality conjuncts, may be null
+
+    private Schema schema; // left schema followed by right schema
+    private int partitionBits; // the partition of a row is given by the high bits of its key hash
+    private ExchangeOperator exchange; // runs the joins of the partitions, null until partitioned
+
+    /**
+     * Constructor: init the inputs, the key columns and the residual condition.
+     *
+     * @param leftKeys ordinals of the key columns in the left schema
+     * @param rightKeys ordinals of the key columns in the right schema, paired with left keys
+     * @param residualCondition condition on non-equality conjuncts, null if none
+     * @param leftInputs inputs of the left child, with the same schema
+     * @param rightInputs inputs of the right child, with the same schema
+     */
+    public ParallelHashJoinOperator(int[] leftKeys, int[] rightKeys, Expression residualCondition,
+                                    List<Operator> leftInputs, List<Operator> rightInputs) {
+        this.leftKeys = leftKeys;
+        this.rightKeys = rightKeys;
+        this.residualCondition = residualCondition;
+        this.leftInputs = leftInputs;
+        this.rightInputs = rightInputs;
+        this.schema = Schema.concat(leftInputs.get(0).getSchema(), rightInputs.get(0).getSchema());
+
+        int parallelism = DBCatalog.getInstance().getIntSetting("parallelism", Runtime.getRuntime().availableProcessors());
+        this.partitionBits = 32 - Integer.numberOfLeadingZeros(Math.max(parallelism * PARTITIONS_PER_WORKER, 2) - 1);
+    }
+
+    /**
+     * Partition the inputs of both children in parallel, then create one hash join per partition
+     * and the exchange operator running them.
+     */
+    private void partition() {
+        List<ForkJoinTask<IntRowTable[]>> tasks = new ArrayList<>();
+        for (Operator input : leftInputs) {
+            tasks.add(ExchangeOperator.getPool().submit(() -> scatter(input, leftKeys)));
+        }
+        for (Operator input : rightInputs) {
+            tasks.add(ExchangeOperator.getPool().submit(() -> scatter(input, rightKeys)));
+        }
+
+        int partitions = 1 << partitionBits;
+        List<List<IntRowTable>> leftPartitions = new ArrayList<>();
+        List<List<IntRowTable>> rightPartitions = new ArrayList<>();
+        for (int p = 0; p < partitions; p++) {
+            leftPartitions.add(new ArrayList<>());
+            rightPartitions.add(new ArrayList<>());
+        }
+        for (int i = 0; i < tasks.size(); i++) {
+            IntRowTable[] tables = tasks.get(i).join();
+            for (int p = 0; p < partitions; p++) {
+                if (tables[p] != null) { // no row of the input in the partition
+                    (i < leftInputs.size() ? leftPartitions : rightPartitions).get(p).add(tables[p]);
+                }
+            }
+        }
+
+        // the hash join of a partition builds on the smaller side of the partition by itself
+        List<Operator> joins = new ArrayList<>();
+        for (int p = 0; p < partitions; p++) {
+            joins.add(new HashJoinOperator(leftKeys, rightKeys, residualCondition,
+                    new PartitionScan(leftInputs.get(0).getSchema(), leftPartitions.get(p)),
+                    new PartitionScan(rightInputs.get(0).getSchema(), rightPartitions.get(p))));
+        }
+        exchange = new ExchangeOperator(joins);
+    }
+
+    /**
+     * Read the input batch by batch and copy every row to the table of its partition.
+     * The key hash is the one of the hash join, the partition takes its high bits and
+     * the hash table of the join its low bits. The table of a partition is created by its first row,
+     * so the many partitions of many small inputs do not allocate tables that stay empty.
+     *
+     * @param input input operator
+     * @param keys ordinals of the key columns in the input schema
+     * @return one table per partition, null if the partition has no row of the input
+     */
+    private IntRowTable[] scatter(Operator input, int[] keys) {
+        int width = input.getSchema().size();
+        IntRowTable[] tables = new IntRowTable[1 << partitionBits];
+
+        int[] hashes = new int[Batch.CAPACITY];
+        int shift = 32 - partitionBits;
+        Batch batch;
+        while ((batch = input.getNextBatch()) != null) {
+            int[] selection = batch.getSelection();
+            int count = batch.getCount();
+            Arrays.fill(hashes, 0, count, 1);
+            for (int key : keys) {
+                int[] column = batch.getColumn(key);
+                for (int i = 0; i < count; i++) {
+                    hashes[i] = 31 * hashes[i] + column[selection[i]];
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                int p = IntRowSet.mix(hashes[i]) >>> shift;
+                if (tables[p] == null) {
+                    tables[p] = new IntRowTable(width, SMALL_PARTITION_CAPACITY);
+                }
+                tables[p].add(batch, selection[i]);
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * Get next batch of joined rows from the joins of the partitions.
+     *
+     * @return batch of joined rows
+     */
+    @Override
+    public Batch getNextBatch() {
+        if (exchange == null) {
+            partition();
+        }
+        return exchange.getNextBatch();
+    }
+
+    /**
+     * Get next joined tuple from the joins of the partitions.
+     *
+     * @return tuple object
+     */
+    @Override
+    public Tuple getNextTuple() {
+        if (exchange == null) {
+            partition();
+        }
+        return exchange.getNextTuple();
+    }
+
+    /**
+     * Stop the joins, drop the partitions and reset the inputs, they are partitioned again on the next call.
+     */
+    @Override
+    public void reset() {
+        if (exchange != null) {
+            exchange.close();
+            exchange = null;
+        }
+        for (Operator input : leftInputs) {
+            input.reset();
+        }
+        for (Operator input : rightInputs) {
+            input.reset();
+        }
+    }
+
+    /**
+     * Stop the joins and close the inputs.
+     */
+    @Override
+    public void close() {
+        if (exchange != null) {
+            exchange.close();
+            exchange = null;
+        }
+        for (Operator input : leftInputs) {
+            input.close();
+        }
+        for (Operator input : rightInputs) {
+            input.close();
+        }
+    }
+
+    /**
+     * Getter: get the joined schema.
+     *
+     * @return left schema followed by right schema
+     */
+    @Override
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Read the rows of one partition from the tables of all inputs, batch by batch.
+     */
+    private static final class PartitionScan extends Operator {
+        private final Schema schema;
+        private final List<IntRowTable> tables;
+        private final Batch batch;
+        private int tableIndex; // current table
+        private int rowIndex; // next row of the current table
+        private int batchIndex; // next position in the batch, tuple by tuple only
+
+        private PartitionScan(Schema schema, List<IntRowTable> tables) {
+            this.schema = schema;
+            this.tables = tables;
+            this.batch = new Batch(schema);
+        }
+
+        @Override
+        public Batch getNextBatch() {
+            while (tableIndex < tables.size()) {
+                IntRowTable table = tables.get(tableIndex);
+                if (rowIndex < table.size()) {
+                    rowIndex += table.copyTo(batch, rowIndex);
+                    batchIndex = 0;
+                    return batch;
+                }
+                tableIndex++;
+                rowIndex = 0;
+            }
+            return null;
+        }
+
+        @Override
+        public Tuple getNextTuple() {
+            while (batchIndex >= batch.getCount()) {
+                if (getNextBatch() == null) {
+                    return null;
+                }
+            }
+            return batch.getTuple(batchIndex++);
+        }
+
+        @Override
+        public void reset() {
+            tableIndex = 0;
+            rowIndex = 0;
+            batch.setRowCount(0);
+        }
+
+        @Override
+        public Schema getSchema() {
+            return schema;
+        }
+    }
+
+    /**
+     * Getter: get the inputs, the left inputs then the right inputs.
+     *
+     * @return child operators
+     */
+    @Override
+    public List<Operator> getChildren() {
+        List<Operator> children = new ArrayList<>(leftInputs);
+        children.addAll(rightInputs);
+        return children;
+    }
+
+    /**
+     * Describe the join by its equality keys and number of partitions.
+     *
+     * @return description
+     */
+    @Override
+    public String getDescription() {
+        return "ParallelHashJoin " + describeKeys(leftInputs.get(0).getSchema(), leftKeys, rightInputs.get(0).getSchema(), rightKeys,
+                residualCondition) + " partitions " + (1 << partitionBits);
+    }
+}
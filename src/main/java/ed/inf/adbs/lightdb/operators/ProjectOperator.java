@@ -1,13 +1,17 @@
 package ed.inf.adbs.lightdb.operators;
 
+import ed.inf.adbs.lightdb.models.Batch;
+import ed.inf.adbs.lightdb.models.Schema;
 import ed.inf.adbs.lightdb.models.Tuple;
 import net.sf.jsqlparser.statement.select.SelectItem;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Has one child, projection on part of columns.
+ * Read batch by batch, the output batch shares the column vectors of the child batch, nothing is copied.
  *
  * ClassName: ProjectOperator
  * Date: 13 March, 2021
@@ -17,23 +21,49 @@ public class ProjectOperator extends Operator{
     private Operator child;
 
     private Tuple tuple;
-    private List<String> selectedColumns;
+    private Schema schema; // schema of the selected columns
+    private int[] selectedIndexes; // ordinals of the selected columns in the child schema
+    private Batch batch; // view of the selected columns of the child batch
 
     /**
-     * Constructor: init the selected columns list.
+     * Constructor: init the selected columns and resolve them to ordinals of the child.
      *
      * @param selectItems select columns
      * @param child child operator
      */
     public ProjectOperator(List<SelectItem> selectItems, Operator child) {
+        this(new Schema(getSelectedColumns(selectItems)), child);
+    }
+
+    /**
+     * Constructor: project the child to the columns of the schema, also used to reorder the columns.
+     *
+     * @param schema schema of the selected columns
+     * @param child child operator
+     */
+    public ProjectOperator(Schema schema, Operator child) {
         this.child = child;
+        this.schema = schema;
+        this.selectedIndexes = new int[schema.size()];
+        for (int i = 0; i < selectedIndexes.length; i++) {
+            selectedIndexes[i] = child.getSchema().indexOf(schema.getColumns().get(i));
+        }
+    }
 
-        this.selectedColumns = new ArrayList<>();
+    /**
+     * Get the names of the select columns.
+     *
+     * @param selectItems select columns
+     * @return column names
+     */
+    private static List<String> getSelectedColumns(List<SelectItem> selectItems) {
+        List<String> selectedColumns = new ArrayList<>();
         for (SelectItem selectItem : selectItems) {
             // only consider SelectExpressionItem
             // if AllColumns, will not create the project operator
             selectedColumns.add(selectItem.toString());
         }
+        return selectedColumns;
     }
 
     /**
@@ -44,16 +74,34 @@ public class ProjectOperator extends Operator{
     @Override
     public Tuple getNextTuple() {
         while ((tuple = child.getNextTuple()) != null) {
-            List<Integer> tupleValues = new ArrayList<>();
-            for (String column : selectedColumns) { // add values if need this column
-                tupleValues.add(tuple.getTupleMap().get(column));
+            int[] tupleValues = new int[selectedIndexes.length];
+            for (int i = 0; i < selectedIndexes.length; i++) { // add values if need this column
+                tupleValues[i] = tuple.getValue(selectedIndexes[i]);
             }
 
-            return new Tuple(tupleValues, selectedColumns);
+            return new Tuple(schema, tupleValues);
         }
         return null;
     }
 
+    /**
+     * Get next batch with selected columns.
+     *
+     * @return batch with selected columns
+     */
+    @Override
+    public Batch getNextBatch() {
+        Batch childBatch = child.getNextBatch();
+        if (childBatch == null) {
+            return null;
+        }
+        if (batch == null) {
+            batch = new Batch(schema);
+        }
+        batch.wrap(childBatch, selectedIndexes);
+        return batch;
+    }
+
     /**
      * Use function from child.
      */
@@ -61,4 +109,42 @@ public class ProjectOperator extends Operator{
     public void reset() {
         child.reset();
     }
+
+    /**
+     * Close the child.
+     */
+    @Override
+    public void close() {
+        child.close();
+    }
+
+    /**
+     * Getter: get the schema of the selected columns.
+     *
+     * @return projected schema
+     */
+    @Override
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Getter: get the child, the input of the projection.
+     *
+     * @return child operators
+     */
+    @Override
+    public List<Operator> getChildren() {
+        return Collections.singletonList(child);
+    }
+
+    /**
+     * Describe the projection by its output columns.
+     *
+     * @return description
+     */
+    @Override
+    public String getDescription() {
+        return "Project " + schema;
+    }
 }
@@ -1,85 +1,180 @@
 package ed.inf.adbs.lightdb.operators;
 
+import ed.inf.adbs.lightdb.metrics.QueryMetrics;
+import ed.inf.adbs.lightdb.models.Schema;
 import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.storage.BufferPool;
 import ed.inf.adbs.lightdb.tools.DBCatalog;
 
-import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 /**
  * Scan operator is called upon initialisation of the database file.
+ * The csv file is read page by page through the buffer pool and the values are parsed from the bytes
+ * of the pages, a line may continue on the next page. A rescan finds the pages still cached.
  *
  * ClassName: ScanOperator
  * Date: 12 March, 2021
  * Author: Cyan
  */
 public class ScanOperator extends Operator{
-    private String tableName; // actual table name if no alias, may be alias if have alias
-    private BufferedReader tableBuffer; // read the database file line by line
-    private List<String> tableSchema; // schema with the table name as prefix -> Table.Column
+    private File tableFile; // csv table file
+    private Schema tableSchema; // schema with the table name as prefix -> Table.Column
+
+    private BufferPool bufferPool;
+    private int fileId; // file id in the buffer pool, -1 if the file cannot be opened
+    private long pageNumber; // next page of the file
+    private int frame = -1; // pinned frame of the current page, -1 if none
+    private ByteBuffer page; // current page, null if none
+
+    // rows and bytes read since the last close, reported to the query metrics on close
+    private long rowsRead;
+    private long bytesRead;
 
     /**
-     * Constructor: init the table schema.
+     * Constructor: init the table schema and open the file in the buffer pool.
      *
      * @param tableName table name or alias if have
      * @param singleSchema schema without table name as prefix
-     * @param tableBuffer read lines
+     * @param tableFile csv table file
      */
-    public ScanOperator(String tableName, List<String> singleSchema, BufferedReader tableBuffer) {
-        this.tableName = tableName;
-        this.tableBuffer = tableBuffer;
+    public ScanOperator(String tableName, List<String> singleSchema, File tableFile) {
+        this.tableFile = tableFile;
+        this.bufferPool = DBCatalog.getInstance().getBufferPool();
 
         // combine the table schema with table name as prefix
-        this.tableSchema = new ArrayList<>();
-        for (String column : singleSchema) {
-            this.tableSchema.add(tableName + '.' + column);
-        }
+        this.tableSchema = Schema.of(tableName, singleSchema);
+        reset();
     }
 
     /**
-     * Read next line from the database file and new a tuple object.
+     * Unpin the current page and pin the next one.
      *
-     * @return tuple object
+     * @return false if no more pages
      */
-    @Override
-    public Tuple getNextTuple() {
-        String row = null;
+    private boolean readPage() {
+        bufferPool.unpin(frame);
+        frame = -1;
+        page = null;
+        if (fileId < 0) {
+            return false;
+        }
         try {
-            row = tableBuffer.readLine();
+            frame = bufferPool.pin(fileId, pageNumber++);
         } catch (IOException e) {
-            System.err.println("Exception occurred when reading next line from database file.");
+            System.err.println("Exception occurred when reading next page from database file.");
             e.printStackTrace();
         }
-        if (row == null) { // finish reading
-            return null;
+        if (frame < 0) { // finish reading
+            return false;
         }
+        page = bufferPool.getPage(frame);
+        bytesRead += page.limit();
+        return true;
+    }
+
+    /**
+     * Read next line from the database file and new a tuple object.
+     *
+     * @return tuple object
+     */
+    @Override
+    public Tuple getNextTuple() {
+        // parse the values straight into the slot array
+        int[] tupleValues = new int[tableSchema.size()];
+        int column = 0;
+        int value = 0;
+        boolean negative = false;
+        boolean empty = true; // no character of the line read yet
+        while (true) {
+            if (page == null || !page.hasRemaining()) {
+                if (!readPage()) {
+                    if (empty) { // finish reading
+                        return null;
+                    }
+                    break;
+                }
+                continue;
+            }
 
-        // if get the line, get the values
-        String[] rowValues = row.split(",");
-        List<Integer> tupleValues = new ArrayList<>();
-        for (String rowValue : rowValues) {
-            tupleValues.add(Integer.parseInt(rowValue));
+            byte c = page.get();
+            if (c == '\n') {
+                if (empty) { // skip empty lines
+                    continue;
+                }
+                break;
+            }
+            if (c == ',') {
+                tupleValues[column++] = negative ? -value : value;
+                value = 0;
+                negative = false;
+            } else if (c == '-') {
+                negative = true;
+            } else if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+            } else {
+                continue; // e.g. \r, not a character of the values
+            }
+            empty = false;
         }
+        tupleValues[column] = negative ? -value : value;
 
         // return new tuple object
-        return new Tuple(tupleValues, tableSchema);
+        rowsRead++;
+        return new Tuple(tableSchema, tupleValues);
     }
 
     /**
-     * Reset the buffer reader.
+     * Go back to the first page, the file is opened again only if it has changed.
      */
     @Override
     public void reset() {
+        bufferPool.unpin(frame);
+        frame = -1;
+        page = null;
+        pageNumber = 0;
         try {
-            tableBuffer.close();
+            fileId = bufferPool.openFile(tableFile);
         } catch (IOException e) {
-            System.err.println("Exception occurred when closing the buffer stream.");
+            System.err.println("Exception occurred when opening the database file.");
             e.printStackTrace();
+            fileId = -1;
         }
+    }
+
+    /**
+     * Unpin the current page, the file stays open in the buffer pool, and report the rows and bytes read.
+     */
+    @Override
+    public void close() {
+        bufferPool.unpin(frame);
+        frame = -1;
+        page = null;
+        QueryMetrics.recordTableRead(QueryMetrics.getTableName(tableFile), rowsRead, bytesRead);
+        rowsRead = 0;
+        bytesRead = 0;
+    }
+
+    /**
+     * Getter: get the table schema.
+     *
+     * @return table schema
+     */
+    @Override
+    public Schema getSchema() {
+        return tableSchema;
+    }
 
-        // get a new buffer reader
-        tableBuffer = DBCatalog.getInstance().generateTableBuffer(tableName);
+    /**
+     * Describe the scan by its csv file and schema.
+     *
+     * @return description
+     */
+    @Override
+    public String getDescription() {
+        return "Scan " + tableFile.getName() + " " + tableSchema;
     }
 }
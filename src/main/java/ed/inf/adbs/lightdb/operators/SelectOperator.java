@@ -1,11 +1,19 @@
 package ed.inf.adbs.lightdb.operators;
 
+import ed.inf.adbs.lightdb.models.Batch;
+import ed.inf.adbs.lightdb.models.Schema;
 import ed.inf.adbs.lightdb.models.Tuple;
-import ed.inf.adbs.lightdb.tools.SelectVisitor;
+import ed.inf.adbs.lightdb.tools.BatchFilter;
+import ed.inf.adbs.lightdb.tools.Predicate;
+import ed.inf.adbs.lightdb.tools.PredicateCompiler;
 import net.sf.jsqlparser.expression.Expression;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Has one child, select the tuple which satisfies the condition.
+ * Read batch by batch, the condition only shrinks the selection vector of the batch of the child.
  *
  * ClassName: SelectOperator
  * Date: 13 March, 2021
@@ -16,7 +24,8 @@ public class SelectOperator extends Operator{
     private Expression expression;
 
     private Tuple tuple;
-    private SelectVisitor selectVisitor;
+    private Predicate predicate; // compiled condition
+    private BatchFilter filter; // compiled condition on batches, compiled on the first batch
 
     /**
      * Constructor: init the child operator and condition expression.
@@ -27,6 +36,9 @@ public class SelectOperator extends Operator{
     public SelectOperator(Expression expression, Operator child) {
         this.child = child;
         this.expression = expression;
+
+        // compile the condition once, the columns are resolved against the child schema
+        this.predicate = PredicateCompiler.compile(expression, child.getSchema());
     }
 
     /**
@@ -37,16 +49,34 @@ public class SelectOperator extends Operator{
     @Override
     public Tuple getNextTuple() {
         while ((tuple = child.getNextTuple()) != null) {
-            selectVisitor = new SelectVisitor(tuple); // init the select visitor using the tuple
-            expression.accept(selectVisitor); // evaluate the tuple
-
-            if (selectVisitor.getTupleEvaluationResult()) { // only return if it satisfies the condition
+            if (predicate.test(tuple)) { // only return if it satisfies the condition
                 return tuple;
             }
         }
         return null;
     }
 
+    /**
+     * Return the next batch of the child with at least one row satisfying the condition.
+     *
+     * @return batch of rows satisfying the condition
+     */
+    @Override
+    public Batch getNextBatch() {
+        if (filter == null) {
+            filter = PredicateCompiler.compileBatch(expression, child.getSchema());
+        }
+
+        Batch batch;
+        while ((batch = child.getNextBatch()) != null) {
+            filter.filter(batch);
+            if (batch.getCount() > 0) {
+                return batch;
+            }
+        }
+        return null;
+    }
+
     /**
      * Use function from child.
      */
@@ -54,4 +84,42 @@ public class SelectOperator extends Operator{
     public void reset() {
         child.reset();
     }
+
+    /**
+     * Close the child.
+     */
+    @Override
+    public void close() {
+        child.close();
+    }
+
+    /**
+     * Selection keeps the schema of the child.
+     *
+     * @return child schema
+     */
+    @Override
+    public Schema getSchema() {
+        return child.getSchema();
+    }
+
+    /**
+     * Getter: get the child, the input of the selection.
+     *
+     * @return child operators
+     */
+    @Override
+    public List<Operator> getChildren() {
+        return Collections.singletonList(child);
+    }
+
+    /**
+     * Describe the selection by its condition.
+     *
+     * @return description
+     */
+    @Override
+    public String getDescription() {
+        return "Select [" + expression + "]";
+    }
 }
@@ -0,0 +1,199 @@
+package ed.inf.adbs.lightdb.operators;
+
+import ed.inf.adbs.lightdb.models.Schema;
+import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.tools.Predicate;
+import ed.inf.adbs.lightdb.tools.PredicateCompiler;
+import net.sf.jsqlparser.expression.Expression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Has two children, join two tables on equality of the key columns by sorting both children
+ * on the keys and merging them. The right tuples sharing the same key are buffered as a run,
+ * so every left tuple with that key is joined with the whole run.
+ * The output is sorted on the left keys, in the order the keys are given.
+ *
+ * ClassName: SortMergeJoinOperator
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class SortMergeJoinOperator extends Operator {
+    private Operator leftChild; // sorted on the left keys
+    private Operator rightChild; // sorted on the right keys
+    private int[] leftKeys; // ordinals of the key columns in the left schema
+    private int[] rightKeys; // ordinals of the key columns in the right schema
+    private Expression residualCondition; // non-equality conjuncts, may be null
+
+    private Schema schema; // left schema followed by right schema
+    private Predicate residualPredicate; // compiled residual condition, always true if none
+
+    private boolean started;
+    private Tuple leftTuple;
+    private Tuple rightTuple; // first right tuple not in the current run
+    private List<Tuple> run; // right tuples with the same key, null if no current run
+    private int runIndex;
+
+    /**
+     * Constructor: sort both children on the key columns and init the residual condition.
+     *
+     * @param leftKeys ordinals of the key columns in the left schema
+     * @param rightKeys ordinals of the key columns in the right schema, paired with left keys
+     * @param residualCondition condition on non-equality conjuncts, null if none
+     * @param leftChild left child operator
+     * @param rightChild right child operator
+     */
+    public SortMergeJoinOperator(int[] leftKeys, int[] rightKeys, Expression residualCondition,
+                                 Operator leftChild, Operator rightChild) {
+        this.leftKeys = leftKeys;
+        this.rightKeys = rightKeys;
+        this.residualCondition = residualCondition;
+        this.leftChild = new SortOperator(leftKeys, leftChild);
+        this.rightChild = new SortOperator(rightKeys, rightChild);
+        this.schema = Schema.concat(leftChild.getSchema(), rightChild.getSchema());
+
+        // residual condition is evaluated on the left and right tuple pair
+        this.residualPredicate = PredicateCompiler.compile(residualCondition, leftChild.getSchema(), rightChild.getSchema());
+    }
+
+    /**
+     * Compare the left tuple with the right tuple on the key columns.
+     *
+     * @param left left tuple
+     * @param right right tuple
+     * @return negative if left is smaller, positive if left is larger, 0 if keys are equal
+     */
+    private int compareKeys(Tuple left, Tuple right) {
+        for (int i = 0; i < leftKeys.length; i++) {
+            int compare = Integer.compare(left.getValue(leftKeys[i]), right.getValue(rightKeys[i]));
+            if (compare != 0) {
+                return compare;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Compare two right tuples on the key columns.
+     *
+     * @param first right tuple
+     * @param second right tuple
+     * @return true if keys are equal
+     */
+    private boolean sameRightKeys(Tuple first, Tuple second) {
+        for (int rightKey : rightKeys) {
+            if (first.getValue(rightKey) != second.getValue(rightKey)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Merge the two sorted children, advance the smaller side until the keys are equal,
+     * then join the left tuples on that key with the buffered run of right tuples.
+     *
+     * @return tuple object
+     */
+    @Override
+    public Tuple getNextTuple() {
+        if (!started) {
+            leftTuple = leftChild.getNextTuple();
+            rightTuple = rightChild.getNextTuple();
+            started = true;
+        }
+
+        while (true) {
+            // join the current left tuple with the run
+            while (run != null && runIndex < run.size()) {
+                Tuple right = run.get(runIndex++);
+                if (residualPredicate.test(leftTuple, right)) {
+                    return Tuple.join(schema, leftTuple, right);
+                }
+            }
+
+            // the run is done for this left tuple, keep it if the next left tuple has the same key
+            if (run != null) {
+                leftTuple = leftChild.getNextTuple();
+                runIndex = 0;
+                if (leftTuple != null && compareKeys(leftTuple, run.get(0)) == 0) {
+                    continue;
+                }
+                run = null;
+            }
+
+            if (leftTuple == null || rightTuple == null) {
+                return null;
+            }
+
+            // advance the smaller side, or buffer the run of right tuples on equal keys
+            int compare = compareKeys(leftTuple, rightTuple);
+            if (compare < 0) {
+                leftTuple = leftChild.getNextTuple();
+            } else if (compare > 0) {
+                rightTuple = rightChild.getNextTuple();
+            } else {
+                run = new ArrayList<>();
+                run.add(rightTuple.detach());
+                while ((rightTuple = rightChild.getNextTuple()) != null && sameRightKeys(run.get(0), rightTuple)) {
+                    run.add(rightTuple.detach());
+                }
+                runIndex = 0;
+            }
+        }
+    }
+
+    /**
+     * Reset both sorted children and restart the merge.
+     */
+    @Override
+    public void reset() {
+        leftChild.reset();
+        rightChild.reset();
+
+        started = false;
+        run = null;
+        runIndex = 0;
+    }
+
+    /**
+     * Close both the left and right child.
+     */
+    @Override
+    public void close() {
+        leftChild.close();
+        rightChild.close();
+    }
+
+    /**
+     * Getter: get the joined schema.
+     *
+     * @return left schema followed by right schema
+     */
+    @Override
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Getter: get the sorted left and right child.
+     *
+     * @return child operators
+     */
+    @Override
+    public List<Operator> getChildren() {
+        return Arrays.asList(leftChild, rightChild);
+    }
+
+    /**
+     * Describe the join by its equality keys and residual condition.
+     *
+     * @return description
+     */
+    @Override
+    public String getDescription() {
+        return "SortMergeJoin " + describeKeys(leftChild.getSchema(), leftKeys, rightChild.getSchema(), rightKeys, residualCondition);
+    }
+}
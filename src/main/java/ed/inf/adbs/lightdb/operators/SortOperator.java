@@ -1,15 +1,27 @@
 package ed.inf.adbs.lightdb.operators;
 
+import ed.inf.adbs.lightdb.models.Schema;
 import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
 import ed.inf.adbs.lightdb.tools.TupleComparator;
+import ed.inf.adbs.lightdb.tools.TupleReader;
+import ed.inf.adbs.lightdb.tools.TupleWriter;
 import net.sf.jsqlparser.statement.select.OrderByElement;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.PriorityQueue;
 
 /**
  * Has one child, a blocking operator which sorts the tuples on required columns.
+ * External merge sort: the child is read into sorted runs of at most the memory budget,
+ * and if the child does not fit in one run, the runs are spilled to temporary files and
+ * merged by k-way merges until the last merge can be streamed to the parent.
+ * The sort is stable, tuples equal on the sorting columns keep the child order.
  *
  * ClassName: SortOperator
  * Date: 14 March, 2021
@@ -17,44 +29,264 @@ import java.util.List;
  */
 public class SortOperator extends Operator {
     private Operator child;
-    private List<Tuple> tuples;
-    private List<String> orderColumns;
+    private List<Tuple> tuples; // the only run if the child fits in memory
+    private int[] orderIndexes;
+    private TupleComparator comparator;
 
+    private int runSize; // max number of tuples in one run
+    private int fanIn; // max number of runs merged at once
+    private List<File> runFiles; // spilled runs in child order, empty if in memory
+    private PriorityQueue<RunEntry> mergeQueue; // heads of the runs in the final merge
+    private List<TupleReader> mergeReaders;
+
+    private boolean sorted;
+    private long peakBuffered; // max tuples held in memory at once
     private Tuple tuple;
     private int index;
 
     /**
-     * Constructor: buffer all tuples and init required sorting columns.
+     * Head tuple of a run, the run number breaks the ties to keep the sort stable.
+     */
+    private static class RunEntry {
+        private Tuple tuple;
+        private int run;
+        private TupleReader reader;
+
+        private RunEntry(Tuple tuple, int run, TupleReader reader) {
+            this.tuple = tuple;
+            this.run = run;
+            this.reader = reader;
+        }
+    }
+
+    /**
+     * Constructor: init required sorting columns.
      *
      * @param orderByElements ordered columns
      * @param child child operator
      */
     public SortOperator(List<OrderByElement> orderByElements, Operator child) {
+        this(resolveOrderIndexes(orderByElements, child.getSchema()), child);
+    }
+
+    /**
+     * Constructor: sort on the columns of the given ordinals, used by the operators
+     * which need their input sorted on the join keys.
+     * The memory budget and the fan-in are taken from the sortBufferPages and sortFanIn settings,
+     * the run size is the budget over the estimated heap bytes of a buffered tuple, not of its values only.
+     *
+     * @param orderIndexes ordinals of the sorting columns in the child schema
+     * @param child child operator
+     */
+    public SortOperator(int[] orderIndexes, Operator child) {
         this.child = child;
         this.tuples = new ArrayList<>();
-        this.orderColumns = new ArrayList<>();
+        this.orderIndexes = orderIndexes;
+        this.comparator = new TupleComparator(orderIndexes);
+        this.runFiles = new ArrayList<>();
+        this.mergeReaders = new ArrayList<>();
 
-        // buffer all tuples
+        long memoryBudget = (long) DBCatalog.getInstance().getIntSetting("sortBufferPages", 256) * DBCatalog.PAGE_SIZE;
+        long runTuples = memoryBudget / Tuple.estimateMemoryBytes(child.getSchema().size());
+        this.runSize = (int) Math.max(Math.min(runTuples, Integer.MAX_VALUE), 1);
+        this.fanIn = Math.max(DBCatalog.getInstance().getIntSetting("sortFanIn", 64), 2);
+    }
+
+    /**
+     * Resolve all required sorting columns to ordinals.
+     *
+     * @param orderByElements ordered columns
+     * @param schema child schema
+     * @return ordinals of the sorting columns
+     */
+    private static int[] resolveOrderIndexes(List<OrderByElement> orderByElements, Schema schema) {
+        int[] orderIndexes = new int[orderByElements.size()];
+        for (int i = 0; i < orderIndexes.length; i++) {
+            orderIndexes[i] = schema.indexOf(orderByElements.get(i).getExpression().toString());
+        }
+        return orderIndexes;
+    }
+
+    /**
+     * Read the child into sorted runs, spill the runs if more than one,
+     * then merge the spilled runs until at most fan-in runs are left.
+     */
+    private void sort() {
+        // generate the sorted runs
         while ((tuple = child.getNextTuple()) != null) {
-            this.tuples.add(tuple);
+            tuples.add(tuple.detach());
+            if (tuples.size() >= runSize) {
+                Collections.sort(tuples, comparator);
+                spillRun();
+            }
         }
+        Collections.sort(tuples, comparator);
+        peakBuffered = Math.max(peakBuffered, tuples.size());
 
-        // get all required sorting columns
-        for (OrderByElement orderByElement : orderByElements){
-            this.orderColumns.add(orderByElement.toString());
+        // if anything is spilled, the last run is spilled as well and merged with the others
+        if (!runFiles.isEmpty()) {
+            if (!tuples.isEmpty()) {
+                spillRun();
+            }
+
+            // merge passes, consecutive runs are merged so the order of the runs is kept
+            while (runFiles.size() > fanIn) {
+                List<File> mergedFiles = new ArrayList<>();
+                try {
+                    for (int i = 0; i < runFiles.size(); i += fanIn) {
+                        List<File> group = runFiles.subList(i, Math.min(i + fanIn, runFiles.size()));
+                        mergedFiles.add(mergeRuns(group));
+                    }
+                } catch (RuntimeException e) {
+                    runFiles.addAll(mergedFiles); // deleted on close with the runs not merged yet
+                    throw e;
+                }
+                runFiles = mergedFiles;
+            }
+            openMerge(runFiles);
         }
+        sorted = true;
+    }
 
-        // directly sort according to the comparator
-        Collections.sort(tuples, new TupleComparator(orderColumns));
+    /**
+     * Write the sorted tuples in memory to a new run file and clear the buffer.
+     */
+    private void spillRun() {
+        peakBuffered = Math.max(peakBuffered, tuples.size());
+        TupleWriter writer = createRunWriter();
+        try {
+            for (Tuple t : tuples) {
+                writer.write(t);
+            }
+            writer.close();
+        } catch (RuntimeException e) {
+            writer.delete(); // a short run is never merged
+            throw e;
+        }
+        runFiles.add(writer.getFile());
+        tuples.clear();
+    }
+
+    /**
+     * Merge a group of runs to a new run file, and delete the merged run files.
+     *
+     * @param group run files in order
+     * @return merged run file
+     */
+    private File mergeRuns(List<File> group) {
+        TupleWriter writer = createRunWriter();
+        try {
+            openMerge(group);
+            Tuple next;
+            while ((next = nextMerged()) != null) {
+                writer.write(next);
+            }
+            writer.close();
+        } catch (RuntimeException e) {
+            writer.delete(); // the merged runs are still in the run files, deleted on close
+            throw e;
+        } finally {
+            closeMerge();
+        }
+
+        for (File file : group) {
+            file.delete();
+        }
+        return writer.getFile();
+    }
+
+    /**
+     * Create a writer on a new temporary run file.
+     *
+     * @return run writer
+     * @throws UncheckedIOException if the file cannot be created
+     */
+    private TupleWriter createRunWriter() {
+        try {
+            return new TupleWriter(DBCatalog.getInstance().createTempFile("sort"));
+        } catch (IOException e) {
+            // keeping the run in memory would break the memory budget, losing it would break the result
+            throw new UncheckedIOException("Cannot create the sort run file.", e);
+        }
     }
 
     /**
-     * Iteratively get the sorted tuples.
+     * Open readers on the runs and put the head of every run into the priority queue.
+     *
+     * @param runs run files in order
+     */
+    private void openMerge(List<File> runs) {
+        mergeQueue = new PriorityQueue<>(Math.max(runs.size(), 1), (e1, e2) -> {
+            int compare = comparator.compare(e1.tuple, e2.tuple);
+            return (compare != 0) ? compare : Integer.compare(e1.run, e2.run);
+        });
+
+        for (int i = 0; i < runs.size(); i++) {
+            TupleReader reader = new TupleReader(runs.get(i), child.getSchema());
+            mergeReaders.add(reader);
+
+            Tuple head = reader.read();
+            if (head != null) {
+                mergeQueue.add(new RunEntry(head, i, reader));
+            }
+        }
+    }
+
+    /**
+     * Poll the smallest head from the priority queue and refill from the same run.
+     *
+     * @return next merged tuple, or null if all runs are exhausted
+     */
+    private Tuple nextMerged() {
+        RunEntry entry = mergeQueue.poll();
+        if (entry == null) {
+            return null;
+        }
+
+        Tuple next = entry.tuple;
+        entry.tuple = entry.reader.read();
+        if (entry.tuple != null) {
+            mergeQueue.add(entry);
+        }
+        return next;
+    }
+
+    /**
+     * Close the readers of the current merge.
+     */
+    private void closeMerge() {
+        for (TupleReader reader : mergeReaders) {
+            reader.close();
+        }
+        mergeReaders.clear();
+        mergeQueue = null;
+    }
+
+    /**
+     * Close the current merge and delete all run files.
+     */
+    private void deleteRuns() {
+        closeMerge();
+        for (File file : runFiles) {
+            file.delete();
+        }
+        runFiles.clear();
+    }
+
+    /**
+     * Iteratively get the sorted tuples, sort the child on the first call.
      *
      * @return tuple object
      */
     @Override
     public Tuple getNextTuple() {
+        if (!sorted) {
+            sort();
+        }
+
+        if (mergeQueue != null) { // spilled, stream the final merge
+            return nextMerged();
+        }
         if (index >= tuples.size()) {
             return null;
         } else {
@@ -63,11 +295,74 @@ public class SortOperator extends Operator {
     }
 
     /**
-     * Reset the index and use child reset function
+     * Reset the index and use child reset function.
+     * If the runs were spilled, the run files are deleted and the child is sorted again.
      */
     @Override
     public void reset() {
         index = 0;
         child.reset();
+
+        if (!runFiles.isEmpty()) {
+            deleteRuns();
+            tuples.clear();
+            sorted = false;
+        }
+    }
+
+    /**
+     * Delete the run files, drop the sorted tuples and close the child,
+     * a reset after close sorts the child again.
+     */
+    @Override
+    public void close() {
+        deleteRuns();
+        tuples.clear();
+        sorted = false;
+        child.close();
+    }
+
+    /**
+     * Sorting keeps the schema of the child.
+     *
+     * @return child schema
+     */
+    @Override
+    public Schema getSchema() {
+        return child.getSchema();
+    }
+
+    /**
+     * Getter: get the child, the input to sort.
+     *
+     * @return child operators
+     */
+    @Override
+    public List<Operator> getChildren() {
+        return Collections.singletonList(child);
+    }
+
+    /**
+     * Describe the sort by its sorting columns.
+     *
+     * @return description
+     */
+    @Override
+    public String getDescription() {
+        List<String> columns = new ArrayList<>();
+        for (int index : orderIndexes) {
+            columns.add(child.getSchema().getColumns().get(index));
+        }
+        return "Sort " + columns;
+    }
+
+    /**
+     * Getter: get the max number of tuples of a run held in memory.
+     *
+     * @return peak buffered tuples
+     */
+    @Override
+    public long getPeakBufferedTuples() {
+        return Math.max(peakBuffered, tuples.size());
     }
 }
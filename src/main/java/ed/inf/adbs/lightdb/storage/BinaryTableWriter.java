@@ -0,0 +1,115 @@
+package ed.inf.adbs.lightdb.storage;
+
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Write a table in the binary paged format.
+ * The file is a sequence of fixed-size pages, every page starts with a header of two ints,
+ * the number of columns and the number of tuples on the page, followed by the packed tuple values.
+ * The rest of the last page is padded with zeros.
+ *
+ * ClassName: BinaryTableWriter
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class BinaryTableWriter {
+    public static final int HEADER_SIZE = 2 * Integer.BYTES; // column count and tuple count
+
+    private FileChannel channel;
+    private ByteBuffer page;
+    private int numColumns;
+    private int tuplesPerPage;
+    private int tupleCount; // tuples on the current page
+    private long totalCount; // tuples written to the file
+
+    /**
+     * Constructor: open the file for writing.
+     *
+     * @param file binary table file
+     * @param numColumns number of columns of the table
+     * @throws IOException if the file cannot be opened
+     */
+    public BinaryTableWriter(File file, int numColumns) throws IOException {
+        this.channel = new FileOutputStream(file).getChannel();
+        this.page = ByteBuffer.allocateDirect(DBCatalog.PAGE_SIZE);
+        this.numColumns = numColumns;
+        this.tuplesPerPage = tuplesPerPage(numColumns);
+    }
+
+    /**
+     * Get the number of tuples which fit in one page.
+     *
+     * @param numColumns number of columns
+     * @return tuples per page
+     */
+    public static int tuplesPerPage(int numColumns) {
+        return (DBCatalog.PAGE_SIZE - HEADER_SIZE) / (Integer.BYTES * numColumns);
+    }
+
+    /**
+     * Append the tuple values, write the page out when it is full.
+     *
+     * @param values tuple values
+     * @throws IOException if the page cannot be written
+     */
+    public void write(int[] values) throws IOException {
+        if (tupleCount == 0) {
+            page.clear();
+            page.position(HEADER_SIZE);
+        }
+        for (int i = 0; i < numColumns; i++) {
+            page.putInt(values[i]);
+        }
+        tupleCount++;
+        totalCount++;
+
+        if (tupleCount == tuplesPerPage) {
+            flushPage();
+        }
+    }
+
+    /**
+     * Getter: get the number of tuples written.
+     *
+     * @return tuple count
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Fill the header, pad the page with zeros and write it.
+     *
+     * @throws IOException if the page cannot be written
+     */
+    private void flushPage() throws IOException {
+        while (page.position() < DBCatalog.PAGE_SIZE) {
+            page.put((byte) 0);
+        }
+        page.putInt(0, numColumns);
+        page.putInt(Integer.BYTES, tupleCount);
+        page.flip();
+        while (page.hasRemaining()) {
+            channel.write(page);
+        }
+        tupleCount = 0;
+    }
+
+    /**
+     * Write the last page if not empty and close the file.
+     *
+     * @throws IOException if the page cannot be written
+     */
+    public void close() throws IOException {
+        if (tupleCount > 0) {
+            flushPage();
+        }
+        channel.close();
+    }
+}
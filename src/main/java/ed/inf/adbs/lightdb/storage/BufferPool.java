@@ -0,0 +1,337 @@
+package ed.inf.adbs.lightdb.storage;
+
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded pool of page frames shared by all scans of all queries, the pages of the table and index files
+ * are read through it, so a rescan, another scan of the same table or the next query finds them cached.
+ * A page is pinned while it is read and unpinned when done, only unpinned frames can be evicted,
+ * the replacement policy (CLOCK or LRU-K) chooses which. A miss reads the page outside the lock,
+ * other threads pinning the same page wait until it is loaded. If every frame is pinned, the page is read
+ * into a buffer of its own which is dropped on unpin, so a pool too small for the scans running at once
+ * is slow but never blocks.
+ * A file is identified by its path, its inode, size and modification time, so a rewritten file,
+ * e.g. sorted for a clustered index, gets new pages instead of the cached ones.
+ *
+ * ClassName: BufferPool
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class BufferPool {
+    private final int capacity; // max number of frames
+    private final ReplacementPolicy policy;
+
+    private final ByteBuffer[] frames; // allocated on first use
+    private final long[] frameKeys; // frame -> file id and page number, -1 if empty
+    private final int[] frameBytes; // frame -> bytes of the page read, less than a page at the end of the file
+    private final int[] pinCounts;
+    private final boolean[] loading; // the page is being read
+    private int usedFrames;
+    private final Map<Long, Integer> pageTable; // file id and page number -> frame
+    private final Map<Integer, ByteBuffer> overflowPages; // pages read while every frame is pinned, not cached
+    private int nextOverflow; // next overflow frame number, from capacity on
+
+    private final Map<String, OpenFile> files; // path -> current version of the file
+    private final List<OpenFile> openFiles; // every version opened, closed with the pool
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * A version of a file, opened once and read with positional reads by all threads.
+     */
+    private static final class OpenFile {
+        private final int id;
+        private final Object fileKey; // inode, null if the file system has none
+        private final long size;
+        private final long lastModified;
+        private final FileChannel channel;
+
+        private OpenFile(int id, BasicFileAttributes attributes, FileChannel channel) {
+            this.id = id;
+            this.fileKey = attributes.fileKey();
+            this.size = attributes.size();
+            this.lastModified = attributes.lastModifiedTime().toMillis();
+            this.channel = channel;
+        }
+
+        private boolean isCurrent(BasicFileAttributes attributes) {
+            return Objects.equals(fileKey, attributes.fileKey()) && size == attributes.size()
+                    && lastModified == attributes.lastModifiedTime().toMillis();
+        }
+    }
+
+    /**
+     * Constructor: init an empty pool.
+     *
+     * @param capacity max number of frames, at least 1
+     * @param policy replacement policy for the frames
+     */
+    public BufferPool(int capacity, ReplacementPolicy policy) {
+        this.capacity = Math.max(capacity, 1);
+        this.policy = policy;
+        this.frames = new ByteBuffer[this.capacity];
+        this.frameKeys = new long[this.capacity];
+        this.frameBytes = new int[this.capacity];
+        this.pinCounts = new int[this.capacity];
+        this.loading = new boolean[this.capacity];
+        this.pageTable = new HashMap<>();
+        this.overflowPages = new ConcurrentHashMap<>();
+        this.nextOverflow = this.capacity;
+        this.files = new HashMap<>();
+        this.openFiles = new ArrayList<>();
+    }
+
+    /**
+     * Open the file, or get it if already open and not changed since, called when a scan starts.
+     *
+     * @param file table or index file
+     * @return file id for pin
+     * @throws IOException if the file cannot be opened
+     */
+    public synchronized int openFile(File file) throws IOException {
+        String path = file.getAbsolutePath();
+        BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        OpenFile openFile = files.get(path);
+        if (openFile == null || !openFile.isCurrent(attributes)) {
+            // the pages of an older version are never asked again and get evicted
+            openFile = new OpenFile(openFiles.size(), attributes, FileChannel.open(file.toPath(), StandardOpenOption.READ));
+            files.put(path, openFile);
+            openFiles.add(openFile);
+        }
+        return openFile.id;
+    }
+
+    /**
+     * Pin the page of the file, read it into a frame if not cached.
+     * The caller reads it with getPage and must unpin the frame when done.
+     *
+     * @param fileId file id from openFile
+     * @param pageNumber page number in the file
+     * @return frame number, or -1 if the page is beyond the end of the file
+     * @throws IOException if the page cannot be read
+     */
+    public int pin(int fileId, long pageNumber) throws IOException {
+        OpenFile openFile;
+        long key = ((long) fileId << 32) | pageNumber;
+        int frame;
+        synchronized (this) {
+            openFile = openFiles.get(fileId);
+            if (pageNumber * DBCatalog.PAGE_SIZE >= openFile.size) {
+                return -1;
+            }
+
+            while (true) {
+                Integer cached = pageTable.get(key);
+                if (cached == null) {
+                    break;
+                }
+                if (loading[cached]) { // another thread is reading it
+                    await();
+                    continue;
+                }
+                pinCounts[cached]++;
+                policy.pageAccessed(cached);
+                hits++;
+                return cached;
+            }
+
+            frame = allocateFrame();
+            if (frame >= 0) {
+                frameKeys[frame] = key;
+                pageTable.put(key, frame);
+                pinCounts[frame] = 1;
+                loading[frame] = true;
+                policy.pageLoaded(frame);
+            }
+            misses++;
+        }
+
+        // read the page without holding the lock
+        ByteBuffer buffer = (frame >= 0) ? frames[frame] : ByteBuffer.allocate(DBCatalog.PAGE_SIZE);
+        IOException error = null;
+        buffer.clear();
+        try {
+            long position = pageNumber * DBCatalog.PAGE_SIZE;
+            while (buffer.hasRemaining()) {
+                if (openFile.channel.read(buffer, position + buffer.position()) < 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            error = e;
+        }
+
+        if (frame < 0) { // every frame is pinned, the page is not cached
+            if (error != null) {
+                throw error;
+            }
+            buffer.flip();
+            synchronized (this) {
+                frame = nextOverflow;
+                nextOverflow = (nextOverflow == Integer.MAX_VALUE) ? capacity : nextOverflow + 1;
+            }
+            overflowPages.put(frame, buffer);
+            return frame;
+        }
+
+        synchronized (this) {
+            loading[frame] = false;
+            frameBytes[frame] = buffer.position();
+            if (error != null) { // drop the frame, the page is read again on the next pin
+                pageTable.remove(key);
+                frameKeys[frame] = -1;
+                pinCounts[frame] = 0;
+            }
+            notifyAll();
+        }
+        if (error != null) {
+            throw error;
+        }
+        return frame;
+    }
+
+    /**
+     * Get a free frame, or evict the frame chosen by the policy.
+     *
+     * @return frame number, or -1 if every frame is pinned
+     */
+    private int allocateFrame() {
+        if (usedFrames < capacity) {
+            frames[usedFrames] = ByteBuffer.allocateDirect(DBCatalog.PAGE_SIZE);
+            return usedFrames++;
+        }
+
+        int frame = policy.chooseVictim(pinCounts);
+        if (frame < 0) {
+            return -1;
+        }
+        if (frameKeys[frame] >= 0) {
+            pageTable.remove(frameKeys[frame]);
+            evictions++;
+        }
+        return frame;
+    }
+
+    /**
+     * Wait for a page to be loaded, the caller holds the lock.
+     *
+     * @throws IOException if interrupted while waiting
+     */
+    private void await() throws IOException {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the buffer pool.");
+        }
+    }
+
+    /**
+     * Get the page in the pinned frame, as a view of its own from position 0 to the bytes read.
+     *
+     * @param frame pinned frame number
+     * @return page buffer, valid until unpinned
+     */
+    public ByteBuffer getPage(int frame) {
+        if (frame >= capacity) {
+            return overflowPages.get(frame).duplicate();
+        }
+        ByteBuffer page = frames[frame].duplicate();
+        page.clear();
+        page.limit(frameBytes[frame]);
+        return page;
+    }
+
+    /**
+     * Unpin the frame, it can be evicted once no one pins it.
+     *
+     * @param frame pinned frame number, -1 is ignored
+     */
+    public synchronized void unpin(int frame) {
+        if (frame >= capacity) {
+            overflowPages.remove(frame);
+        } else if (frame >= 0) {
+            pinCounts[frame]--;
+        }
+    }
+
+    /**
+     * Getter: get the number of pins which found the page cached.
+     *
+     * @return number of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Getter: get the number of pins which read the page from the file.
+     *
+     * @return number of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Getter: get the number of pages evicted to make room for another.
+     *
+     * @return number of evictions
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Getter: get the max number of frames.
+     *
+     * @return capacity in pages
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Describe the counters, e.g. to size the pool for the working set.
+     *
+     * @return hits, misses, hit rate and evictions
+     */
+    public synchronized String getStatistics() {
+        long pins = hits + misses;
+        return String.format("Buffer pool of %d pages: %d hits, %d misses (%.1f%% hit rate), %d evictions",
+                capacity, hits, misses, (pins == 0) ? 0.0 : 100.0 * hits / pins, evictions);
+    }
+
+    /**
+     * Close all files, the pool is not used anymore.
+     */
+    public synchronized void close() {
+        for (OpenFile openFile : openFiles) {
+            try {
+                openFile.channel.close();
+            } catch (IOException e) {
+                System.err.println("Exception occurred when closing the database file.");
+                e.printStackTrace();
+            }
+        }
+        files.clear();
+        pageTable.clear();
+    }
+}
@@ -0,0 +1,57 @@
+package ed.inf.adbs.lightdb.storage;
+
+/**
+ * CLOCK replacement: every frame has a reference bit set when its page is loaded or pinned.
+ * The hand goes round the frames, clears the bits it passes and evicts the first unpinned frame
+ * whose bit is already clear, so a page survives one round after its last access.
+ *
+ * ClassName: ClockPolicy
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class ClockPolicy implements ReplacementPolicy {
+    private boolean[] referenced;
+    private int hand; // next frame to look at
+
+    /**
+     * Constructor: init the reference bits.
+     *
+     * @param capacity number of frames
+     */
+    public ClockPolicy(int capacity) {
+        this.referenced = new boolean[capacity];
+    }
+
+    @Override
+    public void pageLoaded(int frame) {
+        referenced[frame] = true;
+    }
+
+    @Override
+    public void pageAccessed(int frame) {
+        referenced[frame] = true;
+    }
+
+    /**
+     * Go round at most twice, the first round may only clear the bits.
+     *
+     * @param pinCounts pin count of every frame
+     * @return frame number, or -1 if every frame is pinned
+     */
+    @Override
+    public int chooseVictim(int[] pinCounts) {
+        for (int step = 0; step < 2 * referenced.length; step++) {
+            int frame = hand;
+            hand = (hand + 1) % referenced.length;
+            if (pinCounts[frame] > 0) {
+                continue;
+            }
+            if (referenced[frame]) {
+                referenced[frame] = false;
+                continue;
+            }
+            return frame;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,80 @@
+package ed.inf.adbs.lightdb.storage;
+
+import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.operators.ScanOperator;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tool to convert the csv table files in the data directory to the binary paged format,
+ * the binary file is written next to the csv file, e.g. data/Sailors.csv -> data/Sailors.bin,
+ * and then the scan operators read the binary file instead.
+ *
+ * ClassName: CsvConverter
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class CsvConverter {
+    public static void main(String[] args) {
+
+        if (args.length < 1) {
+            System.err.println("Usage: CsvConverter database_dir [table ...]");
+            return;
+        }
+
+        DBCatalog.getInstance().init(args[0]);
+
+        // convert the given tables, or all tables in the schema
+        List<String> tables = (args.length > 1)
+                ? Arrays.asList(args).subList(1, args.length)
+                : new ArrayList<>(DBCatalog.getInstance().getTableToSchema().keySet());
+
+        for (String table : tables) {
+            try {
+                long count = convert(table);
+                System.out.println("Converted " + table + ": " + count + " tuples.");
+            } catch (IOException e) {
+                System.err.println("Exception occurred when converting table " + table + ".");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Convert one table from the csv file to the binary file.
+     *
+     * @param table table name
+     * @return number of converted tuples
+     * @throws IOException if the binary file cannot be written
+     */
+    public static long convert(String table) throws IOException {
+        DBCatalog catalog = DBCatalog.getInstance();
+        List<String> singleSchema = catalog.generateSingleSchema(table);
+        ScanOperator scan = new ScanOperator(table, singleSchema, catalog.getTableFile(table, ".csv"));
+
+        // write to a temporary file first, so a failed conversion never leaves a broken table
+        File binaryFile = catalog.getTableFile(table, ".bin");
+        File partFile = new File(binaryFile.getPath() + ".part");
+        BinaryTableWriter writer = new BinaryTableWriter(partFile, singleSchema.size());
+
+        Tuple tuple;
+        while ((tuple = scan.getNextTuple()) != null) {
+            writer.write(tuple.getValues());
+        }
+        writer.close();
+        scan.close();
+
+        if (binaryFile.exists() && !binaryFile.delete()) {
+            throw new IOException("Cannot replace " + binaryFile);
+        }
+        if (!partFile.renameTo(binaryFile)) {
+            throw new IOException("Cannot rename " + partFile + " to " + binaryFile);
+        }
+        return writer.getTotalCount();
+    }
+}
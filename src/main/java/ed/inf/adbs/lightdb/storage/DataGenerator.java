@@ -0,0 +1,370 @@
+package ed.inf.adbs.lightdb.storage;
+
+import ed.inf.adbs.lightdb.models.Batch;
+import ed.inf.adbs.lightdb.models.Schema;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tool to generate synthetic tables of the schema in schema.txt at a chosen scale, to measure how the
+ * operators scale. Every column draws its values from a distribution: sequential (1, 2, 3, ... wrapping
+ * after the range), uniform or Zipfian on [1, range]. The range controls the join fan-out, e.g. Reserves.G
+ * uniform on the 1000 keys of Sailors.A matches every sailor with rows / 1000 reservations, and the
+ * duplicate ratio is the share of rows copying an earlier row, for the distinct operator.
+ *
+ * The tables are generated in chunks of whole pages, every chunk from a random source seeded by the seed,
+ * the table and the chunk number, so the output only depends on the seed, not on the number of threads.
+ * The chunks are generated and encoded on the worker threads and written in order by the calling thread.
+ *
+ * ClassName: DataGenerator
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class DataGenerator {
+    private static final int CHUNK_PAGES = 64; // pages of tuples generated by one task
+
+    private final Map<String, String> options;
+    private final long seed;
+    private final boolean binary;
+    private final int threads;
+    private final double duplicates; // share of rows copying an earlier row
+    private final double zipfSkew;
+
+    public static void main(String[] args) {
+
+        if (args.length < 1) {
+            System.err.println("Usage: DataGenerator database_dir [table ...] [option=value ...]");
+            System.err.println("Options: rows=N (e.g. 1000, 10K, 100M), Table.rows=N, seed=N, format=csv|binary, threads=N,");
+            System.err.println("         duplicates=R, zipfSkew=S, Table.Column=sequential|uniform|zipf[:range]");
+            return;
+        }
+
+        DBCatalog.getInstance().init(args[0]);
+
+        List<String> tables = new ArrayList<>();
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            String[] tokens = args[i].split("=", 2);
+            if (tokens.length == 2) {
+                options.put(tokens[0], tokens[1]);
+            } else {
+                tables.add(args[i]);
+            }
+        }
+        // generate the given tables, or all tables in the schema
+        if (tables.isEmpty()) {
+            tables.addAll(DBCatalog.getInstance().getTableToSchema().keySet());
+        }
+
+        DataGenerator generator = new DataGenerator(options);
+        for (String table : tables) {
+            try {
+                long start = System.nanoTime();
+                File file = generator.generate(table);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("Generated %s: %d tuples, %.1f MB in %.3f s (%.1f MB/s)%n", table, generator.getRows(table),
+                        file.length() / 1e6, seconds, file.length() / 1e6 / seconds);
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Exception occurred when generating table " + table + ".");
+                e.printStackTrace();
+            }
+        }
+        System.out.println("Run ANALYZE to update the statistics of the generated tables.");
+    }
+
+    /**
+     * Constructor: read the options shared by all tables.
+     *
+     * @param options option name -> value, see the usage
+     */
+    public DataGenerator(Map<String, String> options) {
+        this.options = options;
+        this.seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        this.binary = "binary".equals(options.getOrDefault("format", "csv"));
+        this.threads = Math.max(Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors()))), 1);
+        this.duplicates = Double.parseDouble(options.getOrDefault("duplicates", "0"));
+        this.zipfSkew = Double.parseDouble(options.getOrDefault("zipfSkew", "1"));
+    }
+
+    /**
+     * Get the number of rows of the table, the Table.rows option, or the rows option (default 1000).
+     *
+     * @param table table name
+     * @return number of rows
+     */
+    public long getRows(String table) {
+        return parseCount(options.getOrDefault(table + ".rows", options.getOrDefault("rows", "1000")));
+    }
+
+    /**
+     * Generate the table and replace its data file, the file of the other format is deleted.
+     *
+     * @param table table name
+     * @return written data file
+     * @throws IOException if the file cannot be written
+     */
+    public File generate(String table) throws IOException {
+        DBCatalog catalog = DBCatalog.getInstance();
+        List<String> singleSchema = catalog.generateSingleSchema(table);
+        if (singleSchema == null) {
+            throw new IllegalArgumentException("Unknown table " + table);
+        }
+        Schema schema = Schema.of(table, singleSchema);
+        long rows = getRows(table);
+
+        Column[] columns = new Column[singleSchema.size()];
+        for (int c = 0; c < columns.length; c++) {
+            String spec = options.getOrDefault(table + "." + singleSchema.get(c), (c == 0) ? "sequential" : "uniform");
+            columns[c] = new Column(spec, rows);
+        }
+
+        // write to a temporary file first, so a failed run never leaves a broken table
+        File dataFile = catalog.getTableFile(table, binary ? ".bin" : ".csv");
+        File partFile = new File(dataFile.getPath() + ".part");
+        dataFile.getParentFile().mkdirs();
+
+        long chunkRows = (long) CHUNK_PAGES * BinaryTableWriter.tuplesPerPage(columns.length);
+        long chunks = (rows + chunkRows - 1) / chunkRows;
+        long tableSeed = seed ^ (table.hashCode() * 0x9E3779B97F4A7C15L);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (FileChannel channel = new FileOutputStream(partFile).getChannel()) {
+            // at most two chunks per thread in flight, the memory does not grow with the table
+            Queue<Future<ByteBuffer>> pending = new ArrayDeque<>();
+            for (long chunk = 0; chunk < chunks || !pending.isEmpty(); ) {
+                while (chunk < chunks && pending.size() < 2 * threads) {
+                    long first = chunk * chunkRows;
+                    int count = (int) Math.min(chunkRows, rows - first);
+                    long chunkSeed = tableSeed + chunk * 0xBF58476D1CE4E5B9L;
+                    pending.add(executor.submit(() -> generateChunk(schema, columns, first, count, chunkSeed)));
+                    chunk++;
+                }
+                ByteBuffer buffer = pending.remove().get();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IOException("Cannot generate table " + table, e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        File otherFile = catalog.getTableFile(table, binary ? ".csv" : ".bin");
+        if ((dataFile.exists() && !dataFile.delete()) || (otherFile.exists() && !otherFile.delete())) {
+            throw new IOException("Cannot replace the data files of " + table);
+        }
+        if (!partFile.renameTo(dataFile)) {
+            throw new IOException("Cannot rename " + partFile + " to " + dataFile);
+        }
+        return dataFile;
+    }
+
+    /**
+     * Generate the rows of one chunk batch by batch and encode them.
+     *
+     * @param schema table schema
+     * @param columns distributions of the columns
+     * @param first number of the first row in the table
+     * @param count number of rows
+     * @param chunkSeed seed of the chunk
+     * @return encoded rows, ready to be written
+     * @throws IOException if the rows cannot be encoded
+     */
+    private ByteBuffer generateChunk(Schema schema, Column[] columns, long first, int count, long chunkSeed) throws IOException {
+        SplittableRandom random = new SplittableRandom(chunkSeed);
+        Batch batch = new Batch(schema);
+        ChunkEncoder encoder = binary ? new PageEncoder(columns.length, count) : new CsvEncoder(count);
+
+        for (int done = 0; done < count; ) {
+            int rows = Math.min(Batch.CAPACITY, count - done);
+            for (int row = 0; row < rows; row++) {
+                if (row > 0 && duplicates > 0 && random.nextDouble() < duplicates) {
+                    int copied = random.nextInt(row);
+                    for (int c = 0; c < columns.length; c++) {
+                        batch.getColumn(c)[row] = batch.getColumn(c)[copied];
+                    }
+                } else {
+                    for (int c = 0; c < columns.length; c++) {
+                        batch.getColumn(c)[row] = columns[c].next(first + done + row, random);
+                    }
+                }
+            }
+            batch.setRowCount(rows);
+            encoder.write(batch);
+            done += rows;
+        }
+        return encoder.finish();
+    }
+
+    /**
+     * Parse a number of rows with an optional K, M or G suffix.
+     *
+     * @param count number, e.g. 1000, 10K, 100M
+     * @return number of rows
+     */
+    static long parseCount(String count) {
+        String upper = count.trim().toUpperCase();
+        long unit = 1;
+        if (upper.endsWith("K")) {
+            unit = 1_000L;
+        } else if (upper.endsWith("M")) {
+            unit = 1_000_000L;
+        } else if (upper.endsWith("G")) {
+            unit = 1_000_000_000L;
+        }
+        if (unit > 1) {
+            upper = upper.substring(0, upper.length() - 1);
+        }
+        return Long.parseLong(upper) * unit;
+    }
+
+    /**
+     * Distribution of the values of one column.
+     */
+    private final class Column {
+        private final String kind; // sequential, uniform or zipf
+        private final int range; // values from 1 to range
+        private final ZipfSampler zipf; // zipf only
+
+        /**
+         * Constructor: parse the distribution.
+         *
+         * @param spec kind[:range], the range defaults to the number of rows
+         * @param rows number of rows of the table
+         */
+        private Column(String spec, long rows) {
+            String[] tokens = spec.split(":", 2);
+            this.kind = tokens[0].trim().toLowerCase();
+            long parsed = (tokens.length == 2) ? parseCount(tokens[1]) : rows;
+            this.range = (int) Math.max(Math.min(parsed, Integer.MAX_VALUE), 1);
+            if (!kind.equals("sequential") && !kind.equals("uniform") && !kind.equals("zipf")) {
+                throw new IllegalArgumentException("Unknown distribution " + spec);
+            }
+            this.zipf = kind.equals("zipf") ? new ZipfSampler(range, zipfSkew) : null;
+        }
+
+        /**
+         * Draw the value of the row.
+         *
+         * @param row number of the row in the table
+         * @param random random source of the chunk
+         * @return value
+         */
+        private int next(long row, SplittableRandom random) {
+            switch (kind) {
+                case "sequential":
+                    return (int) (row % range) + 1;
+                case "zipf":
+                    return zipf.sample(random);
+                default:
+                    return random.nextInt(range) + 1;
+            }
+        }
+    }
+
+    /**
+     * Encoder of the rows of a chunk in the format of the data file.
+     */
+    private interface ChunkEncoder {
+        void write(Batch batch) throws IOException;
+
+        ByteBuffer finish() throws IOException;
+    }
+
+    /**
+     * Encode the rows as csv lines, every line ends with a new line so the chunks can be concatenated.
+     */
+    private static final class CsvEncoder implements ChunkEncoder {
+        private final ByteArrayOutputStream bytes;
+        private final ResultWriter writer;
+
+        private CsvEncoder(int rows) {
+            this.bytes = new ByteArrayOutputStream(rows * 16);
+            this.writer = new ResultWriter(Channels.newChannel(bytes), 1 << 16);
+        }
+
+        @Override
+        public void write(Batch batch) throws IOException {
+            writer.write(batch);
+        }
+
+        @Override
+        public ByteBuffer finish() throws IOException {
+            writer.flush();
+            bytes.write('\n');
+            return ByteBuffer.wrap(bytes.toByteArray());
+        }
+    }
+
+    /**
+     * Encode the rows as pages of the binary format, a chunk is whole pages, only the last chunk
+     * of the table may end with a page not full.
+     */
+    private static final class PageEncoder implements ChunkEncoder {
+        private final int numColumns;
+        private final int tuplesPerPage;
+        private final ByteBuffer buffer;
+        private int pageStart; // position of the current page
+        private int tupleCount; // tuples on the current page
+
+        private PageEncoder(int numColumns, int rows) {
+            this.numColumns = numColumns;
+            this.tuplesPerPage = BinaryTableWriter.tuplesPerPage(numColumns);
+            int pages = (rows + tuplesPerPage - 1) / tuplesPerPage;
+            this.buffer = ByteBuffer.allocate(pages * DBCatalog.PAGE_SIZE); // zero padded
+        }
+
+        @Override
+        public void write(Batch batch) {
+            for (int row = 0; row < batch.getRowCount(); row++) {
+                if (tupleCount == 0) {
+                    buffer.position(pageStart + BinaryTableWriter.HEADER_SIZE);
+                }
+                for (int c = 0; c < numColumns; c++) {
+                    buffer.putInt(batch.getColumn(c)[row]);
+                }
+                if (++tupleCount == tuplesPerPage) {
+                    finishPage();
+                }
+            }
+        }
+
+        @Override
+        public ByteBuffer finish() {
+            if (tupleCount > 0) {
+                finishPage();
+            }
+            buffer.clear();
+            return buffer;
+        }
+
+        /**
+         * Fill the header of the current page and move to the next one.
+         */
+        private void finishPage() {
+            buffer.putInt(pageStart, numColumns);
+            buffer.putInt(pageStart + Integer.BYTES, tupleCount);
+            pageStart += DBCatalog.PAGE_SIZE;
+            tupleCount = 0;
+        }
+    }
+}
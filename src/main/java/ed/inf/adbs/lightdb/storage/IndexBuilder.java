@@ -0,0 +1,323 @@
+package ed.inf.adbs.lightdb.storage;
+
+import ed.inf.adbs.lightdb.models.IndexInfo;
+import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.operators.BinaryScanOperator;
+import ed.inf.adbs.lightdb.operators.SortOperator;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tool to build the B+-tree indexes declared in the index config file of the database.
+ * The indexes are bulk-loaded from the sorted data entries of the binary table file, and a clustered
+ * index first rewrites the binary table file sorted on the indexed column.
+ *
+ * The index file is a sequence of pages of the page size:
+ * page 0 is the header with the address of the root, the number of leaves and the order;
+ * then the leaves, every leaf is 0, the number of entries, and the entries of key, number of
+ * record ids and the record ids as page and tuple number in the binary table file;
+ * then the index nodes level by level, every node is 1, the number of keys, the keys and
+ * the addresses of the children, where key i is the smallest key under child i + 1.
+ * The leaves are consecutive pages, so the next leaf is at the next address.
+ *
+ * ClassName: IndexBuilder
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class IndexBuilder {
+    public static final int LEAF_FLAG = 0;
+    public static final int INDEX_FLAG = 1;
+    private static final int NODE_HEADER_SIZE = 2 * Integer.BYTES; // flag and number of entries or keys
+    private static final int TUPLE_ID_BITS = 10; // a page holds at most 1022 tuples
+
+    public static void main(String[] args) {
+
+        if (args.length < 1) {
+            System.err.println("Usage: IndexBuilder database_dir");
+            return;
+        }
+
+        DBCatalog.getInstance().init(args[0]);
+
+        // clustered indexes first, they reorder the table and move the record ids of the other indexes
+        List<IndexInfo> indexes = new ArrayList<>();
+        for (String table : DBCatalog.getInstance().getTableToSchema().keySet()) {
+            for (IndexInfo index : DBCatalog.getInstance().getIndexes(table)) {
+                if (index.isClustered()) {
+                    indexes.add(0, index);
+                } else {
+                    indexes.add(index);
+                }
+            }
+        }
+
+        List<String> clusteredTables = new ArrayList<>();
+        for (IndexInfo index : indexes) {
+            try {
+                if (index.isClustered() && clusteredTables.contains(index.getTableName())) {
+                    System.err.println("Table " + index.getTableName() + " is already clustered, "
+                            + index.getFileName() + " is built unclustered.");
+                    index = new IndexInfo(index.getTableName(), index.getColumn(), false, index.getOrder());
+                } else if (index.isClustered()) {
+                    clusteredTables.add(index.getTableName());
+                }
+
+                int leaves = build(index);
+                System.out.println("Built index " + index.getFileName() + ": " + leaves + " leaves.");
+            } catch (IOException e) {
+                System.err.println("Exception occurred when building index " + index.getFileName() + ".");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Build one index, convert the table to the binary format first if needed.
+     *
+     * @param index index description
+     * @return number of leaves
+     * @throws IOException if a file cannot be read or written
+     */
+    public static int build(IndexInfo index) throws IOException {
+        DBCatalog catalog = DBCatalog.getInstance();
+        String table = index.getTableName();
+        int keyColumn = catalog.generateSingleSchema(table).indexOf(index.getColumn());
+        if (keyColumn < 0) {
+            throw new IOException("Unknown column " + index.getFileName());
+        }
+
+        if (!catalog.hasBinaryTable(table)) {
+            CsvConverter.convert(table);
+        }
+        if (index.isClustered()) {
+            sortTable(table, keyColumn);
+        }
+
+        long[] entries = readDataEntries(table, keyColumn);
+        Arrays.sort(entries);
+
+        File indexFile = catalog.getIndexFile(index);
+        if (!indexFile.getParentFile().exists() && !indexFile.getParentFile().mkdirs()) {
+            throw new IOException("Cannot create " + indexFile.getParentFile());
+        }
+        try (RandomAccessFile file = new RandomAccessFile(indexFile, "rw")) {
+            file.setLength(0);
+            return bulkLoad(file.getChannel(), entries, index.getOrder());
+        }
+    }
+
+    /**
+     * Rewrite the binary table file sorted on the key column, through the external sort.
+     *
+     * @param table table name
+     * @param keyColumn ordinal of the key column
+     * @throws IOException if the binary file cannot be written
+     */
+    private static void sortTable(String table, int keyColumn) throws IOException {
+        DBCatalog catalog = DBCatalog.getInstance();
+        List<String> singleSchema = catalog.generateSingleSchema(table);
+        SortOperator sort = new SortOperator(new int[]{keyColumn},
+                new BinaryScanOperator(table, singleSchema, catalog.getTableFile(table, ".bin")));
+
+        File binaryFile = catalog.getTableFile(table, ".bin");
+        File partFile = new File(binaryFile.getPath() + ".part");
+        BinaryTableWriter writer = new BinaryTableWriter(partFile, singleSchema.size());
+
+        Tuple tuple;
+        while ((tuple = sort.getNextTuple()) != null) {
+            writer.write(tuple.getValues());
+        }
+        writer.close();
+        sort.close();
+
+        if (!binaryFile.delete() || !partFile.renameTo(binaryFile)) {
+            throw new IOException("Cannot replace " + binaryFile);
+        }
+    }
+
+    /**
+     * Read the key and the record id of every tuple of the binary table file, each packed in a long
+     * so that sorting the longs sorts on the key and then on the record id.
+     *
+     * @param table table name
+     * @param keyColumn ordinal of the key column
+     * @return packed data entries
+     * @throws IOException if the binary file cannot be read
+     */
+    private static long[] readDataEntries(String table, int keyColumn) throws IOException {
+        long[] entries = new long[1024];
+        int count = 0;
+
+        ByteBuffer page = ByteBuffer.allocateDirect(DBCatalog.PAGE_SIZE);
+        try (FileChannel channel = new FileInputStream(DBCatalog.getInstance().getTableFile(table, ".bin")).getChannel()) {
+            for (int pageId = 0; readPage(channel, pageId, page); pageId++) {
+                int numColumns = page.getInt();
+                int numTuples = page.getInt();
+                for (int tupleId = 0; tupleId < numTuples; tupleId++) {
+                    int key = page.getInt(BinaryTableWriter.HEADER_SIZE + (tupleId * numColumns + keyColumn) * Integer.BYTES);
+                    if (count == entries.length) {
+                        entries = Arrays.copyOf(entries, count * 2);
+                    }
+                    entries[count++] = pack(key, pageId, tupleId);
+                }
+            }
+        }
+        return Arrays.copyOf(entries, count);
+    }
+
+    /**
+     * Pack the key in the high half and the record id in the low half, the record id is never negative.
+     *
+     * @param key key value
+     * @param pageId page number in the binary table file
+     * @param tupleId tuple number in the page
+     * @return packed data entry
+     */
+    private static long pack(int key, int pageId, int tupleId) {
+        long rid = ((long) pageId << TUPLE_ID_BITS) | tupleId;
+        return ((long) key << 32) | rid;
+    }
+
+    /**
+     * Read the page at the address into the buffer.
+     *
+     * @param channel file channel
+     * @param address page number
+     * @param page page buffer, flipped for reading
+     * @return false if the page is beyond the end of the file
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean readPage(FileChannel channel, long address, ByteBuffer page) throws IOException {
+        page.clear();
+        long position = address * DBCatalog.PAGE_SIZE;
+        while (page.hasRemaining()) {
+            int read = channel.read(page, position + page.position());
+            if (read < 0) {
+                break;
+            }
+        }
+        if (page.position() < NODE_HEADER_SIZE) {
+            return false;
+        }
+        page.flip();
+        return true;
+    }
+
+    /**
+     * Write the page buffer at the address.
+     *
+     * @param channel file channel
+     * @param address page number
+     * @param page page buffer
+     * @throws IOException if the file cannot be written
+     */
+    private static void writePage(FileChannel channel, int address, ByteBuffer page) throws IOException {
+        while (page.position() < page.capacity()) { // pad with zeros
+            page.putInt(0);
+        }
+        page.flip();
+        long position = (long) address * DBCatalog.PAGE_SIZE;
+        while (page.hasRemaining()) {
+            position += channel.write(page, position);
+        }
+        page.clear();
+    }
+
+    /**
+     * Write the leaves from the sorted data entries, then the index nodes level by level, then the header.
+     * A leaf holds at most 2 * order entries, and fewer if they do not fit in the page. The record ids
+     * of a key which do not fit in one page are spread over several entries of the same key.
+     *
+     * @param channel index file channel
+     * @param entries sorted packed data entries
+     * @param order order of the tree
+     * @return number of leaves
+     * @throws IOException if the file cannot be written
+     */
+    private static int bulkLoad(FileChannel channel, long[] entries, int order) throws IOException {
+        ByteBuffer page = ByteBuffer.allocate(DBCatalog.PAGE_SIZE);
+        int maxEntries = Math.max(2 * order, 1);
+        int maxRids = (DBCatalog.PAGE_SIZE - NODE_HEADER_SIZE - 2 * Integer.BYTES) / (2 * Integer.BYTES);
+
+        List<Integer> addresses = new ArrayList<>(); // nodes of the current level
+        List<Integer> minKeys = new ArrayList<>(); // smallest key under every node
+        int address = 1;
+
+        // leaves
+        int leafEntries = 0;
+        page.putInt(LEAF_FLAG).putInt(0);
+        for (int i = 0; i < entries.length; ) {
+            int key = (int) (entries[i] >> 32);
+            int end = i;
+            while (end < entries.length && end - i < maxRids && (int) (entries[end] >> 32) == key) {
+                end++;
+            }
+
+            // start a new leaf if the entry does not fit
+            int entrySize = (2 + 2 * (end - i)) * Integer.BYTES;
+            if (leafEntries > 0 && (leafEntries == maxEntries || page.remaining() < entrySize)) {
+                page.putInt(Integer.BYTES, leafEntries);
+                writePage(channel, address++, page);
+                page.putInt(LEAF_FLAG).putInt(0);
+                leafEntries = 0;
+            }
+            if (leafEntries == 0) {
+                addresses.add(address);
+                minKeys.add(key);
+            }
+
+            page.putInt(key).putInt(end - i);
+            for (int j = i; j < end; j++) {
+                int rid = (int) entries[j];
+                page.putInt(rid >>> TUPLE_ID_BITS).putInt(rid & ((1 << TUPLE_ID_BITS) - 1));
+            }
+            leafEntries++;
+            i = end;
+        }
+        if (leafEntries > 0 || addresses.isEmpty()) { // the last leaf, or one empty leaf for an empty table
+            if (addresses.isEmpty()) {
+                addresses.add(address);
+                minKeys.add(0);
+            }
+            page.putInt(Integer.BYTES, leafEntries);
+            writePage(channel, address++, page);
+        }
+        int numLeaves = addresses.size();
+
+        // index nodes, until one node is left
+        int maxKeys = Math.min(Math.max(2 * order, 1), (DBCatalog.PAGE_SIZE - NODE_HEADER_SIZE - Integer.BYTES) / (2 * Integer.BYTES));
+        while (addresses.size() > 1) {
+            List<Integer> parentAddresses = new ArrayList<>();
+            List<Integer> parentMinKeys = new ArrayList<>();
+            for (int i = 0; i < addresses.size(); i += maxKeys + 1) {
+                int end = Math.min(i + maxKeys + 1, addresses.size());
+                page.putInt(INDEX_FLAG).putInt(end - i - 1);
+                for (int j = i + 1; j < end; j++) {
+                    page.putInt(minKeys.get(j));
+                }
+                for (int j = i; j < end; j++) {
+                    page.putInt(addresses.get(j));
+                }
+                parentAddresses.add(address);
+                parentMinKeys.add(minKeys.get(i));
+                writePage(channel, address++, page);
+            }
+            addresses = parentAddresses;
+            minKeys = parentMinKeys;
+        }
+
+        // header
+        page.putInt(addresses.get(0)).putInt(numLeaves).putInt(order);
+        writePage(channel, 0, page);
+        return numLeaves;
+    }
+}
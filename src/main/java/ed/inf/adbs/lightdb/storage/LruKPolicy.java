@@ -0,0 +1,77 @@
+package ed.inf.adbs.lightdb.storage;
+
+import java.util.Arrays;
+
+/**
+ * LRU-K replacement: keep the times of the last K accesses of every frame and evict the unpinned frame
+ * whose K-th last access is the oldest. A page accessed fewer than K times counts as infinitely old,
+ * so a page read once by a large scan is evicted before a page used again and again, e.g. an index root.
+ * Ties are broken by the last access, like LRU.
+ *
+ * ClassName: LruKPolicy
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class LruKPolicy implements ReplacementPolicy {
+    private final int k;
+    private long[][] history; // frame -> times of the last K accesses, most recent first, 0 if none
+    private long time; // logical clock, one tick per access
+
+    /**
+     * Constructor: init the access history.
+     *
+     * @param capacity number of frames
+     * @param k number of accesses remembered per frame, at least 1
+     */
+    public LruKPolicy(int capacity, int k) {
+        this.k = Math.max(k, 1);
+        this.history = new long[capacity][this.k];
+    }
+
+    @Override
+    public void pageLoaded(int frame) {
+        Arrays.fill(history[frame], 0);
+        pageAccessed(frame);
+    }
+
+    @Override
+    public void pageAccessed(int frame) {
+        long[] accesses = history[frame];
+        System.arraycopy(accesses, 0, accesses, 1, k - 1);
+        accesses[0] = ++time;
+    }
+
+    /**
+     * Scan all frames for the oldest K-th last access.
+     *
+     * @param pinCounts pin count of every frame
+     * @return frame number, or -1 if every frame is pinned
+     */
+    @Override
+    public int chooseVictim(int[] pinCounts) {
+        int victim = -1;
+        for (int frame = 0; frame < history.length; frame++) {
+            if (pinCounts[frame] > 0) {
+                continue;
+            }
+            if (victim < 0 || isOlder(history[frame], history[victim])) {
+                victim = frame;
+            }
+        }
+        return victim;
+    }
+
+    /**
+     * Compare the K-th last accesses, then the last accesses.
+     *
+     * @param first access history of a frame
+     * @param second access history of another frame
+     * @return true if the first frame should be evicted before the second
+     */
+    private boolean isOlder(long[] first, long[] second) {
+        if (first[k - 1] != second[k - 1]) {
+            return first[k - 1] < second[k - 1];
+        }
+        return first[0] < second[0];
+    }
+}
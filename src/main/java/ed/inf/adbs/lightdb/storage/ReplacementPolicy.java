@@ -0,0 +1,50 @@
+package ed.inf.adbs.lightdb.storage;
+
+/**
+ * Policy of the buffer pool choosing the frame to evict when a page is missing and every frame is used.
+ * The pool calls it while holding its lock, so an implementation needs no synchronization of its own.
+ *
+ * ClassName: ReplacementPolicy
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public interface ReplacementPolicy {
+    /**
+     * A new page has been loaded into the frame, forget the accesses to the page it held before.
+     *
+     * @param frame frame number
+     */
+    void pageLoaded(int frame);
+
+    /**
+     * The page in the frame has been pinned again.
+     *
+     * @param frame frame number
+     */
+    void pageAccessed(int frame);
+
+    /**
+     * Choose the frame to evict among the frames not pinned.
+     *
+     * @param pinCounts pin count of every frame
+     * @return frame number, or -1 if every frame is pinned
+     */
+    int chooseVictim(int[] pinCounts);
+
+    /**
+     * Create the policy of the setting value: clock, or lru-K for LRU-K, e.g. lru-2.
+     *
+     * @param name setting value
+     * @param capacity number of frames
+     * @return replacement policy
+     */
+    static ReplacementPolicy of(String name, int capacity) {
+        if (name.toLowerCase().startsWith("lru-")) {
+            return new LruKPolicy(capacity, Integer.parseInt(name.substring(4).trim()));
+        }
+        if (!name.equalsIgnoreCase("clock")) {
+            System.err.println("Unknown buffer pool policy " + name + ", use clock.");
+        }
+        return new ClockPolicy(capacity);
+    }
+}
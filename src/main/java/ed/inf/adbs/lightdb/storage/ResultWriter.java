@@ -0,0 +1,137 @@
+package ed.inf.adbs.lightdb.storage;
+
+import ed.inf.adbs.lightdb.models.Batch;
+import ed.inf.adbs.lightdb.models.Tuple;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Write the result tuples to a channel as csv rows, separated by new lines, no new line after the last row.
+ * The ints are formatted straight into a reusable byte buffer, no string is built,
+ * and the buffer is written to the channel whenever it cannot hold another row.
+ *
+ * ClassName: ResultWriter
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class ResultWriter {
+    private static final int MAX_VALUE_BYTES = 12; // sign, 10 digits and separator
+
+    private WritableByteChannel channel;
+    private ByteBuffer buffer;
+    private byte[] digits; // digits of one value, in reverse order
+    private boolean first; // true if no row written yet
+
+    /**
+     * Constructor: init the buffer.
+     *
+     * @param channel output channel
+     * @param bufferSize flush threshold in bytes
+     */
+    public ResultWriter(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(Math.max(bufferSize, MAX_VALUE_BYTES));
+        this.digits = new byte[MAX_VALUE_BYTES];
+        this.first = true;
+    }
+
+    /**
+     * Append the tuple as a csv row.
+     *
+     * @param tuple tuple object
+     * @throws IOException if the channel cannot be written
+     */
+    public void write(Tuple tuple) throws IOException {
+        int[] values = tuple.getValues();
+        if (!first) {
+            ensureRemaining(1);
+            buffer.put((byte) '\n');
+        }
+        first = false;
+
+        for (int i = 0; i < values.length; i++) {
+            ensureRemaining(MAX_VALUE_BYTES);
+            if (i > 0) {
+                buffer.put((byte) ',');
+            }
+            putInt(values[i]);
+        }
+    }
+
+    /**
+     * Append the selected rows of the batch as csv rows, the values are read from the column vectors.
+     *
+     * @param batch batch of rows
+     * @throws IOException if the channel cannot be written
+     */
+    public void write(Batch batch) throws IOException {
+        int[] selection = batch.getSelection();
+        int numColumns = batch.getSchema().size();
+        for (int i = 0; i < batch.getCount(); i++) {
+            int row = selection[i];
+            if (!first) {
+                ensureRemaining(1);
+                buffer.put((byte) '\n');
+            }
+            first = false;
+
+            for (int c = 0; c < numColumns; c++) {
+                ensureRemaining(MAX_VALUE_BYTES);
+                if (c > 0) {
+                    buffer.put((byte) ',');
+                }
+                putInt(batch.getColumn(c)[row]);
+            }
+        }
+    }
+
+    /**
+     * Format the int in decimal into the buffer.
+     *
+     * @param value int value
+     */
+    private void putInt(int value) {
+        long remaining = value; // long, so the minimum int can be negated
+        if (remaining < 0) {
+            buffer.put((byte) '-');
+            remaining = -remaining;
+        }
+
+        int count = 0;
+        do {
+            digits[count++] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining > 0);
+
+        while (count > 0) {
+            buffer.put(digits[--count]);
+        }
+    }
+
+    /**
+     * Flush the buffer if it has less than the given free bytes.
+     *
+     * @param bytes required free bytes
+     * @throws IOException if the channel cannot be written
+     */
+    private void ensureRemaining(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    /**
+     * Write the buffered bytes to the channel.
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
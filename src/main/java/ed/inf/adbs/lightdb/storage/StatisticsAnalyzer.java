@@ -0,0 +1,172 @@
+package ed.inf.adbs.lightdb.storage;
+
+import ed.inf.adbs.lightdb.models.ColumnStats;
+import ed.inf.adbs.lightdb.models.TableStats;
+import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.operators.Operator;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tool to collect the statistics of the tables and store them in the statistics file of the database,
+ * run by the ANALYZE statement or from the command line.
+ * The table is scanned once, min and max are exact, the distinct counts and the equi-depth histograms
+ * are computed from a uniform sample of at most statsSampleSize tuples, which is the whole table if it fits.
+ *
+ * ClassName: StatisticsAnalyzer
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class StatisticsAnalyzer {
+    public static void main(String[] args) {
+
+        if (args.length < 1) {
+            System.err.println("Usage: StatisticsAnalyzer database_dir [table ...]");
+            return;
+        }
+
+        DBCatalog.getInstance().init(args[0]);
+
+        // analyze the given tables, or all tables in the schema
+        List<String> tables = (args.length > 1)
+                ? Arrays.asList(args).subList(1, args.length)
+                : new ArrayList<>(DBCatalog.getInstance().getTableToSchema().keySet());
+        analyzeTables(tables);
+    }
+
+    /**
+     * Analyze the tables, put the statistics in the catalog and save the statistics file.
+     *
+     * @param tables table names
+     */
+    public static void analyzeTables(List<String> tables) {
+        for (String table : tables) {
+            TableStats stats = analyze(table);
+            DBCatalog.getInstance().putTableStats(stats);
+            System.out.println("Analyzed " + table + ": " + stats.getRowCount() + " tuples.");
+        }
+        DBCatalog.getInstance().saveTableStats();
+    }
+
+    /**
+     * Scan the table and compute its statistics.
+     *
+     * @param table table name
+     * @return table statistics
+     */
+    public static TableStats analyze(String table) {
+        DBCatalog catalog = DBCatalog.getInstance();
+        List<String> singleSchema = catalog.generateSingleSchema(table);
+        int numColumns = singleSchema.size();
+        int sampleSize = Math.max(catalog.getIntSetting("statsSampleSize", 1 << 20), 1);
+        int buckets = Math.max(catalog.getIntSetting("histogramBuckets", 32), 1);
+
+        int[] min = new int[numColumns];
+        int[] max = new int[numColumns];
+        Arrays.fill(min, Integer.MAX_VALUE);
+        Arrays.fill(max, Integer.MIN_VALUE);
+        int[][] sample = new int[numColumns][Math.min(sampleSize, 1024)];
+        Random random = new Random(42); // same sample on every run
+
+        // one pass, reservoir sampling of whole tuples
+        Operator scan = catalog.generateScanOperator(table);
+        long rowCount = 0;
+        Tuple tuple;
+        while ((tuple = scan.getNextTuple()) != null) {
+            int slot;
+            if (rowCount < sampleSize) {
+                slot = (int) rowCount;
+                if (slot == sample[0].length) {
+                    for (int c = 0; c < numColumns; c++) {
+                        sample[c] = Arrays.copyOf(sample[c], (int) Math.min(2L * slot, sampleSize));
+                    }
+                }
+            } else {
+                long r = (long) (random.nextDouble() * (rowCount + 1));
+                slot = (r < sampleSize) ? (int) r : -1;
+            }
+
+            for (int c = 0; c < numColumns; c++) {
+                int value = tuple.getValue(c);
+                min[c] = Math.min(min[c], value);
+                max[c] = Math.max(max[c], value);
+                if (slot >= 0) {
+                    sample[c][slot] = value;
+                }
+            }
+            rowCount++;
+        }
+        scan.close();
+
+        int sampled = (int) Math.min(rowCount, sampleSize);
+        Map<String, ColumnStats> columnStats = new LinkedHashMap<>();
+        for (int c = 0; c < numColumns; c++) {
+            int[] values = Arrays.copyOf(sample[c], sampled);
+            Arrays.sort(values);
+            columnStats.put(singleSchema.get(c), (rowCount == 0)
+                    ? new ColumnStats(0, 0, 0, new int[0])
+                    : new ColumnStats(min[c], max[c], estimateDistinct(values, rowCount), histogram(values, buckets, min[c], max[c])));
+        }
+
+        int tuplesPerPage = BinaryTableWriter.tuplesPerPage(numColumns);
+        long pageCount = (rowCount + tuplesPerPage - 1) / tuplesPerPage;
+        return new TableStats(table, rowCount, pageCount, columnStats);
+    }
+
+    /**
+     * Count the distinct values of the sorted sample. If the sample is only part of the table,
+     * scale the count with the guaranteed-error estimator: the values seen once in the sample stand
+     * for sqrt(rows / sampled) values each, the values seen more than once are assumed to be all found.
+     *
+     * @param sorted sorted sample values
+     * @param rowCount number of tuples in the table
+     * @return estimated number of distinct values
+     */
+    private static long estimateDistinct(int[] sorted, long rowCount) {
+        long distinct = 0;
+        long once = 0;
+        for (int i = 0; i < sorted.length; ) {
+            int j = i;
+            while (j < sorted.length && sorted[j] == sorted[i]) {
+                j++;
+            }
+            distinct++;
+            if (j - i == 1) {
+                once++;
+            }
+            i = j;
+        }
+        if (sorted.length == rowCount) { // exact
+            return distinct;
+        }
+
+        double estimate = Math.sqrt((double) rowCount / sorted.length) * once + (distinct - once);
+        return Math.min(Math.max(Math.round(estimate), distinct), rowCount);
+    }
+
+    /**
+     * Compute the bounds of the equi-depth histogram, the first and last bounds are the exact min and max.
+     *
+     * @param sorted sorted sample values
+     * @param buckets number of buckets
+     * @param min min value of the table
+     * @param max max value of the table
+     * @return bucket bounds
+     */
+    private static int[] histogram(int[] sorted, int buckets, int min, int max) {
+        buckets = Math.min(buckets, sorted.length);
+        int[] bounds = new int[buckets + 1];
+        for (int i = 0; i <= buckets; i++) {
+            bounds[i] = sorted[(int) ((long) i * (sorted.length - 1) / buckets)];
+        }
+        bounds[0] = min;
+        bounds[buckets] = max;
+        return bounds;
+    }
+}
@@ -0,0 +1,96 @@
+package ed.inf.adbs.lightdb.storage;
+
+import java.util.SplittableRandom;
+
+/**
+ * Sampler of the Zipf distribution on the ranks 1 to n, rank k drawn with probability proportional
+ * to 1 / k^exponent, by rejection inversion (Hörmann and Derflinger), so a sample takes constant
+ * expected time and no table of the n probabilities is built, n can be in the hundreds of millions.
+ *
+ * ClassName: ZipfSampler
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class ZipfSampler {
+    private final int n; // number of ranks
+    private final double exponent; // skew, greater than 0
+    private final double hIntegralX1; // hIntegral(1.5) - 1
+    private final double hIntegralN; // hIntegral(n + 0.5)
+    private final double s; // threshold of the quick acceptance
+
+    /**
+     * Constructor: init the constants of the distribution.
+     *
+     * @param n number of ranks, at least 1
+     * @param exponent skew, greater than 0, 1 is the classic Zipf distribution
+     */
+    public ZipfSampler(int n, double exponent) {
+        if (n < 1 || exponent <= 0) {
+            throw new IllegalArgumentException("Invalid Zipf distribution: n = " + n + ", exponent = " + exponent);
+        }
+        this.n = n;
+        this.exponent = exponent;
+        this.hIntegralX1 = hIntegral(1.5) - 1;
+        this.hIntegralN = hIntegral(n + 0.5);
+        this.s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+    }
+
+    /**
+     * Draw a rank.
+     *
+     * @param random random source
+     * @return rank from 1 to n
+     */
+    public int sample(SplittableRandom random) {
+        while (true) {
+            double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+            double x = hIntegralInverse(u);
+            int k = (int) (x + 0.5);
+            if (k < 1) {
+                k = 1;
+            } else if (k > n) {
+                k = n;
+            }
+            if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                return k;
+            }
+        }
+    }
+
+    /**
+     * Unnormalized density 1 / x^exponent.
+     */
+    private double h(double x) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+
+    /**
+     * Integral of h from 1 to x, (x^(1 - exponent) - 1) / (1 - exponent), log x if the exponent is 1.
+     */
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return expm1OverX((1 - exponent) * logX) * logX;
+    }
+
+    /**
+     * Inverse of hIntegral.
+     */
+    private double hIntegralInverse(double x) {
+        double t = Math.max(x * (1 - exponent), -1); // rounding may go below the bound
+        return Math.exp(log1pOverX(t) * x);
+    }
+
+    /**
+     * log(1 + x) / x, continuous at 0.
+     */
+    private static double log1pOverX(double x) {
+        return (Math.abs(x) > 1e-8) ? Math.log1p(x) / x : 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+    }
+
+    /**
+     * (exp(x) - 1) / x, continuous at 0.
+     */
+    private static double expm1OverX(double x) {
+        return (Math.abs(x) > 1e-8) ? Math.expm1(x) / x : 1 + x * 0.5 * (1 + x / 3 * (1 + 0.25 * x));
+    }
+}
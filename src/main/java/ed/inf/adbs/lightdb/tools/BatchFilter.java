@@ -0,0 +1,24 @@
+package ed.inf.adbs.lightdb.tools;
+
+import ed.inf.adbs.lightdb.models.Batch;
+
+/**
+ * Compiled selection condition evaluated on a whole batch, removes the rows which do not satisfy it
+ * from the selection vector. Built once by the predicate compiler like the predicates.
+ *
+ * ClassName: BatchFilter
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+@FunctionalInterface
+public interface BatchFilter {
+    BatchFilter TRUE = batch -> { };
+    BatchFilter FALSE = batch -> batch.setCount(0);
+
+    /**
+     * Shrink the selection vector of the batch to the rows satisfying the condition.
+     *
+     * @param batch batch of rows
+     */
+    void filter(Batch batch);
+}
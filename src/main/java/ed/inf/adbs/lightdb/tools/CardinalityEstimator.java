@@ -0,0 +1,262 @@
+package ed.inf.adbs.lightdb.tools;
+
+import ed.inf.adbs.lightdb.models.ColumnStats;
+import ed.inf.adbs.lightdb.models.TableStats;
+import ed.inf.adbs.lightdb.storage.BinaryTableWriter;
+import net.sf.jsqlparser.expression.BinaryExpression;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.JdbcParameter;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.expression.NotExpression;
+import net.sf.jsqlparser.expression.Parenthesis;
+import net.sf.jsqlparser.expression.SignedExpression;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
+import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThanEquals;
+import net.sf.jsqlparser.expression.operators.relational.MinorThan;
+import net.sf.jsqlparser.expression.operators.relational.MinorThanEquals;
+import net.sf.jsqlparser.expression.operators.relational.NotEqualsTo;
+import net.sf.jsqlparser.schema.Column;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Estimate the number of tuples of the tables and the selectivity of the conditions, used to order the joins.
+ * If the table has been analyzed, its statistics are used: the number of tuples, the distinct values
+ * of the columns, and the histograms for the comparisons of a column with a constant.
+ * Otherwise the table sizes are estimated from the table files, and the selectivities use the classic defaults:
+ * 1/10 for equality with a constant, 1/3 for a range, and 1/max(distinct values) for column equals column,
+ * where the number of distinct values of a column is taken as the number of tuples of its table.
+ *
+ * ClassName: CardinalityEstimator
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class CardinalityEstimator {
+    private static final double EQUALS_SELECTIVITY = 0.1;
+    private static final double NOT_EQUALS_SELECTIVITY = 0.9;
+    private static final double RANGE_SELECTIVITY = 1.0 / 3;
+    private static final int SAMPLE_SIZE = 8192; // bytes of the csv file read to find the row length
+
+    private Map<String, String> aliasToTable; // alias -> real table name, of the query
+    private Map<String, Double> tableRows; // table name or alias -> estimated tuples
+
+    /**
+     * Constructor: init the cache of table sizes, for a query without aliases.
+     */
+    public CardinalityEstimator() {
+        this(Collections.emptyMap());
+    }
+
+    /**
+     * Constructor: init the aliases of the query and the cache of table sizes.
+     *
+     * @param aliasToTable alias to real table name mapping of the query
+     */
+    public CardinalityEstimator(Map<String, String> aliasToTable) {
+        this.aliasToTable = aliasToTable;
+        this.tableRows = new HashMap<>();
+    }
+
+    /**
+     * Estimate the number of tuples of the table, exact if the table has been analyzed.
+     * For the binary format, the pages are assumed to be full. For the csv format,
+     * the file length is divided by the mean length of the rows at the start of the file.
+     *
+     * @param tableName table name or alias
+     * @return estimated number of tuples
+     */
+    public double getTableRows(String tableName) {
+        return tableRows.computeIfAbsent(tableName, this::estimateTableRows);
+    }
+
+    /**
+     * Estimate the number of tuples of the table from its file.
+     *
+     * @param tableName table name or alias
+     * @return estimated number of tuples
+     */
+    private double estimateTableRows(String tableName) {
+        // get actual table name
+        String actualTableName = aliasToTable.getOrDefault(tableName, tableName);
+        DBCatalog catalog = DBCatalog.getInstance();
+        TableStats stats = catalog.getTableStats(actualTableName);
+        if (stats != null) {
+            return stats.getRowCount();
+        }
+
+        if (catalog.hasBinaryTable(actualTableName)) {
+            File file = catalog.getTableFile(actualTableName, ".bin");
+            int numColumns = catalog.generateSingleSchema(actualTableName).size();
+            return (double) (file.length() / DBCatalog.PAGE_SIZE) * BinaryTableWriter.tuplesPerPage(numColumns);
+        }
+
+        File file = catalog.getTableFile(actualTableName, ".csv");
+        byte[] sample = new byte[SAMPLE_SIZE];
+        int length = 0;
+        try (InputStream in = new FileInputStream(file)) {
+            int read;
+            while (length < sample.length && (read = in.read(sample, length, sample.length - length)) > 0) {
+                length += read;
+            }
+        } catch (IOException e) {
+            System.err.println("Exception occurred when sampling the database file.");
+            e.printStackTrace();
+            return 0;
+        }
+
+        int lines = 0;
+        for (int i = 0; i < length; i++) {
+            if (sample[i] == '\n') {
+                lines++;
+            }
+        }
+        if (length == file.length()) { // whole file read, count the last line without new line
+            return (length > 0 && sample[length - 1] != '\n') ? lines + 1 : lines;
+        }
+        return (lines == 0) ? 1 : (double) file.length() * lines / length;
+    }
+
+    /**
+     * Estimate the number of distinct values of the column, from the statistics if have,
+     * otherwise taken as the number of tuples of its table.
+     *
+     * @param column column with table name or alias
+     * @return estimated number of distinct values
+     */
+    public double getDistinctValues(Column column) {
+        ColumnStats stats = getColumnStats(column);
+        if (stats != null) {
+            return Math.max(stats.getDistinctCount(), 1);
+        }
+        return Math.max(getTableRows(column.getTable().getName()), 1);
+    }
+
+    /**
+     * Get the statistics of the column.
+     *
+     * @param column column with table name or alias
+     * @return column statistics, or null if the table has not been analyzed
+     */
+    private ColumnStats getColumnStats(Column column) {
+        String tableName = column.getTable().getName();
+        TableStats stats = DBCatalog.getInstance().getTableStats(aliasToTable.getOrDefault(tableName, tableName));
+        return (stats == null) ? null : stats.getColumnStats(column.getColumnName());
+    }
+
+    /**
+     * Get the value of the constant expression, e.g. 42 or -1.
+     *
+     * @param expression expression
+     * @return value, or null if not a constant
+     */
+    static Long getConstant(Expression expression) {
+        if (expression instanceof LongValue) {
+            return ((LongValue) expression).getValue();
+        }
+        if (expression instanceof SignedExpression) {
+            Long value = getConstant(((SignedExpression) expression).getExpression());
+            if (value != null && ((SignedExpression) expression).getSign() == '-') {
+                return -value;
+            }
+            return value;
+        }
+        return null;
+    }
+
+    /**
+     * Estimate the fraction of tuples satisfying the condition, the conjuncts are assumed to be independent.
+     *
+     * @param expression condition, null means always true
+     * @return selectivity in [0, 1]
+     */
+    public double getSelectivity(Expression expression) {
+        if (expression == null) {
+            return 1;
+        }
+        if (expression instanceof Parenthesis) {
+            return getSelectivity(((Parenthesis) expression).getExpression());
+        }
+        if (expression instanceof AndExpression) {
+            AndExpression and = (AndExpression) expression;
+            return getSelectivity(and.getLeftExpression()) * getSelectivity(and.getRightExpression());
+        }
+        if (expression instanceof OrExpression) {
+            OrExpression or = (OrExpression) expression;
+            double left = getSelectivity(or.getLeftExpression());
+            double right = getSelectivity(or.getRightExpression());
+            return left + right - left * right;
+        }
+        if (expression instanceof NotExpression) {
+            return 1 - getSelectivity(((NotExpression) expression).getExpression());
+        }
+        if (!(expression instanceof BinaryExpression)) {
+            return 1;
+        }
+
+        BinaryExpression comparison = (BinaryExpression) expression;
+        Expression left = comparison.getLeftExpression();
+        Expression right = comparison.getRightExpression();
+        if (!(left instanceof Column) && !(right instanceof Column)) { // constant condition
+            if (left instanceof JdbcParameter || right instanceof JdbcParameter) { // not known when planned
+                return 1;
+            }
+            return PredicateCompiler.evaluateConstant(expression) ? 1 : 0;
+        }
+
+        if (comparison instanceof EqualsTo && left instanceof Column && right instanceof Column) {
+            return 1 / Math.max(getDistinctValues((Column) left), getDistinctValues((Column) right));
+        }
+
+        // column with constant, use the histogram if the column has statistics
+        boolean flipped = !(left instanceof Column);
+        Column column = (Column) (flipped ? right : left);
+        Long value = getConstant(flipped ? left : right);
+        ColumnStats stats = getColumnStats(column);
+        if (stats != null && value != null) {
+            return getHistogramSelectivity(comparison, stats, value, flipped);
+        }
+
+        if (comparison instanceof EqualsTo) {
+            return EQUALS_SELECTIVITY;
+        }
+        if (comparison instanceof NotEqualsTo) {
+            return NOT_EQUALS_SELECTIVITY;
+        }
+        return RANGE_SELECTIVITY;
+    }
+
+    /**
+     * Estimate the selectivity of the comparison of a column with a constant from the column statistics.
+     *
+     * @param comparison comparison expression
+     * @param stats column statistics
+     * @param value constant
+     * @param flipped true if the constant is on the left side, e.g. 3 > S.A
+     * @return selectivity in [0, 1]
+     */
+    private static double getHistogramSelectivity(BinaryExpression comparison, ColumnStats stats, long value,
+                                                  boolean flipped) {
+        if (comparison instanceof EqualsTo) {
+            return stats.getEqualsSelectivity(value);
+        }
+        if (comparison instanceof NotEqualsTo) {
+            return 1 - stats.getEqualsSelectivity(value);
+        }
+
+        // S.A < 3 and 3 > S.A are the same
+        boolean less = (comparison instanceof MinorThan || comparison instanceof MinorThanEquals) != flipped;
+        boolean inclusive = comparison instanceof MinorThanEquals || comparison instanceof GreaterThanEquals;
+        if (less) {
+            return inclusive ? stats.getLessThanEqualsSelectivity(value) : stats.getLessThanSelectivity(value);
+        }
+        return inclusive ? 1 - stats.getLessThanSelectivity(value) : 1 - stats.getLessThanEqualsSelectivity(value);
+    }
+}
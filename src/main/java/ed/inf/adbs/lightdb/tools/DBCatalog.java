@@ -1,27 +1,54 @@
 package ed.inf.adbs.lightdb.tools;
 
+import ed.inf.adbs.lightdb.models.IndexInfo;
+import ed.inf.adbs.lightdb.models.TableStats;
+import ed.inf.adbs.lightdb.operators.BinaryScanOperator;
+import ed.inf.adbs.lightdb.operators.MappedScanOperator;
+import ed.inf.adbs.lightdb.operators.Operator;
+import ed.inf.adbs.lightdb.operators.ScanOperator;
+import ed.inf.adbs.lightdb.storage.BufferPool;
+import ed.inf.adbs.lightdb.storage.ReplacementPolicy;
+
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Global entity using the singleton pattern, keep track of information
  * such as where a file for a given table is located, what the schema is, etc.
+ * The catalog is shared by all queries, also when they run concurrently: the schemas and the indexes
+ * are read-only once initialised, the settings and the statistics are concurrent maps, and the aliases
+ * of a query are resolved by the query itself, so the catalog only knows the real table names.
  *
  * ClassName: DBCatalog
  * Date: 12 March, 2021
  * Author: Cyan
  */
 public class DBCatalog {
-    private static DBCatalog instance; // singleton
+    public static final int PAGE_SIZE = 4096; // page size in bytes
+    public static final int MIN_PARTITION_PAGES = 64; // smallest partition worth its own worker
+
+    private static final DBCatalog instance = new DBCatalog(); // singleton
 
     private String dataDirectory; // data directory
     private String schemaPath; // schema file path
+    private String configPath; // config file path, optional
+    private String statsPath; // statistics file path, optional
+    private String indexInfoPath; // index config file path, optional
+    private String indexDirectory; // index files directory
 
     private Map<String, List<String>> tableToSchema; // real table name -> schema list
-    private Map<String, String> aliasToTable; // alias -> real table name
+    private Map<String, String> settings; // setting name -> value
+    private Map<String, TableStats> tableToStats; // real table name -> statistics, only analyzed tables
+    private Map<String, List<IndexInfo>> tableToIndexes; // real table name -> declared indexes
+    private BufferPool bufferPool; // pages of the table and index files, created on first use
+    private final AtomicLong version = new AtomicLong(); // changed with the catalog, the settings or the statistics
 
     /**
      * Constructor: singleton, make the constructor private.
@@ -29,67 +56,195 @@ public class DBCatalog {
     private DBCatalog() { }
 
     /**
-     * Get DBCatalog instance, make sure only one instance exists;
-     * not thread-safe, otherwise add synchronized.
+     * Get DBCatalog instance, created eagerly so only one instance exists across threads.
      *
      * @return DBCatalog instance
      */
     public static DBCatalog getInstance() {
-        if (instance == null) {
-            instance = new DBCatalog();
-        }
         return instance;
     }
 
     /**
-     * Getter: get alias to table mapping.
+     * Getter: get table to schema mapping, read-only.
      *
-     * @return alias to table mapping
+     * @return table to schema mapping
      */
-    public Map<String, String> getAliasToTable() {
-        return aliasToTable;
+    public Map<String, List<String>> getTableToSchema() {
+        return tableToSchema;
     }
 
     /**
-     * Getter: get table to schema mapping.
+     * Set a setting, overrides the value from the config file, e.g. from command line.
      *
-     * @return table to schema mapping
+     * @param name setting name
+     * @param value setting value
      */
-    public Map<String, List<String>> getTableToSchema() {
-        return tableToSchema;
+    public void setSetting(String name, String value) {
+        settings.put(name, value);
+        version.incrementAndGet();
     }
 
     /**
-     * Generate buffer reader on database file according to table name or alias.
+     * Get an integer setting.
      *
-     * @param tableName table name or alias
-     * @return buffer reader
+     * @param name setting name
+     * @param defaultValue value if the setting is not given
+     * @return setting value
      */
-    public BufferedReader generateTableBuffer(String tableName) {
-        // get actual table name
-        String actualTableName = (aliasToTable.containsKey(tableName)) ? aliasToTable.get(tableName) : tableName;
-        try {
-            // return buffer reader, do not forget .csv
-            return new BufferedReader(new FileReader(dataDirectory + actualTableName + ".csv"));
-        } catch (FileNotFoundException e) {
-            System.err.println("Exception occurred when generating buffer reader on database file.");
-            e.printStackTrace();
+    public int getIntSetting(String name, int defaultValue) {
+        String value = settings.get(name);
+        return (value == null) ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    /**
+     * Get a string setting.
+     *
+     * @param name setting name
+     * @param defaultValue value if the setting is not given
+     * @return setting value
+     */
+    public String getSetting(String name, String defaultValue) {
+        return settings.getOrDefault(name, defaultValue);
+    }
+
+    /**
+     * Create a temporary file in the temporary directory, the caller should delete it when done.
+     *
+     * @param prefix file name prefix
+     * @return temporary file
+     * @throws IOException if the file cannot be created
+     */
+    public File createTempFile(String prefix) throws IOException {
+        File tempDirectory = new File(getSetting("tempDir", System.getProperty("java.io.tmpdir")));
+        return File.createTempFile("lightdb-" + prefix, ".tmp", tempDirectory);
+    }
+
+    /**
+     * Check whether the table has an up-to-date file in the binary paged format,
+     * i.e. the binary file exists and is not older than the csv file.
+     *
+     * @param tableName table name
+     * @return true if the binary file can be used
+     */
+    public boolean hasBinaryTable(String tableName) {
+        File binaryFile = getTableFile(tableName, ".bin");
+        File csvFile = getTableFile(tableName, ".csv");
+        return binaryFile.exists() && (!csvFile.exists() || binaryFile.lastModified() >= csvFile.lastModified());
+    }
+
+    /**
+     * Get the database file of the table according to table name.
+     *
+     * @param tableName table name
+     * @param extension file extension, .csv or .bin
+     * @return database file
+     */
+    public File getTableFile(String tableName, String extension) {
+        return new File(dataDirectory + tableName + extension);
+    }
+
+    /**
+     * Get the buffer pool all scans read through, created with the bufferPoolPages (default 4096) and
+     * bufferPoolPolicy (default clock) settings on first use, and dropped by init.
+     *
+     * @return buffer pool
+     */
+    public synchronized BufferPool getBufferPool() {
+        if (bufferPool == null) {
+            int pages = getIntSetting("bufferPoolPages", 4096);
+            bufferPool = new BufferPool(pages, ReplacementPolicy.of(getSetting("bufferPoolPolicy", "clock"), pages));
         }
-        return null;
+        return bufferPool;
+    }
+
+    /**
+     * Generate the scan operator on the table, scan the binary file if have one,
+     * otherwise scan the csv file. If the scanMode setting is mmap, the file is memory-mapped.
+     *
+     * @param tableName table name
+     * @return scan operator
+     */
+    public Operator generateScanOperator(String tableName) {
+        return generateScanOperator(tableName, tableName);
+    }
+
+    /**
+     * Generate the scan operator on the table with the alias as the prefix of its schema.
+     *
+     * @param tableName table name
+     * @param alias alias of the table in the query, the table name if no alias
+     * @return scan operator
+     */
+    public Operator generateScanOperator(String tableName, String alias) {
+        List<String> singleSchema = generateSingleSchema(tableName);
+        boolean binary = hasBinaryTable(tableName);
+        if ("mmap".equals(getSetting("scanMode", "stream"))) {
+            return new MappedScanOperator(alias, singleSchema, getTableFile(tableName, binary ? ".bin" : ".csv"), binary);
+        }
+        if (binary) {
+            return new BinaryScanOperator(alias, singleSchema, getTableFile(tableName, ".bin"));
+        }
+        return new ScanOperator(alias, singleSchema, getTableFile(tableName, ".csv"));
+    }
+
+    /**
+     * Get the number of partitions the table is scanned in, at most the parallelism setting (default the
+     * number of processors) and at most one per MIN_PARTITION_PAGES pages. Only the binary file can be split.
+     *
+     * @param tableName table name
+     * @return number of partitions, 1 if the table is scanned by one scan operator
+     */
+    public int getScanPartitions(String tableName) {
+        if (!hasBinaryTable(tableName)) {
+            return 1;
+        }
+        long pages = getTableFile(tableName, ".bin").length() / PAGE_SIZE;
+        int parallelism = getIntSetting("parallelism", Runtime.getRuntime().availableProcessors());
+        return (int) Math.max(Math.min(parallelism, pages / MIN_PARTITION_PAGES), 1);
+    }
+
+    /**
+     * Generate the scan operators on the partitions of the binary table file, every partition is a range
+     * of whole pages, so the partitions can be scanned in parallel.
+     *
+     * @param tableName table name
+     * @param partitions number of partitions
+     * @return scan operators, one per partition
+     */
+    public List<Operator> generatePartitionScanOperators(String tableName, int partitions) {
+        return generatePartitionScanOperators(tableName, tableName, partitions);
+    }
+
+    /**
+     * Generate the scan operators on the partitions of the binary table file with the alias as the prefix
+     * of their schema.
+     *
+     * @param tableName table name
+     * @param alias alias of the table in the query, the table name if no alias
+     * @param partitions number of partitions
+     * @return scan operators, one per partition
+     */
+    public List<Operator> generatePartitionScanOperators(String tableName, String alias, int partitions) {
+        List<String> singleSchema = generateSingleSchema(tableName);
+        long pages = getTableFile(tableName, ".bin").length() / PAGE_SIZE;
+
+        List<Operator> scans = new ArrayList<>();
+        for (int i = 0; i < partitions; i++) {
+            long firstPage = pages * i / partitions;
+            long endPage = pages * (i + 1) / partitions;
+            scans.add(new BinaryScanOperator(alias, singleSchema, getTableFile(tableName, ".bin"), firstPage, endPage));
+        }
+        return scans;
     }
 
     /**
      * Generate single schema according to table name.
      *
-     * @param tableName table name or alias
+     * @param tableName table name
      * @return schema without table prefix
      */
     public List<String> generateSingleSchema(String tableName) {
-        // get actual table name
-        String actualTableName = (aliasToTable.containsKey(tableName)) ? aliasToTable.get(tableName) : tableName;
-
-        // return single schema
-        return tableToSchema.get(actualTableName);
+        return tableToSchema.get(tableName);
     }
 
     /**
@@ -98,16 +253,196 @@ public class DBCatalog {
      * @param dbDirectory database directory
      */
     public void init(String dbDirectory) {
+        // the pages of the previous database are not needed anymore
+        synchronized (this) {
+            if (bufferPool != null) {
+                bufferPool.close();
+                bufferPool = null;
+            }
+        }
+
         // init the variables, use linked hash map to ensure the order
+        // the settings and the statistics may change while queries run, e.g. by ANALYZE
         this.tableToSchema = new LinkedHashMap<>();
-        this.aliasToTable = new LinkedHashMap<>();
+        this.settings = new ConcurrentHashMap<>();
+        this.tableToStats = new ConcurrentSkipListMap<>();
+        this.tableToIndexes = new LinkedHashMap<>();
 
         // init database directory and the schema file
         this.dataDirectory = dbDirectory + File.separator + "data" + File.separator;
         this.schemaPath = dbDirectory + File.separator + "schema.txt";
+        this.configPath = dbDirectory + File.separator + "config.txt";
+        this.statsPath = dbDirectory + File.separator + "stats.txt";
+        this.indexInfoPath = dbDirectory + File.separator + "index_info.txt";
+        this.indexDirectory = dbDirectory + File.separator + "indexes" + File.separator;
 
         // init tables to corresponding schemas
         initTableToSchema();
+
+        // init settings if have config file
+        initSettings();
+
+        // init statistics if have statistics file
+        initTableToStats();
+
+        // init indexes if have index config file
+        initTableToIndexes();
+
+        // the schemas and the indexes are read-only from now on
+        this.tableToSchema = Collections.unmodifiableMap(tableToSchema);
+        this.tableToIndexes = Collections.unmodifiableMap(tableToIndexes);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Initialise the declared indexes from the index config file,
+     * each line is the table, the column, 1 if clustered or 0 if not, and the order of the tree.
+     */
+    private void initTableToIndexes() {
+        if (!new File(indexInfoPath).exists()) {
+            return;
+        }
+
+        try (BufferedReader br = new BufferedReader(new FileReader(indexInfoPath))) {
+            String row;
+            while ((row = br.readLine()) != null) {
+                String[] tokens = row.trim().split("\\s+");
+                if (tokens.length == 4) {
+                    IndexInfo index = new IndexInfo(tokens[0], tokens[1], tokens[2].equals("1"), Integer.parseInt(tokens[3]));
+                    tableToIndexes.computeIfAbsent(tokens[0], k -> new ArrayList<>()).add(index);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Exception occurred when dealing with the index config file.");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Get the indexes declared on the table according to table name.
+     *
+     * @param tableName table name
+     * @return declared indexes, empty if none
+     */
+    public List<IndexInfo> getIndexes(String tableName) {
+        return tableToIndexes.getOrDefault(tableName, Collections.emptyList());
+    }
+
+    /**
+     * Get the file of the index.
+     *
+     * @param index index description
+     * @return index file
+     */
+    public File getIndexFile(IndexInfo index) {
+        return new File(indexDirectory + index.getFileName());
+    }
+
+    /**
+     * Check whether the index can be used, i.e. the index file exists, the table has an up-to-date
+     * binary file the record ids point to, and the index is not older than the binary file.
+     *
+     * @param index index description
+     * @return true if the index is up to date
+     */
+    public boolean hasValidIndex(IndexInfo index) {
+        File indexFile = getIndexFile(index);
+        File binaryFile = getTableFile(index.getTableName(), ".bin");
+        return indexFile.exists() && hasBinaryTable(index.getTableName())
+                && indexFile.lastModified() >= binaryFile.lastModified();
+    }
+
+    /**
+     * Initialise the table statistics from the statistics file, each line is the statistics of one table.
+     */
+    private void initTableToStats() {
+        if (!new File(statsPath).exists()) {
+            return;
+        }
+
+        try (BufferedReader br = new BufferedReader(new FileReader(statsPath))) {
+            String row;
+            while ((row = br.readLine()) != null) {
+                if (!row.trim().isEmpty()) {
+                    TableStats stats = TableStats.fromLine(row);
+                    tableToStats.put(stats.getTableName(), stats);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Exception occurred when dealing with the statistics file.");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Get the statistics of the table according to table name.
+     *
+     * @param tableName table name
+     * @return table statistics, or null if the table has not been analyzed
+     */
+    public TableStats getTableStats(String tableName) {
+        return tableToStats.get(tableName);
+    }
+
+    /**
+     * Set the statistics of the table, replace the old ones.
+     *
+     * @param stats table statistics
+     */
+    public void putTableStats(TableStats stats) {
+        tableToStats.put(stats.getTableName(), stats);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Get the version of the catalog, changed by init, a setting or new statistics,
+     * so a plan built on an older version is built again.
+     *
+     * @return catalog version
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Write the statistics of all analyzed tables to the statistics file.
+     */
+    public synchronized void saveTableStats() {
+        try (PrintWriter writer = new PrintWriter(statsPath)) {
+            for (TableStats stats : tableToStats.values()) {
+                writer.println(stats.toLine());
+            }
+        } catch (IOException e) {
+            System.err.println("Exception occurred when writing the statistics file.");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Initialise the settings from the config file, each line is a setting name and its value.
+     */
+    private void initSettings() {
+        if (!new File(configPath).exists()) {
+            return;
+        }
+
+        BufferedReader br;
+        try {
+            // open config file
+            br = new BufferedReader(new FileReader(configPath));
+
+            String row;
+            while ((row = br.readLine()) != null) {
+                String[] tokens = row.trim().split("\\s+");
+                if (tokens.length == 2) {
+                    settings.put(tokens[0], tokens[1]);
+                }
+            }
+            br.close();
+        } catch (Exception e) {
+            System.err.println("Exception occurred when dealing with the config file.");
+            e.printStackTrace();
+        }
     }
 
     /**
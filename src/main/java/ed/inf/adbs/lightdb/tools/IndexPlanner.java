@@ -0,0 +1,197 @@
+package ed.inf.adbs.lightdb.tools;
+
+import ed.inf.adbs.lightdb.models.IndexInfo;
+import ed.inf.adbs.lightdb.models.TableStats;
+import ed.inf.adbs.lightdb.operators.IndexScanOperator;
+import ed.inf.adbs.lightdb.operators.Operator;
+import ed.inf.adbs.lightdb.operators.SelectOperator;
+import ed.inf.adbs.lightdb.storage.IndexBuilder;
+import net.sf.jsqlparser.expression.BinaryExpression;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThan;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThanEquals;
+import net.sf.jsqlparser.expression.operators.relational.MinorThan;
+import net.sf.jsqlparser.expression.operators.relational.MinorThanEquals;
+import net.sf.jsqlparser.schema.Column;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Choose between the full scan and an index scan for the select conditions of one table.
+ * The comparisons of the indexed column with a constant give the key range of the index scan,
+ * the other conditions are applied by a select operator on top.
+ * The cost is counted in page reads: the full scan reads every page of the table, the index scan
+ * reads the path from the root, the leaves in the range, and then the table pages in the range
+ * if the index is clustered, or one page per matching tuple if not.
+ *
+ * ClassName: IndexPlanner
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class IndexPlanner {
+    private static final int TREE_HEIGHT = 3; // pages read to reach the first leaf, header included
+
+    private CardinalityEstimator estimator;
+
+    /**
+     * Constructor: init the estimator of the selectivities.
+     *
+     * @param estimator cardinality estimator
+     */
+    public IndexPlanner(CardinalityEstimator estimator) {
+        this.estimator = estimator;
+    }
+
+    /**
+     * Generate the cheapest index scan for the conditions of the table, with the select operator
+     * of the remaining conditions on top.
+     *
+     * @param table table name
+     * @param alias alias of the table in the query, the table name if no alias
+     * @param conditions select conditions of the table, one per conjunct
+     * @return index scan operator, or null if no index is cheaper than the full scan
+     */
+    public Operator generateIndexScan(String table, String alias, List<Expression> conditions) {
+        DBCatalog catalog = DBCatalog.getInstance();
+        double scanCost = getTablePages(table);
+
+        IndexInfo bestIndex = null;
+        long[] bestRange = null;
+        List<Expression> bestUsed = null;
+        double bestCost = scanCost;
+        for (IndexInfo index : catalog.getIndexes(table)) {
+            if (!catalog.hasValidIndex(index)) {
+                continue;
+            }
+
+            // key range of the comparisons on the indexed column
+            long[] range = {Integer.MIN_VALUE, Integer.MAX_VALUE};
+            List<Expression> used = new ArrayList<>();
+            for (Expression condition : conditions) {
+                if (narrowRange(condition, index.getColumn(), range)) {
+                    used.add(condition);
+                }
+            }
+            if (used.isEmpty()) {
+                continue;
+            }
+
+            double selectivity = 1;
+            for (Expression condition : used) {
+                selectivity *= estimator.getSelectivity(condition);
+            }
+            double cost = TREE_HEIGHT + selectivity * getNumLeaves(index)
+                    + selectivity * (index.isClustered() ? scanCost : estimator.getTableRows(alias));
+            if (cost < bestCost) {
+                bestIndex = index;
+                bestRange = range;
+                bestUsed = used;
+                bestCost = cost;
+            }
+        }
+        if (bestIndex == null) {
+            return null;
+        }
+
+        Operator node;
+        if (bestRange[0] > bestRange[1]) { // empty range
+            node = new IndexScanOperator(alias, catalog.generateSingleSchema(table), bestIndex, 1, 0);
+        } else {
+            node = new IndexScanOperator(alias, catalog.generateSingleSchema(table), bestIndex,
+                    (bestRange[0] == Integer.MIN_VALUE) ? null : (int) bestRange[0],
+                    (bestRange[1] == Integer.MAX_VALUE) ? null : (int) bestRange[1]);
+        }
+
+        // the remaining conditions
+        Expression residual = null;
+        for (Expression condition : conditions) {
+            if (!bestUsed.contains(condition)) {
+                residual = (residual == null) ? condition : new AndExpression(residual, condition);
+            }
+        }
+        return (residual == null) ? node : new SelectOperator(residual, node);
+    }
+
+    /**
+     * Narrow the key range by the condition if it compares the indexed column with a constant,
+     * e.g. S.A < 5 and 5 > S.A both give the inclusive upper bound 4.
+     *
+     * @param condition select condition
+     * @param column indexed column without table prefix
+     * @param range inclusive low and high keys, narrowed in place
+     * @return true if the condition is fully covered by the range
+     */
+    private static boolean narrowRange(Expression condition, String column, long[] range) {
+        if (!(condition instanceof BinaryExpression)) {
+            return false;
+        }
+        BinaryExpression comparison = (BinaryExpression) condition;
+        boolean flipped = !(comparison.getLeftExpression() instanceof Column);
+        Expression columnSide = flipped ? comparison.getRightExpression() : comparison.getLeftExpression();
+        Long value = CardinalityEstimator.getConstant(flipped ? comparison.getLeftExpression() : comparison.getRightExpression());
+        if (!(columnSide instanceof Column) || value == null
+                || !((Column) columnSide).getColumnName().equals(column)) {
+            return false;
+        }
+
+        if (comparison instanceof EqualsTo) {
+            range[0] = Math.max(range[0], value);
+            range[1] = Math.min(range[1], value);
+            return true;
+        }
+        if (!(comparison instanceof MinorThan || comparison instanceof MinorThanEquals
+                || comparison instanceof GreaterThan || comparison instanceof GreaterThanEquals)) { // not equals
+            return false;
+        }
+
+        // 5 > S.A is the same as S.A < 5
+        boolean less = (comparison instanceof MinorThan || comparison instanceof MinorThanEquals) != flipped;
+        boolean inclusive = comparison instanceof MinorThanEquals || comparison instanceof GreaterThanEquals;
+        if (less) {
+            range[1] = Math.min(range[1], inclusive ? value : value - 1);
+        } else {
+            range[0] = Math.max(range[0], inclusive ? value : value + 1);
+        }
+        return true;
+    }
+
+    /**
+     * Get the number of pages of the table in the binary format.
+     *
+     * @param table table name
+     * @return number of pages
+     */
+    private static double getTablePages(String table) {
+        TableStats stats = DBCatalog.getInstance().getTableStats(table);
+        if (stats != null) {
+            return stats.getPageCount();
+        }
+        return (double) DBCatalog.getInstance().getTableFile(table, ".bin").length() / DBCatalog.PAGE_SIZE;
+    }
+
+    /**
+     * Read the number of leaves from the header page of the index.
+     *
+     * @param index index description
+     * @return number of leaves
+     */
+    private static int getNumLeaves(IndexInfo index) {
+        ByteBuffer header = ByteBuffer.allocate(DBCatalog.PAGE_SIZE);
+        try (FileChannel channel = new FileInputStream(DBCatalog.getInstance().getIndexFile(index)).getChannel()) {
+            if (IndexBuilder.readPage(channel, 0, header)) {
+                return header.getInt(Integer.BYTES);
+            }
+        } catch (IOException e) {
+            System.err.println("Exception occurred when reading the index file.");
+            e.printStackTrace();
+        }
+        return Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,177 @@
+package ed.inf.adbs.lightdb.tools;
+
+/**
+ * Hash set of int rows of the same width, used for hashed duplicate elimination.
+ * The rows are copied into one flat int array and the hash table is an open addressing
+ * table of row numbers, so no object is allocated per row and no value is boxed.
+ *
+ * ClassName: IntRowSet
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class IntRowSet {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int width; // number of values per row
+    private int[] rows; // row values one after another
+    private int[] hashes; // hash of every row, avoids recomputing on resize
+    private int[] table; // slot -> row number + 1, 0 if empty
+    private int mask;
+    private int size;
+
+    /**
+     * Constructor: init an empty set.
+     *
+     * @param width number of values per row
+     */
+    public IntRowSet(int width) {
+        this.width = width;
+        this.rows = new int[INITIAL_CAPACITY * width];
+        this.hashes = new int[INITIAL_CAPACITY];
+        this.table = new int[INITIAL_CAPACITY * 2];
+        this.mask = table.length - 1;
+    }
+
+    /**
+     * Hash the row values, the result is well mixed in all bits.
+     *
+     * @param values row values
+     * @return hash
+     */
+    public static int hash(int[] values) {
+        int h = 1;
+        for (int value : values) {
+            h = 31 * h + value;
+        }
+        return mix(h);
+    }
+
+    /**
+     * Murmur3 finalizer, spread the bits of the hash.
+     *
+     * @param h hash
+     * @return mixed hash
+     */
+    public static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Check whether the row is in the set.
+     *
+     * @param values row values
+     * @return true if contained
+     */
+    public boolean contains(int[] values) {
+        return find(values, hash(values)) >= 0;
+    }
+
+    /**
+     * Add the row if it is not in the set, the values are copied.
+     *
+     * @param values row values
+     * @return true if added, false if already contained
+     */
+    public boolean add(int[] values) {
+        int h = hash(values);
+        int slot = find(values, h);
+        if (slot >= 0) {
+            return false;
+        }
+
+        // append the row
+        if (size == hashes.length) {
+            int[] newRows = new int[rows.length * 2];
+            System.arraycopy(rows, 0, newRows, 0, rows.length);
+            rows = newRows;
+            int[] newHashes = new int[hashes.length * 2];
+            System.arraycopy(hashes, 0, newHashes, 0, hashes.length);
+            hashes = newHashes;
+        }
+        System.arraycopy(values, 0, rows, size * width, width);
+        hashes[size] = h;
+        table[-slot - 1] = ++size;
+
+        // keep the table at most half full
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return true;
+    }
+
+    /**
+     * Find the slot of the row.
+     *
+     * @param values row values
+     * @param h hash of the row
+     * @return slot if contained, or -(empty slot) - 1 if not contained
+     */
+    private int find(int[] values, int h) {
+        int slot = h & mask;
+        while (true) {
+            int row = table[slot] - 1;
+            if (row < 0) {
+                return -slot - 1;
+            }
+            if (hashes[row] == h && equalsRow(row, values)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Compare the stored row with the values.
+     *
+     * @param row row number
+     * @param values row values
+     * @return true if equal
+     */
+    private boolean equalsRow(int row, int[] values) {
+        int offset = row * width;
+        for (int i = 0; i < width; i++) {
+            if (rows[offset + i] != values[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Double the hash table and reinsert the row numbers.
+     */
+    private void rehash() {
+        table = new int[table.length * 2];
+        mask = table.length - 1;
+        for (int row = 0; row < size; row++) {
+            int slot = hashes[row] & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = row + 1;
+        }
+    }
+
+    /**
+     * Get the number of rows.
+     *
+     * @return size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the approximate memory used by the set in bytes.
+     *
+     * @return memory in bytes
+     */
+    public long memoryBytes() {
+        return (long) Integer.BYTES * (rows.length + hashes.length + table.length);
+    }
+}
@@ -0,0 +1,224 @@
+package ed.inf.adbs.lightdb.tools;
+
+import ed.inf.adbs.lightdb.models.Batch;
+
+import java.util.Arrays;
+
+/**
+ * Table of int rows of the same width copied from batches, used by the vectorized hash joins
+ * and to cache the rows of a materialized input.
+ * The rows are kept one after another in one flat int array. Once all rows are added, the table can be
+ * indexed on key columns: a bucket array of the first row of every hash bucket and a next row array
+ * chain the rows of a bucket in the order they were added, so no object is allocated per row.
+ *
+ * ClassName: IntRowTable
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class IntRowTable {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int width; // number of values per row
+    private int[] rows; // row values one after another
+    private int size;
+
+    private int[] keyColumns; // indexed key columns, null if not indexed
+    private int[] buckets; // bucket -> first row, -1 if empty
+    private int[] next; // row -> next row of the same bucket, -1 if last
+    private int mask;
+
+    /**
+     * Constructor: init an empty table.
+     *
+     * @param width number of values per row
+     */
+    public IntRowTable(int width) {
+        this(width, INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructor: init an empty table with room for the given number of rows, it grows past them.
+     *
+     * @param width number of values per row
+     * @param capacity initial number of rows
+     */
+    public IntRowTable(int width, int capacity) {
+        this.width = width;
+        this.rows = new int[Math.max(capacity, 1) * Math.max(width, 1)];
+    }
+
+    /**
+     * Copy the selected rows of the batch into the table.
+     *
+     * @param batch batch of rows of the table width
+     */
+    public void addAll(Batch batch) {
+        int count = batch.getCount();
+        ensureCapacity(size + count);
+
+        int[] selection = batch.getSelection();
+        for (int c = 0; c < width; c++) {
+            int[] column = batch.getColumn(c);
+            int offset = size * width + c;
+            for (int i = 0; i < count; i++) {
+                rows[offset + i * width] = column[selection[i]];
+            }
+        }
+        size += count;
+    }
+
+    /**
+     * Copy one row of the batch into the table.
+     *
+     * @param batch batch of rows of the table width
+     * @param row row in the column vectors
+     */
+    public void add(Batch batch, int row) {
+        ensureCapacity(size + 1);
+        int offset = size * width;
+        for (int c = 0; c < width; c++) {
+            rows[offset + c] = batch.getColumn(c)[row];
+        }
+        size++;
+    }
+
+    /**
+     * Copy the values of one row into the table.
+     *
+     * @param values row values of the table width
+     */
+    public void add(int[] values) {
+        ensureCapacity(size + 1);
+        System.arraycopy(values, 0, rows, size * width, width);
+        size++;
+    }
+
+    /**
+     * Grow the row array, at least doubling it, so it holds the number of rows.
+     *
+     * @param capacity number of rows to hold
+     */
+    private void ensureCapacity(int capacity) {
+        if ((long) capacity * width > rows.length) {
+            long length = Math.max((long) rows.length * 2, (long) capacity * width);
+            int[] grown = new int[(int) Math.min(length, Integer.MAX_VALUE - 8)];
+            System.arraycopy(rows, 0, grown, 0, size * width);
+            rows = grown;
+        }
+    }
+
+    /**
+     * Copy up to Batch.CAPACITY rows into the batch, all of them selected.
+     *
+     * @param batch batch of the table width
+     * @param from first row to copy
+     * @return number of rows copied
+     */
+    public int copyTo(Batch batch, int from) {
+        int count = Math.min(size - from, Batch.CAPACITY);
+        for (int c = 0; c < width; c++) {
+            int[] column = batch.getColumn(c);
+            int offset = from * width + c;
+            for (int i = 0; i < count; i++) {
+                column[i] = rows[offset + i * width];
+            }
+        }
+        batch.setRowCount(Math.max(count, 0));
+        return count;
+    }
+
+    /**
+     * Index the rows on the key columns, called once all rows are added.
+     *
+     * @param keyColumns ordinals of the key columns
+     */
+    public void index(int[] keyColumns) {
+        this.keyColumns = keyColumns;
+        int capacity = Integer.highestOneBit(Math.max(size, 1) * 2 - 1) << 1;
+        this.buckets = new int[capacity];
+        this.next = new int[size];
+        this.mask = capacity - 1;
+        Arrays.fill(buckets, -1);
+
+        // insert backwards, so every bucket chains its rows in the order they were added
+        for (int row = size - 1; row >= 0; row--) {
+            int h = 1;
+            for (int key : keyColumns) {
+                h = 31 * h + rows[row * width + key];
+            }
+            int bucket = IntRowSet.mix(h) & mask;
+            next[row] = buckets[bucket];
+            buckets[bucket] = row;
+        }
+    }
+
+    /**
+     * Find the first indexed row whose keys equal the keys of the row of the batch.
+     *
+     * @param hash mixed hash of the keys of the row of the batch, 31 * h + value from 1 over the keys
+     * @param batch batch of rows
+     * @param row row in the column vectors
+     * @param batchKeys ordinals of the key columns in the batch, paired with the indexed key columns
+     * @return matching row, or -1 if none
+     */
+    public int find(int hash, Batch batch, int row, int[] batchKeys) {
+        return match(buckets[hash & mask], batch, row, batchKeys);
+    }
+
+    /**
+     * Find the next indexed row after the match whose keys equal the keys of the row of the batch.
+     *
+     * @param match previous matching row
+     * @param batch batch of rows
+     * @param row row in the column vectors
+     * @param batchKeys ordinals of the key columns in the batch
+     * @return matching row, or -1 if none
+     */
+    public int findNext(int match, Batch batch, int row, int[] batchKeys) {
+        return match(next[match], batch, row, batchKeys);
+    }
+
+    /**
+     * Follow the chain from the candidate to the first row with equal keys.
+     *
+     * @param candidate first candidate row, -1 if none
+     * @param batch batch of rows
+     * @param row row in the column vectors
+     * @param batchKeys ordinals of the key columns in the batch
+     * @return matching row, or -1 if none
+     */
+    private int match(int candidate, Batch batch, int row, int[] batchKeys) {
+        while (candidate >= 0) {
+            int offset = candidate * width;
+            boolean equal = true;
+            for (int k = 0; k < batchKeys.length && equal; k++) {
+                equal = rows[offset + keyColumns[k]] == batch.getColumn(batchKeys[k])[row];
+            }
+            if (equal) {
+                return candidate;
+            }
+            candidate = next[candidate];
+        }
+        return -1;
+    }
+
+    /**
+     * Get a value of a row.
+     *
+     * @param row row number
+     * @param column column ordinal
+     * @return value
+     */
+    public int getValue(int row, int column) {
+        return rows[row * width + column];
+    }
+
+    /**
+     * Getter: get the number of rows.
+     *
+     * @return number of rows
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,239 @@
+package ed.inf.adbs.lightdb.tools;
+
+import net.sf.jsqlparser.expression.Expression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Choose the order of the tables in the left deep join tree by the estimated cost.
+ * The cost of an order is the sum of the estimated sizes of its intermediate results.
+ * Up to MAX_DP_TABLES tables, dynamic programming over the subsets of tables finds the cheapest order,
+ * with more tables, the order is built greedily by adding the table giving the smallest result.
+ * A table is only joined without a join condition if no remaining table has one, so cross products
+ * are avoided whenever the tables are connected. On equal costs the from clause order is kept.
+ *
+ * ClassName: JoinOrderOptimizer
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class JoinOrderOptimizer {
+    private static final int MAX_DP_TABLES = 12;
+
+    private List<String> tables; // tables in from clause order
+    private double[] tableRows; // estimated tuples of every table after its selection
+    private int[] conditionMasks; // bit set of the tables of every join condition
+    private double[] conditionSelectivities;
+
+    /**
+     * Constructor: estimate the selectivity of every join condition.
+     *
+     * @param tables tables in from clause order
+     * @param tableRows estimated tuples of every table after its selection
+     * @param joinCondition join conditions mapping to the tables they refer to
+     * @param estimator cardinality estimator
+     */
+    public JoinOrderOptimizer(List<String> tables, Map<String, Double> tableRows,
+                              Map<Expression, List<String>> joinCondition, CardinalityEstimator estimator) {
+        this.tables = tables;
+        this.tableRows = new double[tables.size()];
+        for (int i = 0; i < tables.size(); i++) {
+            this.tableRows[i] = Math.max(tableRows.get(tables.get(i)), 1);
+        }
+
+        this.conditionMasks = new int[joinCondition.size()];
+        this.conditionSelectivities = new double[joinCondition.size()];
+        int i = 0;
+        for (Map.Entry<Expression, List<String>> entry : joinCondition.entrySet()) {
+            conditionMasks[i] = toMask(entry.getValue());
+            conditionSelectivities[i] = estimator.getSelectivity(entry.getKey());
+            i++;
+        }
+    }
+
+    /**
+     * Get the join order with the lowest estimated cost.
+     *
+     * @return tables in join order
+     */
+    public List<String> getJoinOrder() {
+        if (tables.size() < 2 || tables.size() >= Integer.SIZE) { // nothing to choose, or too many for the bit sets
+            return new ArrayList<>(tables);
+        }
+        int[] order = (tables.size() <= MAX_DP_TABLES) ? orderByDynamicProgramming() : orderGreedily();
+
+        List<String> joinOrder = new ArrayList<>();
+        for (int table : order) {
+            joinOrder.add(tables.get(table));
+        }
+        return joinOrder;
+    }
+
+    /**
+     * Estimate the number of tuples of the join of the tables.
+     *
+     * @param subset tables
+     * @return estimated tuples
+     */
+    public double getRows(Collection<String> subset) {
+        return getRows(toMask(subset));
+    }
+
+    /**
+     * Find the cheapest left deep order of every subset of tables from the cheapest orders of its subsets,
+     * the subset is the join of a smaller subset with its last table.
+     *
+     * @return table indexes in join order
+     */
+    private int[] orderByDynamicProgramming() {
+        int n = tables.size();
+        int full = (1 << n) - 1;
+        double[] cost = new double[full + 1];
+        int[] last = new int[full + 1];
+        Arrays.fill(cost, Double.POSITIVE_INFINITY);
+        for (int t = 0; t < n; t++) {
+            cost[1 << t] = 0;
+            last[1 << t] = t;
+        }
+
+        for (int subset = 1; subset <= full; subset++) {
+            if (Integer.bitCount(subset) < 2) {
+                continue;
+            }
+            double rows = getRows(subset);
+
+            // the later table in from clause is tried first, so it stays last on equal costs
+            for (int t = n - 1; t >= 0; t--) {
+                int previous = subset & ~(1 << t);
+                if ((subset & (1 << t)) == 0 || cost[previous] == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                if (!isConnected(previous, t) && hasConnectedTable(previous)) { // avoid the cross product
+                    continue;
+                }
+                if (cost[previous] + rows < cost[subset]) {
+                    cost[subset] = cost[previous] + rows;
+                    last[subset] = t;
+                }
+            }
+        }
+
+        // walk back from the full set
+        int[] order = new int[n];
+        int subset = full;
+        for (int i = n - 1; i >= 0; i--) {
+            order[i] = last[subset];
+            subset &= ~(1 << order[i]);
+        }
+        return order;
+    }
+
+    /**
+     * Start from the smallest table, and repeatedly add the connected table giving the smallest join.
+     *
+     * @return table indexes in join order
+     */
+    private int[] orderGreedily() {
+        int n = tables.size();
+        int[] order = new int[n];
+
+        int first = 0;
+        for (int t = 1; t < n; t++) {
+            if (tableRows[t] < tableRows[first]) {
+                first = t;
+            }
+        }
+        order[0] = first;
+        int joined = 1 << first;
+
+        for (int i = 1; i < n; i++) {
+            boolean connectedOnly = hasConnectedTable(joined);
+            int best = -1;
+            double bestRows = Double.POSITIVE_INFINITY;
+            for (int t = 0; t < n; t++) {
+                if ((joined & (1 << t)) != 0 || (connectedOnly && !isConnected(joined, t))) {
+                    continue;
+                }
+                double rows = getRows(joined | (1 << t));
+                if (rows < bestRows) {
+                    best = t;
+                    bestRows = rows;
+                }
+            }
+            order[i] = best;
+            joined |= 1 << best;
+        }
+        return order;
+    }
+
+    /**
+     * Estimate the number of tuples of the join of the tables, the product of the table sizes and the
+     * selectivities of the join conditions on these tables only.
+     *
+     * @param subset bit set of tables
+     * @return estimated tuples
+     */
+    private double getRows(int subset) {
+        double rows = 1;
+        for (int t = 0; t < tables.size(); t++) {
+            if ((subset & (1 << t)) != 0) {
+                rows *= tableRows[t];
+            }
+        }
+        for (int i = 0; i < conditionMasks.length; i++) {
+            if ((conditionMasks[i] & ~subset) == 0) {
+                rows *= conditionSelectivities[i];
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Check whether a join condition can be applied when the table is joined to the subset.
+     *
+     * @param subset bit set of joined tables
+     * @param table index of the table to join
+     * @return true if the join has a condition
+     */
+    private boolean isConnected(int subset, int table) {
+        int joined = subset | (1 << table);
+        for (int mask : conditionMasks) {
+            if ((mask & (1 << table)) != 0 && (mask & subset) != 0 && (mask & ~joined) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check whether any table not in the subset can be joined to it with a join condition.
+     *
+     * @param subset bit set of joined tables
+     * @return true if some table is connected
+     */
+    private boolean hasConnectedTable(int subset) {
+        for (int t = 0; t < tables.size(); t++) {
+            if ((subset & (1 << t)) == 0 && isConnected(subset, t)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Convert the tables to a bit set of their indexes in the from clause.
+     *
+     * @param names table names or aliases
+     * @return bit set
+     */
+    private int toMask(Collection<String> names) {
+        int mask = 0;
+        for (String name : names) {
+            mask |= 1 << tables.indexOf(name);
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,132 @@
+package ed.inf.adbs.lightdb.tools;
+
+import net.sf.jsqlparser.JSQLParserException;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of the prepared queries by normalized query text, shared by all queries, using the singleton pattern.
+ * A query takes its plan out of the cache, runs it and puts it back, so a plan is never run by two
+ * queries at once, a second query of the same text meanwhile builds a plan of its own.
+ * At most planCacheSize plans are kept (default 256, 0 turns the cache off), the least recently used
+ * plan is evicted first, and a plan built on an older catalog version is dropped when found.
+ *
+ * ClassName: PlanCache
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class PlanCache {
+    private static final PlanCache instance = new PlanCache(); // singleton
+
+    private final Map<String, PreparedQuery> plans; // normalized query text -> plan, in access order
+    private long hits;
+    private long misses;
+    private long evictions; // evicted or outdated plans
+
+    /**
+     * Constructor: singleton, make the constructor private.
+     */
+    private PlanCache() {
+        this.plans = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Get PlanCache instance.
+     *
+     * @return PlanCache instance
+     */
+    public static PlanCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Take the cached plan of the query, or prepare a new one.
+     *
+     * @param sql query text
+     * @return prepared query, to be given back by release once run
+     * @throws JSQLParserException if the query cannot be parsed
+     */
+    public PreparedQuery prepare(String sql) throws JSQLParserException {
+        PreparedQuery query = take(PreparedQuery.normalize(sql));
+        return (query != null) ? query : new PreparedQuery(sql); // planned outside the lock
+    }
+
+    /**
+     * Take the current plan of the normalized query text out of the cache.
+     *
+     * @param key normalized query text
+     * @return prepared query, or null if none
+     */
+    private synchronized PreparedQuery take(String key) {
+        PreparedQuery query = plans.remove(key);
+        if (query != null && !query.isCurrent()) {
+            evictions++;
+            query = null;
+        }
+        if (query == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return query;
+    }
+
+    /**
+     * Give the plan back once run, it is cached unless outdated or the same query is cached already.
+     * A plan whose run failed can be given back as well, its operators are closed and reset before the next run.
+     *
+     * @param query prepared query
+     */
+    public synchronized void release(PreparedQuery query) {
+        int capacity = DBCatalog.getInstance().getIntSetting("planCacheSize", 256);
+        if (capacity <= 0 || !query.isCurrent() || plans.containsKey(query.getSql())) {
+            return;
+        }
+        plans.put(query.getSql(), query);
+
+        Iterator<PreparedQuery> iterator = plans.values().iterator();
+        while (plans.size() > capacity) { // least recently used first
+            iterator.next();
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Drop all plans.
+     */
+    public synchronized void clear() {
+        plans.clear();
+    }
+
+    /**
+     * Getter: get the number of queries which found their plan cached.
+     *
+     * @return number of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Getter: get the number of queries which built their plan.
+     *
+     * @return number of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Describe the counters.
+     *
+     * @return hits, misses, hit rate and evictions
+     */
+    public synchronized String getStatistics() {
+        long lookups = hits + misses;
+        return String.format("Plan cache of %d plans: %d hits, %d misses (%.1f%% hit rate), %d evictions",
+                plans.size(), hits, misses, (lookups == 0) ? 0.0 : 100.0 * hits / lookups, evictions);
+    }
+}
@@ -0,0 +1,37 @@
+package ed.inf.adbs.lightdb.tools;
+
+import ed.inf.adbs.lightdb.models.Tuple;
+
+/**
+ * Compiled condition expression, evaluated on one tuple (selection) or a pair of tuples (join).
+ * Built once by the predicate compiler with the column ordinals already resolved,
+ * so evaluating a tuple allocates nothing.
+ *
+ * ClassName: Predicate
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+@FunctionalInterface
+public interface Predicate {
+    Predicate TRUE = (left, right) -> true;
+    Predicate FALSE = (left, right) -> false;
+
+    /**
+     * Evaluate the condition.
+     *
+     * @param left tuple of the selection, or left tuple of the join
+     * @param right right tuple of the join, null for the selection
+     * @return true if the tuples satisfy the condition
+     */
+    boolean test(Tuple left, Tuple right);
+
+    /**
+     * Evaluate the condition on one tuple.
+     *
+     * @param tuple tuple object
+     * @return true if the tuple satisfies the condition
+     */
+    default boolean test(Tuple tuple) {
+        return test(tuple, null);
+    }
+}
@@ -0,0 +1,756 @@
+package ed.inf.adbs.lightdb.tools;
+
+import ed.inf.adbs.lightdb.models.Schema;
+import ed.inf.adbs.lightdb.models.Tuple;
+import net.sf.jsqlparser.expression.BinaryExpression;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.ExpressionVisitorAdapter;
+import net.sf.jsqlparser.expression.JdbcParameter;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.expression.NotExpression;
+import net.sf.jsqlparser.expression.Parenthesis;
+import net.sf.jsqlparser.expression.SignedExpression;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
+import net.sf.jsqlparser.expression.operators.relational.*;
+import net.sf.jsqlparser.schema.Column;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compile the condition expression into a tree of small predicate objects, once when the plan is built.
+ * The columns are resolved to ordinals of the left or right schema, and the expressions on
+ * constants only are folded, e.g. 42 = 42 is compiled to the true predicate.
+ * The comparisons of a column with a constant or with another column get their own predicates,
+ * so the common conditions are evaluated without any operand indirection.
+ * The selection conditions can also be compiled into batch filters, one tight loop over the column vectors
+ * per conjunct.
+ * A ? parameter of a prepared query is never folded, its bound value is read every time the predicate
+ * or the batch filter is evaluated, so the compiled plan can be run again with other values.
+ *
+ * ClassName: PredicateCompiler
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class PredicateCompiler extends ExpressionVisitorAdapter {
+    private static final Schema EMPTY_SCHEMA = new Schema(Collections.emptyList());
+
+    private Schema leftSchema;
+    private Schema rightSchema; // null when compiling a selection
+
+    private Predicate predicate; // result of the last visited condition
+    private Operand operand; // result of the last visited value
+
+    /**
+     * Comparison operators on two values.
+     */
+    private enum Comparison {
+        EQ, NE, GT, GE, LT, LE;
+
+        /**
+         * Apply the comparison.
+         *
+         * @param a left value
+         * @param b right value
+         * @return comparison result
+         */
+        boolean apply(long a, long b) {
+            switch (this) {
+                case EQ: return a == b;
+                case NE: return a != b;
+                case GT: return a > b;
+                case GE: return a >= b;
+                case LT: return a < b;
+                default: return a <= b;
+            }
+        }
+
+        /**
+         * Get the comparison with the two sides swapped, e.g. 3 > S.A is S.A < 3.
+         *
+         * @return flipped comparison
+         */
+        Comparison flip() {
+            switch (this) {
+                case GT: return LT;
+                case GE: return LE;
+                case LT: return GT;
+                case LE: return GE;
+                default: return this;
+            }
+        }
+    }
+
+    /**
+     * Compiled value, either a constant, a parameter or a column of the left or right tuple.
+     */
+    private static final class Operand {
+        private final boolean constant;
+        private final long value; // constant only
+        private final QueryParameter parameter; // parameter only, null otherwise
+        private final boolean right; // column only, true if on the right tuple
+        private final int index; // column only, ordinal in the schema
+
+        private Operand(boolean constant, long value, boolean right, int index) {
+            this(constant, value, null, right, index);
+        }
+
+        private Operand(boolean constant, long value, QueryParameter parameter, boolean right, int index) {
+            this.constant = constant;
+            this.value = value;
+            this.parameter = parameter;
+            this.right = right;
+            this.index = index;
+        }
+
+        private boolean isColumn() {
+            return !constant && parameter == null;
+        }
+
+        private long get(Tuple left, Tuple rightTuple) {
+            if (constant) {
+                return value;
+            }
+            if (parameter != null) {
+                return parameter.getValue();
+            }
+            return right ? rightTuple.getValue(index) : left.getValue(index);
+        }
+    }
+
+    /**
+     * Constructor: init the schemas the columns are resolved against.
+     *
+     * @param leftSchema schema of the selected tuple or the left tuple
+     * @param rightSchema schema of the right tuple, null for selection
+     */
+    private PredicateCompiler(Schema leftSchema, Schema rightSchema) {
+        this.leftSchema = leftSchema;
+        this.rightSchema = rightSchema;
+    }
+
+    /**
+     * Compile the selection condition.
+     *
+     * @param expression condition expression
+     * @param schema schema of the selected tuples
+     * @return predicate
+     */
+    public static Predicate compile(Expression expression, Schema schema) {
+        return compile(expression, schema, null);
+    }
+
+    /**
+     * Compile the join condition, the columns are looked up in the left schema first.
+     *
+     * @param expression condition expression, null means always true
+     * @param leftSchema schema of the left tuples
+     * @param rightSchema schema of the right tuples
+     * @return predicate
+     */
+    public static Predicate compile(Expression expression, Schema leftSchema, Schema rightSchema) {
+        if (expression == null) {
+            return Predicate.TRUE;
+        }
+        return new PredicateCompiler(leftSchema, rightSchema).compilePredicate(expression);
+    }
+
+    /**
+     * Evaluate the condition on constants only, e.g. 42 = 42.
+     *
+     * @param expression condition expression
+     * @return evaluation result
+     */
+    public static boolean evaluateConstant(Expression expression) {
+        return compile(expression, EMPTY_SCHEMA).test(null, null);
+    }
+
+    /**
+     * Compile the selection condition into a batch filter, the conjuncts are applied one after another.
+     * A comparison of a column with a constant or with another column is one primitive loop over
+     * the column vectors, any other conjunct is evaluated row by row with its predicate.
+     *
+     * @param expression condition expression
+     * @param schema schema of the batches
+     * @return batch filter
+     */
+    public static BatchFilter compileBatch(Expression expression, Schema schema) {
+        List<Expression> conjuncts = new ArrayList<>();
+        splitConjuncts(expression, conjuncts);
+
+        List<BatchFilter> filters = new ArrayList<>();
+        for (Expression conjunct : conjuncts) {
+            BatchFilter filter = new PredicateCompiler(schema, null).compileBatchConjunct(conjunct, schema);
+            if (filter == BatchFilter.FALSE) {
+                return BatchFilter.FALSE;
+            }
+            if (filter != BatchFilter.TRUE) {
+                filters.add(filter);
+            }
+        }
+
+        if (filters.isEmpty()) {
+            return BatchFilter.TRUE;
+        }
+        if (filters.size() == 1) {
+            return filters.get(0);
+        }
+        BatchFilter[] chain = filters.toArray(new BatchFilter[0]);
+        return batch -> {
+            for (int i = 0; i < chain.length && batch.getCount() > 0; i++) {
+                chain[i].filter(batch);
+            }
+        };
+    }
+
+    /**
+     * Split the condition into its conjuncts, through nested and expressions and parentheses.
+     *
+     * @param expression condition expression
+     * @param conjuncts list to add the conjuncts to
+     */
+    private static void splitConjuncts(Expression expression, List<Expression> conjuncts) {
+        if (expression instanceof AndExpression) {
+            splitConjuncts(((AndExpression) expression).getLeftExpression(), conjuncts);
+            splitConjuncts(((AndExpression) expression).getRightExpression(), conjuncts);
+        } else if (expression instanceof Parenthesis) {
+            splitConjuncts(((Parenthesis) expression).getExpression(), conjuncts);
+        } else if (expression != null) {
+            conjuncts.add(expression);
+        }
+    }
+
+    /**
+     * Compile one conjunct of the selection condition into a batch filter.
+     *
+     * @param expression conjunct
+     * @param schema schema of the batches
+     * @return batch filter
+     */
+    private BatchFilter compileBatchConjunct(Expression expression, Schema schema) {
+        Comparison comparison = getComparison(expression);
+        if (comparison == null) { // e.g. or, not, row by row
+            Predicate rowPredicate = compilePredicate(expression);
+            if (rowPredicate == Predicate.TRUE) {
+                return BatchFilter.TRUE;
+            }
+            if (rowPredicate == Predicate.FALSE) {
+                return BatchFilter.FALSE;
+            }
+            return rowFilter(rowPredicate, schema.size());
+        }
+
+        BinaryExpression binary = (BinaryExpression) expression;
+        Operand left = compileOperand(binary.getLeftExpression());
+        Operand right = compileOperand(binary.getRightExpression());
+        if (left.parameter != null || right.parameter != null) {
+            if (left.isColumn() && !right.isColumn()) {
+                return columnWithParameterFilter(comparison, left.index, right);
+            }
+            if (right.isColumn() && !left.isColumn()) {
+                return columnWithParameterFilter(comparison.flip(), right.index, left);
+            }
+            return rowFilter(compilePredicate(expression), schema.size());
+        }
+        if (left.constant && right.constant) {
+            return comparison.apply(left.value, right.value) ? BatchFilter.TRUE : BatchFilter.FALSE;
+        }
+        if (left.constant) { // keep the column on the left side
+            Operand swap = left;
+            left = right;
+            right = swap;
+            comparison = comparison.flip();
+        }
+
+        if (right.constant) {
+            return columnWithConstantFilter(comparison, left.index, right.value);
+        }
+        return columnWithColumnFilter(comparison, left.index, right.index);
+    }
+
+    /**
+     * Get the comparison operator of the expression.
+     *
+     * @param expression expression
+     * @return comparison, or null if the expression is not a comparison
+     */
+    private static Comparison getComparison(Expression expression) {
+        if (expression instanceof EqualsTo) {
+            return Comparison.EQ;
+        }
+        if (expression instanceof NotEqualsTo) {
+            return Comparison.NE;
+        }
+        if (expression instanceof GreaterThan) {
+            return Comparison.GT;
+        }
+        if (expression instanceof GreaterThanEquals) {
+            return Comparison.GE;
+        }
+        if (expression instanceof MinorThan) {
+            return Comparison.LT;
+        }
+        if (expression instanceof MinorThanEquals) {
+            return Comparison.LE;
+        }
+        return null;
+    }
+
+    /**
+     * Batch filter of a column with a constant. Every comparison but not equals is a range of ints,
+     * e.g. S.A < 5 is [min int, 4], so one branch-free range check serves all of them.
+     *
+     * @param comparison comparison operator
+     * @param index column ordinal
+     * @param value constant
+     * @return batch filter
+     */
+    private static BatchFilter columnWithConstantFilter(Comparison comparison, int index, long value) {
+        if (comparison == Comparison.NE) {
+            return batch -> {
+                int[] column = batch.getColumn(index);
+                int[] selection = batch.getSelection();
+                int count = batch.getCount();
+                int n = 0;
+                for (int i = 0; i < count; i++) {
+                    int row = selection[i];
+                    selection[n] = row;
+                    n += (column[row] != value) ? 1 : 0;
+                }
+                batch.setCount(n);
+            };
+        }
+
+        long lowBound = Integer.MIN_VALUE;
+        long highBound = Integer.MAX_VALUE;
+        switch (comparison) {
+            case EQ: lowBound = value; highBound = value; break;
+            case GT: lowBound = value + 1; break;
+            case GE: lowBound = value; break;
+            case LT: highBound = value - 1; break;
+            default: highBound = value; break;
+        }
+        if (lowBound > highBound || lowBound > Integer.MAX_VALUE || highBound < Integer.MIN_VALUE) {
+            return BatchFilter.FALSE;
+        }
+        if (lowBound <= Integer.MIN_VALUE && highBound >= Integer.MAX_VALUE) {
+            return BatchFilter.TRUE;
+        }
+
+        int low = (int) Math.max(lowBound, Integer.MIN_VALUE);
+        int high = (int) Math.min(highBound, Integer.MAX_VALUE);
+        return batch -> {
+            int[] column = batch.getColumn(index);
+            int[] selection = batch.getSelection();
+            int count = batch.getCount();
+            int n = 0;
+            for (int i = 0; i < count; i++) {
+                int row = selection[i];
+                int v = column[row];
+                selection[n] = row;
+                n += (v >= low & v <= high) ? 1 : 0;
+            }
+            batch.setCount(n);
+        };
+    }
+
+    /**
+     * Batch filter of a column with a parameter or a constant, the range filter of the bound value
+     * is built when a batch is filtered, once per batch.
+     *
+     * @param comparison comparison operator
+     * @param index column ordinal
+     * @param operand parameter or constant
+     * @return batch filter
+     */
+    private static BatchFilter columnWithParameterFilter(Comparison comparison, int index, Operand operand) {
+        return batch -> columnWithConstantFilter(comparison, index, operand.get(null, null)).filter(batch);
+    }
+
+    /**
+     * Batch filter of a column with another column of the same batch, greater than is turned into
+     * less than with the columns swapped.
+     *
+     * @param comparison comparison operator
+     * @param leftIndex left column ordinal
+     * @param rightIndex right column ordinal
+     * @return batch filter
+     */
+    private static BatchFilter columnWithColumnFilter(Comparison comparison, int leftIndex, int rightIndex) {
+        if (comparison == Comparison.GT || comparison == Comparison.GE) {
+            return columnWithColumnFilter(comparison.flip(), rightIndex, leftIndex);
+        }
+
+        return batch -> {
+            int[] a = batch.getColumn(leftIndex);
+            int[] b = batch.getColumn(rightIndex);
+            int[] selection = batch.getSelection();
+            int count = batch.getCount();
+            int n = 0;
+            switch (comparison) { // outside the loop, every loop is branch-free
+                case EQ:
+                    for (int i = 0; i < count; i++) {
+                        int row = selection[i];
+                        selection[n] = row;
+                        n += (a[row] == b[row]) ? 1 : 0;
+                    }
+                    break;
+                case NE:
+                    for (int i = 0; i < count; i++) {
+                        int row = selection[i];
+                        selection[n] = row;
+                        n += (a[row] != b[row]) ? 1 : 0;
+                    }
+                    break;
+                case LT:
+                    for (int i = 0; i < count; i++) {
+                        int row = selection[i];
+                        selection[n] = row;
+                        n += (a[row] < b[row]) ? 1 : 0;
+                    }
+                    break;
+                default:
+                    for (int i = 0; i < count; i++) {
+                        int row = selection[i];
+                        selection[n] = row;
+                        n += (a[row] <= b[row]) ? 1 : 0;
+                    }
+                    break;
+            }
+            batch.setCount(n);
+        };
+    }
+
+    /**
+     * Batch filter evaluating the predicate row by row, on a tuple whose values are overwritten for every row.
+     *
+     * @param rowPredicate compiled condition
+     * @param numColumns number of columns of the batches
+     * @return batch filter
+     */
+    private static BatchFilter rowFilter(Predicate rowPredicate, int numColumns) {
+        int[] values = new int[numColumns];
+        Tuple tuple = Tuple.reused(null, values);
+        return batch -> {
+            int[] selection = batch.getSelection();
+            int count = batch.getCount();
+            int n = 0;
+            for (int i = 0; i < count; i++) {
+                int row = selection[i];
+                batch.getRow(row, values);
+                selection[n] = row;
+                n += rowPredicate.test(tuple) ? 1 : 0;
+            }
+            batch.setCount(n);
+        };
+    }
+
+    /**
+     * Compile a condition.
+     *
+     * @param expression condition expression
+     * @return predicate
+     */
+    private Predicate compilePredicate(Expression expression) {
+        predicate = null;
+        expression.accept(this);
+        if (predicate == null) {
+            throw new IllegalArgumentException("Unsupported condition: " + expression);
+        }
+        return predicate;
+    }
+
+    /**
+     * Compile a value.
+     *
+     * @param expression value expression
+     * @return operand
+     */
+    private Operand compileOperand(Expression expression) {
+        operand = null;
+        expression.accept(this);
+        if (operand == null) {
+            throw new IllegalArgumentException("Unsupported value: " + expression);
+        }
+        return operand;
+    }
+
+    /**
+     * If long value, compile to a constant.
+     *
+     * @param longValue long value
+     */
+    @Override
+    public void visit(LongValue longValue) {
+        operand = new Operand(true, longValue.getValue(), false, 0);
+    }
+
+    /**
+     * If parameter of a prepared query, compile to its bound value.
+     *
+     * @param jdbcParameter parameter
+     */
+    @Override
+    public void visit(JdbcParameter jdbcParameter) {
+        if (!(jdbcParameter instanceof QueryParameter)) {
+            throw new IllegalArgumentException("Unsupported parameter outside a prepared query: " + jdbcParameter);
+        }
+        operand = new Operand(false, 0, (QueryParameter) jdbcParameter, false, 0);
+    }
+
+    /**
+     * If signed value, e.g. -1, compile to a negated constant.
+     *
+     * @param signedExpression signed expression
+     */
+    @Override
+    public void visit(SignedExpression signedExpression) {
+        Operand inner = compileOperand(signedExpression.getExpression());
+        if (!inner.constant) {
+            throw new IllegalArgumentException("Unsupported value: " + signedExpression);
+        }
+        operand = new Operand(true, (signedExpression.getSign() == '-') ? -inner.value : inner.value, false, 0);
+    }
+
+    /**
+     * If column, resolve it to the ordinal of the left schema, or else the right schema.
+     *
+     * @param tableColumn column
+     */
+    @Override
+    public void visit(Column tableColumn) {
+        String column = tableColumn.toString();
+        int index = leftSchema.indexOf(column);
+        if (index >= 0) {
+            operand = new Operand(false, 0, false, index);
+            return;
+        }
+        index = (rightSchema == null) ? -1 : rightSchema.indexOf(column);
+        if (index >= 0) {
+            operand = new Operand(false, 0, true, index);
+            return;
+        }
+        throw new IllegalArgumentException("Unknown column: " + column);
+    }
+
+    /**
+     * Compile the inner expression of the parenthesis.
+     *
+     * @param parenthesis parenthesis
+     */
+    @Override
+    public void visit(Parenthesis parenthesis) {
+        parenthesis.getExpression().accept(this);
+    }
+
+    /**
+     * Process and expression, only true if left and right are all true.
+     *
+     * @param andExpression and expression
+     */
+    @Override
+    public void visit(AndExpression andExpression) {
+        Predicate left = compilePredicate(andExpression.getLeftExpression());
+        Predicate right = compilePredicate(andExpression.getRightExpression());
+
+        if (left == Predicate.FALSE || right == Predicate.FALSE) {
+            predicate = Predicate.FALSE;
+        } else if (left == Predicate.TRUE) {
+            predicate = right;
+        } else if (right == Predicate.TRUE) {
+            predicate = left;
+        } else {
+            predicate = (a, b) -> left.test(a, b) && right.test(a, b);
+        }
+    }
+
+    /**
+     * Process or expression, true if left or right is true.
+     *
+     * @param orExpression or expression
+     */
+    @Override
+    public void visit(OrExpression orExpression) {
+        Predicate left = compilePredicate(orExpression.getLeftExpression());
+        Predicate right = compilePredicate(orExpression.getRightExpression());
+
+        if (left == Predicate.TRUE || right == Predicate.TRUE) {
+            predicate = Predicate.TRUE;
+        } else if (left == Predicate.FALSE) {
+            predicate = right;
+        } else if (right == Predicate.FALSE) {
+            predicate = left;
+        } else {
+            predicate = (a, b) -> left.test(a, b) || right.test(a, b);
+        }
+    }
+
+    /**
+     * Process not expression.
+     *
+     * @param notExpression not expression
+     */
+    @Override
+    public void visit(NotExpression notExpression) {
+        Predicate inner = compilePredicate(notExpression.getExpression());
+
+        if (inner == Predicate.TRUE) {
+            predicate = Predicate.FALSE;
+        } else if (inner == Predicate.FALSE) {
+            predicate = Predicate.TRUE;
+        } else {
+            predicate = (a, b) -> !inner.test(a, b);
+        }
+    }
+
+    @Override
+    public void visit(EqualsTo equalsTo) {
+        predicate = compileComparison(Comparison.EQ, equalsTo);
+    }
+
+    @Override
+    public void visit(NotEqualsTo notEqualsTo) {
+        predicate = compileComparison(Comparison.NE, notEqualsTo);
+    }
+
+    @Override
+    public void visit(GreaterThan greaterThan) {
+        predicate = compileComparison(Comparison.GT, greaterThan);
+    }
+
+    @Override
+    public void visit(GreaterThanEquals greaterThanEquals) {
+        predicate = compileComparison(Comparison.GE, greaterThanEquals);
+    }
+
+    @Override
+    public void visit(MinorThan minorThan) {
+        predicate = compileComparison(Comparison.LT, minorThan);
+    }
+
+    @Override
+    public void visit(MinorThanEquals minorThanEquals) {
+        predicate = compileComparison(Comparison.LE, minorThanEquals);
+    }
+
+    /**
+     * Compile a comparison, fold it if both sides are constants, and pick the specialised
+     * predicate for a column of the left tuple with a constant or with a column of the right tuple.
+     *
+     * @param comparison comparison operator
+     * @param expression binary comparison expression
+     * @return predicate
+     */
+    private Predicate compileComparison(Comparison comparison, BinaryExpression expression) {
+        Operand left = compileOperand(expression.getLeftExpression());
+        Operand right = compileOperand(expression.getRightExpression());
+
+        // a parameter is compared with its value at evaluation time
+        if (left.parameter != null || right.parameter != null) {
+            return compileParameterComparison(comparison, left, right);
+        }
+
+        // constant condition, evaluate now
+        if (left.constant && right.constant) {
+            return comparison.apply(left.value, right.value) ? Predicate.TRUE : Predicate.FALSE;
+        }
+
+        // keep the column on the left side, e.g. 3 > S.A is S.A < 3
+        if (left.constant || (left.right && !right.constant && !right.right)) {
+            Operand swap = left;
+            left = right;
+            right = swap;
+            comparison = comparison.flip();
+        }
+
+        if (!left.right && right.constant) { // selection, column with constant
+            return columnWithConstant(comparison, left.index, right.value);
+        }
+        if (!left.right && !right.constant && right.right) { // join, left column with right column
+            return leftColumnWithRightColumn(comparison, left.index, right.index);
+        }
+
+        // any other shape, go through the operands
+        Operand first = left;
+        Operand second = right;
+        Comparison op = comparison;
+        return (a, b) -> op.apply(first.get(a, b), second.get(a, b));
+    }
+
+    /**
+     * Compile a comparison with a parameter, a column of the left tuple gets the specialised predicate.
+     *
+     * @param comparison comparison operator
+     * @param left left operand
+     * @param right right operand
+     * @return predicate
+     */
+    private static Predicate compileParameterComparison(Comparison comparison, Operand left, Operand right) {
+        if (right.isColumn() && !right.right && !left.isColumn()) { // e.g. ? > S.A is S.A < ?
+            return compileParameterComparison(comparison.flip(), right, left);
+        }
+        if (left.isColumn() && !left.right && right.parameter != null) {
+            return columnWithParameter(comparison, left.index, right.parameter);
+        }
+        return (a, b) -> comparison.apply(left.get(a, b), right.get(a, b));
+    }
+
+    /**
+     * Specialised predicate on a column of the left tuple and a parameter.
+     *
+     * @param comparison comparison operator
+     * @param index column ordinal
+     * @param parameter parameter
+     * @return predicate
+     */
+    private static Predicate columnWithParameter(Comparison comparison, int index, QueryParameter parameter) {
+        switch (comparison) {
+            case EQ: return (a, b) -> a.getValue(index) == parameter.getValue();
+            case NE: return (a, b) -> a.getValue(index) != parameter.getValue();
+            case GT: return (a, b) -> a.getValue(index) > parameter.getValue();
+            case GE: return (a, b) -> a.getValue(index) >= parameter.getValue();
+            case LT: return (a, b) -> a.getValue(index) < parameter.getValue();
+            default: return (a, b) -> a.getValue(index) <= parameter.getValue();
+        }
+    }
+
+    /**
+     * Specialised predicate on a column of the left tuple and a constant.
+     *
+     * @param comparison comparison operator
+     * @param index column ordinal
+     * @param value constant
+     * @return predicate
+     */
+    private static Predicate columnWithConstant(Comparison comparison, int index, long value) {
+        switch (comparison) {
+            case EQ: return (a, b) -> a.getValue(index) == value;
+            case NE: return (a, b) -> a.getValue(index) != value;
+            case GT: return (a, b) -> a.getValue(index) > value;
+            case GE: return (a, b) -> a.getValue(index) >= value;
+            case LT: return (a, b) -> a.getValue(index) < value;
+            default: return (a, b) -> a.getValue(index) <= value;
+        }
+    }
+
+    /**
+     * Specialised predicate on a column of the left tuple and a column of the right tuple.
+     *
+     * @param comparison comparison operator
+     * @param leftIndex left column ordinal
+     * @param rightIndex right column ordinal
+     * @return predicate
+     */
+    private static Predicate leftColumnWithRightColumn(Comparison comparison, int leftIndex, int rightIndex) {
+        switch (comparison) {
+            case EQ: return (a, b) -> a.getValue(leftIndex) == b.getValue(rightIndex);
+            case NE: return (a, b) -> a.getValue(leftIndex) != b.getValue(rightIndex);
+            case GT: return (a, b) -> a.getValue(leftIndex) > b.getValue(rightIndex);
+            case GE: return (a, b) -> a.getValue(leftIndex) >= b.getValue(rightIndex);
+            case LT: return (a, b) -> a.getValue(leftIndex) < b.getValue(rightIndex);
+            default: return (a, b) -> a.getValue(leftIndex) <= b.getValue(rightIndex);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package ed.inf.adbs.lightdb.tools;
+
+import ed.inf.adbs.lightdb.metrics.MeteredChannel;
+import ed.inf.adbs.lightdb.metrics.QueryMetrics;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.statement.Statement;
+
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A query parsed, interpreted and planned once, then run any number of times. The ? parameters
+ * of the where clause are bound to new values before every run, the operator tree is reset and reused.
+ * The plan is built on the current catalog version, once the catalog, a setting or the statistics change,
+ * the plan is outdated and the plan cache builds it again.
+ * A prepared query is run by one thread at a time, the plan cache hands it out to one query only.
+ *
+ * ClassName: PreparedQuery
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class PreparedQuery {
+    private final String sql; // normalized sql text, the key of the plan cache
+    private final String statement; // parsed statement, for logging
+    private final long catalogVersion;
+    private final QueryInterpreter interpreter;
+    private final int parameterCount;
+
+    /**
+     * Constructor: parse the query and build its plan.
+     *
+     * @param sql query text, may have ? parameters in the where clause
+     * @throws JSQLParserException if the query cannot be parsed
+     */
+    public PreparedQuery(String sql) throws JSQLParserException {
+        this(sql, false);
+    }
+
+    /**
+     * Constructor: parse the query and build its plan, with every operator instrumented for EXPLAIN ANALYZE.
+     * An instrumented plan keeps counting over its runs, it is not put in the plan cache.
+     *
+     * @param sql query text, may have ? parameters in the where clause
+     * @param instrumented true to count the rows and time of every operator
+     * @throws JSQLParserException if the query cannot be parsed
+     */
+    public PreparedQuery(String sql, boolean instrumented) throws JSQLParserException {
+        this.sql = normalize(sql);
+        this.catalogVersion = DBCatalog.getInstance().getVersion(); // read before planning, a change meanwhile outdates it
+        QueryMetrics.Timer parseTimer = QueryMetrics.start(QueryMetrics.Phase.PARSE);
+        Statement parsed = CCJSqlParserUtil.parse(sql);
+        parseTimer.stop(this.sql);
+        if (parsed == null) {
+            throw new JSQLParserException("Empty statement: " + sql);
+        }
+        this.statement = parsed.toString();
+        QueryMetrics.Timer planTimer = QueryMetrics.start(QueryMetrics.Phase.PLAN);
+        this.interpreter = new QueryInterpreter(parsed, instrumented);
+        planTimer.stop(this.sql);
+
+        int count = 0;
+        for (QueryParameter parameter : interpreter.getParameters()) {
+            count = Math.max(count, parameter.getIndex());
+        }
+        this.parameterCount = count;
+    }
+
+    /**
+     * Normalize the query text for the plan cache: the runs of white space outside quotes become
+     * one space, and the leading and trailing white space and semicolons are removed.
+     *
+     * @param sql query text
+     * @return normalized query text
+     */
+    public static String normalize(String sql) {
+        StringBuilder normalized = new StringBuilder(sql.length());
+        boolean quoted = false;
+        boolean space = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            }
+            if (!quoted && Character.isWhitespace(c)) {
+                space = normalized.length() > 0;
+                continue;
+            }
+            if (space) {
+                normalized.append(' ');
+                space = false;
+            }
+            normalized.append(c);
+        }
+
+        int end = normalized.length();
+        while (end > 0 && (normalized.charAt(end - 1) == ';' || normalized.charAt(end - 1) == ' ')) {
+            end--;
+        }
+        normalized.setLength(end);
+        return normalized.toString();
+    }
+
+    /**
+     * Bind the values of the parameters for the next run, ?1 gets the first value and so on.
+     *
+     * @param values parameter values, as many as the parameters
+     * @throws IllegalArgumentException if the number of values does not match
+     */
+    public void bind(long... values) {
+        if (values.length != parameterCount) {
+            throw new IllegalArgumentException("Expected " + parameterCount + " parameter values, got " + values.length);
+        }
+        for (QueryParameter parameter : interpreter.getParameters()) {
+            parameter.bind(values[parameter.getIndex() - 1]);
+        }
+    }
+
+    /**
+     * Run the plan with the bound values and write the result rows to the channel.
+     * The execution time, the time spent writing and the bytes written are recorded in the query metrics.
+     *
+     * @param channel output channel
+     */
+    public void execute(WritableByteChannel channel) {
+        QueryMetrics.Timer timer = QueryMetrics.start(QueryMetrics.Phase.EXECUTE);
+        MeteredChannel metered = new MeteredChannel(channel);
+        interpreter.output(metered);
+        QueryMetrics.stopExecution(timer, sql, metered.getNanos(), metered.getBytes());
+    }
+
+    /**
+     * Get the plan tree, with the counters of the runs so far if instrumented.
+     *
+     * @return plan text
+     */
+    public String explain() {
+        return interpreter.explain();
+    }
+
+    /**
+     * Check whether the plan was built on the current catalog version.
+     *
+     * @return true if the plan can be reused
+     */
+    public boolean isCurrent() {
+        return catalogVersion == DBCatalog.getInstance().getVersion();
+    }
+
+    /**
+     * Getter: get the normalized query text.
+     *
+     * @return normalized query text
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Getter: get the parsed statement.
+     *
+     * @return statement text
+     */
+    public String getStatement() {
+        return statement;
+    }
+
+    /**
+     * Getter: get the number of parameters, the highest parameter index.
+     *
+     * @return number of parameters
+     */
+    public int getParameterCount() {
+        return parameterCount;
+    }
+}
@@ -1,15 +1,21 @@
 package ed.inf.adbs.lightdb.tools;
 
+import ed.inf.adbs.lightdb.models.Schema;
 import ed.inf.adbs.lightdb.operators.*;
 import net.sf.jsqlparser.expression.BinaryExpression;
 import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.ExpressionVisitorAdapter;
+import net.sf.jsqlparser.expression.JdbcParameter;
+import net.sf.jsqlparser.expression.NotExpression;
+import net.sf.jsqlparser.expression.Parenthesis;
+import net.sf.jsqlparser.expression.SignedExpression;
 import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
 import net.sf.jsqlparser.schema.Column;
 import net.sf.jsqlparser.statement.Statement;
 import net.sf.jsqlparser.statement.select.*;
 
-import java.io.BufferedReader;
-import java.io.PrintStream;
+import java.nio.channels.WritableByteChannel;
 import java.util.*;
 
 /**
@@ -20,6 +26,8 @@ import java.util.*;
  * Author: Cyan
  */
 public class QueryInterpreter {
+    private static final double MIN_PARALLEL_JOIN_ROWS = 1 << 16; // smaller joins are not worth partitioning
+
     private PlainSelect plainSelect;
 
     // basic elements in plain select
@@ -36,19 +44,31 @@ public class QueryInterpreter {
     // tables appeared in query
     private List<String> tables;
 
-    // tables mapping to the constant, select and join condition
+    // alias mapping to the real table name, scoped to this query
+    private Map<String, String> aliasToTable;
+
+    // constant condition, tables mapping to the select condition, and join condition mapping to its tables
     private List<Expression> constantCondition;
     private Map<String, List<Expression>> selectCondition;
-    private Map<String, List<Expression>> joinCondition;
+    private Map<Expression, List<String>> joinCondition;
 
     // tables mapping to the corresponding contacted conditions from above
     // used in tree building as operator parameter
     private Expression constantConditionCombination;
     private Map<String, Expression> selectConditionCombination;
-    private Map<String, Expression> joinConditionCombination;
 
-    // tree root
+    // true if the top join already outputs the tuples in the order by order
+    private boolean orderSatisfied;
+
+    // ? parameters of the where clause, bound before every output
+    private List<QueryParameter> parameters;
+
+    // tree root, output more than once if the plan is cached
     private Operator root;
+    private boolean output;
+
+    // true if every operator is decorated to count its rows and time, for EXPLAIN ANALYZE
+    private final boolean instrumented;
 
     /**
      * Constructor: once call, the interpretation finishes.
@@ -56,6 +76,17 @@ public class QueryInterpreter {
      * @param statement query statement
      */
     public QueryInterpreter(Statement statement) {
+        this(statement, false);
+    }
+
+    /**
+     * Constructor: once call, the interpretation finishes.
+     *
+     * @param statement query statement
+     * @param instrumented true to decorate every operator with an instrumented operator
+     */
+    public QueryInterpreter(Statement statement, boolean instrumented) {
+        this.instrumented = instrumented;
         this.plainSelect = (PlainSelect) ((Select) statement).getSelectBody();
 
         // init necessary conditions
@@ -63,7 +94,8 @@ public class QueryInterpreter {
         this.selectItems = plainSelect.getSelectItems(); // select
         this.fromItem = plainSelect.getFromItem(); // from
         this.joins = plainSelect.getJoins(); // from
-        this.where = plainSelect.getWhere(); // where
+        this.parameters = new ArrayList<>();
+        this.where = replaceParameters(plainSelect.getWhere()); // where
         this.orderByElements = plainSelect.getOrderByElements(); // order by
 
         // init and expressions
@@ -71,11 +103,11 @@ public class QueryInterpreter {
 
         // init collections
         this.tables = new ArrayList<>();
+        this.aliasToTable = new HashMap<>();
         this.constantCondition = new ArrayList<>();
         this.selectCondition = new LinkedHashMap<>();
         this.joinCondition = new LinkedHashMap<>();
         this.selectConditionCombination = new LinkedHashMap<>();
-        this.joinConditionCombination = new LinkedHashMap<>();
 
         // first interpret query
         interpretQuery();
@@ -85,12 +117,52 @@ public class QueryInterpreter {
     }
 
     /**
-     * Output to stream.
+     * Output to channel. The plan can be output again, e.g. with other parameter values,
+     * the operators are reset first and compute the output again.
+     * The operators are closed afterwards, also when the output fails, so no temporary file
+     * or parallel task of the query is left behind.
+     *
+     * @param channel output channel
+     */
+    public void output(WritableByteChannel channel) {
+        for (QueryParameter parameter : parameters) {
+            if (!parameter.isBound()) {
+                throw new IllegalStateException("No value bound to parameter " + parameter.getIndex());
+            }
+        }
+        try {
+            if (output) {
+                root.reset();
+            }
+            output = true;
+            root.dump(channel); // dump from root
+        } catch (RuntimeException e) {
+            try {
+                root.close();
+            } catch (RuntimeException closeFailure) {
+                e.addSuppressed(closeFailure); // report the failure of the query first
+            }
+            throw e;
+        }
+        root.close(); // release files and temporary files of the query
+    }
+
+    /**
+     * Get the plan tree, one operator per line, with the counters of the last output if instrumented.
      *
-     * @param ps output stream
+     * @return plan text
      */
-    public void output(PrintStream ps) {
-        root.dump(ps); // dump from root
+    public String explain() {
+        return root.explain();
+    }
+
+    /**
+     * Getter: get the ? parameters of the where clause, in order of appearance.
+     *
+     * @return parameters, a parameter index may appear more than once, e.g. ?1
+     */
+    public List<QueryParameter> getParameters() {
+        return parameters;
     }
 
     /**
@@ -99,27 +171,26 @@ public class QueryInterpreter {
     private void executeQuery() {
         Operator current;
 
-        // STEP 1: init base table
-        // first apply scan operator on the first table
-        List<String> singleSchema = DBCatalog.getInstance().generateSingleSchema(tables.get(0));
-        BufferedReader bufferedReader = DBCatalog.getInstance().generateTableBuffer(tables.get(0));
-        current = new ScanOperator(tables.get(0), singleSchema, bufferedReader);
-
-        // STEP 2: deal with constant condition, apply select and join operator
-        // evaluate constant condition
-        if (constantConditionCombination != null) {
-            ConstantVisitor constantVisitor = new ConstantVisitor();
-            constantConditionCombination.accept(constantVisitor);
-
-            // if false, ignore the where clause, means no need to use select operator
-            // if true, ignore the constant condition
-            if (!constantVisitor.getTupleEvaluationResult()) { // false
-                current = applyJoinOperator(current);
-            } else { // true
-                current = applySelectJoinOperator(current);
+        // STEP 1: deal with constant condition
+        // if false, ignore the where clause, means no need to use select operator
+        // if true, ignore the constant condition
+        // a constant condition on parameters is only known when the plan runs, it is applied on top of the joins
+        boolean deferConstant = constantConditionCombination != null && hasParameters(constantConditionCombination);
+        boolean applySelection = constantConditionCombination == null || deferConstant
+                || PredicateCompiler.evaluateConstant(constantConditionCombination);
+
+        // STEP 2: order the tables by estimated cost, apply scan, select and join operator
+        current = applySelectJoinOperator(applySelection);
+        if (deferConstant) {
+            current = instrument(new SelectOperator(constantConditionCombination, current));
+        }
+
+        // the join order may differ from the from clause, put the columns back in from clause order
+        if (selectItems.get(0) instanceof AllColumns) {
+            Schema fromSchema = getFromSchema();
+            if (!current.getSchema().getColumns().equals(fromSchema.getColumns())) {
+                current = instrument(new ProjectOperator(fromSchema, current));
             }
-        } else { // if no constant condition, do as normal
-            current = applySelectJoinOperator(current);
         }
 
         // STEP 3: deal with sort and project operator
@@ -128,7 +199,8 @@ public class QueryInterpreter {
         // if need to sort and project, then determine on two strategy:
         // --- if sorted columns are in projected columns, first project then sort
         // --- if sorted columns are not in projected columns, first sort then project
-        if (orderByElements != null) { // need sort and project
+        // if the top join is a sort merge join on the order by columns, no need to sort again
+        if (orderByElements != null && !orderSatisfied) { // need sort and project
             if (!(selectItems.get(0) instanceof AllColumns)) { // sort plus project
 
                 // whether need to sort then project
@@ -148,23 +220,24 @@ public class QueryInterpreter {
 
                 // determine between two strategies
                 if (sortBeforeProject) {
-                    current = new ProjectOperator(selectItems, new SortOperator(orderByElements, current));
+                    current = instrument(new ProjectOperator(selectItems, instrument(new SortOperator(orderByElements, current))));
                 } else {
-                    current = new SortOperator(orderByElements, new ProjectOperator(selectItems, current));
+                    current = instrument(new SortOperator(orderByElements, instrument(new ProjectOperator(selectItems, current))));
                 }
 
             } else { // no need project, only sort
-                current = new SortOperator(orderByElements, current);
+                current = instrument(new SortOperator(orderByElements, current));
             }
         } else { // no need sort, only project
             if (!(selectItems.get(0) instanceof AllColumns)) { // only project when not all columns required
-                current = new ProjectOperator(selectItems, current);
+                current = instrument(new ProjectOperator(selectItems, current));
             }
         }
 
         // STEP 4: deal with distinct operator
+        // if the tuples are sorted on all output columns, the duplicates are adjacent
         if (distinct != null) {
-            current = new DuplicateEliminationOperator(current);
+            current = instrument(new DuplicateEliminationOperator(current, isSortedOnAllColumns(current.getSchema())));
         }
 
         // STEP 5: set the root
@@ -175,9 +248,6 @@ public class QueryInterpreter {
      * Interpret the query.
      */
     private void interpretQuery() {
-        // clear alias table
-        DBCatalog.getInstance().getAliasToTable().clear();
-
         // generate tables, init select and join condition in from
         processFromItem(fromItem);
 
@@ -198,84 +268,344 @@ public class QueryInterpreter {
                 continue;
             }
 
-            int index = getTableNamesMaxIndex(tableNames); // get max table index
             if (tableNames.size() == 1) { // one table means it is a select expression
-                selectCondition.get(tables.get(index)).add(ex);
-            } else { // two tables means it is a join expression
-                joinCondition.get(tables.get(index)).add(ex);
+                selectCondition.get(tableNames.get(0)).add(ex);
+            } else { // more tables means it is a join expression, applied once all its tables are joined
+                joinCondition.put(ex, tableNames);
             }
         }
 
         // combine constant expressions
         this.constantConditionCombination = processExpressionCombination(constantCondition);
 
-        // combine selection and join expressions to one for each table
+        // combine selection expressions to one for each table
         for (String table : tables) {
             selectConditionCombination.put(table, processExpressionCombination(selectCondition.get(table)));
-            joinConditionCombination.put(table, processExpressionCombination(joinCondition.get(table)));
         }
     }
 
     /**
-     * Apply select and join operator on all tables.
+     * Order the tables by the estimated cost, then apply select and join operator on them in that order.
+     * Every join condition is applied by the first join where all its tables are present.
      *
-     * @param current current root
+     * @param applySelection false if the select conditions are ignored
      * @return new root
      */
-    private Operator applySelectJoinOperator(Operator current) {
-        // if have select condition on the first table, then apply select operator
-        if (selectConditionCombination.get(tables.get(0)) != null) {
-            current = new SelectOperator(selectConditionCombination.get(tables.get(0)), current);
+    private Operator applySelectJoinOperator(boolean applySelection) {
+        // estimate the tuples of every table after its selection
+        CardinalityEstimator estimator = new CardinalityEstimator(aliasToTable);
+        Map<String, Double> tableRows = new LinkedHashMap<>();
+        for (String table : tables) {
+            double selectivity = applySelection ? estimator.getSelectivity(selectConditionCombination.get(table)) : 1;
+            tableRows.put(table, estimator.getTableRows(table) * selectivity);
         }
 
+        JoinOrderOptimizer optimizer = new JoinOrderOptimizer(tables, tableRows, joinCondition, estimator);
+        List<String> joinOrder = optimizer.getJoinOrder();
+
+        // the first table is the base of the left deep join tree
+        IndexPlanner indexPlanner = new IndexPlanner(estimator);
+        Operator current = generateTableOperator(joinOrder.get(0), applySelection, indexPlanner);
+        List<String> joinedTables = new ArrayList<>();
+        joinedTables.add(joinOrder.get(0));
+        List<Expression> remainingConditions = new ArrayList<>(joinCondition.keySet());
+
         // if more than one table, then do select and join operator on tables one by one
-        if (tables.size() > 1) {
-            int i = 1;
-            while (i < tables.size()) {
-                // first init scan operator on current table
-                List<String> otherSchema = DBCatalog.getInstance().generateSingleSchema(tables.get(i));
-                BufferedReader otherReader = DBCatalog.getInstance().generateTableBuffer(tables.get(i));
-                Operator node = new ScanOperator(tables.get(i), otherSchema, otherReader);
-
-                // if the table has select condition, apply select operator
-                if (selectConditionCombination.get(tables.get(i)) != null) {
-                    node = new SelectOperator(selectConditionCombination.get(tables.get(i)), node);
+        for (int i = 1; i < joinOrder.size(); i++) {
+            String table = joinOrder.get(i);
+            Operator node = generateTableOperator(table, applySelection, indexPlanner);
+            double leftRows = optimizer.getRows(joinedTables);
+            joinedTables.add(table);
+
+            // take the join conditions whose tables are all joined now
+            List<Expression> conditions = new ArrayList<>();
+            Iterator<Expression> iterator = remainingConditions.iterator();
+            while (iterator.hasNext()) {
+                Expression ex = iterator.next();
+                if (joinedTables.containsAll(joinCondition.get(ex))) {
+                    conditions.add(ex);
+                    iterator.remove();
                 }
+            }
 
-                // since should be a left deep join tree, add the last table as the left child and
-                // set current table as the right child
-                current = new JoinOperator(joinConditionCombination.get(tables.get(i)), current, node);
+            // since should be a left deep join tree, add the joined tables as the left child and
+            // set current table as the right child
+            current = instrument(createJoinOperator(conditions, current, node, leftRows, tableRows.get(table),
+                    i == joinOrder.size() - 1));
+        }
+        return current;
+    }
 
-                i++; // advance index if more table
+    /**
+     * Generate the scan operator of the table, with the select operator if the table has select condition.
+     * If an index on the table is cheaper than the full scan for the select condition, scan through the index.
+     * If the table is split into partitions, the scan and select pipelines of the partitions run in parallel
+     * under an exchange operator, in no particular order, an order by is done by the sort operator above.
+     *
+     * @param table table name or alias
+     * @param applySelection false if the select condition is ignored
+     * @param indexPlanner planner of the index scans
+     * @return scan or select operator
+     */
+    private Operator generateTableOperator(String table, boolean applySelection, IndexPlanner indexPlanner) {
+        if (applySelection && !selectCondition.get(table).isEmpty()) {
+            Operator indexScan = indexPlanner.generateIndexScan(getTableName(table), table, selectCondition.get(table));
+            if (indexScan != null) {
+                return instrument(indexScan);
             }
         }
-        return current;
+
+        // large binary table, scan and select the partitions in parallel
+        int partitions = DBCatalog.getInstance().getScanPartitions(getTableName(table));
+        if (partitions > 1) {
+            List<Operator> pipelines = new ArrayList<>();
+            for (Operator scan : DBCatalog.getInstance().generatePartitionScanOperators(getTableName(table), table, partitions)) {
+                pipelines.add((applySelection && selectConditionCombination.get(table) != null)
+                        ? instrument(new SelectOperator(selectConditionCombination.get(table), instrument(scan))) : instrument(scan));
+            }
+            return instrument(new ExchangeOperator(pipelines));
+        }
+
+        Operator node = instrument(DBCatalog.getInstance().generateScanOperator(getTableName(table), table));
+        if (applySelection && selectConditionCombination.get(table) != null) {
+            node = instrument(new SelectOperator(selectConditionCombination.get(table), node));
+        }
+        return node;
     }
 
     /**
-     * Apply only join operator on all tables.
+     * Get the schema of all tables in from clause order, the column order of select all.
      *
-     * @param current current root
-     * @return new root
+     * @return from clause schema
      */
-    private Operator applyJoinOperator(Operator current) {
-        // if more than one table, then join tables one by one
-        if (tables.size() > 1) {
-            int i = 1;
-            while (i < tables.size()) {
-                // first init scan operator on current table
-                List<String> otherSchema = DBCatalog.getInstance().generateSingleSchema(tables.get(i));
-                BufferedReader otherReader = DBCatalog.getInstance().generateTableBuffer(tables.get(i));
-                Operator node = new ScanOperator(tables.get(i), otherSchema, otherReader);
-
-                // since should be a left deep join tree, add the last table as the left child and
-                // set current table as the right child
-                current = new JoinOperator(joinConditionCombination.get(tables.get(i)), current, node);
-
-                i++; // advance index if more table
+    private Schema getFromSchema() {
+        Schema schema = null;
+        for (String table : tables) {
+            Schema tableSchema = Schema.of(table, DBCatalog.getInstance().generateSingleSchema(getTableName(table)));
+            schema = (schema == null) ? tableSchema : Schema.concat(schema, tableSchema);
+        }
+        return schema;
+    }
+
+    /**
+     * Create the join operator of the table, use hash join if the join condition has
+     * column equals column conjuncts, otherwise use the nested loop join.
+     * The block nested loop join buffers the right child instead, if it fits in one block and the
+     * left child does not, so the left child is read only once.
+     * An inner child rescanned more than once which is not a plain scan, e.g. a selection, is materialized,
+     * so it is computed once and replayed from memory.
+     * The hash join chooses its build side by itself from the actual sizes of the children.
+     * With parallelism, a large hash join partitions both children and joins the partitions in parallel,
+     * reading the partitions of a table scanned in parallel directly, if both children fit in the
+     * hash join memory budget. If not even the smaller child fits, the sort merge join is used,
+     * its external sorts spill to temporary files.
+     *
+     * @param conditions join conditions applied by this join
+     * @param left left child, tables before the current table
+     * @param right right child, the current table
+     * @param leftRows estimated tuples of the left child
+     * @param rightRows estimated tuples of the right child
+     * @param top true if this is the last join
+     * @return join operator
+     */
+    private Operator createJoinOperator(List<Expression> conditions, Operator left, Operator right,
+                                        double leftRows, double rightRows, boolean top) {
+        List<Integer> leftKeys = new ArrayList<>();
+        List<Integer> rightKeys = new ArrayList<>();
+        List<Expression> residualExpressions = new ArrayList<>();
+
+        // split the conjuncts to the equality keys and the residual expressions
+        for (Expression ex : conditions) {
+            if (ex instanceof EqualsTo
+                    && ((EqualsTo) ex).getLeftExpression() instanceof Column
+                    && ((EqualsTo) ex).getRightExpression() instanceof Column) {
+                String first = ((EqualsTo) ex).getLeftExpression().toString();
+                String second = ((EqualsTo) ex).getRightExpression().toString();
+
+                // the key on the current table can be on either side of the equality
+                if (right.getSchema().indexOf(first) >= 0 && left.getSchema().indexOf(second) >= 0) {
+                    leftKeys.add(left.getSchema().indexOf(second));
+                    rightKeys.add(right.getSchema().indexOf(first));
+                    continue;
+                }
+                if (left.getSchema().indexOf(first) >= 0 && right.getSchema().indexOf(second) >= 0) {
+                    leftKeys.add(left.getSchema().indexOf(first));
+                    rightKeys.add(right.getSchema().indexOf(second));
+                    continue;
+                }
             }
+            residualExpressions.add(ex);
         }
-        return current;
+
+        // no equality keys, use the join condition on every tuple pair
+        // the outer child is buffered in blocks of pages, unless the buffer is turned off
+        if (leftKeys.isEmpty()) {
+            Expression condition = processExpressionCombination(conditions);
+            int bufferPages = DBCatalog.getInstance().getIntSetting("joinBufferPages", 16);
+            if (bufferPages <= 0) {
+                return new JoinOperator(condition, left, materializeInner(right, leftRows > 1));
+            }
+
+            int leftBlock = bufferPages * (DBCatalog.PAGE_SIZE / (Integer.BYTES * left.getSchema().size()));
+            int rightBlock = bufferPages * (DBCatalog.PAGE_SIZE / (Integer.BYTES * right.getSchema().size()));
+            if (rightRows <= rightBlock && leftRows > leftBlock) {
+                return new BlockNestedLoopJoinOperator(condition, rightBlock, right, left);
+            }
+            return new BlockNestedLoopJoinOperator(condition, leftBlock, left, materializeInner(right, leftRows > leftBlock));
+        }
+
+        // the top join can output the tuples sorted on the keys, then the final sort is skipped
+        if (top && matchOrderByToKeys(leftKeys, rightKeys, left.getSchema(), right.getSchema())) {
+            orderSatisfied = true;
+            return new SortMergeJoinOperator(toIntArray(leftKeys), toIntArray(rightKeys),
+                    processExpressionCombination(residualExpressions), left, right);
+        }
+
+        // the hash join holds its smaller child in memory, the parallel hash join both children,
+        // if even the smaller child is over the memory budget, sort both children externally and merge them
+        int hashPages = DBCatalog.getInstance().getIntSetting("hashJoinBufferPages", 16384);
+        double leftPages = leftRows * Integer.BYTES * left.getSchema().size() / DBCatalog.PAGE_SIZE;
+        double rightPages = rightRows * Integer.BYTES * right.getSchema().size() / DBCatalog.PAGE_SIZE;
+        if (Math.min(leftPages, rightPages) > hashPages) {
+            return new SortMergeJoinOperator(toIntArray(leftKeys), toIntArray(rightKeys),
+                    processExpressionCombination(residualExpressions), left, right);
+        }
+
+        int parallelism = DBCatalog.getInstance().getIntSetting("parallelism", Runtime.getRuntime().availableProcessors());
+        if (parallelism > 1 && leftRows + rightRows >= MIN_PARALLEL_JOIN_ROWS && leftPages + rightPages <= hashPages) {
+            return new ParallelHashJoinOperator(toIntArray(leftKeys), toIntArray(rightKeys),
+                    processExpressionCombination(residualExpressions), getInputs(left), getInputs(right));
+        }
+
+        return new HashJoinOperator(toIntArray(leftKeys), toIntArray(rightKeys),
+                processExpressionCombination(residualExpressions), left, right);
+    }
+
+    /**
+     * Materialize the inner child of a nested loop join if it is rescanned and not a plain scan,
+     * a plain scan reads its pages from the buffer pool on a rescan anyway.
+     *
+     * @param inner inner child
+     * @param rescanned true if the outer child is expected to need more than one scan of the inner child
+     * @return inner child, or a materialize operator over it
+     */
+    private Operator materializeInner(Operator inner, boolean rescanned) {
+        Operator operator = InstrumentedOperator.unwrap(inner);
+        if (!rescanned || operator instanceof ScanOperator || operator instanceof BinaryScanOperator
+                || operator instanceof MappedScanOperator) {
+            return inner;
+        }
+        return instrument(new MaterializeOperator(inner));
+    }
+
+    /**
+     * Decorate the operator to count its rows and time if the plan is instrumented.
+     *
+     * @param operator operator
+     * @return instrumented operator, or the operator itself
+     */
+    private Operator instrument(Operator operator) {
+        return instrumented ? new InstrumentedOperator(operator) : operator;
+    }
+
+    /**
+     * Get the inputs of the child of a parallel join, the children of an exchange are read directly.
+     *
+     * @param child child operator
+     * @return inputs of the child
+     */
+    private List<Operator> getInputs(Operator child) {
+        Operator operator = InstrumentedOperator.unwrap(child);
+        if (operator instanceof ExchangeOperator) {
+            return ((ExchangeOperator) operator).getChildren();
+        }
+        return Collections.singletonList(child);
+    }
+
+    /**
+     * Check whether every order by column is one of the join keys, if so, move the keys to the
+     * front in the order by order, so sorting on the keys also sorts on the order by columns.
+     *
+     * @param leftKeys ordinals of the left keys, reordered if matched
+     * @param rightKeys ordinals of the right keys, reordered if matched
+     * @param leftSchema left schema
+     * @param rightSchema right schema
+     * @return true if the order by columns are the prefix of the reordered keys
+     */
+    private boolean matchOrderByToKeys(List<Integer> leftKeys, List<Integer> rightKeys,
+                                       Schema leftSchema, Schema rightSchema) {
+        if (orderByElements == null || orderByElements.size() > leftKeys.size()) {
+            return false;
+        }
+
+        List<Integer> remainingLeft = new ArrayList<>(leftKeys);
+        List<Integer> remainingRight = new ArrayList<>(rightKeys);
+        List<Integer> orderedLeft = new ArrayList<>();
+        List<Integer> orderedRight = new ArrayList<>();
+
+        for (OrderByElement orderByElement : orderByElements) {
+            if (!orderByElement.isAsc()) {
+                return false;
+            }
+
+            // the order by column can be the key on either side, since they are equal
+            String column = orderByElement.getExpression().toString();
+            int pos = -1;
+            for (int j = 0; j < remainingLeft.size(); j++) {
+                if (leftSchema.indexOf(column) == remainingLeft.get(j) || rightSchema.indexOf(column) == remainingRight.get(j)) {
+                    pos = j;
+                    break;
+                }
+            }
+            if (pos < 0) {
+                return false;
+            }
+
+            orderedLeft.add(remainingLeft.remove(pos));
+            orderedRight.add(remainingRight.remove(pos));
+        }
+
+        // the keys not in order by are compared last
+        orderedLeft.addAll(remainingLeft);
+        orderedRight.addAll(remainingRight);
+        leftKeys.clear();
+        leftKeys.addAll(orderedLeft);
+        rightKeys.clear();
+        rightKeys.addAll(orderedRight);
+        return true;
+    }
+
+    /**
+     * Check whether the output is sorted on all its columns, that is the first order by columns,
+     * as many as the output columns, are exactly the output columns.
+     *
+     * @param schema output schema
+     * @return true if equal tuples are adjacent in the output
+     */
+    private boolean isSortedOnAllColumns(Schema schema) {
+        if (orderByElements == null || orderByElements.size() < schema.size()) {
+            return false;
+        }
+
+        Set<String> orderedColumns = new HashSet<>();
+        for (int i = 0; i < schema.size(); i++) {
+            orderedColumns.add(orderByElements.get(i).getExpression().toString());
+        }
+        return orderedColumns.equals(new HashSet<>(schema.getColumns()));
+    }
+
+    /**
+     * Convert list of ordinals to array.
+     *
+     * @param list list of ordinals
+     * @return array of ordinals
+     */
+    private int[] toIntArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
     }
 
     /**
@@ -299,47 +629,65 @@ public class QueryInterpreter {
     }
 
     /**
-     * Get the max table index, it is mainly useful for join condition,
-     * the join condition need to process as late as possible, otherwise the table may noy start join.
+     * Replace every ? parameter in the expression by a query parameter holding its bound value.
      *
-     * @param tableNames list of table names in expression
-     * @return index
+     * @param expression expression, null if no where clause
+     * @return expression with the parameters replaced
      */
-    private int getTableNamesMaxIndex(List<String> tableNames) {
-        int pos = 0;
-        for (String tableName : tableNames) {
-            pos = (tables.indexOf(tableName) > pos) ? tables.indexOf(tableName) : pos;
+    private Expression replaceParameters(Expression expression) {
+        if (expression instanceof JdbcParameter) {
+            QueryParameter parameter = new QueryParameter(((JdbcParameter) expression).getIndex());
+            parameters.add(parameter);
+            return parameter;
         }
-        return pos;
+        if (expression instanceof BinaryExpression) {
+            BinaryExpression binary = (BinaryExpression) expression;
+            binary.setLeftExpression(replaceParameters(binary.getLeftExpression()));
+            binary.setRightExpression(replaceParameters(binary.getRightExpression()));
+        } else if (expression instanceof Parenthesis) {
+            ((Parenthesis) expression).setExpression(replaceParameters(((Parenthesis) expression).getExpression()));
+        } else if (expression instanceof NotExpression) {
+            ((NotExpression) expression).setExpression(replaceParameters(((NotExpression) expression).getExpression()));
+        } else if (expression instanceof SignedExpression) {
+            ((SignedExpression) expression).setExpression(replaceParameters(((SignedExpression) expression).getExpression()));
+        }
+        return expression;
     }
 
     /**
-     * Get the names in the single expression.
+     * Check whether the expression has a ? parameter.
      *
      * @param expression expression
-     * @return list of table names or alias
+     * @return true if it has a parameter
+     */
+    private boolean hasParameters(Expression expression) {
+        boolean[] found = new boolean[1];
+        expression.accept(new ExpressionVisitorAdapter() {
+            @Override
+            public void visit(JdbcParameter parameter) {
+                found[0] = true;
+            }
+        });
+        return found[0];
+    }
+
+    /**
+     * Get the names of the tables whose columns appear anywhere in the expression.
+     *
+     * @param expression expression
+     * @return list of table names or alias, without duplicates
      */
     private List<String> getTableNamesInExpression(Expression expression) {
         List<String> tableNames = new ArrayList<>();
-
-        if ((expression instanceof BinaryExpression)) { // only for binary expression
-            BinaryExpression binaryExpression = (BinaryExpression) expression;
-            Expression left = binaryExpression.getLeftExpression();
-            Expression right = binaryExpression.getRightExpression();
-
-            Column column;
-            if (left instanceof Column) {
-                column = (Column) left;
-                tableNames.add(column.getTable().toString());
-            }
-            if (right instanceof Column) {
-                column = (Column) right;
-                // add only if we have a different table
-                if (!(tableNames.size() == 1 && tableNames.get(0).equals(column.getTable().toString()))) {
-                    tableNames.add(column.getTable().toString());
+        expression.accept(new ExpressionVisitorAdapter() {
+            @Override
+            public void visit(Column column) {
+                String tableName = column.getTable().toString();
+                if (!tableNames.contains(tableName)) { // add only if we have a different table
+                    tableNames.add(tableName);
                 }
             }
-        }
+        });
         return tableNames;
     }
 
@@ -350,19 +698,28 @@ public class QueryInterpreter {
      */
     private void processFromItem(FromItem fi) {
         String name;
-        if (fi.getAlias() != null) { // if alias exists, set its alias in database catalog
+        if (fi.getAlias() != null) { // if alias exists, map it to the table for this query
             name = fi.getAlias().toString().trim();
-            DBCatalog.getInstance().getAliasToTable().put(name, fi.toString().split(" ")[0]);
-        } else { // else use table name, no need to set database catalog
+            aliasToTable.put(name, fi.toString().split(" ")[0]);
+        } else { // else use table name, no need to map
             name = fi.toString();
         }
 
         // add table name or alias, in order
         tables.add(name);
 
-        // init select and join condition
+        // init select condition
         selectCondition.put(name, new ArrayList<>());
-        joinCondition.put(name, new ArrayList<>());
+    }
+
+    /**
+     * Get the real table name of the table name or alias in this query.
+     *
+     * @param name table name or alias
+     * @return real table name
+     */
+    private String getTableName(String name) {
+        return aliasToTable.getOrDefault(name, name);
     }
 
     /**
@@ -378,7 +735,9 @@ public class QueryInterpreter {
             expressions.add(0, andExpression.getRightExpression()); // 0 -> correct the order
             expression = andExpression.getLeftExpression(); // if and expression, continue to split
         }
-        expressions.add(expression);
+        if (expression != null) { // no where clause, no expressions
+            expressions.add(expression);
+        }
 
         return expressions;
     }
@@ -0,0 +1,58 @@
+package ed.inf.adbs.lightdb.tools;
+
+import net.sf.jsqlparser.expression.JdbcParameter;
+
+/**
+ * A ? placeholder of a prepared query with its bound value. It replaces the parsed parameter in the
+ * where clause when the plan is built, the compiled predicates read the value whenever they are evaluated,
+ * so a cached plan is run again with new values by binding them, without building the plan again.
+ *
+ * ClassName: QueryParameter
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class QueryParameter extends JdbcParameter {
+    private volatile long value;
+    private volatile boolean bound;
+
+    /**
+     * Constructor: init an unbound parameter.
+     *
+     * @param index 1-based index of the parameter in the query
+     */
+    public QueryParameter(int index) {
+        super(index, false);
+    }
+
+    /**
+     * Bind the value used by the next run of the plan.
+     *
+     * @param value parameter value
+     */
+    public void bind(long value) {
+        this.value = value;
+        this.bound = true;
+    }
+
+    /**
+     * Getter: get the bound value.
+     *
+     * @return parameter value
+     * @throws IllegalStateException if no value is bound
+     */
+    public long getValue() {
+        if (!bound) {
+            throw new IllegalStateException("No value bound to parameter " + getIndex());
+        }
+        return value;
+    }
+
+    /**
+     * Check whether a value is bound.
+     *
+     * @return true if bound
+     */
+    public boolean isBound() {
+        return bound;
+    }
+}
@@ -3,7 +3,6 @@ package ed.inf.adbs.lightdb.tools;
 import ed.inf.adbs.lightdb.models.Tuple;
 
 import java.util.Comparator;
-import java.util.List;
 
 /**
  * Comparator used to compare tuples when sorting.
@@ -13,15 +12,15 @@ import java.util.List;
  * Author: Cyan
  */
 public class TupleComparator implements Comparator<Tuple> {
-    private List<String> orderColumns; // columns required to sorting
+    private int[] orderIndexes; // ordinals of the columns required to sorting
 
     /**
-     * Constructor: init columns required to sorting
+     * Constructor: init ordinals of the columns required to sorting
      *
-     * @param orderColumns column names
+     * @param orderIndexes column ordinals resolved from the schema
      */
-    public TupleComparator(List<String> orderColumns) {
-        this.orderColumns = orderColumns;
+    public TupleComparator(int[] orderIndexes) {
+        this.orderIndexes = orderIndexes;
     }
 
     /**
@@ -34,11 +33,11 @@ public class TupleComparator implements Comparator<Tuple> {
      */
     @Override
     public int compare(Tuple o1, Tuple o2) {
-        for (String column : orderColumns) {
-            if (o1.getTupleMap().get(column) < o2.getTupleMap().get(column)) {
+        for (int index : orderIndexes) {
+            if (o1.getValue(index) < o2.getValue(index)) {
                 return -1;
             }
-            if (o1.getTupleMap().get(column) > o2.getTupleMap().get(column)) {
+            if (o1.getValue(index) > o2.getValue(index)) {
                 return 1;
             }
             // if continue, means the tuples match on the given ordered columns
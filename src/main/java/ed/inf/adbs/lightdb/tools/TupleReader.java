@@ -0,0 +1,78 @@
+package ed.inf.adbs.lightdb.tools;
+
+import ed.inf.adbs.lightdb.models.Schema;
+import ed.inf.adbs.lightdb.models.Tuple;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Read tuples back from a temporary file written by the tuple writer.
+ * A file which cannot be read fails the query, so a spilled input is never cut short.
+ *
+ * ClassName: TupleReader
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class TupleReader {
+    private Schema schema;
+    private DataInputStream in;
+
+    /**
+     * Constructor: open the file for reading.
+     *
+     * @param file temporary file
+     * @param schema schema of the written tuples
+     * @throws UncheckedIOException if the file cannot be opened
+     */
+    public TupleReader(File file, Schema schema) {
+        this.schema = schema;
+        try {
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the temporary file " + file + ".", e);
+        }
+    }
+
+    /**
+     * Read the next tuple.
+     *
+     * @return tuple object, or null if the end of file is reached
+     * @throws UncheckedIOException if the file cannot be read or ends in the middle of a tuple
+     */
+    public Tuple read() {
+        int[] values = new int[schema.size()];
+        int i = 0;
+        try {
+            for (; i < values.length; i++) {
+                values[i] = in.readInt();
+            }
+        } catch (EOFException e) {
+            if (i == 0) { // finish reading
+                return null;
+            }
+            throw new UncheckedIOException("The temporary file ends in the middle of a tuple.", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read from the temporary file.", e);
+        }
+        return new Tuple(schema, values);
+    }
+
+    /**
+     * Close the file.
+     *
+     * @throws UncheckedIOException if the file cannot be closed
+     */
+    public void close() {
+        try {
+            in.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close the temporary file.", e);
+        }
+    }
+}
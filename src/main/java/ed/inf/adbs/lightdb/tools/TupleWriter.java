@@ -0,0 +1,89 @@
+package ed.inf.adbs.lightdb.tools;
+
+import ed.inf.adbs.lightdb.models.Tuple;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Write tuples to a temporary file in a compact binary format, every value is a 4-byte int,
+ * no separators, the number of values per tuple is given by the schema when reading back.
+ * A failed write fails the query, so a short file is never read back as a complete one.
+ *
+ * ClassName: TupleWriter
+ * Date: 18 October, 2026
+ * Author: Cyan
+ */
+public class TupleWriter {
+    private File file;
+    private DataOutputStream out;
+
+    /**
+     * Constructor: open the file for writing.
+     *
+     * @param file temporary file
+     * @throws UncheckedIOException if the file cannot be opened
+     */
+    public TupleWriter(File file) {
+        this.file = file;
+        try {
+            this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the temporary file " + file + ".", e);
+        }
+    }
+
+    /**
+     * Getter: get the written file.
+     *
+     * @return file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Append the tuple values to the file.
+     *
+     * @param tuple tuple object
+     * @throws UncheckedIOException if the file cannot be written, e.g. the disk is full
+     */
+    public void write(Tuple tuple) {
+        try {
+            for (int value : tuple.getValues()) {
+                out.writeInt(value);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write to the temporary file " + file + ".", e);
+        }
+    }
+
+    /**
+     * Flush and close the file.
+     *
+     * @throws UncheckedIOException if the buffered tuples cannot be written
+     */
+    public void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write to the temporary file " + file + ".", e);
+        }
+    }
+
+    /**
+     * Close and delete the file when its tuples are not needed any more, e.g. on reset,
+     * on close or after a failure, a failed flush is ignored as the tuples are dropped anyway.
+     */
+    public void delete() {
+        try {
+            out.close();
+        } catch (IOException e) { // the tuples are dropped
+        }
+        file.delete();
+    }
+}
@@ -1,14 +1,36 @@
 package ed.inf.adbs.lightdb;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * Unit test for simple LightDB.
  */
 public class LightDBTest {
-	
+	private static final String SAMPLES_DIR = "samples";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	/**
 	 * Rigorous ed.inf.adbs.lightdb.Test :-)
 	 */
@@ -16,4 +38,221 @@ public class LightDBTest {
 	public void shouldAnswerWithTrue() {
 		assertTrue(true);
 	}
+
+	/**
+	 * Run every sample query and compare the output with the expected output.
+	 * Without order by, the join operators may output the tuples in any order,
+	 * so the lines are compared after sorting.
+	 */
+	@Test
+	public void shouldMatchExpectedOutput() throws IOException {
+		File outputDir = folder.newFolder();
+		File[] inputs = new File(SAMPLES_DIR + File.separator + "input").listFiles();
+		assertTrue(inputs != null && inputs.length > 0);
+
+		for (File input : inputs) {
+			String name = input.getName().replace(".sql", ".csv");
+			File output = new File(outputDir, name);
+			LightDB.parseQuery(SAMPLES_DIR + File.separator + "db", input.getPath(), output.getPath());
+
+			String expected = new String(Files.readAllBytes(new File(SAMPLES_DIR + File.separator + "expected_output", name).toPath()));
+			String actual = new String(Files.readAllBytes(output.toPath()));
+			if (!new String(Files.readAllBytes(input.toPath())).toUpperCase().contains("ORDER BY")) {
+				expected = sortLines(expected);
+				actual = sortLines(actual);
+			}
+			assertEquals(name, expected, actual);
+		}
+	}
+
+	/**
+	 * Run the sample queries concurrently in batch mode, together with queries using the same aliases
+	 * for other tables, every query should write the same output as when it runs alone.
+	 */
+	@Test
+	public void shouldMatchSerialOutputConcurrently() throws IOException {
+		File inputDir = folder.newFolder();
+		File outputDir = folder.newFolder();
+		File serialOutputDir = folder.newFolder();
+		for (File sample : new File(SAMPLES_DIR + File.separator + "input").listFiles()) {
+			Files.copy(sample.toPath(), new File(inputDir, sample.getName()).toPath());
+		}
+		Files.write(new File(inputDir, "alias1.sql").toPath(), "SELECT S.G, R.A FROM Reserves S, Sailors R WHERE S.G = R.A;".getBytes());
+		Files.write(new File(inputDir, "alias2.sql").toPath(), "SELECT * FROM Reserves S1, Reserves S2 WHERE S1.H < S2.G;".getBytes());
+
+		LightDB.parseQueries(SAMPLES_DIR + File.separator + "db", inputDir.getPath(), outputDir.getPath(),
+				Collections.singletonMap("queryThreads", "4"));
+
+		for (File input : inputDir.listFiles()) {
+			String name = input.getName().replace(".sql", ".csv");
+			File serialOutput = new File(serialOutputDir, name);
+			LightDB.parseQuery(SAMPLES_DIR + File.separator + "db", input.getPath(), serialOutput.getPath());
+
+			String expected = sortLines(new String(Files.readAllBytes(serialOutput.toPath())));
+			assertEquals(name, expected, sortLines(new String(Files.readAllBytes(new File(outputDir, name).toPath()))));
+		}
+	}
+
+	/**
+	 * Run the sample queries through the server on one connection, twice so the second runs reuse the
+	 * cached plans, every result should match the expected output, and a failed statement should not
+	 * break the connection.
+	 */
+	@Test
+	public void shouldMatchExpectedOutputThroughServer() throws IOException, InterruptedException {
+		LightDBServer server = new LightDBServer(SAMPLES_DIR + File.separator + "db", Collections.singletonMap("serverPort", "0"));
+		Thread serving = new Thread(server::serve);
+		serving.start();
+
+		try (LightDBClient client = new LightDBClient(server.getPort())) {
+			for (int pass = 0; pass < 2; pass++) {
+				for (File input : new File(SAMPLES_DIR + File.separator + "input").listFiles()) {
+					String sql = new String(Files.readAllBytes(input.toPath()));
+					ByteArrayOutputStream output = new ByteArrayOutputStream();
+					client.query(sql, LightDB.readParameters(input.getPath()), output);
+
+					String name = input.getName().replace(".sql", ".csv");
+					String expected = new String(Files.readAllBytes(new File(SAMPLES_DIR + File.separator + "expected_output", name).toPath()));
+					String actual = output.toString();
+					if (!sql.toUpperCase().contains("ORDER BY")) {
+						expected = sortLines(expected);
+						actual = sortLines(actual);
+					}
+					assertEquals(name, expected, actual);
+				}
+			}
+
+			try {
+				client.query("SELECT * FROM Missing;", Collections.singletonList(new long[0]), new ByteArrayOutputStream());
+				fail("Expected a server error");
+			} catch (LightDBClient.LightDBException e) {
+				// the connection is still usable
+			}
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			client.query("SELECT Sailors.A FROM Sailors WHERE Sailors.A = ?;", Collections.singletonList(new long[] {1}), output);
+			assertEquals("1", output.toString());
+			client.query(LightDBServer.SHUTDOWN, Collections.emptyList(), output);
+		}
+		serving.join(10000);
+		assertFalse(serving.isAlive());
+	}
+
+	/**
+	 * The runs of a query with a .params file of several lines should be separated by a new line,
+	 * an empty run in between should not leave an empty line, the server should answer the same.
+	 */
+	@Test
+	public void shouldSeparateRunsOfParameterFile() throws IOException, InterruptedException {
+		File dir = folder.newFolder();
+		File input = new File(dir, "query.sql");
+		File output = new File(dir, "query.csv");
+		String sql = "SELECT * FROM Sailors WHERE Sailors.A = ?;";
+		Files.write(input.toPath(), sql.getBytes());
+		Files.write(new File(dir, "query.params").toPath(), "1\n99\n2\n".getBytes());
+		String expected = "1,200,50\n2,200,200";
+
+		LightDB.parseQuery(SAMPLES_DIR + File.separator + "db", input.getPath(), output.getPath());
+		assertEquals(expected, new String(Files.readAllBytes(output.toPath())));
+
+		LightDBServer server = new LightDBServer(SAMPLES_DIR + File.separator + "db", Collections.singletonMap("serverPort", "0"));
+		Thread serving = new Thread(server::serve);
+		serving.start();
+		try (LightDBClient client = new LightDBClient(server.getPort())) {
+			ByteArrayOutputStream result = new ByteArrayOutputStream();
+			client.query(sql, LightDB.readParameters(input.getPath()), result);
+			assertEquals(expected, result.toString());
+			client.query(LightDBServer.SHUTDOWN, Collections.emptyList(), result);
+		}
+		serving.join(10000);
+		assertFalse(serving.isAlive());
+	}
+
+	/**
+	 * A request with a negative or huge length or count should be answered with an error instead of
+	 * dropping the connection or allocating the length, and the server should keep serving other clients.
+	 */
+	@Test
+	public void shouldRejectInvalidLengthsThroughServer() throws IOException, InterruptedException {
+		LightDBServer server = new LightDBServer(SAMPLES_DIR + File.separator + "db", Collections.singletonMap("serverPort", "0"));
+		Thread serving = new Thread(server::serve);
+		serving.start();
+
+		int[][] requests = {{-5}, {Integer.MAX_VALUE}, {0, -1}, {0, 1, Integer.MAX_VALUE}};
+		for (int[] request : requests) {
+			try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+				DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+				for (int value : request) {
+					out.writeInt(value);
+				}
+				out.flush();
+				DataInputStream in = new DataInputStream(socket.getInputStream());
+				assertEquals(LightDBServer.ERROR, in.readInt());
+				String message = LightDBServer.readString(in);
+				assertTrue(message, message.startsWith("Invalid"));
+			}
+		}
+
+		try (LightDBClient client = new LightDBClient(server.getPort())) {
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			client.query("SELECT Sailors.A FROM Sailors WHERE Sailors.A = 1;", Collections.singletonList(new long[0]), output);
+			assertEquals("1", output.toString());
+			client.query(LightDBServer.SHUTDOWN, Collections.emptyList(), output);
+		}
+		serving.join(10000);
+		assertFalse(serving.isAlive());
+	}
+
+	/**
+	 * EXPLAIN should list the operators without running the query, EXPLAIN ANALYZE should run it and
+	 * report the rows of every operator, summed over the runs of a query with parameters.
+	 */
+	@Test
+	public void shouldExplainPlanWithRowCounts() throws Exception {
+		LightDB.initCatalog(SAMPLES_DIR + File.separator + "db", Collections.emptyMap());
+		String join = "SELECT * FROM Sailors, Reserves WHERE Sailors.A = Reserves.G;";
+		String expected = new String(Files.readAllBytes(new File(SAMPLES_DIR + File.separator + "expected_output", "query5.csv").toPath()));
+		int joinRows = expected.split("\n").length;
+
+		String plan = explain("EXPLAIN " + join, Collections.singletonList(new long[0]));
+		assertTrue(plan, plan.startsWith("HashJoin"));
+		assertTrue(plan, plan.contains("-> Scan Sailors") && plan.contains("-> Scan Reserves"));
+		assertFalse(plan, plan.contains("rows in="));
+
+		String[] lines = explain("explain analyze " + join, Collections.singletonList(new long[0])).split("\n");
+		assertTrue(lines[0], lines[0].startsWith("HashJoin") && lines[0].contains("rows in=12 out=" + joinRows + ","));
+		assertTrue(lines[1], lines[1].contains("Scan Sailors") && lines[1].contains("out=6,"));
+		assertTrue(lines[2], lines[2].contains("Scan Reserves") && lines[2].contains("out=6,"));
+		assertTrue(lines[3], lines[3].startsWith("Runs: 1,"));
+
+		lines = explain("EXPLAIN ANALYZE SELECT * FROM Sailors WHERE Sailors.A <= ?;",
+				Arrays.asList(new long[] {1}, new long[] {3})).split("\n");
+		assertTrue(lines[0], lines[0].startsWith("Select") && lines[0].contains("rows in=12 out=4,"));
+		assertTrue(lines[1], lines[1].contains("Scan Sailors") && lines[1].contains("resets=1,"));
+		assertTrue(lines[2], lines[2].startsWith("Runs: 2,"));
+	}
+
+	/**
+	 * Execute an EXPLAIN statement.
+	 *
+	 * @param sql statement
+	 * @param bindings parameter values of every run
+	 * @return plan text
+	 */
+	private static String explain(String sql, List<long[]> bindings) throws Exception {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		LightDB.executeStatement(sql, bindings, Channels.newChannel(output));
+		return output.toString("UTF-8");
+	}
+
+	/**
+	 * Sort the lines of the output.
+	 *
+	 * @param output output content
+	 * @return sorted lines joined by new line
+	 */
+	private static String sortLines(String output) {
+		String[] lines = output.split("\n");
+		Arrays.sort(lines);
+		return String.join("\n", lines);
+	}
 }
@@ -0,0 +1,115 @@
+package ed.inf.adbs.lightdb;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.function.IntFunction;
+
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+import org.junit.rules.ExternalResource;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Database of csv tables for the tests, in a temporary folder which is deleted after the test.
+ * The tables are created first, then init writes the schema and initialises the catalog on the database.
+ */
+public class TestDatabase extends ExternalResource {
+	private final TemporaryFolder folder = new TemporaryFolder();
+	private final StringBuilder schema = new StringBuilder();
+	private File dataDir;
+	private File tempDir;
+
+	@Override
+	protected void before() throws Throwable {
+		folder.create();
+		dataDir = folder.newFolder("data");
+		tempDir = folder.newFolder("temp");
+	}
+
+	@Override
+	protected void after() {
+		folder.delete();
+	}
+
+	/**
+	 * Create a table with the rows given by their index.
+	 *
+	 * @param schemaLine table name followed by the column names, e.g. "T A B"
+	 * @param rows number of rows
+	 * @param row csv line of the row of an index
+	 * @return csv file of the table
+	 */
+	public File createTable(String schemaLine, int rows, IntFunction<String> row) throws IOException {
+		StringBuilder csv = new StringBuilder();
+		for (int i = 0; i < rows; i++) {
+			csv.append(row.apply(i)).append('\n');
+		}
+		return createTable(schemaLine, csv.toString());
+	}
+
+	/**
+	 * Create a table with the csv content as it is.
+	 *
+	 * @param schemaLine table name followed by the column names, e.g. "T A B"
+	 * @param csv content of the csv file
+	 * @return csv file of the table
+	 */
+	public File createTable(String schemaLine, String csv) throws IOException {
+		schema.append(schemaLine).append('\n');
+		File file = new File(dataDir, schemaLine.split(" ")[0] + ".csv");
+		try (PrintWriter data = new PrintWriter(file)) {
+			data.print(csv);
+		}
+		return file;
+	}
+
+	/**
+	 * Write a file in the database directory, e.g. index_info.txt.
+	 *
+	 * @param name file name
+	 * @param content content of the file
+	 * @return the file
+	 */
+	public File writeFile(String name, String content) throws IOException {
+		File file = new File(folder.getRoot(), name);
+		try (PrintWriter writer = new PrintWriter(file)) {
+			writer.print(content);
+		}
+		return file;
+	}
+
+	/**
+	 * Write the schema of the tables created and init the catalog on the database,
+	 * with the temporary files of the operators in the temp directory of the database.
+	 */
+	public void init() throws IOException {
+		writeFile("schema.txt", schema.toString());
+		DBCatalog.getInstance().init(folder.getRoot().getPath());
+		DBCatalog.getInstance().setSetting("tempDir", tempDir.getPath());
+	}
+
+	/**
+	 * Point the temp directory setting to a directory which does not exist, so no temporary file can be created.
+	 */
+	public void useMissingTempDirectory() {
+		DBCatalog.getInstance().setSetting("tempDir", new File(folder.getRoot(), "missing").getPath());
+	}
+
+	/**
+	 * Get the directory of the database.
+	 *
+	 * @return database directory
+	 */
+	public File getDirectory() {
+		return folder.getRoot();
+	}
+
+	/**
+	 * Get the directory of the temporary files of the operators.
+	 *
+	 * @return temp directory
+	 */
+	public File getTempDirectory() {
+		return tempDir;
+	}
+}
@@ -0,0 +1,105 @@
+package ed.inf.adbs.lightdb.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.channels.Channels;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+import ed.inf.adbs.lightdb.tools.PreparedQuery;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit test for the query lifecycle metrics and their JFR events.
+ */
+public class QueryMetricsTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * A query run should record one latency of every phase, the rows and bytes read per table and the
+	 * bytes written, in the registry, in the exported text and as JFR events.
+	 */
+	@Test
+	public void shouldRecordQueryLifecycle() throws Exception {
+		MetricsRegistry registry = new MetricsRegistry();
+		MetricsRegistry.setInstance(registry);
+		DBCatalog.getInstance().init("samples" + File.separator + "db");
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		File jfrFile = folder.newFile("query.jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable("lightdb.Parse");
+			recording.enable("lightdb.Plan");
+			recording.enable("lightdb.Execute");
+			recording.enable("lightdb.TableRead");
+			recording.start();
+			PreparedQuery query = new PreparedQuery("SELECT * FROM Sailors, Reserves WHERE Sailors.A = Reserves.G;");
+			query.execute(Channels.newChannel(output));
+			recording.stop();
+			recording.dump(jfrFile.toPath());
+		}
+
+		for (String phase : new String[] {"parse", "plan", "execute", "write"}) {
+			assertEquals(phase, 1, registry.histogram("lightdb_query_" + phase + "_seconds").getCount());
+		}
+		assertEquals(1, registry.counter(QueryMetrics.QUERIES_METRIC).get());
+		assertEquals(output.size(), registry.counter(QueryMetrics.BYTES_WRITTEN_METRIC).get());
+		assertEquals(6, registry.counter("lightdb_table_rows_read_total{table=\"Sailors\"}").get());
+		assertEquals(6, registry.counter("lightdb_table_rows_read_total{table=\"Reserves\"}").get());
+		assertEquals(new File("samples/db/data/Sailors.csv").length(),
+				registry.counter("lightdb_table_bytes_read_total{table=\"Sailors\"}").get());
+
+		String text = PrometheusFileExporter.format(registry);
+		assertTrue(text, text.contains("# TYPE lightdb_table_rows_read_total counter\n"
+				+ "lightdb_table_rows_read_total{table=\"Reserves\"} 6\n"
+				+ "lightdb_table_rows_read_total{table=\"Sailors\"} 6\n"));
+		assertTrue(text, text.contains("lightdb_query_parse_seconds_bucket{le=\"+Inf\"} 1\n"));
+		assertTrue(text, text.contains("lightdb_query_parse_seconds_count 1\n"));
+
+		Map<String, Long> tableRows = new HashMap<>();
+		Map<String, Integer> eventCounts = new HashMap<>();
+		List<RecordedEvent> events = RecordingFile.readAllEvents(jfrFile.toPath());
+		for (RecordedEvent event : events) {
+			eventCounts.merge(event.getEventType().getName(), 1, Integer::sum);
+			if (event.getEventType().getName().equals("lightdb.TableRead")) {
+				tableRows.merge(event.getString("table"), event.getLong("rows"), Long::sum);
+			}
+			if (event.getEventType().getName().equals("lightdb.Execute")) {
+				assertEquals(output.size(), event.getLong("bytesWritten"));
+			}
+		}
+		assertEquals(Integer.valueOf(1), eventCounts.get("lightdb.Parse"));
+		assertEquals(Integer.valueOf(1), eventCounts.get("lightdb.Plan"));
+		assertEquals(Integer.valueOf(1), eventCounts.get("lightdb.Execute"));
+		assertEquals(Long.valueOf(6), tableRows.get("Sailors"));
+		assertEquals(Long.valueOf(6), tableRows.get("Reserves"));
+	}
+
+	/**
+	 * A percentile should be the bound of the bucket holding it, at most the max.
+	 */
+	@Test
+	public void shouldEstimatePercentileByBucket() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < 99; i++) {
+			histogram.record(1000); // first bucket, up to 1024 ns
+		}
+		histogram.record(5000000); // up to 2^23 ns
+		assertEquals(1024, histogram.getPercentile(0.5));
+		assertEquals(1024, histogram.getPercentile(0.99));
+		assertEquals(5000000, histogram.getPercentile(1));
+		assertEquals(100, histogram.getCount());
+		assertEquals(99 * 1000 + 5000000, histogram.getSum());
+	}
+}
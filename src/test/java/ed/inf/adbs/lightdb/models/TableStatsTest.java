@@ -0,0 +1,50 @@
+package ed.inf.adbs.lightdb.models;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Unit test for the table and column statistics.
+ */
+public class TableStatsTest {
+	private static final double DELTA = 1e-9;
+
+	/**
+	 * The statistics line should be parsed back to the same statistics.
+	 */
+	@Test
+	public void shouldRoundTripStatisticsLine() {
+		Map<String, ColumnStats> columns = new LinkedHashMap<>();
+		columns.put("A", new ColumnStats(-5, 6, 4, new int[]{-5, 1, 6}));
+		columns.put("B", new ColumnStats(0, 0, 0, new int[0]));
+		TableStats stats = new TableStats("T", 12, 1, columns);
+
+		String line = stats.toLine();
+		assertEquals("T 12 1 A -5 6 4 -5,1,6 B 0 0 0 -", line);
+
+		TableStats parsed = TableStats.fromLine(line);
+		assertEquals(line, parsed.toLine());
+		assertEquals(12, parsed.getRowCount());
+		assertArrayEquals(new int[]{-5, 1, 6}, parsed.getColumnStats("A").getBounds());
+	}
+
+	/**
+	 * For the values 1 to 6, one per bucket, the range selectivities should be exact.
+	 */
+	@Test
+	public void shouldEstimateRangesFromHistogram() {
+		ColumnStats stats = new ColumnStats(1, 6, 6, new int[]{1, 1, 2, 3, 4, 5, 6});
+
+		assertEquals(2.0 / 6, stats.getLessThanSelectivity(3), DELTA);
+		assertEquals(3.0 / 6, stats.getLessThanEqualsSelectivity(3), DELTA);
+		assertEquals(0, stats.getLessThanSelectivity(1), DELTA);
+		assertEquals(1, stats.getLessThanSelectivity(7), DELTA);
+		assertEquals(1.0 / 6, stats.getEqualsSelectivity(4), DELTA);
+		assertEquals(0, stats.getEqualsSelectivity(10), DELTA);
+	}
+}
@@ -0,0 +1,63 @@
+package ed.inf.adbs.lightdb.operators;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import ed.inf.adbs.lightdb.TestDatabase;
+import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Unit test for the hashed duplicate elimination.
+ */
+public class DuplicateEliminationOperatorTest {
+	private static final int VALUES = 20000;
+	private static final int COPIES = 3;
+
+	@Rule
+	public TestDatabase db = new TestDatabase();
+
+	/**
+	 * With a one page hash set, 20000 distinct values spill to partitions which are too large and
+	 * spill again, the output should still hold every value once, as the HashSet of the input does,
+	 * also after a reset, and no partition file should be left.
+	 */
+	@Test
+	public void shouldRemoveDuplicatesThroughNestedSpills() throws IOException {
+		int rows = VALUES * COPIES;
+		Set<String> expected = new HashSet<>();
+		db.createTable("T A B", rows, i -> {
+			int value = (int) ((long) i * 7919 % rows) % VALUES; // the copies of a value far apart
+			String row = value + "," + (value * 3 - VALUES);
+			expected.add(row);
+			return row;
+		});
+		db.init();
+		DBCatalog.getInstance().setSetting("distinctBufferPages", "1");
+
+		DuplicateEliminationOperator distinct = new DuplicateEliminationOperator(
+				DBCatalog.getInstance().generateScanOperator("T"));
+		for (int pass = 0; pass < 2; pass++) {
+			List<String> output = new ArrayList<>();
+			Tuple tuple;
+			while ((tuple = distinct.getNextTuple()) != null) {
+				output.add(tuple.getTupleString());
+			}
+			assertEquals(expected.size(), output.size());
+			assertEquals(expected, new HashSet<>(output));
+			assertTrue("spill depth " + distinct.getSpillDepth(), distinct.getSpillDepth() >= 2);
+			distinct.reset();
+		}
+		distinct.close();
+
+		assertEquals(0, db.getTempDirectory().list().length);
+	}
+}
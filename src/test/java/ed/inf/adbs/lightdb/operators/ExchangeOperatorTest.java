@@ -0,0 +1,84 @@
+package ed.inf.adbs.lightdb.operators;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import ed.inf.adbs.lightdb.TestDatabase;
+import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.storage.CsvConverter;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Unit test for the parallel scan of the partitions through the exchange operator.
+ */
+public class ExchangeOperatorTest {
+	private static final int ROWS = 20000;
+
+	@Rule
+	public TestDatabase db = new TestDatabase();
+
+	/**
+	 * The partitions together should return every tuple of the table exactly once,
+	 * also after a reset in the middle of the output.
+	 */
+	@Test
+	public void shouldMergeAllPartitions() throws IOException {
+		db.createTable("T A B", ROWS, i -> i + "," + (i % 7));
+		db.init();
+		CsvConverter.convert("T");
+
+		List<String> expected = collect(DBCatalog.getInstance().generateScanOperator("T"), Integer.MAX_VALUE);
+		Operator exchange = new ExchangeOperator(DBCatalog.getInstance().generatePartitionScanOperators("T", 4));
+
+		assertEquals(100, collect(exchange, 100).size());
+		exchange.reset();
+		assertEquals(expected, collect(exchange, Integer.MAX_VALUE));
+		exchange.reset();
+		assertNotNull(exchange.getNextBatch());
+		exchange.close();
+	}
+
+	/**
+	 * The shared pool should follow the parallelism setting, a new setting should replace the pool by one
+	 * of the new size and shut the old one down, and the same setting should keep the pool.
+	 */
+	@Test
+	public void shouldResizePoolWhenParallelismChanges() throws IOException {
+		db.init();
+		DBCatalog.getInstance().setSetting("parallelism", "2");
+		ForkJoinPool pool = ExchangeOperator.getPool();
+		assertEquals(2, pool.getParallelism());
+		assertSame(pool, ExchangeOperator.getPool());
+
+		DBCatalog.getInstance().setSetting("parallelism", "3");
+		assertEquals(3, ExchangeOperator.getPool().getParallelism());
+		assertTrue(pool.isShutdown());
+	}
+
+	/**
+	 * Get up to limit tuples of the operator.
+	 *
+	 * @param operator operator
+	 * @param limit max number of tuples
+	 * @return sorted tuple strings
+	 */
+	private List<String> collect(Operator operator, int limit) {
+		List<String> tuples = new ArrayList<>();
+		Tuple tuple;
+		while (tuples.size() < limit && (tuple = operator.getNextTuple()) != null) {
+			tuples.add(tuple.getTupleString());
+		}
+		Collections.sort(tuples);
+		return tuples;
+	}
+}
@@ -0,0 +1,124 @@
+package ed.inf.adbs.lightdb.operators;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import ed.inf.adbs.lightdb.TestDatabase;
+import ed.inf.adbs.lightdb.models.Batch;
+import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Unit test for the hash join.
+ */
+public class HashJoinOperatorTest {
+	private static final int R_ROWS = 5000;
+	private static final int S_ROWS = 1500; // more than one batch
+
+	@Rule
+	public TestDatabase db = new TestDatabase();
+
+	/**
+	 * Joining duplicate keys on both sides with a residual condition should give the tuples of the nested
+	 * loop join, tuple by tuple and batch by batch, also after a reset in the middle of the output.
+	 * The hash table should be built on the smaller child whichever side it is, and the output should
+	 * follow the order of the probe child.
+	 */
+	@Test
+	public void shouldJoinLikeNestedLoopOnEitherBuildSide() throws IOException, JSQLParserException {
+		// about 100 left and 21 right tuples per key, the keys 50 to 69 only on S
+		db.createTable("R A B", R_ROWS, i -> (i % 50) + "," + i);
+		db.createTable("S C D", S_ROWS, i -> i + "," + (i % 70));
+		db.init();
+		Expression residual = CCJSqlParserUtil.parseCondExpression("R.B > S.C");
+
+		List<String> rs = new ArrayList<>();
+		List<String> sr = new ArrayList<>();
+		for (int i = 0; i < R_ROWS; i++) {
+			for (int j = 0; j < S_ROWS; j++) {
+				if (i % 50 == j % 70 && i > j) {
+					rs.add((i % 50) + "," + i + "," + j + "," + (j % 70));
+					sr.add(j + "," + (j % 70) + "," + (i % 50) + "," + i);
+				}
+			}
+		}
+
+		// S is smaller, built on the right and probed with R, in the order of R.B
+		check(new HashJoinOperator(new int[] {0}, new int[] {1}, residual,
+				DBCatalog.getInstance().generateScanOperator("R"),
+				DBCatalog.getInstance().generateScanOperator("S")), rs, 1);
+		// S is smaller, built on the left and probed with R, in the order of R.B
+		check(new HashJoinOperator(new int[] {1}, new int[] {0}, residual,
+				DBCatalog.getInstance().generateScanOperator("S"),
+				DBCatalog.getInstance().generateScanOperator("R")), sr, 3);
+	}
+
+	/**
+	 * Check the join tuple by tuple and batch by batch, each after a partial read and a reset.
+	 *
+	 * @param join hash join
+	 * @param expected joined tuple strings
+	 * @param orderColumn column of the probe child the output is ordered on
+	 */
+	private void check(Operator join, List<String> expected, int orderColumn) {
+		List<String> sorted = new ArrayList<>(expected);
+		Collections.sort(sorted);
+
+		for (int i = 0; i < 100; i++) {
+			assertNotNull(join.getNextTuple());
+		}
+		join.reset();
+		List<Tuple> tuples = new ArrayList<>();
+		Tuple tuple;
+		while ((tuple = join.getNextTuple()) != null) {
+			tuples.add(tuple.detach());
+		}
+		assertEquals(sorted, toSortedStrings(tuples, orderColumn));
+
+		join.reset();
+		assertNotNull(join.getNextBatch());
+		join.reset();
+		tuples.clear();
+		Batch batch;
+		while ((batch = join.getNextBatch()) != null) {
+			for (int i = 0; i < batch.getCount(); i++) {
+				tuples.add(batch.getTuple(batch.getSelection()[i]).detach());
+			}
+		}
+		assertEquals(sorted, toSortedStrings(tuples, orderColumn));
+
+		// the larger child R is never held in memory
+		assertTrue("peak " + join.getPeakBufferedTuples(), join.getPeakBufferedTuples() < R_ROWS);
+		join.close();
+	}
+
+	/**
+	 * Check the tuples are in the order of the column and get them as sorted strings.
+	 *
+	 * @param tuples joined tuples in output order
+	 * @param orderColumn column the tuples should be ordered on
+	 * @return sorted tuple strings
+	 */
+	private static List<String> toSortedStrings(List<Tuple> tuples, int orderColumn) {
+		List<String> strings = new ArrayList<>();
+		int last = Integer.MIN_VALUE;
+		for (Tuple tuple : tuples) {
+			assertTrue(tuple.getValue(orderColumn) >= last);
+			last = tuple.getValue(orderColumn);
+			strings.add(tuple.getTupleString());
+		}
+		Collections.sort(strings);
+		return strings;
+	}
+}
@@ -0,0 +1,101 @@
+package ed.inf.adbs.lightdb.operators;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import ed.inf.adbs.lightdb.TestDatabase;
+import ed.inf.adbs.lightdb.models.IndexInfo;
+import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.storage.IndexBuilder;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Unit test for the B+-tree index scan.
+ */
+public class IndexScanOperatorTest {
+	private static final int ROWS = 5000;
+
+	@Rule
+	public TestDatabase db = new TestDatabase();
+
+	/**
+	 * Through a clustered and an unclustered index with a small order, every range should return
+	 * the same tuples as the full scan, also with many duplicate keys and negative keys.
+	 */
+	@Test
+	public void shouldMatchFullScanOnRanges() throws IOException {
+		Random random = new Random(42);
+		db.createTable("T A B C", ROWS, i -> (random.nextInt(200) - 100) + "," + random.nextInt(3) + "," + i);
+		db.writeFile("index_info.txt", "T A 1 3\nT B 0 2\n");
+		db.init();
+		List<IndexInfo> indexes = DBCatalog.getInstance().getIndexes("T");
+		for (IndexInfo index : indexes) {
+			IndexBuilder.build(index);
+			assertTrue(DBCatalog.getInstance().hasValidIndex(index));
+		}
+
+		Integer[][] ranges = {{null, null}, {-100, -100}, {null, -50}, {90, null}, {-5, 5}, {1, 1}, {200, null}, {3, 2}};
+		for (int c = 0; c < indexes.size(); c++) {
+			for (Integer[] range : ranges) {
+				IndexScanOperator scan = new IndexScanOperator("T", DBCatalog.getInstance().generateSingleSchema("T"),
+						indexes.get(c), range[0], range[1]);
+				for (int pass = 0; pass < 2; pass++) { // scan again after reset
+					assertEquals(fullScan(c, range[0], range[1]), collect(scan, c));
+					scan.reset();
+				}
+				scan.close();
+			}
+		}
+	}
+
+	/**
+	 * Get the tuples in the range from the full scan.
+	 *
+	 * @param column key column
+	 * @param low inclusive low key, null if unbounded
+	 * @param high inclusive high key, null if unbounded
+	 * @return sorted tuple strings
+	 */
+	private List<String> fullScan(int column, Integer low, Integer high) {
+		Operator scan = DBCatalog.getInstance().generateScanOperator("T");
+		List<String> tuples = new ArrayList<>();
+		Tuple tuple;
+		while ((tuple = scan.getNextTuple()) != null) {
+			int key = tuple.getValue(column);
+			if ((low == null || key >= low) && (high == null || key <= high)) {
+				tuples.add(tuple.getTupleString());
+			}
+		}
+		scan.close();
+		Collections.sort(tuples);
+		return tuples;
+	}
+
+	/**
+	 * Get the tuples from the index scan, which should come in key order.
+	 *
+	 * @param scan index scan
+	 * @param column key column
+	 * @return sorted tuple strings
+	 */
+	private List<String> collect(Operator scan, int column) {
+		List<String> tuples = new ArrayList<>();
+		Integer previous = null;
+		Tuple tuple;
+		while ((tuple = scan.getNextTuple()) != null) {
+			assertTrue(previous == null || previous <= tuple.getValue(column));
+			previous = tuple.getValue(column);
+			tuples.add(tuple.getTupleString());
+		}
+		Collections.sort(tuples);
+		return tuples;
+	}
+}
@@ -0,0 +1,151 @@
+package ed.inf.adbs.lightdb.operators;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import ed.inf.adbs.lightdb.TestDatabase;
+import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.storage.BinaryTableWriter;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Unit test for the memory-mapped scan.
+ */
+public class MappedScanOperatorTest {
+	private static final int ROWS = 2000;
+	private static final int COLUMNS = 9; // 20 bytes of padding on a full page, more than a page header
+
+	@Rule
+	public TestDatabase db = new TestDatabase();
+
+	/**
+	 * With segments of one to a few rows, every csv row and every empty line falls on a segment
+	 * boundary for one of the sizes, the mapped scan should still give every row once, in order,
+	 * also after a reset in the middle of the file.
+	 */
+	@Test
+	public void shouldScanCsvAcrossSegments() throws IOException {
+		List<int[]> rows = createTable();
+		File csvFile = DBCatalog.getInstance().getTableFile("T", ".csv");
+		List<String> expected = toStrings(rows);
+
+		for (long segmentSize = 64; segmentSize <= 160; segmentSize++) {
+			MappedScanOperator mapped = new MappedScanOperator("T", DBCatalog.getInstance().generateSingleSchema("T"),
+					csvFile, false, segmentSize);
+			assertTrue(mapped.getSegmentCount() > csvFile.length() / segmentSize);
+			for (int i = 0; i < ROWS / 2; i++) {
+				mapped.getNextTuple();
+			}
+			mapped.reset();
+			assertEquals("segment size " + segmentSize, expected, scan(mapped));
+		}
+	}
+
+	/**
+	 * The binary pages of nine columns end with padding longer than a page header, the mapped scan
+	 * should skip it on every page, with one page per segment, a few pages per segment, and a segment
+	 * size which is not a multiple of the page size, and give the rows of the stream scan.
+	 */
+	@Test
+	public void shouldScanBinaryLikeStreamAcrossSegments() throws IOException {
+		List<int[]> rows = createTable();
+		assertTrue((DBCatalog.PAGE_SIZE - BinaryTableWriter.HEADER_SIZE) % (Integer.BYTES * COLUMNS) > BinaryTableWriter.HEADER_SIZE);
+		File binaryFile = DBCatalog.getInstance().getTableFile("T", ".bin");
+		BinaryTableWriter writer = new BinaryTableWriter(binaryFile, COLUMNS);
+		for (int[] row : rows) {
+			writer.write(row);
+		}
+		writer.close();
+		List<String> expected = toStrings(rows);
+		assertEquals(expected, scan(DBCatalog.getInstance().generateScanOperator("T")));
+
+		long pages = binaryFile.length() / DBCatalog.PAGE_SIZE;
+		long[] segmentSizes = {1, DBCatalog.PAGE_SIZE, 2 * DBCatalog.PAGE_SIZE + 100, MappedScanOperator.MAX_SEGMENT_SIZE};
+		long[] segmentCounts = {pages, pages, (pages + 1) / 2, 1};
+		for (int i = 0; i < segmentSizes.length; i++) {
+			MappedScanOperator mapped = new MappedScanOperator("T", DBCatalog.getInstance().generateSingleSchema("T"),
+					binaryFile, true, segmentSizes[i]);
+			assertEquals(segmentCounts[i], mapped.getSegmentCount());
+			for (int j = 0; j < ROWS / 2; j++) {
+				mapped.getNextTuple();
+			}
+			mapped.reset();
+			assertEquals("segment size " + segmentSizes[i], expected, scan(mapped));
+		}
+	}
+
+	/**
+	 * Create the table T of nine columns with empty lines before the first row, after every third row,
+	 * a carriage return at the end of a line, and no new line after the last row.
+	 *
+	 * @return rows of T
+	 */
+	private List<int[]> createTable() throws IOException {
+		StringBuilder schema = new StringBuilder("T");
+		for (int j = 0; j < COLUMNS; j++) {
+			schema.append(" C").append(j);
+		}
+
+		List<int[]> rows = new ArrayList<>();
+		StringBuilder csv = new StringBuilder("\n\n");
+		for (int i = 0; i < ROWS; i++) {
+			int[] row = new int[COLUMNS];
+			for (int j = 0; j < COLUMNS; j++) {
+				row[j] = (j % 2 == 0) ? i * (j + 1) : -(i % (j + 3));
+				csv.append(j == 0 ? "" : ",").append(row[j]);
+			}
+			rows.add(row);
+			if (i == ROWS - 1) {
+				break;
+			}
+			csv.append(i == 10 ? "\r\n" : "\n");
+			if (i % 3 == 0) {
+				csv.append("\n");
+			}
+		}
+		db.createTable(schema.toString(), csv.toString());
+		db.init();
+		return rows;
+	}
+
+	/**
+	 * Format the rows as tuple strings.
+	 *
+	 * @param rows rows
+	 * @return tuple strings in order
+	 */
+	private static List<String> toStrings(List<int[]> rows) {
+		List<String> strings = new ArrayList<>();
+		for (int[] row : rows) {
+			StringBuilder sb = new StringBuilder();
+			for (int j = 0; j < row.length; j++) {
+				sb.append(j == 0 ? "" : ",").append(row[j]);
+			}
+			strings.add(sb.toString());
+		}
+		return strings;
+	}
+
+	/**
+	 * Read all tuples of the scan as strings, the scan is closed.
+	 *
+	 * @param scan scan operator
+	 * @return tuple strings in order
+	 */
+	private static List<String> scan(Operator scan) {
+		List<String> tuples = new ArrayList<>();
+		Tuple tuple;
+		while ((tuple = scan.getNextTuple()) != null) {
+			tuples.add(tuple.getTupleString());
+		}
+		scan.close();
+		return tuples;
+	}
+}
@@ -0,0 +1,94 @@
+package ed.inf.adbs.lightdb.operators;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import ed.inf.adbs.lightdb.TestDatabase;
+import ed.inf.adbs.lightdb.models.Batch;
+import ed.inf.adbs.lightdb.models.Schema;
+import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Unit test for the materialize operator.
+ */
+public class MaterializeOperatorTest {
+	private static final int ROWS = 5000;
+
+	@Rule
+	public TestDatabase db = new TestDatabase();
+
+	/**
+	 * Spill most rows with a one page budget, a reset after a partial first pass should replay
+	 * all rows in order, tuple by tuple and batch by batch, without rescanning the child,
+	 * and the spill file should be deleted on close.
+	 */
+	@Test
+	public void shouldReplayWithoutRescan() throws IOException {
+		db.createTable("T A B", ROWS, i -> i + "," + (i % 7));
+		db.init();
+		DBCatalog.getInstance().setSetting("materializeBufferPages", "1");
+		File tempDir = db.getTempDirectory();
+
+		final int[] resets = new int[1];
+		final Operator scan = new ScanOperator("T", DBCatalog.getInstance().generateSingleSchema("T"),
+				DBCatalog.getInstance().getTableFile("T", ".csv"));
+		Operator child = new Operator() {
+			@Override
+			public Tuple getNextTuple() {
+				return scan.getNextTuple();
+			}
+
+			@Override
+			public void reset() {
+				resets[0]++;
+				scan.reset();
+			}
+
+			@Override
+			public Schema getSchema() {
+				return scan.getSchema();
+			}
+		};
+		MaterializeOperator materialize = new MaterializeOperator(child);
+
+		for (int i = 0; i < 10; i++) { // stop the first pass early
+			assertEquals(i, materialize.getNextTuple().getValue(0));
+		}
+		materialize.reset();
+		assertEquals(1, tempDir.listFiles().length);
+
+		for (int pass = 0; pass < 2; pass++) {
+			List<int[]> rows = new ArrayList<>();
+			Tuple tuple;
+			while ((tuple = materialize.getNextTuple()) != null) {
+				rows.add(tuple.getValues());
+			}
+			assertEquals(ROWS, rows.size());
+			for (int i = 0; i < ROWS; i++) {
+				assertArrayEquals(new int[]{i, i % 7}, rows.get(i));
+			}
+			materialize.reset();
+		}
+
+		int row = 0;
+		Batch batch;
+		while ((batch = materialize.getNextBatch()) != null) {
+			for (int i = 0; i < batch.getCount(); i++) {
+				assertEquals(row++, batch.getColumn(0)[batch.getSelection()[i]]);
+			}
+		}
+		assertEquals(ROWS, row);
+		assertEquals(0, resets[0]);
+
+		materialize.close();
+		assertEquals(0, tempDir.listFiles().length);
+	}
+}
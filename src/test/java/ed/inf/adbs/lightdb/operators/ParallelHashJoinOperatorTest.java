@@ -0,0 +1,74 @@
+package ed.inf.adbs.lightdb.operators;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import ed.inf.adbs.lightdb.TestDatabase;
+import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.storage.CsvConverter;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Unit test for the join of the hash partitions in parallel.
+ */
+public class ParallelHashJoinOperatorTest {
+	private static final int ROWS = 20000;
+
+	@Rule
+	public TestDatabase db = new TestDatabase();
+
+	/**
+	 * The joins of the partitions together should return the same tuples as the hash join,
+	 * also after a reset in the middle of the output.
+	 */
+	@Test
+	public void shouldJoinLikeHashJoin() throws IOException, JSQLParserException {
+		db.createTable("R A B", ROWS, i -> (i % 1000 - 500) + "," + i);
+		db.createTable("S C D", ROWS / 10, i -> (i % 700) + "," + (i % 3));
+		db.init();
+		CsvConverter.convert("R");
+		CsvConverter.convert("S");
+
+		int[] leftKeys = {0};
+		int[] rightKeys = {0};
+		Expression residual = CCJSqlParserUtil.parseCondExpression("R.B > S.D");
+
+		List<String> expected = collect(new HashJoinOperator(leftKeys, rightKeys, residual,
+				DBCatalog.getInstance().generateScanOperator("R"),
+				DBCatalog.getInstance().generateScanOperator("S")), Integer.MAX_VALUE);
+		Operator join = new ParallelHashJoinOperator(leftKeys, rightKeys, residual,
+				DBCatalog.getInstance().generatePartitionScanOperators("R", 3),
+				Collections.singletonList(DBCatalog.getInstance().generateScanOperator("S")));
+
+		assertEquals(100, collect(join, 100).size());
+		join.reset();
+		assertEquals(expected, collect(join, Integer.MAX_VALUE));
+		join.close();
+	}
+
+	/**
+	 * Get up to limit tuples of the operator.
+	 *
+	 * @param operator operator
+	 * @param limit max number of tuples
+	 * @return sorted tuple strings
+	 */
+	private List<String> collect(Operator operator, int limit) {
+		List<String> tuples = new ArrayList<>();
+		Tuple tuple;
+		while (tuples.size() < limit && (tuple = operator.getNextTuple()) != null) {
+			tuples.add(tuple.getTupleString());
+		}
+		Collections.sort(tuples);
+		return tuples;
+	}
+}
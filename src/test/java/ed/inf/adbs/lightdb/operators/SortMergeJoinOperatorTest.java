@@ -0,0 +1,88 @@
+package ed.inf.adbs.lightdb.operators;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import ed.inf.adbs.lightdb.TestDatabase;
+import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+import ed.inf.adbs.lightdb.tools.PreparedQuery;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Unit test for the sort merge join.
+ */
+public class SortMergeJoinOperatorTest {
+	private static final int LEFT_ROWS = 3000;
+	private static final int RIGHT_ROWS = 1000;
+
+	@Rule
+	public TestDatabase db = new TestDatabase();
+
+	/**
+	 * Joining runs of duplicate keys on both sides with a residual condition should give the tuples
+	 * of the nested loop join, sorted on the key, with sorts spilling to temporary files, also after a reset.
+	 * The planner should choose the sort merge join once the children are over the hash join memory budget.
+	 */
+	@Test
+	public void shouldJoinDuplicateRunsLikeNestedLoop() throws IOException, JSQLParserException {
+		// about 60 left and 14 right tuples per key, the keys 50 to 69 only on the right
+		db.createTable("R A B", LEFT_ROWS, i -> (i % 50) + "," + i);
+		db.createTable("S C D", RIGHT_ROWS, i -> (i % 70) + "," + (i * 3));
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; i < LEFT_ROWS; i++) {
+			for (int j = 0; j < RIGHT_ROWS; j++) {
+				if (i % 50 == j % 70 && i > j * 3) {
+					expected.add((i % 50) + "," + i + "," + (j % 70) + "," + (j * 3));
+				}
+			}
+		}
+		Collections.sort(expected);
+
+		db.init();
+		DBCatalog.getInstance().setSetting("sortBufferPages", "1");
+		Operator join = new SortMergeJoinOperator(new int[] {0}, new int[] {0},
+				CCJSqlParserUtil.parseCondExpression("R.B > S.D"),
+				DBCatalog.getInstance().generateScanOperator("R"),
+				DBCatalog.getInstance().generateScanOperator("S"));
+
+		List<String> tuples = new ArrayList<>();
+		int lastKey = Integer.MIN_VALUE;
+		Tuple tuple;
+		while ((tuple = join.getNextTuple()) != null) {
+			assertTrue(tuple.getValue(0) >= lastKey);
+			lastKey = tuple.getValue(0);
+			tuples.add(tuple.getTupleString());
+		}
+		Collections.sort(tuples);
+		assertEquals(expected, tuples);
+
+		join.reset();
+		int count = 0;
+		while (join.getNextTuple() != null) {
+			count++;
+		}
+		assertEquals(expected.size(), count);
+		join.close();
+
+		DBCatalog.getInstance().setSetting("hashJoinBufferPages", "0");
+		PreparedQuery query = new PreparedQuery("SELECT * FROM R, S WHERE R.A = S.C AND R.B > S.D;");
+		assertTrue(query.explain(), query.explain().startsWith("SortMergeJoin"));
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		query.execute(Channels.newChannel(output));
+		List<String> rows = new ArrayList<>(Arrays.asList(output.toString().split("\n")));
+		Collections.sort(rows);
+		assertEquals(expected, rows);
+	}
+}
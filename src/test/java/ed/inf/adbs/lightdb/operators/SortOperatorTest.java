@@ -0,0 +1,63 @@
+package ed.inf.adbs.lightdb.operators;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Random;
+
+import ed.inf.adbs.lightdb.TestDatabase;
+import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Unit test for the external merge sort.
+ */
+public class SortOperatorTest {
+	private static final int ROWS = 5000;
+
+	@Rule
+	public TestDatabase db = new TestDatabase();
+
+	/**
+	 * Spill to many runs with a small fan-in, the output should be sorted and stable, the runs should
+	 * fit the memory budget, and the run files should be deleted on close.
+	 */
+	@Test
+	public void shouldSortStablyWhenSpilled() throws IOException {
+		Random random = new Random(42);
+		db.createTable("T A B", ROWS, i -> random.nextInt(10) + "," + i);
+		db.init();
+		DBCatalog.getInstance().setSetting("sortBufferPages", "1");
+		DBCatalog.getInstance().setSetting("sortFanIn", "2");
+
+		Operator scan = new ScanOperator("T", DBCatalog.getInstance().generateSingleSchema("T"),
+				DBCatalog.getInstance().getTableFile("T", ".csv"));
+		SortOperator sort = new SortOperator(new int[]{0}, scan);
+
+		for (int pass = 0; pass < 2; pass++) { // sort again after reset
+			int count = 0;
+			Tuple previous = null;
+			Tuple tuple;
+			while ((tuple = sort.getNextTuple()) != null) {
+				if (previous != null) {
+					assertTrue(previous.getValue(0) <= tuple.getValue(0));
+					if (previous.getValue(0) == tuple.getValue(0)) {
+						assertTrue(previous.getValue(1) < tuple.getValue(1));
+					}
+				}
+				previous = tuple;
+				count++;
+			}
+			assertEquals(ROWS, count);
+			sort.reset();
+		}
+		// a run holds the tuple objects of one page, not the values of one page
+		assertEquals(DBCatalog.PAGE_SIZE / Tuple.estimateMemoryBytes(2), sort.getPeakBufferedTuples());
+
+		sort.close();
+		assertEquals(0, db.getTempDirectory().listFiles().length);
+	}
+}
@@ -0,0 +1,51 @@
+package ed.inf.adbs.lightdb.operators;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import ed.inf.adbs.lightdb.TestDatabase;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Unit test for the operators spilling to temporary files when no file can be created.
+ */
+public class SpillFailureTest {
+	private static final int ROWS = 5000;
+
+	@Rule
+	public TestDatabase db = new TestDatabase();
+
+	/**
+	 * With a one page budget and no temp directory, the sort, the materialize and the distinct should fail
+	 * instead of keeping or losing the rows over the budget.
+	 */
+	@Test
+	public void shouldFailWhenSpillFileCannotBeCreated() throws IOException {
+		db.createTable("T A B", ROWS, i -> (ROWS - i) + "," + i);
+		db.init();
+		DBCatalog.getInstance().setSetting("sortBufferPages", "1");
+		DBCatalog.getInstance().setSetting("materializeBufferPages", "1");
+		DBCatalog.getInstance().setSetting("distinctBufferPages", "1");
+		db.useMissingTempDirectory();
+
+		Operator[] operators = {
+				new SortOperator(new int[]{0}, DBCatalog.getInstance().generateScanOperator("T")),
+				new MaterializeOperator(DBCatalog.getInstance().generateScanOperator("T")),
+				new DuplicateEliminationOperator(DBCatalog.getInstance().generateScanOperator("T"))
+		};
+		for (Operator operator : operators) {
+			try {
+				while (operator.getNextTuple() != null) {
+				}
+				fail(operator.getClass().getSimpleName() + " should fail");
+			} catch (UncheckedIOException e) {
+				assertTrue(e.getMessage(), e.getMessage().startsWith("Cannot create"));
+			}
+		}
+	}
+}
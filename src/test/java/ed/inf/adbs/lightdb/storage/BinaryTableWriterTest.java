@@ -0,0 +1,142 @@
+package ed.inf.adbs.lightdb.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import ed.inf.adbs.lightdb.TestDatabase;
+import ed.inf.adbs.lightdb.models.Batch;
+import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.operators.BinaryScanOperator;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Unit test for the binary paged format, written by the csv converter and read by the binary scan.
+ */
+public class BinaryTableWriterTest {
+	private static final int COLUMNS = 3;
+
+	@Rule
+	public TestDatabase db = new TestDatabase();
+
+	/**
+	 * Tables of one row, of exactly one full page and of two full pages and a partly filled last page
+	 * should be written with the tuple count in every page header and zeros after the tuples,
+	 * and read back in order tuple by tuple and batch by batch, also after a reset in the middle of a page.
+	 */
+	@Test
+	public void shouldReadBackPagesWithPartlyFilledLastPage() throws IOException {
+		int perPage = BinaryTableWriter.tuplesPerPage(COLUMNS);
+		int[] sizes = {1, perPage, 2 * perPage + 17};
+		for (int size : sizes) {
+			db.createTable("T" + size + " A B C", size, BinaryTableWriterTest::row);
+		}
+		db.init();
+
+		for (int size : sizes) {
+			String table = "T" + size;
+			assertEquals(size, CsvConverter.convert(table));
+			File binaryFile = DBCatalog.getInstance().getTableFile(table, ".bin");
+			int pages = (size + perPage - 1) / perPage;
+			assertEquals(table, (long) pages * DBCatalog.PAGE_SIZE, binaryFile.length());
+
+			ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(binaryFile.toPath()));
+			for (int p = 0; p < pages; p++) {
+				int start = p * DBCatalog.PAGE_SIZE;
+				int tuples = Math.min(size - p * perPage, perPage);
+				assertEquals(COLUMNS, file.getInt(start));
+				assertEquals(tuples, file.getInt(start + Integer.BYTES));
+				assertEquals(row(p * perPage), file.getInt(start + BinaryTableWriter.HEADER_SIZE) + ","
+						+ file.getInt(start + BinaryTableWriter.HEADER_SIZE + Integer.BYTES) + ","
+						+ file.getInt(start + BinaryTableWriter.HEADER_SIZE + 2 * Integer.BYTES));
+				for (int i = BinaryTableWriter.HEADER_SIZE + tuples * COLUMNS * Integer.BYTES; i < DBCatalog.PAGE_SIZE; i++) {
+					assertEquals(table + " page " + p + " byte " + i, 0, file.get(start + i));
+				}
+			}
+
+			List<String> expected = new ArrayList<>();
+			for (int i = 0; i < size; i++) {
+				expected.add(row(i));
+			}
+			BinaryScanOperator scan = new BinaryScanOperator(table, DBCatalog.getInstance().generateSingleSchema(table),
+					binaryFile);
+			for (int i = 0; i < (size + 1) / 2; i++) {
+				assertEquals(expected.get(i), scan.getNextTuple().getTupleString());
+			}
+			scan.reset();
+			assertEquals(table, expected, readTuples(scan));
+			scan.reset();
+			assertEquals(table, expected, readBatches(scan));
+			scan.close();
+		}
+	}
+
+	/**
+	 * An empty table should be written as an empty file, and the scan should end at once, also after a reset.
+	 */
+	@Test
+	public void shouldReadBackEmptyTable() throws IOException {
+		db.createTable("T A B C", "");
+		db.init();
+
+		assertEquals(0, CsvConverter.convert("T"));
+		File binaryFile = DBCatalog.getInstance().getTableFile("T", ".bin");
+		assertEquals(0, binaryFile.length());
+
+		BinaryScanOperator scan = new BinaryScanOperator("T", DBCatalog.getInstance().generateSingleSchema("T"), binaryFile);
+		assertNull(scan.getNextTuple());
+		scan.reset();
+		assertNull(scan.getNextBatch());
+		scan.close();
+	}
+
+	/**
+	 * Get the csv line of a row, with negative and extreme values.
+	 *
+	 * @param i row index
+	 * @return csv line
+	 */
+	private static String row(int i) {
+		return i + "," + (i % 2 == 0 ? Integer.MIN_VALUE + i : Integer.MAX_VALUE - i) + "," + (-i * 3);
+	}
+
+	/**
+	 * Read the rest of the scan tuple by tuple.
+	 *
+	 * @param scan binary scan
+	 * @return tuple strings in order
+	 */
+	private static List<String> readTuples(BinaryScanOperator scan) {
+		List<String> tuples = new ArrayList<>();
+		Tuple tuple;
+		while ((tuple = scan.getNextTuple()) != null) {
+			tuples.add(tuple.getTupleString());
+		}
+		return tuples;
+	}
+
+	/**
+	 * Read the rest of the scan batch by batch.
+	 *
+	 * @param scan binary scan
+	 * @return tuple strings in order
+	 */
+	private static List<String> readBatches(BinaryScanOperator scan) {
+		List<String> tuples = new ArrayList<>();
+		Batch batch;
+		while ((batch = scan.getNextBatch()) != null) {
+			for (int i = 0; i < batch.getCount(); i++) {
+				tuples.add(batch.getTuple(batch.getSelection()[i]).getTupleString());
+			}
+		}
+		return tuples;
+	}
+}
@@ -0,0 +1,89 @@
+package ed.inf.adbs.lightdb.storage;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit test for the buffer pool and its replacement policies.
+ */
+public class BufferPoolTest {
+	private static final int PAGES = 8;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * The pages should hold the bytes of the file, a page read once by a scan should be evicted
+	 * by LRU-2 before a page read twice, and a page should still be read when every frame is pinned.
+	 */
+	@Test
+	public void shouldCacheAndEvictPages() throws IOException {
+		File file = folder.newFile();
+		ByteBuffer content = ByteBuffer.allocate(PAGES * DBCatalog.PAGE_SIZE - 100); // last page not full
+		for (int page = 0; page < PAGES; page++) {
+			content.putInt(page * DBCatalog.PAGE_SIZE, page);
+		}
+		Files.write(file.toPath(), content.array());
+
+		BufferPool pool = new BufferPool(3, new LruKPolicy(3, 2));
+		int fileId = pool.openFile(file);
+		assertEquals(-1, pool.pin(fileId, PAGES));
+
+		// page 0 twice, so it stays cached while pages 1 to 7 are read once
+		pool.unpin(pool.pin(fileId, 0));
+		pool.unpin(pool.pin(fileId, 0));
+		for (int page = 1; page < PAGES; page++) {
+			int frame = pool.pin(fileId, page);
+			ByteBuffer buffer = pool.getPage(frame);
+			assertEquals(page, buffer.getInt(0));
+			assertEquals((page == PAGES - 1) ? DBCatalog.PAGE_SIZE - 100 : DBCatalog.PAGE_SIZE, buffer.limit());
+			pool.unpin(frame);
+		}
+
+		long misses = pool.getMisses();
+		pool.unpin(pool.pin(fileId, 0));
+		assertEquals(misses, pool.getMisses());
+		assertEquals(2, pool.getHits());
+		assertEquals(PAGES - 3, pool.getEvictions());
+
+		// every frame pinned, the page is still read, not cached
+		int[] frames = {pool.pin(fileId, 1), pool.pin(fileId, 2), pool.pin(fileId, 3), pool.pin(fileId, 4)};
+		assertEquals(4, pool.getPage(frames[3]).getInt(0));
+		for (int frame : frames) {
+			pool.unpin(frame);
+		}
+		pool.close();
+	}
+
+	/**
+	 * CLOCK should give a page accessed again a second chance, but evict it after a full round.
+	 */
+	@Test
+	public void shouldGiveSecondChance() {
+		ClockPolicy clock = new ClockPolicy(3);
+		int[] pinCounts = new int[3];
+		for (int frame = 0; frame < 3; frame++) {
+			clock.pageLoaded(frame);
+		}
+		assertEquals(0, clock.chooseVictim(pinCounts)); // all bits cleared in the first round
+
+		clock.pageLoaded(0);
+		clock.pageAccessed(2);
+		assertEquals(1, clock.chooseVictim(pinCounts)); // the only frame not accessed since
+
+		pinCounts[0] = 1;
+		pinCounts[1] = 1;
+		assertEquals(2, clock.chooseVictim(pinCounts)); // second chance used up
+		pinCounts[2] = 1;
+		assertEquals(-1, clock.chooseVictim(pinCounts));
+	}
+}
@@ -0,0 +1,97 @@
+package ed.inf.adbs.lightdb.storage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ed.inf.adbs.lightdb.models.Tuple;
+import ed.inf.adbs.lightdb.operators.Operator;
+import ed.inf.adbs.lightdb.tools.DBCatalog;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit test for the synthetic data generator.
+ */
+public class DataGeneratorTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * The generated table should only depend on the seed, not on the number of threads, the binary
+	 * file should hold the same rows as the csv file, and the columns should follow their distributions.
+	 */
+	@Test
+	public void shouldGenerateSameRowsOnAnyThreads() throws IOException {
+		Map<String, String> options = new HashMap<>();
+		options.put("rows", "50K");
+		options.put("seed", "7");
+		options.put("T.B", "sequential:10");
+		options.put("T.C", "zipf:100");
+
+		options.put("threads", "1");
+		List<int[]> serial = generate(options);
+		options.put("threads", "3");
+		List<int[]> parallel = generate(options);
+		options.put("format", "binary");
+		List<int[]> binary = generate(options);
+
+		assertEquals(50000, serial.size());
+		for (int i = 0; i < serial.size(); i++) {
+			assertArrayEquals(serial.get(i), parallel.get(i));
+			assertArrayEquals(serial.get(i), binary.get(i));
+		}
+
+		int[] counts = new int[101];
+		for (int i = 0; i < serial.size(); i++) {
+			int[] row = serial.get(i);
+			assertEquals(i + 1, row[0]);
+			assertEquals(i % 10 + 1, row[1]);
+			assertTrue(row[2] >= 1 && row[2] <= 100);
+			counts[row[2]]++;
+		}
+		assertTrue(counts[1] > 2 * counts[2] * 0.9 && counts[2] > counts[10]); // about 1 / k
+
+		options.put("seed", "8");
+		List<int[]> reseeded = generate(options);
+		boolean same = true;
+		for (int i = 0; i < serial.size() && same; i++) {
+			same = serial.get(i)[2] == reseeded.get(i)[2];
+		}
+		assertFalse(same);
+	}
+
+	/**
+	 * Generate the table T in a new database and read it back.
+	 *
+	 * @param options generator options
+	 * @return rows of the table in file order
+	 */
+	private List<int[]> generate(Map<String, String> options) throws IOException {
+		File dbDir = folder.newFolder();
+		try (PrintWriter schema = new PrintWriter(new File(dbDir, "schema.txt"))) {
+			schema.println("T A B C");
+		}
+		DBCatalog.getInstance().init(dbDir.getPath());
+		new DataGenerator(options).generate("T");
+
+		List<int[]> rows = new ArrayList<>();
+		Operator scan = DBCatalog.getInstance().generateScanOperator("T");
+		Tuple tuple;
+		while ((tuple = scan.getNextTuple()) != null) {
+			rows.add(tuple.getValues().clone());
+		}
+		scan.close();
+		return rows;
+	}
+}
@@ -0,0 +1,59 @@
+package ed.inf.adbs.lightdb.storage;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+import ed.inf.adbs.lightdb.models.Schema;
+import ed.inf.adbs.lightdb.models.Tuple;
+import org.junit.Test;
+
+/**
+ * Unit test for the streaming result writer.
+ */
+public class ResultWriterTest {
+
+	/**
+	 * The rows should match the tuple strings joined by new lines, with no new line at the end,
+	 * even when the buffer is flushed in the middle of a row.
+	 */
+	@Test
+	public void shouldMatchTupleStrings() throws IOException {
+		Schema schema = new Schema(Arrays.asList("T.A", "T.B", "T.C"));
+		int[][] rows = {
+				{0, -1, 42},
+				{Integer.MIN_VALUE, Integer.MAX_VALUE, 100},
+				{7, 1000000, -30},
+		};
+
+		StringBuilder expected = new StringBuilder();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ResultWriter writer = new ResultWriter(Channels.newChannel(out), 1);
+		for (int[] row : rows) {
+			Tuple tuple = new Tuple(schema, row);
+			if (expected.length() > 0) {
+				expected.append("\n");
+			}
+			expected.append(tuple.getTupleString());
+			writer.write(tuple);
+		}
+		writer.flush();
+
+		assertEquals(expected.toString(), out.toString("UTF-8"));
+	}
+
+	/**
+	 * No rows should write nothing.
+	 */
+	@Test
+	public void shouldWriteNothingForEmptyResult() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ResultWriter writer = new ResultWriter(Channels.newChannel(out), 4096);
+		writer.flush();
+
+		assertEquals(0, out.size());
+	}
+}
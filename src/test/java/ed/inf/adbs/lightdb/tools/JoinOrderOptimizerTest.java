@@ -0,0 +1,79 @@
+package ed.inf.adbs.lightdb.tools;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import org.junit.Test;
+
+/**
+ * Unit test for the cost-based join ordering.
+ */
+public class JoinOrderOptimizerTest {
+
+	/**
+	 * Estimator with fixed table sizes, no table file is read.
+	 */
+	private static CardinalityEstimator estimator(Map<String, Double> tableRows) {
+		return new CardinalityEstimator() {
+			@Override
+			public double getTableRows(String tableName) {
+				return tableRows.get(tableName);
+			}
+		};
+	}
+
+	private static Map<Expression, List<String>> conditions(String... conditions) throws JSQLParserException {
+		Map<Expression, List<String>> joinCondition = new LinkedHashMap<>();
+		for (String condition : conditions) {
+			String[] sides = condition.split(" = ");
+			joinCondition.put(CCJSqlParserUtil.parseCondExpression(condition),
+					Arrays.asList(sides[0].split("\\.")[0], sides[1].split("\\.")[0]));
+		}
+		return joinCondition;
+	}
+
+	/**
+	 * A and B are not connected, so they should not be joined first even though they come first.
+	 */
+	@Test
+	public void shouldAvoidCrossProduct() throws JSQLParserException {
+		List<String> tables = Arrays.asList("A", "B", "C");
+		Map<String, Double> rows = new LinkedHashMap<>();
+		rows.put("A", 1000.0);
+		rows.put("B", 1000.0);
+		rows.put("C", 1000.0);
+
+		JoinOrderOptimizer optimizer = new JoinOrderOptimizer(tables, rows,
+				conditions("A.X = C.X", "B.Y = C.Y"), estimator(rows));
+
+		assertEquals(Arrays.asList("A", "C", "B"), optimizer.getJoinOrder());
+	}
+
+	/**
+	 * The join with the small table should come first, equal costs keep the from clause order.
+	 */
+	@Test
+	public void shouldJoinSmallResultFirst() throws JSQLParserException {
+		List<String> tables = Arrays.asList("A", "B", "C");
+		Map<String, Double> rows = new LinkedHashMap<>();
+		rows.put("A", 100000.0);
+		rows.put("B", 100000.0);
+		rows.put("C", 10.0);
+
+		JoinOrderOptimizer optimizer = new JoinOrderOptimizer(tables, rows,
+				conditions("A.X = B.X", "B.Y = C.Y"), estimator(rows));
+		assertEquals(Arrays.asList("B", "C", "A"), optimizer.getJoinOrder());
+
+		rows.put("C", 100000.0);
+		JoinOrderOptimizer unordered = new JoinOrderOptimizer(tables, rows,
+				new LinkedHashMap<>(), estimator(rows));
+		assertEquals(tables, unordered.getJoinOrder());
+	}
+}
@@ -0,0 +1,64 @@
+package ed.inf.adbs.lightdb.tools;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import ed.inf.adbs.lightdb.models.Batch;
+import ed.inf.adbs.lightdb.models.Schema;
+import ed.inf.adbs.lightdb.models.Tuple;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import org.junit.Test;
+
+/**
+ * Unit test for the compiled conditions.
+ */
+public class PredicateCompilerTest {
+	private static final Schema SCHEMA = new Schema(Arrays.asList("T.A", "T.B"));
+
+	/**
+	 * The batch filter should select exactly the rows the row predicate accepts, for the primitive loops
+	 * of column with constant and column with column, the row by row fallback and the folded constants.
+	 */
+	@Test
+	public void shouldFilterBatchLikeRowPredicate() throws JSQLParserException {
+		String[] conditions = {
+				"T.A < 5", "5 <= T.A", "T.A = -3", "T.A <> 0", "T.A > 2147483647", "T.A >= -2147483648",
+				"T.A < T.B", "T.A >= T.B", "T.B <> T.A", "T.A = T.B",
+				"T.A > 0 AND T.B < 3", "(T.A = 1 OR T.B = 1) AND T.A <> T.B", "NOT T.A > 2",
+				"1 = 2", "1 = 1 AND T.B > 0"
+		};
+
+		Random random = new Random(42);
+		Batch batch = new Batch(SCHEMA);
+		for (String condition : conditions) {
+			Expression expression = CCJSqlParserUtil.parseCondExpression(condition);
+			Predicate predicate = PredicateCompiler.compile(expression, SCHEMA);
+			BatchFilter filter = PredicateCompiler.compileBatch(expression, SCHEMA);
+
+			for (int row = 0; row < Batch.CAPACITY; row++) {
+				batch.getColumn(0)[row] = random.nextInt(21) - 10;
+				batch.getColumn(1)[row] = random.nextInt(21) - 10;
+			}
+			batch.setRowCount(Batch.CAPACITY);
+			batch.setCount(Batch.CAPACITY - 7); // start from a partial selection
+
+			int[] before = batch.getSelection().clone();
+			int count = batch.getCount();
+			filter.filter(batch);
+
+			// the selected rows in the same order
+			int expected = 0;
+			for (int i = 0; i < count; i++) {
+				Tuple tuple = batch.getTuple(before[i]);
+				if (predicate.test(tuple)) {
+					assertEquals(condition, before[i], batch.getSelection()[expected++]);
+				}
+			}
+			assertEquals(condition, expected, batch.getCount());
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package ed.inf.adbs.lightdb.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+import ed.inf.adbs.lightdb.TestDatabase;
+import net.sf.jsqlparser.JSQLParserException;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Unit test for the prepared queries and the plan cache.
+ */
+public class PreparedQueryTest {
+	private static final String QUERY = "SELECT DISTINCT T.B, U.D FROM T, U WHERE T.A < %s AND U.C > %s AND T.B < U.D ORDER BY T.B, U.D;";
+
+	@Rule
+	public TestDatabase db = new TestDatabase();
+
+	/**
+	 * A plan run again with other values should give the result of the query with the values inlined,
+	 * through the sort, the distinct and the nested loop join with its materialized inner child,
+	 * and the cached plan should be reused until a setting changes.
+	 */
+	@Test
+	public void shouldRebindCachedPlan() throws IOException, JSQLParserException {
+		createTables();
+		PlanCache.getInstance().clear();
+
+		String sql = String.format(QUERY, "?", "?");
+		PreparedQuery query = PlanCache.getInstance().prepare(sql);
+		assertEquals(2, query.getParameterCount());
+		long[][] bindings = {{100, 50}, {300, 10}, {0, 0}, {450, 90}};
+		for (long[] values : bindings) {
+			query.bind(values);
+			assertEquals(run(String.format(QUERY, values[0], values[1])), run(query));
+		}
+
+		PlanCache.getInstance().release(query);
+		long hits = PlanCache.getInstance().getHits();
+		PreparedQuery cached = PlanCache.getInstance().prepare("  " + sql.replace(" ", "\n ") + " ");
+		assertSame(query, cached);
+		assertEquals(hits + 1, PlanCache.getInstance().getHits());
+
+		// a new setting outdates the plan
+		PlanCache.getInstance().release(cached);
+		DBCatalog.getInstance().setSetting("joinBufferPages", "0");
+		assertNotSame(query, PlanCache.getInstance().prepare(sql));
+	}
+
+	/**
+	 * A run failing in the middle of the output should still close the operators, so the spilled sort runs
+	 * are deleted, and the plan should run again from the start.
+	 */
+	@Test
+	public void shouldCloseOperatorsWhenRunFails() throws IOException, JSQLParserException {
+		createTables();
+		DBCatalog.getInstance().setSetting("sortBufferPages", "1");
+		File tempDir = db.getTempDirectory();
+
+		PreparedQuery query = new PreparedQuery("SELECT * FROM T, U ORDER BY T.B, U.D;");
+		try {
+			query.execute(new WritableByteChannel() {
+				@Override
+				public int write(ByteBuffer src) {
+					throw new UncheckedIOException(new IOException("Connection reset"));
+				}
+
+				@Override
+				public boolean isOpen() {
+					return true;
+				}
+
+				@Override
+				public void close() {
+				}
+			});
+			fail("Expected the output to fail");
+		} catch (UncheckedIOException e) {
+			// the client is gone
+		}
+		assertEquals(0, tempDir.list().length);
+
+		assertEquals(500 * 100, run(query).split("\n").length);
+		assertEquals(0, tempDir.list().length);
+	}
+
+	/**
+	 * Create the tables T of 500 rows and U of 100 rows and init the catalog on them.
+	 */
+	private void createTables() throws IOException {
+		db.createTable("T A B", 500, i -> i + "," + (i * 7 % 50));
+		db.createTable("U C D", 100, i -> i + "," + (i * 3 % 40));
+		db.init();
+	}
+
+	/**
+	 * Run the query from a new plan.
+	 *
+	 * @param sql query text
+	 * @return result rows
+	 */
+	private static String run(String sql) throws JSQLParserException {
+		return run(new PreparedQuery(sql));
+	}
+
+	/**
+	 * Run the prepared query with its bound values.
+	 *
+	 * @param query prepared query
+	 * @return result rows
+	 */
+	private static String run(PreparedQuery query) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		query.execute(Channels.newChannel(out));
+		return out.toString();
+	}
+}
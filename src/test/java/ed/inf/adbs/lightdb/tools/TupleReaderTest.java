@@ -0,0 +1,70 @@
+package ed.inf.adbs.lightdb.tools;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import ed.inf.adbs.lightdb.models.Schema;
+import ed.inf.adbs.lightdb.models.Tuple;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit test for the temporary tuple files.
+ */
+public class TupleReaderTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * The tuples written should be read back in order, then the end of file should give null,
+	 * but a file ending in the middle of a tuple should fail instead of looking complete.
+	 */
+	@Test
+	public void shouldFailOnTruncatedFile() throws IOException {
+		Schema schema = new Schema(Arrays.asList("T.A", "T.B", "T.C"));
+		int[][] rows = {{1, -2, 3}, {Integer.MIN_VALUE, 0, Integer.MAX_VALUE}};
+		File file = folder.newFile();
+		TupleWriter writer = new TupleWriter(file);
+		for (int[] row : rows) {
+			writer.write(new Tuple(schema, row));
+		}
+		writer.close();
+
+		TupleReader reader = new TupleReader(file, schema);
+		for (int[] row : rows) {
+			assertArrayEquals(row, reader.read().getValues());
+		}
+		assertNull(reader.read());
+		reader.close();
+
+		try (RandomAccessFile truncated = new RandomAccessFile(file, "rw")) {
+			truncated.setLength(file.length() - Integer.BYTES);
+		}
+		reader = new TupleReader(file, schema);
+		assertArrayEquals(rows[0], reader.read().getValues());
+		try {
+			reader.read();
+			fail("Expected the truncated tuple to fail");
+		} catch (UncheckedIOException e) {
+			// the last tuple is incomplete
+		}
+		reader.close();
+	}
+
+	/**
+	 * A missing file should fail when opened instead of reading as empty.
+	 */
+	@Test(expected = UncheckedIOException.class)
+	public void shouldFailOnMissingFile() {
+		new TupleReader(new File(folder.getRoot(), "missing"), new Schema(Arrays.asList("T.A")));
+	}
+}